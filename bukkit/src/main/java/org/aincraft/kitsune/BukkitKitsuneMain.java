@@ -21,6 +21,12 @@ import org.aincraft.kitsune.storage.SearchHistoryStorage;
 import org.aincraft.kitsune.embedding.CachedEmbeddingService;
 import org.aincraft.kitsune.embedding.EmbeddingService;
 import org.aincraft.kitsune.embedding.EmbeddingServiceFactory;
+import org.aincraft.kitsune.embedding.InferenceBenchmark;
+import org.aincraft.kitsune.embedding.InferenceStats;
+import org.aincraft.kitsune.embedding.OnnxEmbeddingService;
+import org.aincraft.kitsune.embedding.OnnxSessionSettings;
+import org.aincraft.kitsune.embedding.QuantizationEvaluation;
+import org.aincraft.kitsune.embedding.download.ModelSpec;
 import org.aincraft.kitsune.indexing.BukkitContainerIndexer;
 import org.aincraft.kitsune.serialization.*;
 import org.aincraft.kitsune.serialization.BukkitDataComponentTagProvider;
@@ -36,18 +42,24 @@ import org.aincraft.kitsune.protection.ProtectionProvider;
 import org.aincraft.kitsune.protection.ProtectionProviderFactory;
 import org.aincraft.kitsune.storage.ProviderMetadata;
 import org.aincraft.kitsune.storage.PlayerRadiusStorage;
+import org.aincraft.kitsune.storage.ChunkWriteBenchmark;
+import org.aincraft.kitsune.storage.PayloadEncodingBenchmark;
 import org.aincraft.kitsune.storage.KitsuneStorage;
+import org.aincraft.kitsune.storage.SqliteWriter;
 import org.aincraft.kitsune.storage.metadata.ContainerStorage;
 import org.aincraft.kitsune.storage.vector.JVectorIndex;
+import org.aincraft.kitsune.storage.vector.VectorIndexSettings;
+import org.aincraft.kitsune.storage.vector.VectorIndexTuner;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import org.aincraft.kitsune.util.BukkitContainerLocationResolver;
 import org.aincraft.kitsune.util.BukkitItemLoader;
 import org.aincraft.kitsune.model.tree.SearchResultTreeRenderer;
 import org.aincraft.kitsune.model.tree.SearchResultTreeBuilder;
 import org.aincraft.kitsune.visualizer.ContainerItemDisplay;
-import org.aincraft.kitsune.cache.ItemDataCache;
 import org.bukkit.Color;
 import org.bukkit.Location;
 import org.bukkit.Material;
@@ -71,9 +83,15 @@ import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 public final class BukkitKitsuneMain extends JavaPlugin {
 
+    // /kitsune tune: vectors sampled, results per query, and default target recall
+    private static final int TUNING_SAMPLE_VECTORS = 10_000;
+    private static final int TUNING_K = 10;
+    private static final double DEFAULT_TUNING_RECALL = 0.95;
+
     @Inject
     private KitsuneConfig kitsuneConfig;
     @Inject
@@ -93,8 +111,6 @@ public final class BukkitKitsuneMain extends JavaPlugin {
     @Inject
     private ContainerItemDisplay itemDisplayVisualizer;
     @Inject
-    private ItemDataCache itemDataCache;
-    @Inject
     private LifecycleService lifecycleService;
 
     private Injector injector;
@@ -191,9 +207,80 @@ public final class BukkitKitsuneMain extends JavaPlugin {
                             context.getSource().getSender().sendMessage("§6Kitsune Stats:");
                             context.getSource().getSender().sendMessage("§7Indexed containers: §f" + stats.containerCount());
                             context.getSource().getSender().sendMessage("§7Storage provider: §f" + stats.providerName());
+                            var indexStats = storage.getVectorIndexStats();
+                            context.getSource().getSender().sendMessage("§7World partitions loaded: §f"
+                                + storage.getLoadedPartitionCount());
+                            context.getSource().getSender().sendMessage("§7Index snapshot: §fepoch " + indexStats.epoch()
+                                + ", " + indexStats.snapshotSize() + " vectors, " + indexStats.snapshotAgeMillis() + "ms old");
+                            context.getSource().getSender().sendMessage("§7Pending mutations: §f" + indexStats.pendingMutations()
+                                + " §7Tombstones: §f" + indexStats.tombstones());
+                            context.getSource().getSender().sendMessage("§7Snapshots published: §f" + indexStats.publishCount()
+                                + " §7(last took " + indexStats.lastPublishMillis() + "ms)");
+                            context.getSource().getSender().sendMessage("§7Searches: §f" + indexStats.searchCount()
+                                + " §7(avg " + indexStats.avgSearchMicros() + "µs)"
+                                + (Double.isNaN(indexStats.compressedRecall()) ? ""
+                                    : String.format(" §7PQ recall@10: §f%.3f", indexStats.compressedRecall())));
+                            var locationStats = storage.getLocationCacheStats();
+                            context.getSource().getSender().sendMessage(String.format(
+                                "§7Location cache: §f%d/%d §7hit rate §f%.1f%% §7(%d hits, %d misses, %d evicted)",
+                                locationStats.size(), locationStats.capacity(), locationStats.hitRate() * 100,
+                                locationStats.hits(), locationStats.misses(), locationStats.evictions()));
+                            var executorStats = storage.getExecutorStats();
+                            context.getSource().getSender().sendMessage("§7Storage threads: §f" + executorStats.ioInFlight()
+                                + " §7queries in flight, cpu §f" + executorStats.cpuActive() + "/" + executorStats.cpuThreads()
+                                + " §7busy, §f" + executorStats.cpuQueued() + " §7queued; write queue §f"
+                                + injector.getInstance(SqliteWriter.class).getQueueDepth());
+                            if (embeddingService instanceof CachedEmbeddingService cached
+                                    && cached.getDelegate() instanceof OnnxEmbeddingService onnx) {
+                                InferenceStats inference = onnx.getInferenceStats();
+                                context.getSource().getSender().sendMessage(String.format(
+                                    "§7Embedding batches: §f%d §7(%d texts, avg §f%.1f§7, p50 ≤%d, p99 ≤%d)",
+                                    inference.batches(), inference.texts(), inference.batchSizes().mean(),
+                                    inference.batchSizes().percentile(0.5), inference.batchSizes().percentile(0.99)));
+                                context.getSource().getSender().sendMessage(String.format(
+                                    "§7Embedding queue wait: §fp50 ≤%dµs §7p99 ≤%dµs §7(avg %.0fµs), §f%d §7queued",
+                                    inference.queueWaitMicros().percentile(0.5), inference.queueWaitMicros().percentile(0.99),
+                                    inference.queueWaitMicros().mean(), inference.queued()));
+                                context.getSource().getSender().sendMessage(String.format(
+                                    "§7Inference: §f%d §7runs, §f%.0f §7tokens/s, padding §f%.1f%%§7, §f%.1f KiB §7allocated per run",
+                                    inference.tensorRuns(), inference.tokensPerSecond(), inference.paddingRatio() * 100,
+                                    inference.allocatedBytesPerRun() / 1024.0));
+                            }
                         });
                         return 1;
                     }))
+                .then(Commands.literal("tune")
+                    .requires(source -> source.getSender().hasPermission("kitsune.admin"))
+                    .executes(context -> executeTune(context.getSource(), DEFAULT_TUNING_RECALL))
+                    .then(Commands.argument("recall", FloatArgumentType.floatArg(0.5f, 1.0f))
+                        .executes(context -> executeTune(context.getSource(),
+                            FloatArgumentType.getFloat(context, "recall")))))
+                .then(Commands.literal("benchmark")
+                    .requires(source -> source.getSender().hasPermission("kitsune.admin"))
+                    .then(Commands.literal("writes")
+                        .executes(context -> executeWriteBenchmark(context.getSource(), 200))
+                        .then(Commands.argument("containers", IntegerArgumentType.integer(1, 10_000))
+                            .executes(context -> executeWriteBenchmark(context.getSource(),
+                                IntegerArgumentType.getInteger(context, "containers")))))
+                    .then(Commands.literal("payloads")
+                        .executes(context -> executePayloadBenchmark(context.getSource(), 500))
+                        .then(Commands.argument("containers", IntegerArgumentType.integer(1, 10_000))
+                            .executes(context -> executePayloadBenchmark(context.getSource(),
+                                IntegerArgumentType.getInteger(context, "containers")))))
+                    .then(Commands.literal("inference")
+                        .executes(context -> executeInferenceBenchmark(context.getSource(), 40))
+                        .then(Commands.argument("batches", IntegerArgumentType.integer(4, 1000))
+                            .executes(context -> executeInferenceBenchmark(context.getSource(),
+                                IntegerArgumentType.getInteger(context, "batches")))))
+                    .then(Commands.literal("quantization")
+                        .executes(context -> executeQuantizationBenchmark(context.getSource(), "int8", 500))
+                        .then(Commands.argument("weights", StringArgumentType.word())
+                            .executes(context -> executeQuantizationBenchmark(context.getSource(),
+                                StringArgumentType.getString(context, "weights"), 500))
+                            .then(Commands.argument("items", IntegerArgumentType.integer(20, 5000))
+                                .executes(context -> executeQuantizationBenchmark(context.getSource(),
+                                    StringArgumentType.getString(context, "weights"),
+                                    IntegerArgumentType.getInteger(context, "items")))))))
                 .then(Commands.literal("reindex")
                     .requires(source -> source.getSender().hasPermission("kitsune.admin"))
                     .then(Commands.argument("radius", IntegerArgumentType.integer(1, 100))
@@ -326,6 +413,11 @@ public final class BukkitKitsuneMain extends JavaPlugin {
         source.getSender().sendMessage("§7/kitsune help §f- Show this help");
         source.getSender().sendMessage("§7/kitsune reload §f- Reload config");
         source.getSender().sendMessage("§7/kitsune stats §f- Show statistics");
+        source.getSender().sendMessage("§7/kitsune tune [recall] §f- Tune vector index parameters on your data");
+        source.getSender().sendMessage("§7/kitsune benchmark writes [containers] §f- Compare per-row and batched chunk writes");
+        source.getSender().sendMessage("§7/kitsune benchmark payloads [containers] §f- Compare JSON and compact item payloads");
+        source.getSender().sendMessage("§7/kitsune benchmark inference [batches] §f- Find the fastest ONNX thread layout");
+        source.getSender().sendMessage("§7/kitsune benchmark quantization [weights] [items] §f- Compare weights with fp32 on indexed items");
         source.getSender().sendMessage("§7/kitsune threshold [value] §f- Get/set search threshold");
         source.getSender().sendMessage("§7/kitsune history [limit] §f- View search history");
         source.getSender().sendMessage("§7/kitsune reindex <radius> §f- Reindex nearby");
@@ -471,7 +563,7 @@ public final class BukkitKitsuneMain extends JavaPlugin {
         // Step 2: Build tree structure from common SearchResult objects
         BukkitItemLoader itemLoader = new BukkitItemLoader(getLogger());
         List<org.aincraft.kitsune.model.tree.SearchResultTreeNode> treeRoots = SearchResultTreeBuilder.buildTree(
-            accessibleResults, getLogger(), itemLoader, itemDataCache);
+            accessibleResults, getLogger(), itemLoader);
 
         // Step 3: Render tree to components
         List<Component> renderedLines = SearchResultTreeRenderer.INSTANCE.render(treeRoots);
@@ -504,28 +596,6 @@ public final class BukkitKitsuneMain extends JavaPlugin {
         }
     }
 
-    /**
-     * Extract slot index from JSON content.
-     */
-    private int extractSlotIndex(String jsonContent) {
-        if (jsonContent == null || jsonContent.isEmpty()) {
-            return -1;
-        }
-        try {
-            var gson = new com.google.gson.Gson();
-            var jsonArray = gson.fromJson(jsonContent, com.google.gson.JsonArray.class);
-            if (jsonArray != null && jsonArray.size() > 0) {
-                var itemObj = jsonArray.get(0).getAsJsonObject();
-                if (itemObj.has("slot")) {
-                    return itemObj.get("slot").getAsInt();
-                }
-            }
-        } catch (Exception e) {
-            getLogger().warning("extractSlotIndex: failed to parse JSON: " + e.getMessage());
-        }
-        return -1;
-    }
-
     /**
      * Try to load live item from chest at the specified slot.
      * Returns null if item cannot be loaded (chunk not loaded, item moved, etc.)
@@ -673,67 +743,6 @@ public final class BukkitKitsuneMain extends JavaPlugin {
         return null;
     }
 
-    /**
-     * Extract container path from JSON content.
-     */
-    private ContainerPath extractContainerPath(String jsonContent) {
-        if (jsonContent == null || jsonContent.isEmpty()) {
-            return ContainerPath.ROOT;
-        }
-        try {
-            var gson = new com.google.gson.Gson();
-            var jsonArray = gson.fromJson(jsonContent, com.google.gson.JsonArray.class);
-            if (jsonArray != null && jsonArray.size() > 0) {
-                var itemObj = jsonArray.get(0).getAsJsonObject();
-                if (itemObj.has("container_path")) {
-                    var pathElement = itemObj.get("container_path");
-
-                    // Handle string format (legacy): "Yellow shulker_box" or "Red shulker_box → Bundle"
-                    if (pathElement.isJsonPrimitive() && pathElement.getAsJsonPrimitive().isString()) {
-                        String pathString = pathElement.getAsString();
-                        if (pathString.isEmpty()) {
-                            return ContainerPath.ROOT;
-                        }
-                        // Split by " → " and create container refs
-                        String[] parts = pathString.split(" → ");
-                        java.util.List<ContainerNode> refs = new java.util.ArrayList<>();
-                        for (int i = 0; i < parts.length; i++) {
-                            String part = parts[i].trim();
-                            // Parse "Yellow shulker_box" or "Bundle" format
-                            String containerType = "container";
-                            String color = null;
-                            String customName = null;
-
-                            if (part.toLowerCase().contains("shulker_box") || part.toLowerCase().contains("shulker box")) {
-                                containerType = "shulker_box";
-                                // Extract color if present (e.g., "Yellow shulker_box" -> color="yellow")
-                                String lowerPart = part.toLowerCase();
-                                int shulkerIdx = lowerPart.indexOf("shulker");
-                                if (shulkerIdx > 0) {
-                                    color = part.substring(0, shulkerIdx).trim().toLowerCase();
-                                }
-                            } else if (part.toLowerCase().contains("bundle")) {
-                                containerType = "bundle";
-                            } else {
-                                customName = part;
-                            }
-
-                            refs.add(new ContainerNode(containerType, color, customName, i, null, null));
-                        }
-                        return new ContainerPath(refs);
-                    }
-
-                    // Handle JSON array format (new): [{"type":"shulker_box","color":"yellow","slot":5}]
-                    String pathJson = pathElement.toString();
-                    return ContainerPath.fromJson(pathJson);
-                }
-            }
-        } catch (Exception e) {
-            getLogger().warning("extractContainerPath: failed to parse JSON: " + e.getMessage());
-        }
-        return ContainerPath.ROOT;
-    }
-
     /**
      * Build path display string like "Chest → Red Shulker Box → Bundle".
      */
@@ -771,59 +780,6 @@ public final class BukkitKitsuneMain extends JavaPlugin {
         return sb.toString();
     }
 
-    /**
-     * Extract display name from JSON content.
-     * Falls back to item name if display_name not found.
-     */
-    private String extractDisplayName(String jsonContent) {
-        if (jsonContent == null || jsonContent.isEmpty()) {
-            getLogger().warning("extractDisplayName: content is null or empty");
-            return "Unknown Item";
-        }
-        try {
-            var gson = new com.google.gson.Gson();
-            var jsonArray = gson.fromJson(jsonContent, com.google.gson.JsonArray.class);
-            if (jsonArray != null && jsonArray.size() > 0) {
-                var itemObj = jsonArray.get(0).getAsJsonObject();
-                if (itemObj.has("display_name")) {
-                    String displayName = itemObj.get("display_name").getAsString();
-                    if (displayName != null && !displayName.isEmpty()) {
-                        return displayName;
-                    }
-                }
-                if (itemObj.has("name")) {
-                    String name = itemObj.get("name").getAsString();
-                    if (name != null && !name.isEmpty()) {
-                        return name;
-                    }
-                }
-                // Fall back to material
-                if (itemObj.has("material")) {
-                    String material = itemObj.get("material").getAsString();
-                    return formatMaterialName(material);
-                }
-            }
-            getLogger().warning("extractDisplayName: no valid name found in JSON: " + jsonContent.substring(0, Math.min(100, jsonContent.length())));
-        } catch (Exception e) {
-            getLogger().warning("extractDisplayName: failed to parse JSON: " + e.getMessage());
-        }
-        return "Unknown Item";
-    }
-
-    private String formatMaterialName(String material) {
-        if (material == null) return "Unknown Item";
-        // Convert DIAMOND_PICKAXE to Diamond Pickaxe
-        String[] words = material.toLowerCase().split("_");
-        StringBuilder sb = new StringBuilder();
-        for (String word : words) {
-            if (!word.isEmpty()) {
-                if (sb.length() > 0) sb.append(" ");
-                sb.append(Character.toUpperCase(word.charAt(0))).append(word.substring(1));
-            }
-        }
-        return sb.toString();
-    }
-
     private int executeFillChest(Player player) {
         // Get the block the player is looking at
         var block = player.getTargetBlockExact(5);
@@ -939,13 +895,13 @@ public final class BukkitKitsuneMain extends JavaPlugin {
                 providerMetadata.delete();
                 providerMetadata.save(
                     kitsuneConfig.embeddingProvider(),
-                    kitsuneConfig.embeddingModel()
+                    kitsuneConfig.embeddingModelId()
                 );
 
                 source.getSender().sendMessage("§aPurge complete! All vectors and cache cleared.");
                 source.getSender().sendMessage("§7Provider metadata reset to: §f" +
                     kitsuneConfig.embeddingProvider() + "/" +
-                    kitsuneConfig.embeddingModel());
+                    kitsuneConfig.embeddingModelId());
             })
             .exceptionally(ex -> {
                 getLogger().log(Level.SEVERE, "Failed to purge", ex);
@@ -956,6 +912,193 @@ public final class BukkitKitsuneMain extends JavaPlugin {
         return 1;
     }
 
+    /**
+     * Sweep graph parameters on a sample of indexed vectors and write the cheapest setting that
+     * reaches the target recall@10 into the vector-index config section.
+     */
+    private int executeTune(CommandSourceStack source, double targetRecall) {
+        if (!lifecycleService.isInitialized()) {
+            source.getSender().sendMessage("§cKitsune is still initializing...");
+            return 0;
+        }
+        source.getSender().sendMessage("§7Tuning vector index on up to " + TUNING_SAMPLE_VECTORS
+            + " vectors (target recall@" + TUNING_K + " " + targetRecall + ")... see console for the full sweep.");
+
+        VectorIndexTuner tuner = new VectorIndexTuner(getLogger(), VectorIndexSettings.fromConfig(kitsuneConfig));
+        storage.sampleVectors(TUNING_SAMPLE_VECTORS)
+            .thenApplyAsync(sample -> tuner.tune(sample, TUNING_K, targetRecall))
+            .thenAccept(report -> getServer().getScheduler().runTask(this, () -> {
+                VectorIndexTuner.TuningResult chosen = report.chosen();
+                getConfig().set("vector-index.graph-degree", chosen.graphDegree());
+                getConfig().set("vector-index.construction-beam-width", chosen.beamWidth());
+                getConfig().set("vector-index.search-over-query", chosen.overQuery());
+                saveConfig();
+                source.getSender().sendMessage(String.format(
+                    "§aTuned on %d vectors: §fdegree %d, beam width %d, over-query %d",
+                    report.vectors(), chosen.graphDegree(), chosen.beamWidth(), chosen.overQuery()));
+                source.getSender().sendMessage(String.format(
+                    "§7recall@%d §f%.3f §7p50 §f%.2fms §7p99 §f%.2fms §7build §f%dms",
+                    TUNING_K, chosen.recall(), chosen.p50Millis(), chosen.p99Millis(), chosen.buildMillis()));
+                source.getSender().sendMessage("§7Saved to config.yml; takes effect on the next restart.");
+            }))
+            .exceptionally(ex -> {
+                getLogger().log(Level.WARNING, "Vector index tuning failed", ex);
+                source.getSender().sendMessage("§cTuning failed: " + ex.getMessage());
+                return null;
+            });
+        return 1;
+    }
+
+    /**
+     * Compare per-row and batched chunk writes on scratch databases in the data folder.
+     */
+    private int executeWriteBenchmark(CommandSourceStack source, int containers) {
+        String world = source.getSender() instanceof Player player
+            ? player.getWorld().getName() : getServer().getWorlds().get(0).getName();
+        source.getSender().sendMessage("§7Benchmarking chunk writes for " + containers + " containers...");
+
+        CompletableFuture.supplyAsync(() -> {
+            Path perRowFile = getDataFolder().toPath().resolve("benchmark-per-row.db");
+            Path batchFile = getDataFolder().toPath().resolve("benchmark-batch.db");
+            try (HikariDataSource perRow = scratchDataSource(perRowFile);
+                 HikariDataSource batch = scratchDataSource(batchFile)) {
+                return new ChunkWriteBenchmark(getLogger()).run(perRow, batch, world, containers);
+            } finally {
+                try {
+                    Files.deleteIfExists(perRowFile);
+                    Files.deleteIfExists(batchFile);
+                } catch (IOException e) {
+                    getLogger().log(Level.WARNING, "Failed to delete benchmark databases", e);
+                }
+            }
+        }).thenAccept(results -> {
+            for (ChunkWriteBenchmark.Result result : results) {
+                source.getSender().sendMessage(String.format("§7%s: §finsert %dms, re-index %dms, %.0f chunks/s",
+                    result.path(), result.insertMillis(), result.reindexMillis(), result.chunksPerSecond()));
+            }
+        }).exceptionally(ex -> {
+            getLogger().log(Level.WARNING, "Chunk write benchmark failed", ex);
+            source.getSender().sendMessage("§cBenchmark failed: " + ex.getMessage());
+            return null;
+        });
+        return 1;
+    }
+
+    /**
+     * Compare database size and read throughput of JSON and compact item payloads on a scratch database.
+     */
+    private int executePayloadBenchmark(CommandSourceStack source, int containers) {
+        String world = source.getSender() instanceof Player player
+            ? player.getWorld().getName() : getServer().getWorlds().get(0).getName();
+        source.getSender().sendMessage("§7Benchmarking item payload encoding for " + containers + " containers...");
+
+        CompletableFuture.supplyAsync(() -> {
+            Path dbFile = getDataFolder().toPath().resolve("benchmark-payloads.db");
+            try (HikariDataSource dataSource = scratchDataSource(dbFile)) {
+                return new PayloadEncodingBenchmark(getLogger()).run(dataSource, world, containers);
+            } finally {
+                try {
+                    Files.deleteIfExists(dbFile);
+                } catch (IOException e) {
+                    getLogger().log(Level.WARNING, "Failed to delete benchmark database", e);
+                }
+            }
+        }).thenAccept(result -> {
+            source.getSender().sendMessage(String.format("§7JSON: §f%d KiB, %.0f rows/s",
+                result.jsonBytes() / 1024, result.jsonReadsPerSecond()));
+            source.getSender().sendMessage(String.format("§7Compact: §f%d KiB, %.0f rows/s §7(re-encoded %d chunks in %dms)",
+                result.compactBytes() / 1024, result.compactReadsPerSecond(), result.transcoded(), result.transcodeMillis()));
+        }).exceptionally(ex -> {
+            getLogger().log(Level.WARNING, "Payload encoding benchmark failed", ex);
+            source.getSender().sendMessage("§cBenchmark failed: " + ex.getMessage());
+            return null;
+        });
+        return 1;
+    }
+
+    /**
+     * Time the local model under thread layouts that fit this machine and suggest config values.
+     */
+    private int executeInferenceBenchmark(CommandSourceStack source, int batches) {
+        if (!(embeddingService instanceof CachedEmbeddingService cached
+                && cached.getDelegate() instanceof OnnxEmbeddingService onnx)) {
+            source.getSender().sendMessage("§cThe inference benchmark needs a local ONNX model.");
+            return 0;
+        }
+        source.getSender().sendMessage("§7Benchmarking " + onnx.getSpec().modelName() + " inference over "
+            + batches + " batches per layout; searches may slow down meanwhile...");
+
+        CompletableFuture.supplyAsync(() -> new InferenceBenchmark(getLogger())
+            .run(onnx.getModelPath(), onnx.getSpec(), onnx.getSessionSettings(), batches)
+        ).thenAccept(result -> {
+            for (InferenceBenchmark.Candidate candidate : result.candidates()) {
+                source.getSender().sendMessage(String.format("§7%d x %d threads: §f%.0f texts/s, %.1fms per batch",
+                    candidate.concurrentBatches(), candidate.intraOpThreads(), candidate.textsPerSecond(),
+                    candidate.avgBatchMillis()));
+            }
+            InferenceBenchmark.Candidate recommended = result.recommended();
+            source.getSender().sendMessage("§aRecommended for " + result.cores() + " cores: §fmax-concurrent-batches: "
+                + recommended.concurrentBatches() + "§a, §fonnx.intra-op-threads: " + recommended.intraOpThreads());
+            source.getSender().sendMessage("§7Current: " + onnx.getBatchSettings().maxConcurrentBatches() + " x "
+                + (onnx.getSessionSettings().intraOpThreads() > 0 ? onnx.getSessionSettings().intraOpThreads()
+                    : OnnxSessionSettings.autoIntraOpThreads(onnx.getBatchSettings().maxConcurrentBatches())));
+        }).exceptionally(ex -> {
+            getLogger().log(Level.WARNING, "Inference benchmark failed", ex);
+            source.getSender().sendMessage("§cBenchmark failed: " + ex.getMessage());
+            return null;
+        });
+        return 1;
+    }
+
+    /**
+     * Compare the local model's reduced-precision weights with fp32 on a sample of indexed items.
+     */
+    private int executeQuantizationBenchmark(CommandSourceStack source, String weights, int items) {
+        if (!(embeddingService instanceof CachedEmbeddingService cached
+                && cached.getDelegate() instanceof OnnxEmbeddingService onnx)) {
+            source.getSender().sendMessage("§cThe quantization benchmark needs a local ONNX model.");
+            return 0;
+        }
+        ModelSpec spec = onnx.getSpec();
+        String variant = weights.toLowerCase();
+        if (ModelSpec.FP32.equals(variant) || !spec.weightFiles().containsKey(variant)) {
+            source.getSender().sendMessage("§c" + spec.modelName() + " weights to compare with fp32: §f"
+                + spec.weightFiles().keySet().stream().filter(w -> !ModelSpec.FP32.equals(w)).sorted()
+                    .collect(Collectors.joining(", ")));
+            return 0;
+        }
+        source.getSender().sendMessage("§7Comparing " + spec.modelName() + " " + variant + " with fp32 on up to "
+            + items + " indexed items; both load in turn and download if missing...");
+
+        QuantizationEvaluation evaluation = new QuantizationEvaluation(Platform.get(), onnx.getBatchSettings(),
+            onnx.getSessionSettings());
+        storage.sampleContentTexts(items)
+            .thenApplyAsync(payloads -> evaluation.run(spec, variant, payloads))
+            .thenAccept(result -> {
+                source.getSender().sendMessage(String.format("§7Throughput: §ffp32 %.0f texts/s§7, §f%s %.0f texts/s §7(%.2fx)",
+                    result.fp32TextsPerSecond(), result.weights(), result.variantTextsPerSecond(),
+                    result.fp32TextsPerSecond() == 0 ? 0 : result.variantTextsPerSecond() / result.fp32TextsPerSecond()));
+                source.getSender().sendMessage(String.format("§7Embedding similarity over %d items: §fmean %.4f§7, §fmin %.4f",
+                    result.items(), result.meanCosine(), result.minCosine()));
+                source.getSender().sendMessage(String.format("§7Top-%d agreement over %d item-name searches: §f%.1f%%",
+                    result.k(), result.queries(), result.topKAgreement() * 100));
+            }).exceptionally(ex -> {
+                getLogger().log(Level.WARNING, "Quantization benchmark failed", ex);
+                source.getSender().sendMessage("§cBenchmark failed: " + ex.getMessage());
+                return null;
+            });
+        return 1;
+    }
+
+    private static HikariDataSource scratchDataSource(Path dbFile) {
+        HikariConfig hikariConfig = new HikariConfig();
+        hikariConfig.setJdbcUrl("jdbc:sqlite:" + dbFile.toAbsolutePath());
+        hikariConfig.setDriverClassName("org.sqlite.JDBC");
+        // One connection for the benchmark's writer, one for its reads
+        hikariConfig.setMaximumPoolSize(2);
+        return new HikariDataSource(hikariConfig);
+    }
+
     private int executeGetThreshold(CommandSourceStack source) {
         if (!lifecycleService.isInitialized()) {
             source.getSender().sendMessage("§cKitsune is still initializing...");
@@ -11,7 +11,6 @@ import com.zaxxer.hikari.HikariDataSource;
 import org.aincraft.kitsune.BukkitPlatform;
 import org.aincraft.kitsune.Platform;
 import org.aincraft.kitsune.api.serialization.TagProviderRegistry;
-import org.aincraft.kitsune.cache.ItemDataCache;
 import org.aincraft.kitsune.config.Configuration;
 import org.aincraft.kitsune.config.KitsuneConfig;
 import org.aincraft.kitsune.embedding.EmbeddingService;
@@ -25,11 +24,17 @@ import org.aincraft.kitsune.serialization.BukkitDataComponentTagProvider;
 import org.aincraft.kitsune.serialization.BukkitItemSerializer;
 import org.aincraft.kitsune.serialization.providers.TagProviders;
 import org.aincraft.kitsune.storage.KitsuneStorage;
+import org.aincraft.kitsune.storage.OrdinalCompactionSettings;
 import org.aincraft.kitsune.storage.PlayerRadiusStorage;
 import org.aincraft.kitsune.storage.ProviderMetadata;
+import org.aincraft.kitsune.storage.StorageExecutors;
+import org.aincraft.kitsune.storage.RadiusSearchSettings;
 import org.aincraft.kitsune.storage.SearchHistoryStorage;
+import org.aincraft.kitsune.storage.SqliteWriter;
 import org.aincraft.kitsune.storage.metadata.ContainerStorage;
+import org.aincraft.kitsune.storage.metadata.ContainerStorageSettings;
 import org.aincraft.kitsune.storage.vector.JVectorIndex;
+import org.aincraft.kitsune.storage.vector.PartitionedVectorIndex;
 import org.aincraft.kitsune.api.indexing.ContainerLocationResolver;
 import org.aincraft.kitsune.cache.EmbeddingCache;
 import org.aincraft.kitsune.cache.LayeredEmbeddingCache;
@@ -74,6 +79,7 @@ public class KitsuneModule extends AbstractModule {
         listenerBinder.addBinding().to(ContainerBreakListener.class);
         listenerBinder.addBinding().to(ChestPlaceListener.class);
         listenerBinder.addBinding().to(PlayerQuitListener.class);
+        listenerBinder.addBinding().to(WorldPartitionListener.class);
     }
 
     @Provides @Singleton
@@ -115,35 +121,72 @@ public class KitsuneModule extends AbstractModule {
         return platform;
     }
 
+    /**
+     * Read pool. Connections are query-only; all writes go through {@link SqliteWriter}.
+     */
     @Provides @Singleton
-    DataSource provideDataSource(Platform platform) {
+    DataSource provideDataSource(Platform platform, KitsuneConfig config) {
+        int readConnections = config.storageSqliteReadConnections();
+        HikariConfig hikariConfig = sqliteConfig(platform);
+        hikariConfig.setPoolName("kitsune-sqlite-read");
+        hikariConfig.setMaximumPoolSize(readConnections > 0 ? readConnections : Runtime.getRuntime().availableProcessors());
+        hikariConfig.setConnectionInitSql("PRAGMA query_only = ON");
+        hikariConfig.setLeakDetectionThreshold(30000);
+        return new HikariDataSource(hikariConfig);
+    }
+
+    @Provides @Singleton
+    SqliteWriter provideSqliteWriter(Logger logger, Platform platform, KitsuneConfig config,
+                                     StorageExecutors executors) {
+        HikariConfig hikariConfig = sqliteConfig(platform);
+        hikariConfig.setPoolName("kitsune-sqlite-write");
+        hikariConfig.setMaximumPoolSize(1);
+        return new SqliteWriter(logger, new HikariDataSource(hikariConfig),
+            config.storageSqliteWriteQueueCapacity(), config.storageSqliteWriteBatchSize(), executors.io());
+    }
+
+    private static HikariConfig sqliteConfig(Platform platform) {
         Path dbFile = platform.getDataFolder().resolve("kitsune.db");
         HikariConfig hikariConfig = new HikariConfig();
         hikariConfig.setJdbcUrl("jdbc:sqlite:" + dbFile.toAbsolutePath());
         hikariConfig.setDriverClassName("org.sqlite.JDBC");
-        hikariConfig.setMaximumPoolSize(1);
-        hikariConfig.setLeakDetectionThreshold(30000);
-        return new HikariDataSource(hikariConfig);
+        // WAL lets readers run alongside the writer; NORMAL sync is durable across crashes in WAL mode
+        hikariConfig.addDataSourceProperty("journal_mode", "WAL");
+        hikariConfig.addDataSourceProperty("synchronous", "NORMAL");
+        hikariConfig.addDataSourceProperty("busy_timeout", "5000");
+        return hikariConfig;
     }
 
     @Provides @Singleton
-    EmbeddingCache provideEmbeddingCache(DataSource dataSource, Logger logger) {
-        return new LayeredEmbeddingCache(dataSource, logger);
+    EmbeddingCache provideEmbeddingCache(DataSource dataSource, SqliteWriter writer, Logger logger) {
+        return new LayeredEmbeddingCache(dataSource, writer, logger);
     }
 
     @Provides @Singleton
-    ContainerStorage provideContainerStorage(DataSource dataSource, Logger logger) {
-        return new ContainerStorage(dataSource, logger);
+    ContainerStorage provideContainerStorage(DataSource dataSource, SqliteWriter writer, Logger logger,
+                                             KitsuneConfig config) {
+        return new ContainerStorage(dataSource, writer, logger, ContainerStorageSettings.fromConfig(config));
     }
 
     @Provides @Singleton
-    JVectorIndex provideJVectorIndex(Logger logger, Platform platform, EmbeddingServiceFactory factory) {
-        return new JVectorIndex(logger, platform.getDataFolder(), factory.getDimension());
+    PartitionedVectorIndex providePartitionedVectorIndex(Logger logger, Platform platform,
+                                                         EmbeddingServiceFactory factory, KitsuneConfig config) {
+        int dimension = factory.getDimension();
+        return new PartitionedVectorIndex(logger, platform.getDataFolder(), dimension,
+            dir -> new JVectorIndex(logger, dir, dimension, config));
     }
 
     @Provides @Singleton
-    KitsuneStorage provideKitsuneStorage(Logger logger, ContainerStorage containerStorage, JVectorIndex vectorIndex) {
-        return new KitsuneStorage(logger, containerStorage, vectorIndex);
+    KitsuneStorage provideKitsuneStorage(Logger logger, ContainerStorage containerStorage,
+                                         PartitionedVectorIndex vectorIndexes, KitsuneConfig config,
+                                         StorageExecutors executors) {
+        return new KitsuneStorage(logger, containerStorage, vectorIndexes, RadiusSearchSettings.fromConfig(config),
+            OrdinalCompactionSettings.fromConfig(config), executors);
+    }
+
+    @Provides @Singleton
+    StorageExecutors provideStorageExecutors(KitsuneConfig config) {
+        return new StorageExecutors(config.storageCpuThreads());
     }
 
     @Provides @Singleton
@@ -194,23 +237,20 @@ public class KitsuneModule extends AbstractModule {
     @Provides @Singleton
     SearchHistoryStorage provideSearchHistoryStorage(
             Logger logger,
-            KitsuneStorage storage,
+            DataSource dataSource,
+            SqliteWriter writer,
             @Named("searchHistoryExecutor") ExecutorService executor) {
-        return new SearchHistoryStorage(logger, storage.getDataSource(), executor);
+        return new SearchHistoryStorage(logger, dataSource, writer, executor);
     }
 
     @Provides @Singleton
     PlayerRadiusStorage providePlayerRadiusStorage(
             Logger logger,
             KitsuneConfig config,
-            KitsuneStorage storage,
+            DataSource dataSource,
+            SqliteWriter writer,
             @Named("playerRadiusExecutor") ExecutorService executor) {
-        return new PlayerRadiusStorage(logger, storage.getDataSource(), executor, config.searchRadius());
-    }
-
-    @Provides @Singleton
-    ItemDataCache provideItemDataCache() {
-        return new ItemDataCache();
+        return new PlayerRadiusStorage(logger, dataSource, writer, executor, config.searchRadius());
     }
 
     @Provides @Singleton
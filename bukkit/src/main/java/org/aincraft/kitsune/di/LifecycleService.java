@@ -4,7 +4,6 @@ import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.google.inject.name.Named;
 import org.aincraft.kitsune.api.KitsuneService;
-import org.aincraft.kitsune.cache.ItemDataCache;
 import org.aincraft.kitsune.config.KitsuneConfig;
 import org.aincraft.kitsune.embedding.EmbeddingService;
 import org.aincraft.kitsune.indexing.BukkitContainerIndexer;
@@ -12,7 +11,10 @@ import org.aincraft.kitsune.storage.KitsuneStorage;
 import org.aincraft.kitsune.storage.PlayerRadiusStorage;
 import org.aincraft.kitsune.storage.ProviderMetadata;
 import org.aincraft.kitsune.storage.SearchHistoryStorage;
+import org.aincraft.kitsune.storage.SqliteWriter;
 import org.aincraft.kitsune.visualizer.ContainerItemDisplay;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
 
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
@@ -29,7 +31,7 @@ public class LifecycleService {
     private final KitsuneConfig config;
     private final BukkitContainerIndexer containerIndexer;
     private final ContainerItemDisplay itemDisplayVisualizer;
-    private final ItemDataCache itemDataCache;
+    private final SqliteWriter sqliteWriter;
     private final @Named("searchHistoryExecutor") ExecutorService searchHistoryExecutor;
     private final @Named("playerRadiusExecutor") ExecutorService playerRadiusExecutor;
 
@@ -47,7 +49,7 @@ public class LifecycleService {
             KitsuneConfig config,
             BukkitContainerIndexer containerIndexer,
             ContainerItemDisplay itemDisplayVisualizer,
-            ItemDataCache itemDataCache,
+            SqliteWriter sqliteWriter,
             @Named("searchHistoryExecutor") ExecutorService searchHistoryExecutor,
             @Named("playerRadiusExecutor") ExecutorService playerRadiusExecutor) {
         this.logger = logger;
@@ -59,14 +61,19 @@ public class LifecycleService {
         this.config = config;
         this.containerIndexer = containerIndexer;
         this.itemDisplayVisualizer = itemDisplayVisualizer;
-        this.itemDataCache = itemDataCache;
+        this.sqliteWriter = sqliteWriter;
         this.searchHistoryExecutor = searchHistoryExecutor;
         this.playerRadiusExecutor = playerRadiusExecutor;
     }
 
     public CompletableFuture<Void> initialize() {
         return embeddingService.initialize()
-            .thenRun(() -> storage.initialize())
+            .thenRun(() -> {
+                storage.initialize();
+                for (World world : Bukkit.getWorlds()) {
+                    storage.loadWorld(world.getName());
+                }
+            })
             .thenCompose(v -> searchHistoryStorage.initialize()
                 .thenCompose(v2 -> playerRadiusStorage.initialize()))
             .thenRun(() -> {
@@ -85,10 +92,11 @@ public class LifecycleService {
         if (embeddingService != null) embeddingService.shutdown();
         if (searchHistoryStorage != null) searchHistoryStorage.close();
         if (playerRadiusStorage != null) playerRadiusStorage.close();
+        // Last: the services above may still be flushing writes
+        if (sqliteWriter != null) sqliteWriter.close();
         if (searchHistoryExecutor != null) searchHistoryExecutor.shutdownNow();
         if (playerRadiusExecutor != null) playerRadiusExecutor.shutdownNow();
         if (itemDisplayVisualizer != null) itemDisplayVisualizer.cleanupAll();
-        if (itemDataCache != null) itemDataCache.clear();
 
         KitsuneService.unregister();
         logger.info("Kitsune disabled.");
@@ -96,7 +104,7 @@ public class LifecycleService {
 
     private void checkProviderMismatch() {
         String currentProvider = config.embeddingProvider();
-        String currentModel = config.embeddingModel();
+        String currentModel = config.embeddingModelId();
 
         providerMetadata.checkMismatch(currentProvider, currentModel).ifPresentOrElse(
             mismatch -> {
@@ -65,7 +65,7 @@ public class BukkitContainerIndexer implements ContainerIndexer {
                 }
 
                 ScheduledFuture<?> future = executor.schedule(
-                    () -> performIndex(containerId, serializedItems),
+                    () -> performIndex(containerId, locations, serializedItems),
                     debounceDelayMs,
                     TimeUnit.MILLISECONDS
                 );
@@ -79,7 +79,7 @@ public class BukkitContainerIndexer implements ContainerIndexer {
         });
     }
 
-    private void performIndex(UUID containerId, List<SerializedItem> serializedItems) {
+    private void performIndex(UUID containerId, ContainerLocations locations, List<SerializedItem> serializedItems) {
         synchronized (pendingIndexes) {
             pendingIndexes.values().removeIf(ScheduledFuture::isDone);
         }
@@ -92,25 +92,35 @@ public class BukkitContainerIndexer implements ContainerIndexer {
             return;
         }
 
+        List<String> contentTexts = new ArrayList<>(serializedItems.size());
+        for (SerializedItem serialized : serializedItems) {
+            contentTexts.add(serialized.storageJson());
+        }
+        // Only slots that differ from the stored snapshot are embedded and written
+        List<Integer> changed = storage.findChangedSlots(containerId, contentTexts);
+
         long timestamp = System.currentTimeMillis();
-        List<String> embeddingTexts = new ArrayList<>();
-        List<ContainerPath> containerPaths = new ArrayList<>();
+        List<String> embeddingTexts = new ArrayList<>(changed.size());
+        List<ContainerPath> containerPaths = new ArrayList<>(changed.size());
 
-        for (SerializedItem serialized : serializedItems) {
-            embeddingTexts.add(serialized.embeddingText().toLowerCase());
+        for (int index : changed) {
+            SerializedItem serialized = serializedItems.get(index);
+            embeddingTexts.add(serialized.embeddingText());
             containerPaths.add(ItemDataExtractor.extractContainerPath(serialized.storageJson(), logger));
         }
 
-        CompletableFuture<List<float[]>> embeddingFuture = embeddingService.embedBatch(embeddingTexts, "RETRIEVAL_DOCUMENT");
+        CompletableFuture<List<float[]>> embeddingFuture = changed.isEmpty()
+            ? CompletableFuture.completedFuture(List.of())
+            : embeddingService.embedBatch(embeddingTexts, "RETRIEVAL_DOCUMENT");
 
         CompletableFuture<List<ContainerChunk>> chunkFuture = embeddingFuture.thenApply(embeddings -> {
             List<ContainerChunk> chunks = new ArrayList<>();
             for (int i = 0; i < embeddings.size(); i++) {
-                SerializedItem serialized = serializedItems.get(i);
+                int index = changed.get(i);
                 ContainerChunk chunk = new ContainerChunk(
                     containerId,
-                    i,
-                    serialized.storageJson(),
+                    index,
+                    serializedItems.get(index).storageJson(),
                     embeddings.get(i),
                     timestamp,
                     containerPaths.get(i)
@@ -120,7 +130,7 @@ public class BukkitContainerIndexer implements ContainerIndexer {
             return chunks;
         });
 
-        chunkFuture.thenCompose(chunks -> storage.indexChunks(containerId, chunks))
+        chunkFuture.thenCompose(chunks -> storage.indexSlots(containerId, locations, contentTexts, chunks))
             .exceptionally(ex -> {
                 logger.log(Level.WARNING, "Failed to index container " + containerId, ex);
                 return null;
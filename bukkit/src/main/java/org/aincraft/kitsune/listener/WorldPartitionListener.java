@@ -0,0 +1,33 @@
+package org.aincraft.kitsune.listener;
+
+import org.aincraft.kitsune.storage.KitsuneStorage;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import jakarta.inject.Inject;
+
+/**
+ * Opens a world's vector partition when the world loads and closes it when the world unloads.
+ */
+public class WorldPartitionListener implements Listener {
+
+    private final KitsuneStorage storage;
+
+    @Inject
+    public WorldPartitionListener(KitsuneStorage storage) {
+        this.storage = storage;
+    }
+
+    @EventHandler
+    public void onWorldLoad(WorldLoadEvent event) {
+        // Waits for storage initialization if the world loads during startup
+        storage.loadWorld(event.getWorld().getName());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        storage.unloadWorld(event.getWorld().getName());
+    }
+}
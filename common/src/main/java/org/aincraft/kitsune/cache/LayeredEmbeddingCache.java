@@ -26,10 +26,12 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.sql.DataSource;
+import org.aincraft.kitsune.storage.SqliteWriter;
 
 /**
  * Two-tier embedding cache with Caffeine L1 (in-memory) + SQLite L2 (persistent).
  * Uses long keys for zero-allocation cache lookups.
+ * L2 reads use the pooled data source; write-behind flushes go through the shared {@link SqliteWriter}.
  */
 public final class LayeredEmbeddingCache implements EmbeddingCache {
     private static final int DEFAULT_MAX_L1_SIZE = 10000;
@@ -42,6 +44,7 @@ public final class LayeredEmbeddingCache implements EmbeddingCache {
 
     private final Logger logger;
     private final DataSource dataSource;
+    private final SqliteWriter writer;
     private final com.github.benmanes.caffeine.cache.Cache<Long, float[]> l1Cache;
     private final ExecutorService executor;
     private final ScheduledExecutorService scheduler;
@@ -55,8 +58,9 @@ public final class LayeredEmbeddingCache implements EmbeddingCache {
 
     private record WriteEntry(long key, byte[] data, long timestamp) {}
 
-    public LayeredEmbeddingCache(DataSource dataSource, Logger logger) {
+    public LayeredEmbeddingCache(DataSource dataSource, SqliteWriter writer, Logger logger) {
         this.dataSource = dataSource;
+        this.writer = writer;
         this.logger = logger;
         this.l1Cache = Caffeine.newBuilder()
             .maximumSize(DEFAULT_MAX_L1_SIZE)
@@ -83,17 +87,20 @@ public final class LayeredEmbeddingCache implements EmbeddingCache {
     }
 
     public void initialize() {
-        try (Connection conn = dataSource.getConnection()) {
-            conn.createStatement().execute("""
-                CREATE TABLE IF NOT EXISTS embedding_cache (
-                    content_hash INTEGER PRIMARY KEY,
-                    embedding BLOB NOT NULL,
-                    created_at INTEGER NOT NULL
-                )
-                """);
-            conn.createStatement().execute(
-                "CREATE INDEX IF NOT EXISTS idx_cache_created ON embedding_cache(created_at)"
-            );
+        try {
+            writer.execute(conn -> {
+                conn.createStatement().execute("""
+                    CREATE TABLE IF NOT EXISTS embedding_cache (
+                        content_hash INTEGER PRIMARY KEY,
+                        embedding BLOB NOT NULL,
+                        created_at INTEGER NOT NULL
+                    )
+                    """);
+                conn.createStatement().execute(
+                    "CREATE INDEX IF NOT EXISTS idx_cache_created ON embedding_cache(created_at)"
+                );
+                return null;
+            });
             logger.info("Embedding cache initialized");
         } catch (Exception e) {
             logger.log(Level.SEVERE, "Failed to initialize embedding cache", e);
@@ -278,15 +285,19 @@ public final class LayeredEmbeddingCache implements EmbeddingCache {
         if (batch.isEmpty()) return;
 
         String sql = "INSERT OR REPLACE INTO embedding_cache (content_hash, embedding, created_at) VALUES (?, ?, ?)";
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            for (WriteEntry entry : batch) {
-                stmt.setLong(1, entry.key);
-                stmt.setBytes(2, entry.data);
-                stmt.setLong(3, entry.timestamp);
-                stmt.addBatch();
-            }
-            stmt.executeBatch();
+        try {
+            writer.execute(conn -> {
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    for (WriteEntry entry : batch) {
+                        stmt.setLong(1, entry.key);
+                        stmt.setBytes(2, entry.data);
+                        stmt.setLong(3, entry.timestamp);
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                }
+                return null;
+            });
         } catch (SQLException e) {
             logger.log(Level.WARNING, "Failed to flush batch to cache", e);
         }
@@ -297,13 +308,13 @@ public final class LayeredEmbeddingCache implements EmbeddingCache {
         l1Cache.invalidateAll();
         writeBuffer.clear();
         writeBufferSize.set(0);
-        return CompletableFuture.runAsync(() -> {
-            try (Connection conn = dataSource.getConnection()) {
-                conn.createStatement().execute("DELETE FROM embedding_cache");
-            } catch (SQLException e) {
-                logger.log(Level.WARNING, "Failed to clear cache", e);
-            }
-        }, executor);
+        return writer.<Void>submit(conn -> {
+            conn.createStatement().execute("DELETE FROM embedding_cache");
+            return null;
+        }).exceptionally(e -> {
+            logger.log(Level.WARNING, "Failed to clear cache", e);
+            return null;
+        });
     }
 
     @Override
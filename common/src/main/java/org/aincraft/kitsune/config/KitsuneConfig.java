@@ -31,6 +31,17 @@ public final class KitsuneConfig {
 
     public String embeddingModel() { return getStringCached("embedding.model", "nomic-embed-text-v1.5"); }
     public String embeddingApiKey() { return getString("embedding.api-key", ""); }
+    public String embeddingWeights() { return getString("embedding.weights", "fp32"); }
+    public int embeddingBatchWindowMicros() { return getInt("embedding.batch-window-micros", 2000); }
+    public int embeddingMaxBatchSize() { return getInt("embedding.max-batch-size", 64); }
+    public int embeddingMaxConcurrentBatches() { return getInt("embedding.max-concurrent-batches", 2); }
+    public double embeddingMaxPaddingRatio() { return getDouble("embedding.max-padding-ratio", 0.25); }
+    public int embeddingOnnxIntraOpThreads() { return getInt("embedding.onnx.intra-op-threads", 0); }
+    public int embeddingOnnxInterOpThreads() { return getInt("embedding.onnx.inter-op-threads", 0); }
+    public String embeddingOnnxOptimizationLevel() { return getString("embedding.onnx.optimization-level", "all"); }
+    public String embeddingOnnxExecutionMode() { return getString("embedding.onnx.execution-mode", "sequential"); }
+    public boolean embeddingOnnxMemoryPattern() { return getBoolean("embedding.onnx.memory-pattern", true); }
+    public boolean embeddingOnnxCpuArena() { return getBoolean("embedding.onnx.cpu-arena", true); }
 
     public String embeddingProvider() {
         String model = embeddingModel().toLowerCase();
@@ -39,15 +50,50 @@ public final class KitsuneConfig {
         return "onnx";
     }
 
+    /**
+     * Model recorded with stored vectors. Local weight variants embed slightly differently, so
+     * switching between them counts as a model change.
+     */
+    public String embeddingModelId() {
+        String weights = embeddingWeights().toLowerCase();
+        if (!"onnx".equals(embeddingProvider()) || "fp32".equals(weights)) return embeddingModel();
+        return embeddingModel() + ":" + weights;
+    }
+
+    public int storageSqliteReadConnections() { return getInt("storage.sqlite-read-connections", 0); }
+    public int storageSqliteWriteQueueCapacity() { return getInt("storage.sqlite-write-queue-capacity", 4096); }
+    public int storageSqliteWriteBatchSize() { return getInt("storage.sqlite-write-batch-size", 256); }
+    public int storageOrdinalCompactionIntervalSeconds() { return getInt("storage.ordinal-compaction-interval-seconds", 600); }
+    public double storageOrdinalCompactionThreshold() { return getDouble("storage.ordinal-compaction-threshold", 0.25); }
+    public boolean storageCompactPayloads() { return getBoolean("storage.compact-payloads", true); }
+    public int storageLocationCacheSize() { return getInt("storage.location-cache-size", 10000); }
+    public int storageCpuThreads() { return getInt("storage.cpu-threads", 0); }
+
     public int searchDefaultLimit() { return getInt("search.default-limit", 10); }
     public int searchMaxLimit() { return getInt("search.max-limit", 50); }
     public int searchRadius() { return getInt("search.radius", 500); }
     public double searchThreshold() { return getDouble("search.threshold", 0.7); }
+    public int searchExactScanMaxCandidates() { return getInt("search.exact-scan-max-candidates", 1024); }
+    public double searchPostFilterMinSelectivity() { return getDouble("search.post-filter-min-selectivity", 0.5); }
 
     public int indexingDebounceMs() { return getInt("indexing.debounce-delay-ms", 2000); }
     public boolean indexingHopperTransfers() { return getBoolean("indexing.hopper-transfers", true); }
     public boolean indexingHopperMinecart() { return getBoolean("indexing.hopper-minecart-deposits", true); }
 
+    public boolean vectorIndexIncremental() { return getBoolean("vector-index.incremental", true); }
+    public double vectorIndexTombstoneThreshold() { return getDouble("vector-index.tombstone-threshold", 0.2); }
+    public int vectorIndexCheckpointIntervalSeconds() { return getInt("vector-index.checkpoint-interval-seconds", 300); }
+    public int vectorIndexWalSyncIntervalMs() { return getInt("vector-index.wal-sync-interval-ms", 100); }
+    public int vectorIndexMaxStalenessMs() { return getInt("vector-index.max-staleness-ms", 1000); }
+    public int vectorIndexMaxPendingMutations() { return getInt("vector-index.max-pending-mutations", 256); }
+    public String vectorIndexCompression() { return getString("vector-index.compression", "none"); }
+    public int vectorIndexPqCompressionRatio() { return getInt("vector-index.pq-compression-ratio", 16); }
+    public int vectorIndexGraphDegree() { return getInt("vector-index.graph-degree", 16); }
+    public int vectorIndexConstructionBeamWidth() { return getInt("vector-index.construction-beam-width", 100); }
+    public double vectorIndexOverflowFactor() { return getDouble("vector-index.overflow-factor", 1.2); }
+    public double vectorIndexAlpha() { return getDouble("vector-index.alpha", 1.2); }
+    public int vectorIndexSearchOverQuery() { return getInt("vector-index.search-over-query", 10); }
+
     public boolean protectionEnabled() { return getBoolean("protection.enabled", true); }
     public String protectionPlugin() { return getString("protection.plugin", "auto"); }
 
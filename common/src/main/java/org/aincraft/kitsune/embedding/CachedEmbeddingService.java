@@ -125,6 +125,10 @@ public final class CachedEmbeddingService implements EmbeddingService {
         delegate.shutdown();
     }
 
+    public EmbeddingService getDelegate() {
+        return delegate;
+    }
+
     public CompletableFuture<Void> clearCache() {
         return cache.clear();
     }
@@ -0,0 +1,204 @@
+package org.aincraft.kitsune.embedding;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.aincraft.kitsune.util.Histogram;
+
+/**
+ * Coalesces texts submitted concurrently into batched inference runs.
+ *
+ * A dispatcher thread waits until fewer than the allowed number of batches are running, takes the
+ * oldest queued text and collects whatever else arrives within the window of that text's
+ * submission, up to the maximum batch size. The batch runs on the given executor and each result
+ * completes its caller's future. While inference is saturated, texts queue up and later batches
+ * grow, so throughput rises with load instead of each caller paying for its own run.
+ */
+final class EmbeddingBatcher implements AutoCloseable {
+
+    @FunctionalInterface
+    interface Inference {
+        /**
+         * @return one embedding per text, in order
+         */
+        List<float[]> run(List<String> texts) throws Exception;
+    }
+
+    private record Request(String text, CompletableFuture<float[]> future, long submittedNanos) {
+    }
+
+    private final Logger logger;
+    private final Executor executor;
+    private final Inference inference;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final Semaphore running;
+    private final LinkedBlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+    private final Histogram batchSizes = new Histogram();
+    private final Histogram queueWaitMicros = new Histogram();
+    private final Thread dispatcher;
+    private volatile boolean closed;
+
+    EmbeddingBatcher(Logger logger, InferenceBatchSettings settings, Executor executor, Inference inference) {
+        this.logger = logger;
+        this.executor = executor;
+        this.inference = inference;
+        this.windowNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(0, settings.windowMicros()));
+        this.maxBatchSize = Math.max(1, settings.maxBatchSize());
+        this.running = new Semaphore(Math.max(1, settings.maxConcurrentBatches()));
+        this.dispatcher = Thread.ofPlatform().name("kitsune-embedding-batcher").daemon().unstarted(this::dispatchLoop);
+        dispatcher.start();
+    }
+
+    CompletableFuture<float[]> submit(String text) {
+        CompletableFuture<float[]> future = new CompletableFuture<>();
+        enqueue(new Request(text, future, System.nanoTime()));
+        return future;
+    }
+
+    /**
+     * @return embeddings in the order of texts; texts beyond the maximum batch size run in later batches
+     */
+    CompletableFuture<List<float[]>> submitAll(List<String> texts) {
+        List<CompletableFuture<float[]>> futures = new ArrayList<>(texts.size());
+        long now = System.nanoTime();
+        for (String text : texts) {
+            CompletableFuture<float[]> future = new CompletableFuture<>();
+            futures.add(future);
+            enqueue(new Request(text, future, now));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(v -> {
+            List<float[]> results = new ArrayList<>(futures.size());
+            for (CompletableFuture<float[]> future : futures) {
+                results.add(future.join());
+            }
+            return results;
+        });
+    }
+
+    Histogram.Snapshot batchSizes() {
+        return batchSizes.snapshot();
+    }
+
+    Histogram.Snapshot queueWaitMicros() {
+        return queueWaitMicros.snapshot();
+    }
+
+    int queued() {
+        return queue.size();
+    }
+
+    private void enqueue(Request request) {
+        queue.add(request);
+        // Requests racing close() are failed here; the dispatcher fails the rest on exit
+        if (closed && queue.remove(request)) {
+            request.future().completeExceptionally(new IllegalStateException("Embedding service is shut down"));
+        }
+    }
+
+    private void dispatchLoop() {
+        try {
+            while (!closed) {
+                running.acquire();
+                List<Request> batch = collect();
+                dispatch(batch);
+            }
+        } catch (InterruptedException e) {
+            // close()
+        }
+        List<Request> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        for (Request request : abandoned) {
+            request.future().completeExceptionally(new IllegalStateException("Embedding service is shut down"));
+        }
+    }
+
+    private List<Request> collect() throws InterruptedException {
+        Request first;
+        try {
+            first = queue.take();
+        } catch (InterruptedException e) {
+            running.release();
+            throw e;
+        }
+        List<Request> batch = new ArrayList<>(maxBatchSize);
+        batch.add(first);
+        long deadline = first.submittedNanos() + windowNanos;
+        while (batch.size() < maxBatchSize) {
+            Request next = queue.poll();
+            if (next == null) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) break;
+                try {
+                    next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    // Still run what was collected; the loop exits afterwards
+                    closed = true;
+                }
+                if (next == null) break;
+            }
+            batch.add(next);
+        }
+        return batch;
+    }
+
+    private void dispatch(List<Request> batch) {
+        long start = System.nanoTime();
+        batchSizes.record(batch.size());
+        for (Request request : batch) {
+            queueWaitMicros.record(TimeUnit.NANOSECONDS.toMicros(start - request.submittedNanos()));
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    run(batch);
+                } finally {
+                    running.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            running.release();
+            fail(batch, e);
+        }
+    }
+
+    private void run(List<Request> batch) {
+        List<String> texts = new ArrayList<>(batch.size());
+        for (Request request : batch) {
+            texts.add(request.text());
+        }
+        List<float[]> results;
+        try {
+            results = inference.run(texts);
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Batch embedding of " + batch.size() + " texts failed", e);
+            fail(batch, new RuntimeException("Embedding failed", e));
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).future().complete(results.get(i));
+        }
+    }
+
+    private static void fail(List<Request> batch, Throwable cause) {
+        for (Request request : batch) {
+            request.future().completeExceptionally(cause);
+        }
+    }
+
+    /**
+     * Stop batching. Batches already running complete; queued texts fail.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        dispatcher.interrupt();
+    }
+}
@@ -85,9 +85,17 @@ public final class EmbeddingServiceFactory {
             logger.warning("Unknown model: " + model + ", defaulting to nomic-embed-text-v1.5");
             return ModelMap.getInstance().get("nomic-embed-text-v1.5").orElseThrow();
         });
+        String weights = config.embeddingWeights().toLowerCase();
+        if (spec.weightFiles().containsKey(weights)) {
+            spec = spec.withWeights(weights);
+        } else {
+            logger.warning(spec.modelName() + " has no " + weights + " weights (available: "
+                + String.join(", ", spec.weightFiles().keySet()) + "), using fp32");
+        }
 
         logger.info("Creating ONNX embedding service for: " + spec.modelName() +
-                   " (" + spec.dimension() + "d, strategy: " + spec.taskPrefixStrategy() + ")");
-        return new OnnxEmbeddingService(platform, spec);
+                   " (" + spec.dimension() + "d, " + spec.weights() + ", strategy: " + spec.taskPrefixStrategy() + ")");
+        return new OnnxEmbeddingService(platform, spec, true, InferenceBatchSettings.fromConfig(config),
+            OnnxSessionSettings.fromConfig(config));
     }
 }
@@ -0,0 +1,27 @@
+package org.aincraft.kitsune.embedding;
+
+import org.aincraft.kitsune.config.KitsuneConfig;
+
+/**
+ * How concurrent local embedding requests are coalesced into batched inference runs, read from the
+ * embedding config section.
+ */
+public record InferenceBatchSettings(
+    int windowMicros,           // how long the first queued text waits for others to join its batch
+    int maxBatchSize,           // most texts run as one tensor
+    int maxConcurrentBatches,   // batches running at once; further texts queue and join the next batch
+    double maxPaddingRatio      // most of a tensor that may be padding before a batch is split by length
+) {
+    public static InferenceBatchSettings defaults() {
+        return new InferenceBatchSettings(2000, 64, 2, 0.25);
+    }
+
+    public static InferenceBatchSettings fromConfig(KitsuneConfig config) {
+        return new InferenceBatchSettings(
+            config.embeddingBatchWindowMicros(),
+            config.embeddingMaxBatchSize(),
+            config.embeddingMaxConcurrentBatches(),
+            config.embeddingMaxPaddingRatio()
+        );
+    }
+}
@@ -0,0 +1,171 @@
+package org.aincraft.kitsune.embedding;
+
+import ai.onnxruntime.OnnxTensor;
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Logger;
+import org.aincraft.kitsune.embedding.download.ModelSpec;
+
+/**
+ * Measures model throughput for combinations of concurrent batches and intra-op threads that
+ * leave one core to the server's main thread, and recommends the cheapest combination within a
+ * few percent of the fastest.
+ *
+ * Batches are synthetic token sequences of item-description length, one length per batch as
+ * after length bucketing. Every other session option is taken from the given settings.
+ */
+public final class InferenceBenchmark {
+
+    private static final int BATCH_SIZE = 32;
+    private static final int MIN_TOKENS = 8;
+    private static final int MAX_TOKENS = 48;
+    private static final int WARMUP_RUNS = 3;
+    // Throughput within this share of the best counts as equal; fewer threads win
+    private static final double TOLERANCE = 0.05;
+
+    /**
+     * @param avgBatchMillis mean latency of one model run
+     */
+    public record Candidate(int concurrentBatches, int intraOpThreads, double textsPerSecond, double avgBatchMillis) {
+        int threads() {
+            return concurrentBatches * intraOpThreads;
+        }
+    }
+
+    public record Result(int cores, List<Candidate> candidates, Candidate recommended) {
+    }
+
+    private final Logger logger;
+
+    public InferenceBenchmark(Logger logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * @param batches model runs timed per candidate
+     */
+    public Result run(Path modelPath, ModelSpec spec, OnnxSessionSettings settings, int batches) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int budget = Math.max(1, cores - 1);
+        OrtEnvironment env = OrtEnvironment.getEnvironment();
+
+        List<Map<String, OnnxTensor>> inputs = new ArrayList<>(batches);
+        try {
+            Random random = new Random(42);
+            long vocab = spec.vocabSize() > 0 ? spec.vocabSize() : 30_000;
+            for (int b = 0; b < batches; b++) {
+                inputs.add(batch(env, random, vocab));
+            }
+
+            List<Candidate> candidates = new ArrayList<>();
+            for (int concurrent : new int[]{1, 2, 4}) {
+                if (concurrent > budget) break;
+                for (int intraOp : intraOpCandidates(budget / concurrent)) {
+                    Candidate candidate = measure(env, modelPath, settings, concurrent, intraOp, inputs);
+                    logger.info(String.format("Inference benchmark: %d x %d threads: %.0f texts/s, %.1fms per batch",
+                        concurrent, intraOp, candidate.textsPerSecond(), candidate.avgBatchMillis()));
+                    candidates.add(candidate);
+                }
+            }
+
+            double best = candidates.stream().mapToDouble(Candidate::textsPerSecond).max().orElse(0);
+            Candidate recommended = candidates.stream()
+                .filter(c -> c.textsPerSecond() >= best * (1 - TOLERANCE))
+                .min(Comparator.comparingInt(Candidate::threads)
+                    .thenComparing(Comparator.comparingDouble(Candidate::textsPerSecond).reversed()))
+                .orElseThrow();
+            logger.info("Inference benchmark on " + cores + " cores recommends max-concurrent-batches: "
+                + recommended.concurrentBatches() + ", onnx.intra-op-threads: " + recommended.intraOpThreads());
+            return new Result(cores, candidates, recommended);
+        } catch (OrtException e) {
+            throw new RuntimeException("Inference benchmark failed", e);
+        } finally {
+            for (Map<String, OnnxTensor> batch : inputs) {
+                batch.values().forEach(OnnxTensor::close);
+            }
+        }
+    }
+
+    /**
+     * Powers of two up to max, and max itself.
+     */
+    private static List<Integer> intraOpCandidates(int max) {
+        TreeSet<Integer> values = new TreeSet<>();
+        for (int t = 1; t <= max; t *= 2) {
+            values.add(t);
+        }
+        values.add(Math.max(1, max));
+        return new ArrayList<>(values);
+    }
+
+    private static Candidate measure(OrtEnvironment env, Path modelPath, OnnxSessionSettings settings,
+                                     int concurrent, int intraOp, List<Map<String, OnnxTensor>> inputs)
+            throws OrtException {
+        try (OrtSession.SessionOptions options = settings.withThreads(intraOp).toSessionOptions(concurrent);
+             OrtSession session = env.createSession(modelPath.toString(), options)) {
+            for (int i = 0; i < WARMUP_RUNS; i++) {
+                session.run(inputs.get(i % inputs.size())).close();
+            }
+
+            AtomicInteger next = new AtomicInteger();
+            AtomicLong runNanos = new AtomicLong();
+            AtomicReference<OrtException> failure = new AtomicReference<>();
+            List<Thread> workers = new ArrayList<>(concurrent);
+            long start = System.nanoTime();
+            for (int w = 0; w < concurrent; w++) {
+                workers.add(Thread.ofPlatform().name("kitsune-inference-benchmark-" + w).start(() -> {
+                    for (int i = next.getAndIncrement(); i < inputs.size() && failure.get() == null;
+                         i = next.getAndIncrement()) {
+                        long runStart = System.nanoTime();
+                        try {
+                            session.run(inputs.get(i)).close();
+                        } catch (OrtException e) {
+                            failure.compareAndSet(null, e);
+                        }
+                        runNanos.addAndGet(System.nanoTime() - runStart);
+                    }
+                }));
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            long elapsed = System.nanoTime() - start;
+            if (failure.get() != null) {
+                throw failure.get();
+            }
+            return new Candidate(concurrent, intraOp, (double) inputs.size() * BATCH_SIZE * 1e9 / elapsed,
+                runNanos.get() / 1e6 / inputs.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Inference benchmark interrupted", e);
+        }
+    }
+
+    private static Map<String, OnnxTensor> batch(OrtEnvironment env, Random random, long vocab) throws OrtException {
+        int length = MIN_TOKENS + random.nextInt(MAX_TOKENS - MIN_TOKENS + 1);
+        long[][] ids = new long[BATCH_SIZE][length];
+        long[][] mask = new long[BATCH_SIZE][length];
+        long[][] types = new long[BATCH_SIZE][length];
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            for (int t = 0; t < length; t++) {
+                ids[i][t] = 1000 + (long) (random.nextDouble() * (vocab - 1000));
+                mask[i][t] = 1;
+            }
+        }
+        return Map.of(
+            "input_ids", OnnxTensor.createTensor(env, ids),
+            "attention_mask", OnnxTensor.createTensor(env, mask),
+            "token_type_ids", OnnxTensor.createTensor(env, types));
+    }
+}
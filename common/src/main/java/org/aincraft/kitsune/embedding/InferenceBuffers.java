@@ -0,0 +1,69 @@
+package org.aincraft.kitsune.embedding;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * Direct, native-order buffers for one model run: the three token inputs and the hidden state
+ * output. ONNX Runtime reads and writes such buffers in place, so reusing them across runs leaves
+ * no per-run arrays to copy or collect.
+ *
+ * Not thread-safe; a run takes a set from the pool and returns it when done.
+ */
+final class InferenceBuffers {
+
+    private LongBuffer inputIds = allocateLongs(0);
+    private LongBuffer attentionMask = allocateLongs(0);
+    private LongBuffer tokenTypeIds = allocateLongs(0);
+    private FloatBuffer hiddenState = allocateFloats(0);
+
+    /**
+     * Size the buffers for a run, growing them if needed. Each buffer's limit is set to exactly the
+     * requested length, as tensors take their size from it.
+     */
+    void prepare(int tokens, int hiddenFloats) {
+        if (inputIds.capacity() < tokens) {
+            int capacity = grow(tokens);
+            inputIds = allocateLongs(capacity);
+            attentionMask = allocateLongs(capacity);
+            tokenTypeIds = allocateLongs(capacity);
+        }
+        if (hiddenState.capacity() < hiddenFloats) {
+            hiddenState = allocateFloats(grow(hiddenFloats));
+        }
+        inputIds.clear().limit(tokens);
+        attentionMask.clear().limit(tokens);
+        tokenTypeIds.clear().limit(tokens);
+        hiddenState.clear().limit(hiddenFloats);
+    }
+
+    LongBuffer inputIds() {
+        return inputIds;
+    }
+
+    LongBuffer attentionMask() {
+        return attentionMask;
+    }
+
+    LongBuffer tokenTypeIds() {
+        return tokenTypeIds;
+    }
+
+    FloatBuffer hiddenState() {
+        return hiddenState;
+    }
+
+    private static int grow(int needed) {
+        return needed <= 1 ? 1 : Math.max(needed, Integer.highestOneBit(needed - 1) << 1);
+    }
+
+    private static LongBuffer allocateLongs(int count) {
+        return ByteBuffer.allocateDirect(count * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+    }
+
+    private static FloatBuffer allocateFloats(int count) {
+        return ByteBuffer.allocateDirect(count * Float.BYTES).order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+}
@@ -0,0 +1,43 @@
+package org.aincraft.kitsune.embedding;
+
+import org.aincraft.kitsune.util.Histogram;
+
+/**
+ * Activity of local embedding inference.
+ *
+ * @param batchSizes texts per coalesced batch
+ * @param queueWaitMicros time each text waited between submission and the start of its batch
+ * @param queued texts waiting for a batch
+ * @param tensorRuns model runs; a batch runs once per length bucket
+ * @param tokens tokens of the texts embedded
+ * @param paddedTokens tokens fed to the model, including padding
+ * @param inferenceNanos time spent in model runs
+ * @param allocatedBytes heap allocated by inference threads while preparing, running and pooling
+ */
+public record InferenceStats(Histogram.Snapshot batchSizes, Histogram.Snapshot queueWaitMicros, int queued,
+                             long tensorRuns, long tokens, long paddedTokens, long inferenceNanos,
+                             long allocatedBytes) {
+
+    public long batches() {
+        return batchSizes.count();
+    }
+
+    public long texts() {
+        return batchSizes.sum();
+    }
+
+    /**
+     * Share of the tokens fed to the model that were padding.
+     */
+    public double paddingRatio() {
+        return paddedTokens == 0 ? 0 : 1.0 - (double) tokens / paddedTokens;
+    }
+
+    public double tokensPerSecond() {
+        return inferenceNanos == 0 ? 0 : tokens * 1e9 / inferenceNanos;
+    }
+
+    public long allocatedBytesPerRun() {
+        return tensorRuns == 0 ? 0 : allocatedBytes / tensorRuns;
+    }
+}
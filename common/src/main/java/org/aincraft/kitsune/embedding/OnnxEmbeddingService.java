@@ -2,19 +2,32 @@ package org.aincraft.kitsune.embedding;
 
 import ai.djl.huggingface.tokenizers.Encoding;
 import ai.djl.huggingface.tokenizers.HuggingFaceTokenizer;
+import ai.onnxruntime.NodeInfo;
 import ai.onnxruntime.OnnxTensor;
 import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtException;
 import ai.onnxruntime.OrtSession;
+import ai.onnxruntime.TensorInfo;
+import java.lang.management.ManagementFactory;
+import java.nio.FloatBuffer;
+import java.nio.LongBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 import org.aincraft.kitsune.Platform;
 import org.aincraft.kitsune.embedding.download.HuggingFaceModelDownloader;
@@ -23,34 +36,67 @@ import org.aincraft.kitsune.embedding.download.ModelSpec;
 /**
  * Unified ONNX embedding service that supports multiple models via ModelSpec.
  * Handles model downloading, tokenizer loading, inference, and mean pooling.
- * Uses virtual threads for ONNX inference (JDK 21+).
+ * Model runs happen on a fixed pool of platform threads, one per batch allowed to run at once,
+ * each using the session's intra-op threads; downloads and setup use virtual threads.
+ * Concurrent embed and embedBatch calls are coalesced by an {@link EmbeddingBatcher}, so texts
+ * submitted together share one inference run.
  */
 public final class OnnxEmbeddingService implements EmbeddingService {
     private final Platform platform;
     private final ModelSpec spec;
-    // TODO: PERF - Virtual threads not ideal for CPU-bound ONNX inference
-    // Virtual threads excel at I/O but ONNX inference is CPU-bound
-    // Consider: Fixed thread pool sized to Runtime.getRuntime().availableProcessors()
     private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ExecutorService inferenceExecutor;
     private final boolean autoDownloadEnabled;
+    private final InferenceBatchSettings batchSettings;
+    private final OnnxSessionSettings sessionSettings;
+    private final EmbeddingBatcher batcher;
+    private final LongAdder tensorRuns = new LongAdder();
+    private final LongAdder tokens = new LongAdder();
+    private final LongAdder paddedTokens = new LongAdder();
+    private final LongAdder inferenceNanos = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+    private final ConcurrentLinkedDeque<InferenceBuffers> bufferPool = new ConcurrentLinkedDeque<>();
 
     private OrtEnvironment env;
     private OrtSession session;
     private HuggingFaceTokenizer tokenizer;
+    private int hiddenSize;
     private HuggingFaceModelDownloader downloader;
 
     // Constants for token sanitization
     private static final long UNK_TOKEN_ID = 100;  // [UNK] token for BERT-based models
     private static final int MAX_SEQUENCE_LENGTH = 512;
+    private static final String LAST_HIDDEN_STATE = "last_hidden_state";
+    // Largest hidden state written into a pooled buffer (32 MiB); bigger runs read a copy instead
+    private static final int MAX_PINNED_OUTPUT_FLOATS = 8 << 20;
 
     public OnnxEmbeddingService(Platform platform, ModelSpec spec) {
         this(platform, spec, true);
     }
 
     public OnnxEmbeddingService(Platform platform, ModelSpec spec, boolean autoDownloadEnabled) {
+        this(platform, spec, autoDownloadEnabled, InferenceBatchSettings.defaults());
+    }
+
+    public OnnxEmbeddingService(Platform platform, ModelSpec spec, boolean autoDownloadEnabled,
+                                InferenceBatchSettings batchSettings) {
+        this(platform, spec, autoDownloadEnabled, batchSettings, OnnxSessionSettings.defaults());
+    }
+
+    public OnnxEmbeddingService(Platform platform, ModelSpec spec, boolean autoDownloadEnabled,
+                                InferenceBatchSettings batchSettings, OnnxSessionSettings sessionSettings) {
         this.platform = platform;
         this.spec = spec;
         this.autoDownloadEnabled = autoDownloadEnabled;
+        this.batchSettings = batchSettings;
+        this.sessionSettings = sessionSettings;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.inferenceExecutor = Executors.newFixedThreadPool(Math.max(1, batchSettings.maxConcurrentBatches()), r -> {
+            Thread t = new Thread(r, "kitsune-inference-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.batcher = new EmbeddingBatcher(platform.getLogger(), batchSettings, inferenceExecutor, this::embedBatchNow);
     }
 
     @Override
@@ -120,11 +166,18 @@ public final class OnnxEmbeddingService implements EmbeddingService {
                     throw new IllegalStateException("ONNX model not found at " + modelPath);
                 }
 
-                session = env.createSession(modelPath.toString());
+                try (OrtSession.SessionOptions options = sessionSettings.toSessionOptions(batchSettings.maxConcurrentBatches())) {
+                    session = env.createSession(modelPath.toString(), options);
+                }
+                hiddenSize = outputWidth(session);
                 loadTokenizer(modelsDir);
 
                 platform.getLogger().info("ONNX embedding service initialized with " + spec.modelName() +
-                           " (" + spec.dimension() + " dimensions, strategy: " + spec.taskPrefixStrategy() + ")");
+                           " (" + spec.dimension() + " dimensions, " + spec.weights() + ", strategy: " + spec.taskPrefixStrategy() + ")");
+                platform.getLogger().info("ONNX inference: " + batchSettings.maxConcurrentBatches()
+                    + " concurrent batches x " + (sessionSettings.intraOpThreads() > 0 ? sessionSettings.intraOpThreads()
+                        : OnnxSessionSettings.autoIntraOpThreads(batchSettings.maxConcurrentBatches()))
+                    + " intra-op threads, optimization " + sessionSettings.optimizationLevel());
                 return null;
             } catch (Exception e) {
                 platform.getLogger().log(Level.SEVERE, "Failed to initialize ONNX session", e);
@@ -168,32 +221,7 @@ public final class OnnxEmbeddingService implements EmbeddingService {
 
     @Override
     public CompletableFuture<float[]> embed(String text, String taskType) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                if (session == null || tokenizer == null) {
-                    throw new IllegalStateException("ONNX session or tokenizer not initialized");
-                }
-
-                String processedText = spec.applyTaskPrefix(text, taskType);
-                Encoding encoding = tokenizer.encode(processedText);
-
-                long[] inputIds = sanitizeTokenIds(encoding.getIds());
-                long[] attentionMask = encoding.getAttentionMask();
-                long[] tokenTypeIds = encoding.getTypeIds();
-
-                float[] embedding = runInference(
-                    new long[][]{inputIds},
-                    new long[][]{attentionMask},
-                    new long[][]{tokenTypeIds},
-                    attentionMask
-                );
-
-                return embedding;
-            } catch (Exception e) {
-                platform.getLogger().log(Level.WARNING, "Failed to embed text", e);
-                throw new RuntimeException("Embedding failed", e);
-            }
-        }, executor);
+        return batcher.submit(spec.applyTaskPrefix(text, taskType));
     }
 
     @Override
@@ -202,157 +230,234 @@ public final class OnnxEmbeddingService implements EmbeddingService {
             return CompletableFuture.completedFuture(Collections.emptyList());
         }
 
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                if (session == null || tokenizer == null) {
-                    throw new IllegalStateException("ONNX session or tokenizer not initialized");
-                }
-
-                int batchSize = texts.size();
-                platform.getLogger().fine("Batch embedding " + batchSize + " texts");
-
-                // Tokenize all texts and find max length
-                List<Encoding> encodings = new ArrayList<>();
-                int maxLen = 0;
-                for (String text : texts) {
-                    String processed = spec.applyTaskPrefix(text, taskType);
-                    Encoding enc = tokenizer.encode(processed);
-                    encodings.add(enc);
-                    maxLen = Math.max(maxLen, enc.getIds().length);
-                }
-
-                // Create padded tensors
-                long[][] inputIdsTensor = new long[batchSize][maxLen];
-                long[][] attentionMaskTensor = new long[batchSize][maxLen];
-                long[][] tokenTypeIdsTensor = new long[batchSize][maxLen];
-
-                for (int i = 0; i < batchSize; i++) {
-                    Encoding enc = encodings.get(i);
-                    long[] ids = sanitizeTokenIds(enc.getIds());
-                    System.arraycopy(ids, 0, inputIdsTensor[i], 0, ids.length);
-                    System.arraycopy(enc.getAttentionMask(), 0, attentionMaskTensor[i], 0, enc.getAttentionMask().length);
-                    System.arraycopy(enc.getTypeIds(), 0, tokenTypeIdsTensor[i], 0, enc.getTypeIds().length);
-                }
-
-                // Run batch inference
-                List<float[]> results = runBatchInference(inputIdsTensor, attentionMaskTensor, tokenTypeIdsTensor);
-
-                platform.getLogger().fine("Batch embedding completed for " + batchSize + " texts");
-                return results;
-            } catch (Exception e) {
-                platform.getLogger().log(Level.WARNING, "Batch embedding failed", e);
-                throw new RuntimeException("Batch embedding failed", e);
-            }
-        }, executor);
+        List<String> processed = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            processed.add(spec.applyTaskPrefix(text, taskType));
+        }
+        return batcher.submitAll(processed);
     }
 
-    private float[] runInference(long[][] inputIds, long[][] attentionMask,
-                                  long[][] tokenTypeIds, long[] attentionMaskFlat) throws Exception {
-        Map<String, OnnxTensor> inputs = createTensors(inputIds, attentionMask, tokenTypeIds);
-
-        try (var outputs = session.run(inputs)) {
-            closeTensors(inputs);
-
-            var lastHiddenStateOpt = outputs.get("last_hidden_state");
-            if (lastHiddenStateOpt.isEmpty()) {
-                throw new RuntimeException("No last_hidden_state in output");
-            }
+    /**
+     * Batch sizes and queue waits of the request coalescer, and token throughput of the model.
+     */
+    public InferenceStats getInferenceStats() {
+        return new InferenceStats(batcher.batchSizes(), batcher.queueWaitMicros(), batcher.queued(),
+            tensorRuns.sum(), tokens.sum(), paddedTokens.sum(), inferenceNanos.sum(), allocatedBytes.sum());
+    }
 
-            OnnxTensor lastHiddenState = (OnnxTensor) lastHiddenStateOpt.get();
-            float[][][] output = (float[][][]) lastHiddenState.getValue();
-            return meanPooling(output[0], attentionMaskFlat);
+    /**
+     * Run one batch of already prefixed texts through the model, on the calling thread.
+     * Texts are sorted by token length and split into length buckets whose padding stays within
+     * the configured share, each run as its own tensor; results come back in input order.
+     */
+    private List<float[]> embedBatchNow(List<String> texts) throws Exception {
+        if (session == null || tokenizer == null) {
+            throw new IllegalStateException("ONNX session or tokenizer not initialized");
         }
-    }
 
-    private List<float[]> runBatchInference(long[][] inputIds, long[][] attentionMask,
-                                             long[][] tokenTypeIds) throws Exception {
-        Map<String, OnnxTensor> inputs = createTensors(inputIds, attentionMask, tokenTypeIds);
+        int batchSize = texts.size();
+        platform.getLogger().fine("Batch embedding " + batchSize + " texts");
 
-        try (var outputs = session.run(inputs)) {
-            closeTensors(inputs);
+        List<Encoding> encodings = new ArrayList<>(batchSize);
+        int[] lengths = new int[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            Encoding enc = tokenizer.encode(texts.get(i));
+            encodings.add(enc);
+            lengths[i] = enc.getIds().length;
+        }
 
-            var lastHiddenStateOpt = outputs.get("last_hidden_state");
-            if (lastHiddenStateOpt.isEmpty()) {
-                throw new RuntimeException("No last_hidden_state in output");
+        float[][] results = new float[batchSize][];
+        for (List<Integer> bucket : lengthBuckets(lengths, batchSettings.maxPaddingRatio())) {
+            int maxLen = 0;
+            long bucketTokens = 0;
+            for (int index : bucket) {
+                maxLen = Math.max(maxLen, lengths[index]);
+                bucketTokens += lengths[index];
             }
 
-            OnnxTensor lastHiddenState = (OnnxTensor) lastHiddenStateOpt.get();
-            float[][][] batchOutput = (float[][][]) lastHiddenState.getValue();
-
-            List<float[]> results = new ArrayList<>();
-            for (int i = 0; i < batchOutput.length; i++) {
-                results.add(meanPooling(batchOutput[i], attentionMask[i]));
-            }
-            return results;
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+            runBucket(encodings, bucket, maxLen, results);
+            inferenceNanos.add(System.nanoTime() - start);
+            allocatedBytes.add(allocatedBytes() - allocatedBefore);
+            tensorRuns.increment();
+            tokens.add(bucketTokens);
+            paddedTokens.add((long) maxLen * bucket.size());
         }
-    }
 
-    private Map<String, OnnxTensor> createTensors(long[][] inputIds, long[][] attentionMask,
-                                                   long[][] tokenTypeIds) throws Exception {
-        Map<String, OnnxTensor> inputs = new HashMap<>();
-        inputs.put("input_ids", OnnxTensor.createTensor(env, inputIds));
-        inputs.put("attention_mask", OnnxTensor.createTensor(env, attentionMask));
-        inputs.put("token_type_ids", OnnxTensor.createTensor(env, tokenTypeIds));
-        return inputs;
+        platform.getLogger().fine("Batch embedding completed for " + batchSize + " texts");
+        return Arrays.asList(results);
     }
 
-    private void closeTensors(Map<String, OnnxTensor> tensors) {
-        for (var tensor : tensors.values()) {
-            tensor.close();
+    /**
+     * Group positions by token length, shortest first. A bucket grows while padding every member to
+     * its longest keeps the padded share of its tensor at or below maxPaddingRatio.
+     */
+    private static List<List<Integer>> lengthBuckets(int[] lengths, double maxPaddingRatio) {
+        Integer[] order = new Integer[lengths.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingInt(i -> lengths[i]));
+
+        List<List<Integer>> buckets = new ArrayList<>();
+        List<Integer> bucket = new ArrayList<>();
+        long bucketTokens = 0;
+        for (int index : order) {
+            int length = lengths[index];
+            long padded = (long) length * (bucket.size() + 1);
+            if (!bucket.isEmpty() && padded - (bucketTokens + length) > maxPaddingRatio * padded) {
+                buckets.add(bucket);
+                bucket = new ArrayList<>();
+                bucketTokens = 0;
+            }
+            bucket.add(index);
+            bucketTokens += length;
         }
+        if (!bucket.isEmpty()) {
+            buckets.add(bucket);
+        }
+        return buckets;
     }
 
-    private long[] sanitizeTokenIds(long[] inputIds) {
-        if (spec.vocabSize() <= 0) {
-            return inputIds; // Sanitization disabled
+    /**
+     * Run one length bucket through the model and pool its hidden states into results. Inputs are
+     * written into pooled direct buffers and the hidden states land in a pooled pinned output,
+     * both read in place; only runs too large for the pool read a copy of the output.
+     */
+    private void runBucket(List<Encoding> encodings, List<Integer> bucket, int maxLen, float[][] results)
+            throws OrtException {
+        int rows = bucket.size();
+        int tokens = rows * maxLen;
+        long hiddenFloats = (long) tokens * hiddenSize;
+        boolean pinned = hiddenFloats <= MAX_PINNED_OUTPUT_FLOATS;
+
+        InferenceBuffers buffers = bufferPool.poll();
+        if (buffers == null) {
+            buffers = new InferenceBuffers();
         }
+        try {
+            buffers.prepare(tokens, pinned ? (int) hiddenFloats : 0);
+            LongBuffer inputIds = buffers.inputIds();
+            LongBuffer attentionMask = buffers.attentionMask();
+            LongBuffer tokenTypeIds = buffers.tokenTypeIds();
+            for (int row = 0; row < rows; row++) {
+                Encoding enc = encodings.get(bucket.get(row));
+                long[] ids = enc.getIds();
+                long[] mask = enc.getAttentionMask();
+                long[] types = enc.getTypeIds();
+                int offset = row * maxLen;
+                for (int t = 0; t < maxLen; t++) {
+                    boolean token = t < ids.length;
+                    inputIds.put(offset + t, token ? sanitizeTokenId(ids[t]) : 0);
+                    attentionMask.put(offset + t, token ? mask[t] : 0);
+                    tokenTypeIds.put(offset + t, token ? types[t] : 0);
+                }
+            }
 
-        long[] sanitized = new long[inputIds.length];
-        for (int i = 0; i < inputIds.length; i++) {
-            if (inputIds[i] >= 0 && inputIds[i] < spec.vocabSize()) {
-                sanitized[i] = inputIds[i];
-            } else {
-                sanitized[i] = UNK_TOKEN_ID;
+            long[] inputShape = {rows, maxLen};
+            try (OnnxTensor inputIdsTensor = OnnxTensor.createTensor(env, inputIds, inputShape);
+                 OnnxTensor attentionMaskTensor = OnnxTensor.createTensor(env, attentionMask, inputShape);
+                 OnnxTensor tokenTypeIdsTensor = OnnxTensor.createTensor(env, tokenTypeIds, inputShape);
+                 OnnxTensor output = pinned
+                     ? OnnxTensor.createTensor(env, buffers.hiddenState(), new long[]{rows, maxLen, hiddenSize})
+                     : null) {
+                Map<String, OnnxTensor> inputs = Map.of(
+                    "input_ids", inputIdsTensor,
+                    "attention_mask", attentionMaskTensor,
+                    "token_type_ids", tokenTypeIdsTensor);
+                if (pinned) {
+                    session.run(inputs, Map.of(LAST_HIDDEN_STATE, output)).close();
+                    poolRows(buffers.hiddenState(), attentionMask, bucket, maxLen, results);
+                } else {
+                    try (OrtSession.Result outputs = session.run(inputs, Set.of(LAST_HIDDEN_STATE))) {
+                        OnnxTensor lastHiddenState = (OnnxTensor) outputs.get(LAST_HIDDEN_STATE)
+                            .orElseThrow(() -> new IllegalStateException("No last_hidden_state in output"));
+                        poolRows(lastHiddenState.getFloatBuffer(), attentionMask, bucket, maxLen, results);
+                    }
+                }
             }
+        } finally {
+            bufferPool.push(buffers);
+        }
+    }
+
+    private long sanitizeTokenId(long id) {
+        if (spec.vocabSize() <= 0) {
+            return id; // Sanitization disabled
         }
-        return sanitized;
+        return id >= 0 && id < spec.vocabSize() ? id : UNK_TOKEN_ID;
     }
 
-    private float[] meanPooling(float[][] lastHiddenState, long[] attentionMask) {
-        float[] result = new float[spec.dimension()];
-        float sumMask = 0;
+    /**
+     * Mean pooling over each row's attended tokens, fused with L2 normalization: the token states
+     * are summed straight from the hidden state buffer and the sum is scaled once to unit length,
+     * which is the normalized mean.
+     */
+    private void poolRows(FloatBuffer hiddenState, LongBuffer attentionMask, List<Integer> bucket, int maxLen,
+                          float[][] results) {
+        int width = Math.min(spec.dimension(), hiddenSize);
+        for (int row = 0; row < bucket.size(); row++) {
+            float[] embedding = new float[spec.dimension()];
+            for (int t = 0; t < maxLen; t++) {
+                int token = row * maxLen + t;
+                if (attentionMask.get(token) != 1) {
+                    continue;
+                }
+                int base = token * hiddenSize;
+                for (int j = 0; j < width; j++) {
+                    embedding[j] += hiddenState.get(base + j);
+                }
+            }
 
-        for (int i = 0; i < lastHiddenState.length && i < attentionMask.length; i++) {
-            if (attentionMask[i] == 1) {
-                for (int j = 0; j < spec.dimension() && j < lastHiddenState[i].length; j++) {
-                    result[j] += lastHiddenState[i][j];
+            float norm = 0;
+            for (float v : embedding) {
+                norm += v * v;
+            }
+            if (norm > 0) {
+                float scale = (float) (1.0 / Math.sqrt(norm));
+                for (int j = 0; j < width; j++) {
+                    embedding[j] *= scale;
                 }
-                sumMask += 1.0f;
             }
+            results[bucket.get(row)] = embedding;
         }
+    }
 
-        if (sumMask > 0) {
-            for (int i = 0; i < result.length; i++) {
-                result[i] /= sumMask;
+    /**
+     * Width of the model's token states, from its output shape; the embedding dimension if the
+     * model leaves it dynamic.
+     */
+    private int outputWidth(OrtSession session) throws OrtException {
+        NodeInfo output = session.getOutputInfo().get(LAST_HIDDEN_STATE);
+        if (output != null && output.getInfo() instanceof TensorInfo tensor) {
+            long[] shape = tensor.getShape();
+            if (shape.length == 3 && shape[2] > 0) {
+                return (int) shape[2];
             }
         }
+        return spec.dimension();
+    }
 
-        normalizeEmbedding(result);
-        return result;
+    private static long allocatedBytes() {
+        return ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+            ? threads.getCurrentThreadAllocatedBytes() : 0;
     }
 
-    private void normalizeEmbedding(float[] embedding) {
-        float norm = 0;
-        for (float v : embedding) {
-            norm += v * v;
-        }
-        norm = (float) Math.sqrt(norm);
+    public ModelSpec getSpec() {
+        return spec;
+    }
 
-        if (norm > 0) {
-            for (int i = 0; i < embedding.length; i++) {
-                embedding[i] /= norm;
-            }
-        }
+    public Path getModelPath() {
+        return platform.getDataFolder().resolve("models").resolve(spec.getModelFileName());
+    }
+
+    public OnnxSessionSettings getSessionSettings() {
+        return sessionSettings;
+    }
+
+    public InferenceBatchSettings getBatchSettings() {
+        return batchSettings;
     }
 
     @Override
@@ -362,6 +467,14 @@ public final class OnnxEmbeddingService implements EmbeddingService {
 
     @Override
     public void shutdown() {
+        batcher.close();
+        // Let running batches finish before their session closes
+        inferenceExecutor.shutdown();
+        try {
+            inferenceExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
         if (session != null) {
             try { session.close(); }
             catch (Exception e) { platform.getLogger().log(Level.WARNING, "Failed to close ONNX session", e); }
@@ -0,0 +1,80 @@
+package org.aincraft.kitsune.embedding;
+
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+import java.util.Locale;
+import org.aincraft.kitsune.config.KitsuneConfig;
+
+/**
+ * ONNX Runtime session options for local embedding models, read from the embedding.onnx config
+ * section.
+ */
+public record OnnxSessionSettings(
+    int intraOpThreads,         // threads one model run uses (0 = cores left after the server thread, split across concurrent batches)
+    int interOpThreads,         // threads running independent graph nodes in parallel mode (0 = runtime default)
+    String optimizationLevel,   // graph optimizations: "none", "basic", "extended" or "all"
+    String executionMode,       // "sequential" or "parallel"
+    boolean memoryPattern,      // plan buffers from the first run of each input shape
+    boolean cpuArena            // pool CPU allocations in an arena instead of returning them to the system
+) {
+    public static OnnxSessionSettings defaults() {
+        return new OnnxSessionSettings(0, 0, "all", "sequential", true, true);
+    }
+
+    public static OnnxSessionSettings fromConfig(KitsuneConfig config) {
+        return new OnnxSessionSettings(
+            config.embeddingOnnxIntraOpThreads(),
+            config.embeddingOnnxInterOpThreads(),
+            config.embeddingOnnxOptimizationLevel(),
+            config.embeddingOnnxExecutionMode(),
+            config.embeddingOnnxMemoryPattern(),
+            config.embeddingOnnxCpuArena()
+        );
+    }
+
+    /**
+     * Intra-op threads per run when left to 0: the cores not needed by the server's main thread,
+     * shared by the batches that may run at once.
+     */
+    public static int autoIntraOpThreads(int concurrentBatches) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        return Math.max(1, (cores - 1) / Math.max(1, concurrentBatches));
+    }
+
+    public OnnxSessionSettings withThreads(int intraOpThreads) {
+        return new OnnxSessionSettings(intraOpThreads, interOpThreads, optimizationLevel, executionMode,
+            memoryPattern, cpuArena);
+    }
+
+    /**
+     * @param concurrentBatches batches that may run at once, to size intra-op threads when left to 0
+     * @throws IllegalArgumentException for an unknown optimization level or execution mode
+     */
+    public OrtSession.SessionOptions toSessionOptions(int concurrentBatches) throws OrtException {
+        OrtSession.SessionOptions options = new OrtSession.SessionOptions();
+        try {
+            options.setIntraOpNumThreads(intraOpThreads > 0 ? intraOpThreads : autoIntraOpThreads(concurrentBatches));
+            if (interOpThreads > 0) {
+                options.setInterOpNumThreads(interOpThreads);
+            }
+            options.setOptimizationLevel(switch (optimizationLevel.toLowerCase(Locale.ROOT)) {
+                case "none" -> OrtSession.SessionOptions.OptLevel.NO_OPT;
+                case "basic" -> OrtSession.SessionOptions.OptLevel.BASIC_OPT;
+                case "extended" -> OrtSession.SessionOptions.OptLevel.EXTENDED_OPT;
+                case "all" -> OrtSession.SessionOptions.OptLevel.ALL_OPT;
+                default -> throw new IllegalArgumentException("Unknown ONNX optimization level: " + optimizationLevel);
+            });
+            options.setExecutionMode(switch (executionMode.toLowerCase(Locale.ROOT)) {
+                case "sequential" -> OrtSession.SessionOptions.ExecutionMode.SEQUENTIAL;
+                case "parallel" -> OrtSession.SessionOptions.ExecutionMode.PARALLEL;
+                default -> throw new IllegalArgumentException("Unknown ONNX execution mode: " + executionMode);
+            });
+            options.setMemoryPatternOptimization(memoryPattern);
+            options.setCPUArenaAllocator(cpuArena);
+            return options;
+        } catch (OrtException | RuntimeException e) {
+            options.close();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package org.aincraft.kitsune.embedding;
+
+import com.google.gson.JsonObject;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+import org.aincraft.kitsune.Platform;
+import org.aincraft.kitsune.embedding.download.ModelSpec;
+import org.aincraft.kitsune.serialization.ItemSerializationLogic;
+import org.aincraft.kitsune.util.ItemDataExtractor;
+
+/**
+ * Compares a model's reduced-precision weights with its fp32 weights on items already indexed on
+ * this server: how fast each embeds them, how close each item's two embeddings are, and how many
+ * of a search's top results both return.
+ *
+ * Searches are the item names in the sample, embedded as queries and ranked against the sampled
+ * items by cosine similarity. Each weights variant runs in a fresh service with the configured
+ * batch and session settings, one after the other, and is downloaded first if missing; the live
+ * service and its cache are not touched.
+ */
+public final class QuantizationEvaluation {
+
+    private static final int TOP_K = 10;
+    private static final int MAX_QUERIES = 100;
+    private static final int WARMUP_TEXTS = 32;
+
+    /**
+     * @param meanCosine mean similarity between each item's fp32 and variant embeddings
+     * @param topKAgreement mean share of each search's top k items that both weights return
+     */
+    public record Result(String weights, int items, int queries, int k, double fp32TextsPerSecond,
+                         double variantTextsPerSecond, double meanCosine, double minCosine, double topKAgreement) {
+    }
+
+    private record Embedded(List<float[]> items, List<float[]> queries, double textsPerSecond) {
+    }
+
+    private final Platform platform;
+    private final InferenceBatchSettings batchSettings;
+    private final OnnxSessionSettings sessionSettings;
+
+    public QuantizationEvaluation(Platform platform, InferenceBatchSettings batchSettings,
+                                  OnnxSessionSettings sessionSettings) {
+        this.platform = platform;
+        this.batchSettings = batchSettings;
+        this.sessionSettings = sessionSettings;
+    }
+
+    /**
+     * @param spec the model, in any weights
+     * @param weights the weights to compare with fp32
+     * @param payloads stored item payloads as JSON
+     * @throws IllegalArgumentException if the model does not publish those weights
+     */
+    public Result run(ModelSpec spec, String weights, List<String> payloads) {
+        ModelSpec reference = spec.withWeights(ModelSpec.FP32);
+        ModelSpec variant = spec.withWeights(weights);
+
+        // Items differing only in slot embed the same text; keep one so ranking ties stay rare
+        Set<String> items = new LinkedHashSet<>();
+        Set<String> names = new LinkedHashSet<>();
+        int skipped = 0;
+        for (String payload : payloads) {
+            try {
+                JsonObject json = ItemDataExtractor.parseItemObject(payload);
+                if (json == null) {
+                    skipped++;
+                    continue;
+                }
+                items.add(ItemSerializationLogic.embeddingText(json));
+                if (json.has("displayName")) names.add(json.get("displayName").getAsString().toLowerCase());
+            } catch (RuntimeException e) {
+                skipped++;
+            }
+        }
+        if (skipped > 0) {
+            platform.getLogger().warning("Quantization: skipped " + skipped + " unreadable item payloads");
+        }
+        if (items.isEmpty()) {
+            throw new IllegalStateException("No indexed items to evaluate on");
+        }
+        List<String> itemTexts = List.copyOf(items);
+        List<String> queryTexts = names.stream().limit(MAX_QUERIES).toList();
+
+        Embedded expected = embed(reference, itemTexts, queryTexts);
+        Embedded actual = embed(variant, itemTexts, queryTexts);
+
+        double cosineSum = 0;
+        double minCosine = 1;
+        for (int i = 0; i < itemTexts.size(); i++) {
+            double cosine = cosine(expected.items().get(i), actual.items().get(i));
+            cosineSum += cosine;
+            minCosine = Math.min(minCosine, cosine);
+        }
+
+        int k = Math.min(TOP_K, itemTexts.size());
+        double agreementSum = 0;
+        for (int q = 0; q < queryTexts.size(); q++) {
+            Set<Integer> expectedTop = topK(expected.queries().get(q), expected.items(), k);
+            Set<Integer> actualTop = topK(actual.queries().get(q), actual.items(), k);
+            actualTop.retainAll(expectedTop);
+            agreementSum += (double) actualTop.size() / k;
+        }
+
+        Result result = new Result(variant.weights(), itemTexts.size(), queryTexts.size(), k,
+            expected.textsPerSecond(), actual.textsPerSecond(), cosineSum / itemTexts.size(), minCosine,
+            queryTexts.isEmpty() ? 0 : agreementSum / queryTexts.size());
+        platform.getLogger().info(String.format("Quantization: %s over %d items, fp32 %.0f texts/s, %s %.0f texts/s, "
+                + "cosine mean %.4f min %.4f, top-%d agreement %.1f%% over %d searches", spec.modelName(),
+            result.items(), result.fp32TextsPerSecond(), result.weights(), result.variantTextsPerSecond(),
+            result.meanCosine(), result.minCosine(), k, result.topKAgreement() * 100, result.queries()));
+        return result;
+    }
+
+    private Embedded embed(ModelSpec spec, List<String> items, List<String> queries) {
+        Logger logger = platform.getLogger();
+        OnnxEmbeddingService service = new OnnxEmbeddingService(platform, spec, true, batchSettings, sessionSettings);
+        try {
+            service.initialize().join();
+            service.embedBatch(items.subList(0, Math.min(WARMUP_TEXTS, items.size())), "RETRIEVAL_DOCUMENT").join();
+
+            long start = System.nanoTime();
+            List<float[]> itemEmbeddings = service.embedBatch(items, "RETRIEVAL_DOCUMENT").join();
+            long elapsed = System.nanoTime() - start;
+            List<float[]> queryEmbeddings = queries.isEmpty()
+                ? List.of() : service.embedBatch(queries, "RETRIEVAL_QUERY").join();
+            logger.info("Quantization: embedded " + items.size() + " items with " + spec.getModelFileName());
+            return new Embedded(itemEmbeddings, queryEmbeddings, elapsed == 0 ? 0 : items.size() * 1e9 / elapsed);
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    private static Set<Integer> topK(float[] query, List<float[]> items, int k) {
+        double[] scores = new double[items.size()];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = cosine(query, items.get(i));
+        }
+        Set<Integer> top = new HashSet<>();
+        IntStream.range(0, scores.length).boxed()
+            .sorted(Comparator.comparingDouble((Integer i) -> scores[i]).reversed())
+            .limit(k)
+            .forEach(top::add);
+        return top;
+    }
+
+    private static double cosine(float[] a, float[] b) {
+        double dot = 0;
+        double normA = 0;
+        double normB = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        return normA == 0 || normB == 0 ? 0 : dot / Math.sqrt(normA * normB);
+    }
+}
@@ -53,15 +53,15 @@ public final class HuggingFaceModelDownloader {
             try {
                 // Create models directory if needed
                 Files.createDirectories(modelsDir);
-                platform.getLogger().info("Starting download of model: " + spec.modelName());
+                platform.getLogger().info("Starting download of model: " + spec.modelName() + " (" + spec.weights() + ")");
                 return modelsDir;
             } catch (IOException e) {
                 platform.getLogger().log(Level.SEVERE, "Failed to create models directory", e);
                 throw new CompletionException(e);
             }
         }, executor).thenCompose(dir -> {
-            // Download model file
-            String modelFileName = spec.modelName() + ".onnx";
+            // Download model file, in the weights the spec selects
+            String modelFileName = spec.getModelFileName();
             Path modelPath = dir.resolve(modelFileName);
 
             CompletableFuture<Path> modelDownload = downloadFile(
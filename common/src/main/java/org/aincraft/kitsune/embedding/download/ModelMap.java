@@ -16,10 +16,12 @@ public final class ModelMap {
     private ModelMap() {
         register("nomic-embed-text-v1.5",
             "nomic-ai/nomic-embed-text-v1.5",
-            768, 30528, ModelSpec.TaskPrefixStrategy.NOMIC, false);
+            768, 30528, ModelSpec.TaskPrefixStrategy.NOMIC, false,
+            Map.of("int8", "onnx/model_quantized.onnx", "fp16", "onnx/model_fp16.onnx"));
         register("all-minilm-l6-v2",
             "sentence-transformers/all-MiniLM-L6-v2",
-            384, 30522, ModelSpec.TaskPrefixStrategy.NONE, false);
+            384, 30522, ModelSpec.TaskPrefixStrategy.NONE, false,
+            Map.of("int8", "onnx/model_quint8_avx2.onnx"));
         register("bge-m3",
             "BAAI/bge-m3",
             1024, 250002, ModelSpec.TaskPrefixStrategy.NONE, false);
@@ -35,9 +37,21 @@ public final class ModelMap {
     private void register(String name, String repo, int dimension,
                           int vocabSize, ModelSpec.TaskPrefixStrategy strategy,
                           boolean requiresExternalData) {
+        register(name, repo, dimension, vocabSize, strategy, requiresExternalData, Map.of());
+    }
+
+    /**
+     * @param variants weights other than fp32 the repository publishes, e.g. "int8" -> "onnx/model_quantized.onnx"
+     */
+    private void register(String name, String repo, int dimension,
+                          int vocabSize, ModelSpec.TaskPrefixStrategy strategy,
+                          boolean requiresExternalData, Map<String, String> variants) {
+        Map<String, String> weightFiles = new HashMap<>(variants);
+        weightFiles.put(ModelSpec.FP32, "onnx/model.onnx");
         models.put(name.toLowerCase(), new ModelSpec(
             name, repo, "onnx/model.onnx", "tokenizer.json",
-            dimension, vocabSize, strategy, requiresExternalData
+            dimension, vocabSize, strategy, requiresExternalData,
+            ModelSpec.FP32, weightFiles
         ));
     }
 
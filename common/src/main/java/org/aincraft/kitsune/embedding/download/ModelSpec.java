@@ -1,8 +1,13 @@
 package org.aincraft.kitsune.embedding.download;
 
+import java.util.Map;
+
 /**
  * Specification for an ONNX embedding model including its Hugging Face location
  * and processing configuration.
+ *
+ * A model may publish several weight files (fp32, int8-quantized, fp16); modelPath is the one
+ * this spec loads and weightFiles names them all.
  */
 public record ModelSpec(
     String modelName,           // e.g., "nomic-embed-text-v1.5"
@@ -12,8 +17,27 @@ public record ModelSpec(
     int dimension,              // e.g., 768
     int vocabSize,              // for token sanitization (0 = disabled)
     TaskPrefixStrategy taskPrefixStrategy,
-    boolean requiresExternalData    // for model.onnx_data files (large models)
+    boolean requiresExternalData,   // for model.onnx_data files (large models)
+    String weights,                 // e.g., "fp32", "int8"
+    Map<String, String> weightFiles // weights -> path within the repository, including modelPath
 ) {
+    /** Full-precision weights, the ones every model publishes. */
+    public static final String FP32 = "fp32";
+
+    public ModelSpec {
+        weightFiles = Map.copyOf(weightFiles);
+    }
+
+    /**
+     * Creates a ModelSpec whose only weights are the full-precision file at modelPath.
+     */
+    public ModelSpec(String modelName, String huggingFaceRepo, String modelPath, String tokenizerPath,
+                     int dimension, int vocabSize, TaskPrefixStrategy taskPrefixStrategy,
+                     boolean requiresExternalData) {
+        this(modelName, huggingFaceRepo, modelPath, tokenizerPath, dimension, vocabSize, taskPrefixStrategy,
+             requiresExternalData, FP32, Map.of(FP32, modelPath));
+    }
+
     /**
      * Strategy for adding task prefixes to text before embedding.
      * Different models require different prefix formats for optimal results.
@@ -60,9 +84,24 @@ public record ModelSpec(
     }
 
     /**
-     * Returns the expected model filename (without extension handling).
+     * Returns this spec with other weights of the same model.
+     * @throws IllegalArgumentException if the model does not publish those weights
+     */
+    public ModelSpec withWeights(String weights) {
+        String path = weightFiles.get(weights);
+        if (path == null) {
+            throw new IllegalArgumentException(modelName + " has no " + weights + " weights (available: "
+                + String.join(", ", weightFiles.keySet()) + ")");
+        }
+        return new ModelSpec(modelName, huggingFaceRepo, path, tokenizerPath, dimension, vocabSize,
+                             taskPrefixStrategy, requiresExternalData, weights, weightFiles);
+    }
+
+    /**
+     * Returns the expected model filename (without extension handling). Weights other than fp32
+     * get their own file so switching back and forth does not download again.
      */
     public String getModelFileName() {
-        return modelName + ".onnx";
+        return FP32.equals(weights) ? modelName + ".onnx" : modelName + "-" + weights + ".onnx";
     }
 }
\ No newline at end of file
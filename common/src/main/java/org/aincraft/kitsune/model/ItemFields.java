@@ -0,0 +1,20 @@
+package org.aincraft.kitsune.model;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The parts of a stored item that result rendering needs, kept in typed columns next to the
+ * item's stored JSON so results are built without parsing it.
+ *
+ * @param slotIndex slot the item was in, or -1 if unknown
+ * @param amount stack size, at least 1
+ * @param material material id, e.g. DIAMOND_PICKAXE
+ */
+public record ItemFields(
+    int slotIndex,
+    int amount,
+    @Nullable String material,
+    String displayName
+) {
+    public static final ItemFields UNKNOWN = new ItemFields(-1, 1, null, "Unknown Item");
+}
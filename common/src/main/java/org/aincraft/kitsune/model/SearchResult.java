@@ -10,6 +10,8 @@ import org.jetbrains.annotations.Nullable;
  * Represents a search result for a container containing items of interest.
  *
  * Can optionally include the path through nested containers where the item was found.
+ * The matched item's slot, amount, material and display name come from typed storage columns,
+ * so rendering a result never parses fullContent.
  */
 public record SearchResult(
     Location location,
@@ -17,12 +19,17 @@ public record SearchResult(
     double score,
     String preview,
     String fullContent,
-    @Nullable ContainerPath containerPath
+    @Nullable ContainerPath containerPath,
+    int slotIndex,
+    int amount,
+    @Nullable String material,
+    String displayName
 ) {
     // Compact constructor with validation
     public SearchResult {
         Preconditions.checkNotNull(location, "Location cannot be null");
         Preconditions.checkNotNull(preview, "Preview cannot be null");
+        Preconditions.checkNotNull(displayName, "Display name cannot be null");
         Preconditions.checkArgument(score >= 0 && score <= 1, "Score must be between 0 and 1");
         // allLocations defaults to single location if not provided
         if (allLocations == null) {
@@ -1,10 +1,6 @@
 package org.aincraft.kitsune.model.tree;
 
 import com.google.common.base.Preconditions;
-import com.google.gson.Gson;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -18,33 +14,25 @@ import org.aincraft.kitsune.api.indexing.ItemLoader;
 import org.aincraft.kitsune.api.model.ContainerPath;
 import org.aincraft.kitsune.api.model.ContainerNode;
 import org.aincraft.kitsune.Item;
-import org.aincraft.kitsune.cache.ItemDataCache;
 import org.aincraft.kitsune.model.SearchResult;
-import org.aincraft.kitsune.util.ItemDataExtractor;
 import org.jetbrains.annotations.Nullable;
 
+/**
+ * Groups search results by location and nesting path. Item details come from the typed fields on
+ * {@link SearchResult}; the stored JSON is never parsed here.
+ */
 public final class SearchResultTreeBuilder {
 
-  private static final Gson GSON = new Gson();
-
   private SearchResultTreeBuilder() {}
 
   public static List<SearchResultTreeNode> buildTree(List<SearchResult> results, Logger logger) {
-    return buildTree(results, logger, null, null);
+    return buildTree(results, logger, null);
   }
 
   public static List<SearchResultTreeNode> buildTree(
       List<SearchResult> results,
       Logger logger,
       @Nullable ItemLoader itemLoader) {
-    return buildTree(results, logger, itemLoader, null);
-  }
-
-  public static List<SearchResultTreeNode> buildTree(
-      List<SearchResult> results,
-      Logger logger,
-      @Nullable ItemLoader itemLoader,
-      @Nullable ItemDataCache itemCache) {
     Preconditions.checkNotNull(results, "Results list cannot be null");
 
     LinkedHashMap<String, List<SearchResult>> locationGroups = new LinkedHashMap<>();
@@ -55,7 +43,7 @@ public final class SearchResultTreeBuilder {
 
     List<SearchResultTreeNode> locationNodes = new ArrayList<>();
     for (List<SearchResult> resultsAtLocation : locationGroups.values()) {
-      locationNodes.add(buildLocationNode(resultsAtLocation, logger, itemLoader, itemCache));
+      locationNodes.add(buildLocationNode(resultsAtLocation, itemLoader));
     }
     return locationNodes;
   }
@@ -70,9 +58,7 @@ public final class SearchResultTreeBuilder {
 
   private static SearchResultTreeNode buildLocationNode(
       List<SearchResult> resultsAtLocation,
-      Logger logger,
-      @Nullable ItemLoader itemLoader,
-      @Nullable ItemDataCache itemCache) {
+      @Nullable ItemLoader itemLoader) {
     Preconditions.checkArgument(!resultsAtLocation.isEmpty(), "Results at location cannot be empty");
 
     SearchResult firstResult = resultsAtLocation.get(0);
@@ -91,9 +77,9 @@ public final class SearchResultTreeBuilder {
               .anyMatch(r -> r.containerPath() != null &&
                   !r.containerPath().isRoot() &&
                   !r.containerPath().containerRefs().isEmpty() &&
-                  r.containerPath().containerRefs().get(0).getSlotIndex() == extractSlotIndex(result, itemCache));
+                  r.containerPath().containerRefs().get(0).getSlotIndex() == result.slotIndex());
           if (hasChildResults) {
-            containerScores.put(extractSlotIndex(result, itemCache), (int) Math.round(result.score() * 100));
+            containerScores.put(result.slotIndex(), (int) Math.round(result.score() * 100));
             continue;
           }
         }
@@ -110,12 +96,8 @@ public final class SearchResultTreeBuilder {
       int scorePercent = (int) Math.round(result.score() * 100);
 
       if (containerPath == null || containerPath.isRoot()) {
-        ItemDataCache.ExtractedItemData itemData = itemCache != null
-            ? itemCache.getOrExtract(result.fullContent(), logger)
-            : extractItemDataLegacy(result.fullContent(), logger);
-
-        int slotIndex = itemData.getSlotIndex();
-        int amount = itemData.getAmount();
+        int slotIndex = result.slotIndex();
+        int amount = result.amount();
         Item item = null;
 
         Block block = loc.getBlock();
@@ -131,7 +113,7 @@ public final class SearchResultTreeBuilder {
         }
 
         ItemResultData itemResultData = ItemResultData.ofRootItem(
-            itemData.getDisplayName(), slotIndex, amount, scorePercent, item);
+            result.displayName(), slotIndex, amount, scorePercent, item);
         locationNode.addChild(SearchResultTreeNode.itemNode(itemResultData));
       } else {
         SearchResultTreeNode parentNode = locationNode;
@@ -153,12 +135,8 @@ public final class SearchResultTreeBuilder {
           parentNode = containerNode;
         }
 
-        ItemDataCache.ExtractedItemData itemData = itemCache != null
-            ? itemCache.getOrExtract(result.fullContent(), logger)
-            : extractItemDataLegacy(result.fullContent(), logger);
-
-        int slotIndex = itemData.getSlotIndex();
-        int amount = itemData.getAmount();
+        int slotIndex = result.slotIndex();
+        int amount = result.amount();
         Item item = null;
 
         if (itemLoader != null) {
@@ -166,7 +144,7 @@ public final class SearchResultTreeBuilder {
         }
 
         ItemResultData itemResultData = ItemResultData.ofNestedItem(
-            itemData.getDisplayName(), slotIndex, amount, scorePercent, result.containerPath(), item);
+            result.displayName(), slotIndex, amount, scorePercent, result.containerPath(), item);
         parentNode.addChild(SearchResultTreeNode.itemNode(itemResultData));
       }
     }
@@ -180,104 +158,6 @@ public final class SearchResultTreeBuilder {
     return lower.contains("shulker") || lower.contains("bundle");
   }
 
-  private static int extractSlotIndex(SearchResult result, ItemDataCache itemCache) {
-    if (itemCache != null) {
-      return itemCache.getOrExtract(result.fullContent(), null).getSlotIndex();
-    }
-    return ItemDataExtractor.extractSlotIndex(result.fullContent(), null);
-  }
-
-  private static ItemDataCache.ExtractedItemData extractItemDataLegacy(String fullContent, Logger logger) {
-    if (fullContent == null || fullContent.isEmpty()) {
-      return new ItemDataCache.ExtractedItemData("Unknown Item", -1, 1, ContainerPath.ROOT);
-    }
-
-    try {
-      JsonElement elem = GSON.fromJson(fullContent, JsonElement.class);
-      JsonObject itemObj = null;
-
-      if (elem != null) {
-        if (elem.isJsonObject()) {
-          itemObj = elem.getAsJsonObject();
-        } else if (elem.isJsonArray()) {
-          JsonArray jsonArray = elem.getAsJsonArray();
-          if (jsonArray.size() > 0 && jsonArray.get(0).isJsonObject()) {
-            itemObj = jsonArray.get(0).getAsJsonObject();
-          }
-        }
-      }
-
-      if (itemObj != null) {
-        String displayName = extractDisplayName(itemObj);
-        int slotIndex = extractSlotIndex(itemObj);
-        int amount = extractAmount(itemObj);
-        ContainerPath containerPath = extractContainerPath(itemObj, logger);
-        return new ItemDataCache.ExtractedItemData(displayName, slotIndex, amount, containerPath);
-      }
-    } catch (Exception e) {
-      if (logger != null) logger.warning("extractItemDataLegacy: " + e.getMessage());
-    }
-    return new ItemDataCache.ExtractedItemData("Unknown Item", -1, 1, ContainerPath.ROOT);
-  }
-
-  private static String extractDisplayName(JsonObject itemObj) {
-    if (itemObj.has("display_name")) {
-      String displayName = itemObj.get("display_name").getAsString();
-      if (displayName != null && !displayName.isEmpty()) return displayName;
-    }
-    if (itemObj.has("name")) {
-      String name = itemObj.get("name").getAsString();
-      if (name != null && !name.isEmpty()) return name;
-    }
-    if (itemObj.has("material")) {
-      return formatMaterialName(itemObj.get("material").getAsString());
-    }
-    return "Unknown Item";
-  }
-
-  private static int extractSlotIndex(JsonObject itemObj) {
-    return itemObj.has("slot") ? itemObj.get("slot").getAsInt() : -1;
-  }
-
-  private static int extractAmount(JsonObject itemObj) {
-    if (itemObj.has("amount")) {
-      int amount = itemObj.get("amount").getAsInt();
-      return Math.max(amount, 1);
-    }
-    return 1;
-  }
-
-  private static ContainerPath extractContainerPath(JsonObject itemObj, Logger logger) {
-    if (!itemObj.has("container_path")) return ContainerPath.ROOT;
-
-    var pathElement = itemObj.get("container_path");
-    if (pathElement.isJsonPrimitive() && pathElement.getAsJsonPrimitive().isString()) {
-      String pathString = pathElement.getAsString();
-      if (pathString.isEmpty()) return ContainerPath.ROOT;
-      return parseLegacyContainerPath(pathString);
-    }
-
-    try {
-      return ContainerPath.fromJson(pathElement.toString());
-    } catch (Exception e) {
-      if (logger != null) logger.warning("extractContainerPath: " + e.getMessage());
-      return ContainerPath.ROOT;
-    }
-  }
-
-  private static String formatMaterialName(String material) {
-    if (material == null) return "Unknown Item";
-    String[] words = material.toLowerCase().split("_");
-    StringBuilder sb = new StringBuilder();
-    for (String word : words) {
-      if (!word.isEmpty()) {
-        if (sb.length() > 0) sb.append(" ");
-        sb.append(Character.toUpperCase(word.charAt(0))).append(word.substring(1));
-      }
-    }
-    return sb.toString();
-  }
-
   private static String buildCacheKey(List<ContainerNode> containerRefs, int upToIndex) {
     StringBuilder sb = new StringBuilder();
     for (int i = 0; i <= upToIndex; i++) {
@@ -287,31 +167,4 @@ public final class SearchResultTreeBuilder {
     }
     return sb.toString();
   }
-
-  private static ContainerPath parseLegacyContainerPath(String pathString) {
-    String[] parts = pathString.split(" → ");
-    List<ContainerNode> refs = new ArrayList<>();
-
-    for (int i = 0; i < parts.length; i++) {
-      String part = parts[i].trim();
-      String containerType = "container";
-      String color = null;
-      String customName = null;
-
-      if (part.toLowerCase().contains("shulker_box") || part.toLowerCase().contains("shulker box")) {
-        containerType = "shulker_box";
-        String lowerPart = part.toLowerCase();
-        int shulkerIdx = lowerPart.indexOf("shulker");
-        if (shulkerIdx > 0) {
-          color = part.substring(0, shulkerIdx).trim().toLowerCase();
-        }
-      } else if (part.toLowerCase().contains("bundle")) {
-        containerType = "bundle";
-      } else {
-        customName = part;
-      }
-      refs.add(new ContainerNode(containerType, color, customName, i, null, null));
-    }
-    return new ContainerPath(refs);
-  }
 }
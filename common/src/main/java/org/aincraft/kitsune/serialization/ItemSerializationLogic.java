@@ -8,9 +8,13 @@ import org.aincraft.kitsune.Item;
 import org.aincraft.kitsune.api.indexing.SerializedItem;
 import org.aincraft.kitsune.api.model.ContainerNode;
 import org.aincraft.kitsune.api.serialization.TagProviderRegistry;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -109,15 +113,40 @@ public class ItemSerializationLogic {
      * Build plain text for embedding.
      */
     private String buildEmbeddingText(Item item) {
+        Set<String> tags = tagRegistry != null ? tagRegistry.collectTags(item) : Set.of();
+        return embeddingText(item.amount(), item.getDisplayName(), item.material(), item.enchantments(), tags);
+    }
+
+    /**
+     * The text embedded for an item, rebuilt from its storage JSON.
+     */
+    public static String embeddingText(JsonObject storageJson) {
+        Map<String, Integer> enchants = new LinkedHashMap<>();
+        if (storageJson.has("enchantments")) {
+            storageJson.getAsJsonObject("enchantments").entrySet()
+                .forEach(entry -> enchants.put(entry.getKey(), entry.getValue().getAsInt()));
+        }
+        List<String> tags = new ArrayList<>();
+        if (storageJson.has("tags")) {
+            storageJson.getAsJsonArray("tags").forEach(tag -> tags.add(tag.getAsString()));
+        }
+        return embeddingText(storageJson.has("amount") ? storageJson.get("amount").getAsInt() : 1,
+            storageJson.has("displayName") ? storageJson.get("displayName").getAsString() : "",
+            storageJson.has("material") ? storageJson.get("material").getAsString() : null, enchants, tags);
+    }
+
+    private static String embeddingText(int amount, String displayName, @Nullable String material,
+                                        Map<String, Integer> enchants, Collection<String> tags) {
         StringBuilder sb = new StringBuilder();
 
-        sb.append(item.amount()).append("x ").append(item.getDisplayName());
+        sb.append(amount).append("x ").append(displayName);
 
         // Add material type
-        sb.append(" (").append(formatMaterial(item.material())).append(")");
+        if (material != null) {
+            sb.append(" (").append(formatMaterial(material)).append(")");
+        }
 
         // Add enchantments
-        var enchants = item.enchantments();
         if (!enchants.isEmpty()) {
             sb.append(" enchanted with ");
             List<String> enchantNames = new ArrayList<>();
@@ -126,18 +155,18 @@ public class ItemSerializationLogic {
         }
 
         // Add tags from providers
-        if (tagRegistry != null) {
-            Set<String> tags = tagRegistry.collectTags(item);
-            if (!tags.isEmpty()) {
-                sb.append(" tags: ").append(String.join(" ", tags));
-            }
+        if (!tags.isEmpty()) {
+            sb.append(" tags: ").append(String.join(" ", tags));
         }
 
-        return sb.toString();
+        // Searches embed lowercased queries
+        return sb.toString().toLowerCase();
     }
 
     /**
-     * Build JSON for storage.
+     * Build JSON for storage. Storage re-encodes this layout compactly and rebuilds the same text on
+     * read; a change to its fields or their order just leaves new rows stored as JSON until the
+     * codec learns it.
      */
     private String buildStorageJson(Item item, int slotIndex) {
         JsonObject json = new JsonObject();
@@ -186,7 +215,7 @@ public class ItemSerializationLogic {
     /**
      * Format material name for display.
      */
-    private String formatMaterial(String material) {
+    private static String formatMaterial(String material) {
         return material.toLowerCase().replace("_", " ");
     }
 }
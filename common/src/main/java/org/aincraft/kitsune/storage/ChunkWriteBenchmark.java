@@ -0,0 +1,127 @@
+package org.aincraft.kitsune.storage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+import org.aincraft.kitsune.Location;
+import org.aincraft.kitsune.Platform;
+import org.aincraft.kitsune.api.ContainerLocations;
+import org.aincraft.kitsune.model.ContainerChunk;
+import org.aincraft.kitsune.storage.metadata.ContainerStorage;
+
+/**
+ * Compares chunk write throughput of the per-row path (one write, and so one commit, per chunk)
+ * with the batched single-transaction path, against a scratch database.
+ *
+ * Each container holds a double chest's worth of chunks drawn from a small pool of item
+ * embeddings, so vector references are shared as they are on a real server. Every path
+ * writes all containers once, then re-indexes them (the common case of an edited chest).
+ */
+public final class ChunkWriteBenchmark {
+
+    private static final int CHUNKS_PER_CONTAINER = 54;
+    private static final int DISTINCT_ITEMS = 200;
+    private static final int EMBEDDING_DIMENSION = 16;
+    private static final int WRITE_QUEUE_CAPACITY = 64;
+
+    /**
+     * Timing for one path.
+     */
+    public record Result(String path, int containers, int chunks, long insertMillis, long reindexMillis) {
+        public double chunksPerSecond() {
+            long millis = insertMillis + reindexMillis;
+            return millis == 0 ? 0 : 2.0 * chunks * 1000 / millis;
+        }
+    }
+
+    private final Logger logger;
+
+    public ChunkWriteBenchmark(Logger logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * @param perRowDataSource empty scratch database for the per-row path, with at least two connections
+     * @param batchDataSource empty scratch database for the batched path, with at least two connections
+     * @param world existing world to place the benchmark containers in
+     * @param containers containers written per pass
+     */
+    public List<Result> run(DataSource perRowDataSource, DataSource batchDataSource, String world, int containers) {
+        Random random = new Random(42);
+        List<float[]> items = new ArrayList<>(DISTINCT_ITEMS);
+        for (int i = 0; i < DISTINCT_ITEMS; i++) {
+            float[] embedding = new float[EMBEDDING_DIMENSION];
+            for (int d = 0; d < EMBEDDING_DIMENSION; d++) {
+                embedding[d] = random.nextFloat();
+            }
+            items.add(embedding);
+        }
+        List<ContainerLocations> locations = new ArrayList<>(containers);
+        List<List<ContainerChunk>> contents = new ArrayList<>(containers);
+        for (int c = 0; c < containers; c++) {
+            Location location = Platform.get().createLocation(world, c * 2, -64, 0);
+            locations.add(ContainerLocations.single(location));
+            List<ContainerChunk> chunks = new ArrayList<>(CHUNKS_PER_CONTAINER);
+            for (int slot = 0; slot < CHUNKS_PER_CONTAINER; slot++) {
+                int item = random.nextInt(DISTINCT_ITEMS);
+                chunks.add(new ContainerChunk(UUID.randomUUID(), slot, "{\"item\":" + item + "}",
+                    items.get(item), System.currentTimeMillis(), null));
+            }
+            contents.add(chunks);
+        }
+
+        List<Result> results = List.of(
+            measure("per-row", perRowDataSource, world, locations, contents, false),
+            measure("batch", batchDataSource, world, locations, contents, true)
+        );
+        for (Result result : results) {
+            logger.info(String.format("Chunk writes %s: %d containers x %d chunks, insert %dms, re-index %dms, %.0f chunks/s",
+                result.path(), result.containers(), CHUNKS_PER_CONTAINER, result.insertMillis(), result.reindexMillis(),
+                result.chunksPerSecond()));
+        }
+        return results;
+    }
+
+    private Result measure(String path, DataSource dataSource, String world, List<ContainerLocations> locations,
+                           List<List<ContainerChunk>> contents, boolean batched) {
+        // Callers wait on each write, so every write commits alone and the comparison stays per-row vs batch
+        try (SqliteWriter writer = new SqliteWriter(logger, dataSource, WRITE_QUEUE_CAPACITY, 1)) {
+            return measure(path, new ContainerStorage(dataSource, writer, logger), world, locations, contents, batched);
+        }
+    }
+
+    private Result measure(String path, ContainerStorage storage, String world, List<ContainerLocations> locations,
+                           List<List<ContainerChunk>> contents, boolean batched) {
+        storage.initialize();
+        List<UUID> ids = new ArrayList<>(locations.size());
+        for (ContainerLocations location : locations) {
+            ids.add(storage.getOrCreateContainer(location));
+        }
+        long[] millis = new long[2];
+        for (int pass = 0; pass < 2; pass++) {
+            long start = System.nanoTime();
+            for (int c = 0; c < ids.size(); c++) {
+                List<ContainerChunk> chunks = contents.get(c);
+                List<String> hashes = new ArrayList<>(chunks.size());
+                for (ContainerChunk chunk : chunks) {
+                    hashes.add(KitsuneStorage.contentHash(chunk.embedding()));
+                }
+                if (batched) {
+                    storage.replaceChunks(ids.get(c), locations.get(c), world, chunks, hashes);
+                } else {
+                    storage.deleteChunksByContainer(ids.get(c));
+                    for (int i = 0; i < chunks.size(); i++) {
+                        int vectorId = storage.acquireVector(world, hashes.get(i)).id();
+                        storage.saveChunk(ids.get(c), UUID.randomUUID(), vectorId, chunks.get(i));
+                    }
+                }
+            }
+            millis[pass] = (System.nanoTime() - start) / 1_000_000;
+        }
+        int chunks = contents.stream().mapToInt(List::size).sum();
+        return new Result(path, ids.size(), chunks, millis[0], millis[1]);
+    }
+}
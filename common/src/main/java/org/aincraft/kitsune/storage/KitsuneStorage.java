@@ -1,8 +1,14 @@
 package org.aincraft.kitsune.storage;
 
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 import java.util.logging.Logger;
 import java.util.logging.Level;
 import javax.sql.DataSource;
@@ -10,43 +16,120 @@ import javax.sql.DataSource;
 import org.aincraft.kitsune.api.ContainerLocations;
 import org.aincraft.kitsune.Location;
 import org.aincraft.kitsune.model.ContainerChunk;
+import org.aincraft.kitsune.model.ItemFields;
 import org.aincraft.kitsune.model.SearchResult;
 import org.aincraft.kitsune.model.StorageStats;
-import org.aincraft.kitsune.storage.metadata.ChunkWithLocation;
+import org.aincraft.kitsune.storage.metadata.CachedChunk;
+import org.aincraft.kitsune.storage.metadata.ChunkBatchResult;
+import org.aincraft.kitsune.storage.metadata.ChunkContent;
+import org.aincraft.kitsune.storage.metadata.ContainerLocation;
 import org.aincraft.kitsune.storage.metadata.ContainerStorage;
+import org.aincraft.kitsune.storage.metadata.LocationCacheStats;
+import org.aincraft.kitsune.storage.metadata.VectorRef;
+import org.aincraft.kitsune.storage.vector.PartitionedVectorIndex;
 import org.aincraft.kitsune.storage.vector.VectorIndex;
+import org.aincraft.kitsune.storage.vector.VectorIndexStats;
 import org.aincraft.kitsune.storage.vector.VectorSearchResult;
-import org.aincraft.kitsune.api.model.ContainerPath;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Storage coordinator between ContainerStorage (SQLite metadata) and VectorIndex (embeddings).
  * Wraps sync ContainerStorage calls in CompletableFuture for async execution.
+ * Vectors are partitioned by world: each container's chunks live in its world's index.
+ * Chunks with identical embeddings in a world share one reference-counted vector, so the
+ * graph holds each distinct item once and hits are expanded back to every chunk.
+ *
+ * Work runs on {@link StorageExecutors}: JDBC stages on virtual threads, hashing and ranking on the
+ * bounded cpu pool, vector operations on the partitions' own executors. Stages are composed, never
+ * joined, so a slow query or index never ties up a thread waiting on another.
  */
 public final class KitsuneStorage {
     private final Logger logger;
     private final ContainerStorage containerStorage;
-    private final VectorIndex vectorIndex;
-    private final AtomicInteger nextOrdinal;
+    private final PartitionedVectorIndex vectorIndexes;
+    private final RadiusSearchPlanner radiusPlanner;
+    private final OrdinalCompactionSettings compactionSettings;
+    private final ScheduledExecutorService maintenanceScheduler;
+    private final StorageExecutors executors;
+
+    public KitsuneStorage(Logger logger, ContainerStorage containerStorage, PartitionedVectorIndex vectorIndexes) {
+        this(logger, containerStorage, vectorIndexes, RadiusSearchSettings.defaults(), OrdinalCompactionSettings.defaults(),
+            new StorageExecutors(0));
+    }
 
-    public KitsuneStorage(Logger logger, ContainerStorage containerStorage, VectorIndex vectorIndex) {
+    /**
+     * @param executors closed by {@link #shutdown()}
+     */
+    public KitsuneStorage(Logger logger, ContainerStorage containerStorage, PartitionedVectorIndex vectorIndexes,
+                          RadiusSearchSettings radiusSearchSettings, OrdinalCompactionSettings compactionSettings,
+                          StorageExecutors executors) {
         this.logger = logger;
         this.containerStorage = containerStorage;
-        this.vectorIndex = vectorIndex;
-        this.nextOrdinal = new AtomicInteger(0);
+        this.vectorIndexes = vectorIndexes;
+        this.radiusPlanner = new RadiusSearchPlanner(logger, radiusSearchSettings);
+        this.compactionSettings = compactionSettings;
+        this.executors = executors;
+        this.maintenanceScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "kitsune-storage-maintenance");
+            t.setDaemon(true);
+            return t;
+        });
     }
 
     public void initialize() {
         logger.info("Initializing KitsuneStorage");
         containerStorage.initialize();
-        vectorIndex.initialize().join();
-        long count = containerStorage.getChunkCount();
-        if (count > 0) {
-            nextOrdinal.set((int) Math.min(count, Integer.MAX_VALUE));
+        vectorIndexes.initialize(containerStorage::getVectorWorlds);
+        // Rows stored as JSON before compact payloads are re-encoded in the background
+        maintenanceScheduler.execute(() -> {
+            try {
+                containerStorage.transcodePayloads();
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Item payload re-encoding failed", e);
+            }
+        });
+        long interval = compactionSettings.intervalSeconds();
+        if (interval > 0) {
+            maintenanceScheduler.scheduleWithFixedDelay(() -> {
+                try {
+                    if (containerStorage.getFreeOrdinalRatio() >= compactionSettings.minFreeRatio()) {
+                        compactOrdinals();
+                    }
+                } catch (RuntimeException e) {
+                    logger.log(Level.WARNING, "Ordinal compaction failed", e);
+                }
+            }, interval, interval, TimeUnit.SECONDS);
         }
-        logger.info("KitsuneStorage initialized. Max ordinal: " + nextOrdinal.get());
+        logger.info("KitsuneStorage initialized. Ordinal limit: " + containerStorage.getOrdinalLimit());
+    }
+
+    /**
+     * Renumber chunks onto the lowest ordinals. Safe while indexing and searching continue.
+     *
+     * @return number of chunks moved
+     */
+    public int compactOrdinals() {
+        int before = containerStorage.getOrdinalLimit();
+        long start = System.nanoTime();
+        int moved = containerStorage.compactOrdinals();
+        logger.info("Compacted chunk ordinals: moved " + moved + ", limit " + before + " -> "
+            + containerStorage.getOrdinalLimit() + " in " + (System.nanoTime() - start) / 1_000_000 + "ms");
+        return moved;
     }
 
     public CompletableFuture<Void> indexChunks(UUID containerId, List<ContainerChunk> chunks) {
+        return indexChunks(containerId, null, chunks);
+    }
+
+    /**
+     * Replace a container's chunks. The metadata (locations, chunk rows, vector references) is
+     * written in one transaction, then the vectors that were created or freed are applied to the
+     * container's world partition.
+     *
+     * @param locations current container positions to store along with the chunks, or null to keep the stored ones
+     */
+    public CompletableFuture<Void> indexChunks(UUID containerId, @Nullable ContainerLocations locations,
+                                               List<ContainerChunk> chunks) {
         if (chunks == null || chunks.isEmpty()) {
             logger.info("No chunks to index for container " + containerId);
             return CompletableFuture.completedFuture(null);
@@ -54,93 +137,256 @@ public final class KitsuneStorage {
 
         logger.info("Indexing " + chunks.size() + " chunks for container " + containerId);
 
-        return CompletableFuture.runAsync(() -> {
-            containerStorage.deleteChunksByContainer(containerId);
-
-            List<CompletableFuture<Void>> addFutures = new ArrayList<>();
-            for (ContainerChunk chunk : chunks) {
-                int ordinal = nextOrdinal.getAndIncrement();
-                UUID chunkId = UUID.randomUUID();
-                containerStorage.saveChunk(containerId, chunkId, ordinal, chunk);
-                addFutures.add(vectorIndex.addVector(ordinal, chunk.embedding()));
+        CompletableFuture<List<String>> contentHashes =
+            CompletableFuture.supplyAsync(() -> contentHashes(chunks), executors.cpu());
+        return worldOf(containerId, locations).thenCompose(world -> {
+            if (world == null) {
+                return CompletableFuture.completedFuture(null);
             }
-
-            // Wait for all adds, then rebuild
-            CompletableFuture.allOf(addFutures.toArray(new CompletableFuture[0]))
-                .thenCompose(v -> vectorIndex.rebuildIndex())
-                .join();
+            return contentHashes
+                .thenApplyAsync(hashes -> containerStorage.replaceChunks(
+                    containerId, locations, world, chunks, hashes), executors.io())
+                .thenCompose(batch -> applyVectorChanges(world, chunks, batch))
+                .thenAccept(created -> logger.fine("Container " + containerId + ": " + chunks.size()
+                    + " chunks, " + created + " new vectors"));
         });
     }
 
-    // TODO: PERF - Search may trigger unexpected index rebuild
-    // If indexDirty=true, search() blocks on full HNSW rebuild before returning results
-    // Fix: Use stale index for search, rebuild in background, or accept dirty reads
-    public CompletableFuture<List<SearchResult>> search(float[] embedding, int limit, String worldName) {
-        if (embedding == null || embedding.length == 0) {
-            return CompletableFuture.failedFuture(
-                new IllegalArgumentException("Embedding cannot be null or empty"));
+    /**
+     * Positions in a container snapshot whose slot is not already stored, and so need embedding.
+     * Slots are matched by {@link ContainerStorage#slotHash} as a multiset, so duplicate stacks
+     * are only re-embedded beyond the number already stored.
+     *
+     * @param contentTexts stored JSON of every chunk in the new snapshot
+     */
+    public List<Integer> findChangedSlots(UUID containerId, List<String> contentTexts) {
+        Map<String, Integer> stored = containerStorage.getSlotHashCounts(containerId);
+        List<Integer> changed = new ArrayList<>();
+        for (int i = 0; i < contentTexts.size(); i++) {
+            String slotHash = ContainerStorage.slotHash(contentTexts.get(i));
+            Integer remaining = stored.get(slotHash);
+            if (remaining != null && remaining > 0) {
+                stored.put(slotHash, remaining - 1);
+            } else {
+                changed.add(i);
+            }
         }
+        return changed;
+    }
 
-        logger.fine("Searching with embedding, limit=" + limit + ", world=" + worldName);
+    /**
+     * Re-index a container from a diffed snapshot. Unchanged slots keep their chunk rows and
+     * ordinals, slots missing from the snapshot are deleted, and only the changed chunks are
+     * written, all in one transaction.
+     *
+     * @param locations current container positions to store along with the chunks, or null to keep the stored ones
+     * @param contentTexts stored JSON of every chunk in the new snapshot
+     * @param changedChunks embedded chunks for the positions returned by {@link #findChangedSlots}
+     */
+    public CompletableFuture<Void> indexSlots(UUID containerId, @Nullable ContainerLocations locations,
+                                              List<String> contentTexts, List<ContainerChunk> changedChunks) {
+        CompletableFuture<SlotHashes> hashes = CompletableFuture.supplyAsync(() -> {
+            List<String> slotHashes = new ArrayList<>(contentTexts.size());
+            for (String contentText : contentTexts) {
+                slotHashes.add(ContainerStorage.slotHash(contentText));
+            }
+            return new SlotHashes(slotHashes, contentHashes(changedChunks));
+        }, executors.cpu());
+        return worldOf(containerId, locations).thenCompose(world -> {
+            if (world == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            return hashes
+                .thenApplyAsync(h -> containerStorage.updateSlots(containerId, locations, world,
+                    h.slotHashes(), changedChunks, h.contentHashes()), executors.io())
+                .thenCompose(batch -> applyVectorChanges(world, changedChunks, batch)
+                    .thenAccept(created -> logger.fine("Container " + containerId + ": " + changedChunks.size()
+                        + " of " + contentTexts.size() + " slots changed, " + created + " new vectors, "
+                        + batch.freedVectors().size() + " freed")));
+        });
+    }
 
-        return CompletableFuture.supplyAsync(() -> {
-            List<VectorSearchResult> vectorResults = vectorIndex.search(embedding, limit).join();
-            logger.fine("Vector search returned " + vectorResults.size() + " results");
+    private record SlotHashes(List<String> slotHashes, List<String> contentHashes) {
+    }
 
-            Set<Integer> candidateOrdinals = new HashSet<>();
-            for (VectorSearchResult vectorResult : vectorResults) {
-                candidateOrdinals.add(vectorResult.ordinal());
+    /**
+     * The world whose partition a container's chunks go to, or null (after a warning) if it has no
+     * registered location.
+     */
+    private CompletableFuture<@Nullable String> worldOf(UUID containerId, @Nullable ContainerLocations locations) {
+        CompletableFuture<Optional<String>> world = locations != null
+            ? CompletableFuture.completedFuture(Optional.of(locations.primaryLocation().getWorld().getName()))
+            : CompletableFuture.supplyAsync(() -> containerStorage.getContainerWorld(containerId), executors.io());
+        return world.thenCompose(name -> {
+            if (name.isEmpty()) {
+                logger.warning("Container " + containerId + " has no registered location, skipping indexing");
+                return CompletableFuture.completedFuture(null);
             }
+            return CompletableFuture.completedFuture(name.get());
+        });
+    }
 
-            List<ChunkWithLocation> chunks = containerStorage.getChunksByOrdinals(candidateOrdinals);
-            Map<Integer, ChunkWithLocation> chunkMap = new HashMap<>();
-            for (ChunkWithLocation chunk : chunks) {
-                chunkMap.put(chunk.metadata().ordinal(), chunk);
+    /**
+     * Add the vectors a write created to the world's partition and remove the ones it freed.
+     *
+     * @return number of vectors added, once every change has applied
+     */
+    private CompletableFuture<Integer> applyVectorChanges(String world, List<ContainerChunk> chunks, ChunkBatchResult batch) {
+        int created = (int) batch.vectors().stream().filter(VectorRef::created).count();
+        return vectorIndexes.apply(world, vectorIndex -> {
+            List<CompletableFuture<Void>> mutations = new ArrayList<>();
+            for (int i = 0; i < chunks.size(); i++) {
+                VectorRef vector = batch.vectors().get(i);
+                if (vector.created()) {
+                    mutations.add(vectorIndex.addVector(vector.id(), chunks.get(i).embedding()));
+                }
+            }
+            for (int vectorId : batch.freedVectors()) {
+                mutations.add(vectorIndex.removeVector(vectorId));
             }
+            return applyMutations(vectorIndex, mutations);
+        }).thenApply(v -> created);
+    }
 
-            List<SearchResult> results = new ArrayList<>();
-            for (VectorSearchResult vectorResult : vectorResults) {
-                try {
-                    ChunkWithLocation chunk = chunkMap.get(vectorResult.ordinal());
-                    if (chunk != null) {
-                        Location location = chunk.location();
-
-                        if (worldName != null && !location.getWorld().getName().equals(worldName)) {
-                            continue;
-                        }
-
-                        ContainerPath containerPath = ContainerPath.ROOT;
-                        if (chunk.metadata().containerPath() != null && !chunk.metadata().containerPath().isEmpty()) {
-                            try {
-                                containerPath = ContainerPath.fromJson(chunk.metadata().containerPath());
-                            } catch (Exception e) {
-                                logger.fine("Failed to parse container path: " + e.getMessage());
-                            }
-                        }
-
-                        SearchResult result = new SearchResult(
-                            location,
-                            List.of(location),
-                            vectorResult.score(),
-                            chunk.metadata().contentText(),
-                            chunk.metadata().contentText(),
-                            containerPath
-                        );
-                        results.add(result);
-
-                        if (results.size() >= limit) {
-                            break;
-                        }
-                    }
-                } catch (Exception e) {
-                    logger.log(Level.WARNING,
-                        "Error processing vector result for ordinal " + vectorResult.ordinal(), e);
+    /**
+     * Remove vectors no chunk uses anymore from the world's partition.
+     */
+    private CompletableFuture<Void> removeVectors(String world, List<Integer> freedVectorIds) {
+        return vectorIndexes.apply(world, vectorIndex -> {
+            List<CompletableFuture<Void>> removals = new ArrayList<>();
+            for (int vectorId : freedVectorIds) {
+                removals.add(vectorIndex.removeVector(vectorId));
+            }
+            return applyMutations(vectorIndex, removals);
+        });
+    }
+
+    private static List<String> contentHashes(List<ContainerChunk> chunks) {
+        List<String> hashes = new ArrayList<>(chunks.size());
+        for (ContainerChunk chunk : chunks) {
+            hashes.add(contentHash(chunk.embedding()));
+        }
+        return hashes;
+    }
+
+    /**
+     * SHA-256 of the embedding's float bits. Identical item texts embed identically, so this
+     * addresses a vector by its content.
+     */
+    static String contentHash(float[] embedding) {
+        ByteBuffer bytes = ByteBuffer.allocate(embedding.length * Float.BYTES);
+        bytes.asFloatBuffer().put(embedding);
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes.array()));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    /**
+     * Group the chunks sharing each hit vector, dropping vectors without chunks. Resolved from
+     * memory; content text is left for {@link #toSearchResults}.
+     */
+    private Map<Integer, List<CachedChunk>> expandVectorHits(List<VectorSearchResult> vectorResults) {
+        Set<Integer> vectorIds = new HashSet<>();
+        for (VectorSearchResult vectorResult : vectorResults) {
+            vectorIds.add(vectorResult.ordinal());
+        }
+        return containerStorage.getCachedChunksByVectorIds(vectorIds);
+    }
+
+    private record ScoredChunk(CachedChunk chunk, double score) {
+    }
+
+    /**
+     * Chunks of the hit vectors in score order, up to limit, skipping those rejected by keep.
+     */
+    private List<ScoredChunk> rankHits(List<VectorSearchResult> vectorResults, int limit, Predicate<CachedChunk> keep) {
+        Map<Integer, List<CachedChunk>> chunksByVector = expandVectorHits(vectorResults);
+
+        List<ScoredChunk> hits = new ArrayList<>();
+        for (VectorSearchResult vectorResult : vectorResults) {
+            if (hits.size() >= limit) {
+                break;
+            }
+            for (CachedChunk chunk : chunksByVector.getOrDefault(vectorResult.ordinal(), List.of())) {
+                if (!keep.test(chunk)) {
+                    continue;
+                }
+                hits.add(new ScoredChunk(chunk, vectorResult.score()));
+                if (hits.size() >= limit) {
+                    break;
                 }
             }
+        }
+        return hits;
+    }
+
+    /**
+     * Build results for the chunks that made the cut, fetching only their stored content.
+     */
+    private List<SearchResult> toSearchResults(List<ScoredChunk> hits) {
+        List<CachedChunk> chunks = new ArrayList<>(hits.size());
+        for (ScoredChunk hit : hits) {
+            chunks.add(hit.chunk());
+        }
+        Map<Integer, ChunkContent> contents = containerStorage.getChunkContents(chunks);
+
+        List<SearchResult> results = new ArrayList<>(hits.size());
+        for (ScoredChunk hit : hits) {
+            CachedChunk chunk = hit.chunk();
+            ChunkContent content = contents.get(chunk.ordinal());
+            if (content == null) {
+                // Re-indexed, deleted or renumbered since the vector search
+                continue;
+            }
+            ItemFields item = content.item();
+            results.add(new SearchResult(
+                chunk.location(),
+                List.of(chunk.location()),
+                hit.score(),
+                content.contentText(),
+                content.contentText(),
+                chunk.containerPath(),
+                item.slotIndex(),
+                item.amount(),
+                item.material(),
+                item.displayName()
+            ));
+        }
+        return results;
+    }
 
-            logger.fine("Search returning " + results.size() + " results after filtering");
-            return results;
-        });
+    /**
+     * Completes once vector mutations have applied. Indexes that cannot update in place are rebuilt afterwards.
+     */
+    private CompletableFuture<Void> applyMutations(VectorIndex vectorIndex, List<CompletableFuture<Void>> mutations) {
+        CompletableFuture<Void> applied = CompletableFuture.allOf(mutations.toArray(new CompletableFuture[0]));
+        return vectorIndex.supportsIncrementalUpdates() ? applied : applied.thenCompose(v -> vectorIndex.rebuildIndex());
+    }
+
+    public CompletableFuture<List<SearchResult>> search(float[] embedding, int limit, String worldName) {
+        if (embedding == null || embedding.length == 0) {
+            return CompletableFuture.failedFuture(
+                new IllegalArgumentException("Embedding cannot be null or empty"));
+        }
+
+        logger.fine("Searching with embedding, limit=" + limit + ", world=" + worldName);
+
+        CompletableFuture<List<VectorSearchResult>> vectorSearch = worldName != null
+            ? vectorIndexes.partition(worldName).thenCompose(index -> index.search(embedding, limit))
+            : vectorIndexes.searchAll(embedding, limit);
+        return vectorSearch
+            .thenApplyAsync(vectorResults -> {
+                logger.fine("Vector search returned " + vectorResults.size() + " results");
+                return rankHits(vectorResults, limit,
+                    chunk -> worldName == null || chunk.location().getWorld().getName().equals(worldName));
+            }, executors.cpu())
+            .thenApplyAsync(hits -> {
+                List<SearchResult> results = toSearchResults(hits);
+                logger.fine("Search returning " + results.size() + " results after filtering");
+                return results;
+            }, executors.io());
     }
 
     public CompletableFuture<List<SearchResult>> searchWithinRadius(
@@ -161,79 +407,29 @@ public final class KitsuneStorage {
 
         logger.fine("Searching within radius. center=" + center + ", radius=" + radius);
 
-        return CompletableFuture.supplyAsync(() -> {
-            int minX = center.blockX() - radius;
-            int maxX = center.blockX() + radius;
-            int minY = center.blockY() - radius;
-            int maxY = center.blockY() + radius;
-            int minZ = center.blockZ() - radius;
-            int maxZ = center.blockZ() + radius;
-
-            List<Integer> ordinals = containerStorage.getOrdinalsInBoundingBox(
-                center.getWorld().getName(), minX, maxX, minY, maxY, minZ, maxZ);
-            logger.fine("Found " + ordinals.size() + " ordinals in bounding box");
-
-            Set<Integer> ordinalSet = new HashSet<>(ordinals);
-            List<VectorSearchResult> vectorResults = vectorIndex.searchWithFilter(embedding, limit * 2, ordinalSet).join();
-            logger.fine("Vector search returned " + vectorResults.size() + " results");
-
-            Set<Integer> candidateOrdinals = new HashSet<>();
-          for (VectorSearchResult vectorResult : vectorResults) {
-              candidateOrdinals.add(vectorResult.ordinal());
-          }
-
-          List<ChunkWithLocation> chunks = containerStorage.getChunksByOrdinals(candidateOrdinals);
-          Map<Integer, ChunkWithLocation> chunkMap = new HashMap<>();
-          for (ChunkWithLocation chunk : chunks) {
-              chunkMap.put(chunk.metadata().ordinal(), chunk);
-          }
-
-          List<SearchResult> candidates = new ArrayList<>();
-          for (VectorSearchResult vectorResult : vectorResults) {
-              try {
-                  ChunkWithLocation chunk = chunkMap.get(vectorResult.ordinal());
-                  if (chunk != null) {
-                      Location location = chunk.location();
-                      double distance = center.distanceTo(location);
-                      if (distance <= radius) {
-                          ContainerPath containerPath = ContainerPath.ROOT;
-                          if (chunk.metadata().containerPath() != null && !chunk.metadata().containerPath().isEmpty()) {
-                              try {
-                                  containerPath = ContainerPath.fromJson(chunk.metadata().containerPath());
-                              } catch (Exception e) {
-                                  logger.fine("Failed to parse container path: " + e.getMessage());
-                              }
-                          }
-
-                          SearchResult result = new SearchResult(
-                              location,
-                              List.of(location),
-                              vectorResult.score(),
-                              chunk.metadata().contentText(),
-                              chunk.metadata().contentText(),
-                              containerPath
-                          );
-                          candidates.add(result);
-
-                          if (candidates.size() >= limit) {
-                              break;
-                          }
-                      }
-                  }
-              } catch (Exception e) {
-                  logger.log(Level.WARNING,
-                      "Error processing vector result for ordinal " + vectorResult.ordinal(), e);
-              }
-          }
-
-            logger.fine("Radius search returning " + candidates.size() + " results");
-            return candidates;
-        });
+        String world = center.getWorld().getName();
+        CompletableFuture<List<Integer>> candidates = CompletableFuture.supplyAsync(() -> {
+            List<Integer> vectorIds = containerStorage.getVectorIdsInBoundingBox(world,
+                center.blockX() - radius, center.blockX() + radius,
+                center.blockY() - radius, center.blockY() + radius,
+                center.blockZ() - radius, center.blockZ() + radius);
+            logger.fine("Found " + vectorIds.size() + " vectors in bounding box");
+            return vectorIds;
+        }, executors.cpu());
+        return vectorIndexes.partition(world)
+            .thenCompose(vectorIndex -> candidates.thenCompose(
+                vectorIds -> radiusPlanner.search(vectorIndex, embedding, limit * 2, vectorIds)))
+            .thenApplyAsync(vectorResults -> {
+                logger.fine("Vector search returned " + vectorResults.size() + " results");
+                return rankHits(vectorResults, limit, chunk -> center.distanceTo(chunk.location()) <= radius);
+            }, executors.cpu())
+            .thenApplyAsync(hits -> {
+                List<SearchResult> results = toSearchResults(hits);
+                logger.fine("Radius search returning " + results.size() + " results");
+                return results;
+            }, executors.io());
     }
 
-    // TODO: PERF - Same blocking rebuild issue as indexChunks()
-    // Delete triggers full HNSW rebuild synchronously
-    // Fix: Mark dirty, rebuild lazily
     public CompletableFuture<Void> delete(Location location) {
         if (location == null) {
             return CompletableFuture.failedFuture(
@@ -242,17 +438,17 @@ public final class KitsuneStorage {
 
         logger.info("Deleting container at " + location);
 
-        return CompletableFuture.runAsync(() -> {
-            Optional<UUID> containerOpt = containerStorage.getContainerByLocation(location);
-            if (containerOpt.isEmpty()) {
-                logger.warning("No container found at " + location);
-                return;
-            }
+        return CompletableFuture.supplyAsync(() -> containerStorage.getContainerByLocation(location), executors.io())
+            .thenCompose(containerOpt -> {
+                if (containerOpt.isEmpty()) {
+                    logger.warning("No container found at " + location);
+                    return CompletableFuture.completedFuture(null);
+                }
 
-            UUID containerId = containerOpt.get();
-            containerStorage.deleteChunksByContainer(containerId);
-            vectorIndex.rebuildIndex().join();
-        });
+                UUID containerId = containerOpt.get();
+                return CompletableFuture.supplyAsync(() -> containerStorage.deleteChunksByContainer(containerId), executors.io())
+                    .thenCompose(freed -> removeVectors(location.getWorld().getName(), freed));
+            });
     }
 
     public CompletableFuture<StorageStats> getStats() {
@@ -262,26 +458,90 @@ public final class KitsuneStorage {
             return new StorageStats(
                 count,
                 "KitsuneStorage(" + containerStorage.getClass().getSimpleName() +
-                    " + " + vectorIndex.getClass().getSimpleName() + ")"
+                    " + " + vectorIndexes.getClass().getSimpleName() + ")"
             );
-        });
+        }, executors.io());
+    }
+
+    /**
+     * Metrics for the published search snapshots, combined across loaded world partitions.
+     */
+    public VectorIndexStats getVectorIndexStats() {
+        return vectorIndexes.getStats();
+    }
+
+    /**
+     * Hit and eviction counters of the position-to-container cache.
+     */
+    public LocationCacheStats getLocationCacheStats() {
+        return containerStorage.getLocationCacheStats();
+    }
+
+    /**
+     * Queue depths and activity of the storage executors.
+     */
+    public StorageExecutors.Stats getExecutorStats() {
+        return executors.stats();
+    }
+
+    /**
+     * @return number of world partitions currently open
+     */
+    public int getLoadedPartitionCount() {
+        return vectorIndexes.loadedPartitions().size();
+    }
+
+    /**
+     * Sample stored vectors across loaded partitions, proportionally to their size.
+     */
+    public CompletableFuture<List<float[]>> sampleVectors(int maxCount) {
+        return CompletableFuture.supplyAsync(() -> {
+            List<VectorIndex> partitions = vectorIndexes.loadedPartitions();
+            long total = partitions.stream().mapToLong(VectorIndex::size).sum();
+            List<float[]> sample = new ArrayList<>();
+            for (VectorIndex partition : partitions) {
+                int share = total <= maxCount ? partition.size() : (int) ((long) maxCount * partition.size() / total);
+                sample.addAll(partition.sampleVectors(share));
+            }
+            return sample;
+        }, executors.cpu());
+    }
+
+    /**
+     * Sample distinct stored item payloads, as JSON, across every world.
+     */
+    public CompletableFuture<List<String>> sampleContentTexts(int maxCount) {
+        return CompletableFuture.supplyAsync(() -> containerStorage.sampleContentTexts(maxCount), executors.io());
+    }
+
+    /**
+     * Open a world's vector partition ahead of its first search.
+     */
+    public CompletableFuture<Void> loadWorld(String world) {
+        return vectorIndexes.load(world);
+    }
+
+    /**
+     * Close a world's vector partition; it reopens on next use.
+     */
+    public void unloadWorld(String world) {
+        vectorIndexes.unload(world);
     }
 
     public CompletableFuture<Void> purgeAll() {
         logger.warning("Purging all data from storage");
 
-        return CompletableFuture.runAsync(() -> {
-            containerStorage.purgeAll();
-            vectorIndex.purgeAll().join();
-            nextOrdinal.set(0);
-            logger.info("Storage purge complete");
-        });
+        return CompletableFuture.runAsync(containerStorage::purgeAll, executors.io())
+            .thenCompose(v -> vectorIndexes.purgeAll())
+            .thenRun(() -> logger.info("Storage purge complete"));
     }
 
     public void shutdown() {
         logger.info("Shutting down KitsuneStorage");
         // DataSource lifecycle managed externally
-        vectorIndex.shutdown();
+        maintenanceScheduler.shutdownNow();
+        executors.close();
+        vectorIndexes.shutdown();
     }
 
     public CompletableFuture<Void> registerContainerPositions(ContainerLocations locations) {
@@ -289,7 +549,7 @@ public final class KitsuneStorage {
             return CompletableFuture.failedFuture(
                 new IllegalArgumentException("Locations cannot be null"));
         }
-        return CompletableFuture.runAsync(() -> containerStorage.registerContainerPositions(locations));
+        return CompletableFuture.runAsync(() -> containerStorage.registerContainerPositions(locations), executors.io());
     }
 
     public CompletableFuture<Optional<Location>> getPrimaryLocation(Location anyPosition) {
@@ -297,7 +557,11 @@ public final class KitsuneStorage {
             return CompletableFuture.failedFuture(
                 new IllegalArgumentException("Position cannot be null"));
         }
-        return CompletableFuture.supplyAsync(() -> containerStorage.getPrimaryLocation(anyPosition));
+        Optional<ContainerLocation> cached = containerStorage.getCachedContainerLocation(anyPosition);
+        if (cached.isPresent()) {
+            return CompletableFuture.completedFuture(Optional.ofNullable(cached.get().primaryLocation()));
+        }
+        return CompletableFuture.supplyAsync(() -> containerStorage.getPrimaryLocation(anyPosition), executors.io());
     }
 
     public CompletableFuture<List<Location>> getAllPositions(Location primaryLocation) {
@@ -305,7 +569,7 @@ public final class KitsuneStorage {
             return CompletableFuture.failedFuture(
                 new IllegalArgumentException("Primary location cannot be null"));
         }
-        return CompletableFuture.supplyAsync(() -> containerStorage.getAllPositions(primaryLocation));
+        return CompletableFuture.supplyAsync(() -> containerStorage.getAllPositions(primaryLocation), executors.io());
     }
 
     public CompletableFuture<Void> deleteContainerPositions(Location primaryLocation) {
@@ -313,7 +577,7 @@ public final class KitsuneStorage {
             return CompletableFuture.failedFuture(
                 new IllegalArgumentException("Primary location cannot be null"));
         }
-        return CompletableFuture.runAsync(() -> containerStorage.deleteContainerPositions(primaryLocation));
+        return CompletableFuture.runAsync(() -> containerStorage.deleteContainerPositions(primaryLocation), executors.io());
     }
 
     public CompletableFuture<UUID> getOrCreateContainer(ContainerLocations locations) {
@@ -321,7 +585,12 @@ public final class KitsuneStorage {
             return CompletableFuture.failedFuture(
                 new IllegalArgumentException("Locations cannot be null"));
         }
-        return CompletableFuture.supplyAsync(() -> containerStorage.getOrCreateContainer(locations));
+        // Containers touched recently resolve from memory on the caller's thread
+        Optional<ContainerLocation> cached = containerStorage.getCachedContainerLocation(locations.primaryLocation());
+        if (cached.isPresent()) {
+            return CompletableFuture.completedFuture(cached.get().containerId());
+        }
+        return CompletableFuture.supplyAsync(() -> containerStorage.getOrCreateContainer(locations), executors.io());
     }
 
     public CompletableFuture<Optional<UUID>> getContainerByLocation(Location location) {
@@ -329,7 +598,11 @@ public final class KitsuneStorage {
             return CompletableFuture.failedFuture(
                 new IllegalArgumentException("Location cannot be null"));
         }
-        return CompletableFuture.supplyAsync(() -> containerStorage.getContainerByLocation(location));
+        Optional<ContainerLocation> cached = containerStorage.getCachedContainerLocation(location);
+        if (cached.isPresent()) {
+            return CompletableFuture.completedFuture(Optional.of(cached.get().containerId()));
+        }
+        return CompletableFuture.supplyAsync(() -> containerStorage.getContainerByLocation(location), executors.io());
     }
 
     public CompletableFuture<List<Location>> getContainerLocations(UUID containerId) {
@@ -337,7 +610,7 @@ public final class KitsuneStorage {
             return CompletableFuture.failedFuture(
                 new IllegalArgumentException("Container ID cannot be null"));
         }
-        return CompletableFuture.supplyAsync(() -> containerStorage.getContainerLocations(containerId));
+        return CompletableFuture.supplyAsync(() -> containerStorage.getContainerLocations(containerId), executors.io());
     }
 
     public CompletableFuture<Optional<Location>> getPrimaryLocationForContainer(UUID containerId) {
@@ -345,7 +618,8 @@ public final class KitsuneStorage {
             return CompletableFuture.failedFuture(
                 new IllegalArgumentException("Container ID cannot be null"));
         }
-        return CompletableFuture.supplyAsync(() -> containerStorage.getPrimaryLocationForContainer(containerId));
+        return CompletableFuture.supplyAsync(
+            () -> containerStorage.getPrimaryLocationForContainer(containerId), executors.io());
     }
 
     public CompletableFuture<Void> deleteContainer(UUID containerId) {
@@ -356,10 +630,14 @@ public final class KitsuneStorage {
 
         logger.info("Deleting container " + containerId);
 
-        return CompletableFuture.runAsync(() -> {
-            containerStorage.deleteContainer(containerId);
-            vectorIndex.rebuildIndex().join();
-        });
+        return CompletableFuture.supplyAsync(() -> containerStorage.getContainerWorld(containerId), executors.io())
+            .thenCompose(world -> {
+                if (world.isEmpty()) {
+                    return CompletableFuture.runAsync(() -> containerStorage.deleteContainer(containerId), executors.io());
+                }
+                return CompletableFuture.supplyAsync(() -> containerStorage.deleteContainer(containerId), executors.io())
+                    .thenCompose(freed -> removeVectors(world.get(), freed));
+            });
     }
 
     public CompletableFuture<List<UUID>> getContainersInRadius(
@@ -378,31 +656,10 @@ public final class KitsuneStorage {
             ", center=(" + centerX + "," + centerY + "," + centerZ + "), radius=" + radius);
 
         return CompletableFuture.supplyAsync(() -> {
-            int minX = centerX - radius;
-            int maxX = centerX + radius;
-            int minY = centerY - radius;
-            int maxY = centerY + radius;
-            int minZ = centerZ - radius;
-            int maxZ = centerZ + radius;
-
-            List<Integer> ordinals = containerStorage.getOrdinalsInBoundingBox(
-                world, minX, maxX, minY, maxY, minZ, maxZ);
-            logger.fine("Found " + ordinals.size() + " ordinals in bounding box");
-
-            List<ChunkWithLocation> chunks = containerStorage.getChunksByOrdinals(new HashSet<>(ordinals));
-            Set<UUID> containerIds = new HashSet<>();
-            for (ChunkWithLocation chunk : chunks) {
-                try {
-                    // TODO: Need to track container ID in chunk metadata
-                    logger.fine("Added container from ordinal " + chunk.metadata().ordinal());
-                } catch (Exception e) {
-                    logger.log(Level.WARNING, "Error processing chunk from ordinal " + chunk.metadata().ordinal(), e);
-                }
-            }
-
+            List<UUID> containerIds = containerStorage.getContainersInRadius(world, centerX, centerY, centerZ, radius);
             logger.fine("Radius query returning " + containerIds.size() + " unique containers");
-            return new ArrayList<>(containerIds);
-        });
+            return containerIds;
+        }, executors.cpu());
     }
 
     // DataSource access
@@ -412,10 +669,10 @@ public final class KitsuneStorage {
     }
 
     public CompletableFuture<Double> getThreshold() {
-        return CompletableFuture.supplyAsync(() -> containerStorage.getThreshold());
+        return CompletableFuture.supplyAsync(() -> containerStorage.getThreshold(), executors.io());
     }
 
     public CompletableFuture<Void> setThreshold(double threshold) {
-        return CompletableFuture.runAsync(() -> containerStorage.setThreshold(threshold));
+        return CompletableFuture.runAsync(() -> containerStorage.setThreshold(threshold), executors.io());
     }
 }
@@ -0,0 +1,22 @@
+package org.aincraft.kitsune.storage;
+
+import org.aincraft.kitsune.config.KitsuneConfig;
+
+/**
+ * When the background job renumbers chunk ordinals, read from the storage config section.
+ */
+public record OrdinalCompactionSettings(
+    long intervalSeconds,   // how often the ordinal space is checked (0 = never)
+    double minFreeRatio     // compact once this share of the ordinal space is unused
+) {
+    public static OrdinalCompactionSettings defaults() {
+        return new OrdinalCompactionSettings(600, 0.25);
+    }
+
+    public static OrdinalCompactionSettings fromConfig(KitsuneConfig config) {
+        return new OrdinalCompactionSettings(
+            config.storageOrdinalCompactionIntervalSeconds(),
+            config.storageOrdinalCompactionThreshold()
+        );
+    }
+}
@@ -0,0 +1,185 @@
+package org.aincraft.kitsune.storage;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+import org.aincraft.kitsune.Platform;
+import org.aincraft.kitsune.api.ContainerLocations;
+import org.aincraft.kitsune.model.ContainerChunk;
+import org.aincraft.kitsune.storage.metadata.ContainerStorage;
+import org.aincraft.kitsune.storage.metadata.ContainerStorageSettings;
+
+/**
+ * Measures database size and chunk read throughput with item payloads stored as JSON, then again
+ * after the background migration re-encodes them compactly, against a scratch database.
+ *
+ * Items are shaped like ItemSerializationLogic output: a mix of plain stacks and enchanted,
+ * tagged tools with durability.
+ */
+public final class PayloadEncodingBenchmark {
+
+    private static final int CHUNKS_PER_CONTAINER = 54;
+    private static final int READ_PASSES = 3;
+    private static final int WRITE_QUEUE_CAPACITY = 64;
+    private static final int WRITE_BATCH_SIZE = 64;
+    private static final Gson GSON = new GsonBuilder().disableHtmlEscaping().create();
+
+    private static final String[] MATERIALS = {
+        "COBBLESTONE", "DIRT", "OAK_LOG", "SPRUCE_PLANKS", "IRON_INGOT", "GOLD_INGOT", "DIAMOND", "REDSTONE",
+        "COAL", "BREAD", "COOKED_BEEF", "ARROW", "STRING", "BONE", "GUNPOWDER", "ENDER_PEARL", "GLASS",
+        "TORCH", "WHITE_WOOL", "SAND"
+    };
+    private static final String[] TOOLS = {
+        "DIAMOND_SWORD", "NETHERITE_PICKAXE", "IRON_AXE", "DIAMOND_SHOVEL", "BOW", "DIAMOND_CHESTPLATE",
+        "NETHERITE_HELMET", "ELYTRA", "TRIDENT", "FISHING_ROD"
+    };
+    private static final String[] ENCHANTMENTS = {
+        "sharpness", "unbreaking", "mending", "efficiency", "fortune", "protection", "power", "looting",
+        "silk_touch", "feather_falling"
+    };
+    private static final String[] TAGS = {"tool", "weapon", "armor", "enchanted", "damaged", "rare"};
+
+    /**
+     * Sizes are of the vacuumed database file; reads are rows per second over every container.
+     */
+    public record Result(int chunks, long jsonBytes, long compactBytes, double jsonReadsPerSecond,
+                         double compactReadsPerSecond, int transcoded, long transcodeMillis) {
+    }
+
+    private final Logger logger;
+
+    public PayloadEncodingBenchmark(Logger logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * @param dataSource empty scratch database, with at least two connections
+     * @param world existing world to place the benchmark containers in
+     */
+    public Result run(DataSource dataSource, String world, int containers) {
+        Random random = new Random(42);
+        List<ContainerLocations> locations = new ArrayList<>(containers);
+        List<List<ContainerChunk>> contents = new ArrayList<>(containers);
+        for (int c = 0; c < containers; c++) {
+            locations.add(ContainerLocations.single(Platform.get().createLocation(world, c * 2, -64, 0)));
+            List<ContainerChunk> chunks = new ArrayList<>(CHUNKS_PER_CONTAINER);
+            for (int slot = 0; slot < CHUNKS_PER_CONTAINER; slot++) {
+                chunks.add(new ContainerChunk(UUID.randomUUID(), slot, itemJson(random, slot),
+                    new float[]{random.nextFloat()}, System.currentTimeMillis(), null));
+            }
+            contents.add(chunks);
+        }
+
+        List<UUID> ids = new ArrayList<>(containers);
+        double jsonReads;
+        try (SqliteWriter writer = new SqliteWriter(logger, dataSource, WRITE_QUEUE_CAPACITY, WRITE_BATCH_SIZE)) {
+            ContainerStorage storage = new ContainerStorage(dataSource, writer, logger,
+                new ContainerStorageSettings(false, ContainerStorageSettings.defaults().locationCacheSize()));
+            storage.initialize();
+            for (int c = 0; c < containers; c++) {
+                UUID id = storage.getOrCreateContainer(locations.get(c));
+                ids.add(id);
+                List<String> hashes = new ArrayList<>(CHUNKS_PER_CONTAINER);
+                for (ContainerChunk chunk : contents.get(c)) {
+                    hashes.add(KitsuneStorage.contentHash(chunk.embedding()));
+                }
+                storage.replaceChunks(id, locations.get(c), world, contents.get(c), hashes);
+            }
+            jsonReads = readsPerSecond(storage, ids);
+        }
+        long jsonBytes = databaseSize(dataSource);
+
+        int transcoded;
+        long transcodeMillis;
+        double compactReads;
+        try (SqliteWriter writer = new SqliteWriter(logger, dataSource, WRITE_QUEUE_CAPACITY, WRITE_BATCH_SIZE)) {
+            ContainerStorage storage = new ContainerStorage(dataSource, writer, logger, ContainerStorageSettings.defaults());
+            storage.initialize();
+            long start = System.nanoTime();
+            transcoded = storage.transcodePayloads();
+            transcodeMillis = (System.nanoTime() - start) / 1_000_000;
+            compactReads = readsPerSecond(storage, ids);
+        }
+        long compactBytes = databaseSize(dataSource);
+
+        Result result = new Result(containers * CHUNKS_PER_CONTAINER, jsonBytes, compactBytes, jsonReads,
+            compactReads, transcoded, transcodeMillis);
+        logger.info(String.format("Payload encoding: %d chunks, JSON %d KiB (%.0f rows/s), compact %d KiB (%.0f rows/s), "
+                + "re-encoded %d in %dms", result.chunks(), jsonBytes / 1024, jsonReads, compactBytes / 1024, compactReads,
+            transcoded, transcodeMillis));
+        return result;
+    }
+
+    private static double readsPerSecond(ContainerStorage storage, List<UUID> ids) {
+        long rows = 0;
+        long start = System.nanoTime();
+        for (int pass = 0; pass < READ_PASSES; pass++) {
+            for (UUID id : ids) {
+                rows += storage.getChunksByContainer(id).size();
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        return nanos == 0 ? 0 : rows * 1e9 / nanos;
+    }
+
+    private static long databaseSize(DataSource dataSource) {
+        try (Connection c = dataSource.getConnection()) {
+            c.createStatement().execute("PRAGMA wal_checkpoint(TRUNCATE)");
+            c.createStatement().execute("VACUUM");
+            try (ResultSet rs = c.createStatement().executeQuery(
+                "SELECT page_count * page_size FROM pragma_page_count(), pragma_page_size()")) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to measure benchmark database", e);
+        }
+    }
+
+    private static String itemJson(Random random, int slot) {
+        boolean tool = random.nextInt(4) == 0;
+        String material = tool ? TOOLS[random.nextInt(TOOLS.length)] : MATERIALS[random.nextInt(MATERIALS.length)];
+        JsonObject json = new JsonObject();
+        json.addProperty("material", material);
+        json.addProperty("amount", tool ? 1 : 1 + random.nextInt(64));
+        json.addProperty("slot", slot);
+        json.addProperty("displayName", displayName(material));
+        if (tool) {
+            JsonObject enchantments = new JsonObject();
+            for (int i = random.nextInt(4); i > 0; i--) {
+                enchantments.addProperty(ENCHANTMENTS[random.nextInt(ENCHANTMENTS.length)], 1 + random.nextInt(5));
+            }
+            if (!enchantments.isEmpty()) json.add("enchantments", enchantments);
+            JsonArray tags = new JsonArray();
+            tags.add(TAGS[random.nextInt(3)]);
+            if (!enchantments.isEmpty()) tags.add("enchanted");
+            json.add("tags", tags);
+            JsonObject durability = new JsonObject();
+            int max = 250 + random.nextInt(1800);
+            int current = random.nextInt(max);
+            durability.addProperty("current", current);
+            durability.addProperty("max", max);
+            durability.addProperty("percent", (max - current) * 100 / max);
+            json.add("durability", durability);
+        }
+        return GSON.toJson(json);
+    }
+
+    private static String displayName(String material) {
+        StringBuilder sb = new StringBuilder();
+        for (String word : material.toLowerCase().split("_")) {
+            if (!sb.isEmpty()) sb.append(' ');
+            sb.append(Character.toUpperCase(word.charAt(0))).append(word.substring(1));
+        }
+        return sb.toString();
+    }
+}
@@ -16,18 +16,20 @@ import javax.sql.DataSource;
 
 /**
  * Manages per-player radius limits using SQLite for persistent storage.
- * All operations are asynchronous and use a provided ExecutorService for execution.
- * Supports virtual threads via Executors.newVirtualThreadPerTaskExecutor() for efficient I/O.
+ * All operations are asynchronous: reads run on the provided ExecutorService, writes are queued on
+ * the shared {@link SqliteWriter} and complete when their group commit does.
  */
 public final class PlayerRadiusStorage {
     private final Logger logger;
     private final DataSource dataSource;
+    private final SqliteWriter writer;
     private final ExecutorService executor;
     private final int defaultRadius;
 
-    public PlayerRadiusStorage(Logger logger, DataSource dataSource, ExecutorService executor, int defaultRadius) {
+    public PlayerRadiusStorage(Logger logger, DataSource dataSource, SqliteWriter writer, ExecutorService executor, int defaultRadius) {
         this.logger = Preconditions.checkNotNull(logger, "logger cannot be null");
         this.dataSource = Preconditions.checkNotNull(dataSource, "dataSource cannot be null");
+        this.writer = Preconditions.checkNotNull(writer, "writer cannot be null");
         this.executor = Preconditions.checkNotNull(executor, "executor cannot be null");
         this.defaultRadius = defaultRadius;
     }
@@ -38,31 +40,29 @@ public final class PlayerRadiusStorage {
      * @return a CompletableFuture that completes when initialization is done
      */
     public CompletableFuture<Void> initialize() {
-        return CompletableFuture.runAsync(() -> {
-            try {
-                try (Connection conn = dataSource.getConnection()) {
-                    // Create player_radius_limits table
-                    conn.createStatement().execute("""
-                        CREATE TABLE IF NOT EXISTS player_radius_limits (
-                            player_id TEXT PRIMARY KEY,
-                            player_name TEXT NOT NULL,
-                            max_radius INTEGER NOT NULL,
-                            updated_at INTEGER NOT NULL
-                        )
-                        """);
-
-                    // Create index on player_id for efficient lookups
-                    conn.createStatement().execute(
-                        "CREATE INDEX IF NOT EXISTS idx_player_radius_limits_player_id ON player_radius_limits(player_id)"
-                    );
-                }
-
-                logger.info("Player radius storage initialized");
-            } catch (SQLException e) {
+        return writer.<Void>submit(conn -> {
+            // Create player_radius_limits table
+            conn.createStatement().execute("""
+                CREATE TABLE IF NOT EXISTS player_radius_limits (
+                    player_id TEXT PRIMARY KEY,
+                    player_name TEXT NOT NULL,
+                    max_radius INTEGER NOT NULL,
+                    updated_at INTEGER NOT NULL
+                )
+                """);
+
+            // Create index on player_id for efficient lookups
+            conn.createStatement().execute(
+                "CREATE INDEX IF NOT EXISTS idx_player_radius_limits_player_id ON player_radius_limits(player_id)"
+            );
+            return null;
+        }).whenComplete((v, e) -> {
+            if (e != null) {
                 logger.log(Level.SEVERE, "Failed to initialize player radius storage", e);
-                throw new RuntimeException("Player radius storage initialization failed", e);
+            } else {
+                logger.info("Player radius storage initialized");
             }
-        }, executor);
+        });
     }
 
     /**
@@ -108,9 +108,8 @@ public final class PlayerRadiusStorage {
         Preconditions.checkNotNull(playerName, "playerName cannot be null");
         Preconditions.checkArgument(maxRadius > 0, "maxRadius must be positive");
 
-        return CompletableFuture.runAsync(() -> {
-            try (Connection conn = dataSource.getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(
+        return writer.<Void>submit(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(
                      "INSERT INTO player_radius_limits (player_id, player_name, max_radius, updated_at) " +
                      "VALUES (?, ?, ?, ?) " +
                      "ON CONFLICT(player_id) DO UPDATE SET " +
@@ -125,12 +124,16 @@ public final class PlayerRadiusStorage {
                 stmt.setLong(4, now);
 
                 stmt.executeUpdate();
-                logger.info("Set radius limit for player " + playerName + " (" + playerId + ") to " + maxRadius);
-            } catch (SQLException e) {
+            }
+            return null;
+        }).handle((v, e) -> {
+            if (e != null) {
                 logger.log(Level.WARNING, "Failed to set player radius limit", e);
                 throw new RuntimeException("Failed to set player radius limit", e);
             }
-        }, executor);
+            logger.info("Set radius limit for player " + playerName + " (" + playerId + ") to " + maxRadius);
+            return null;
+        });
     }
 
     /**
@@ -169,22 +172,23 @@ public final class PlayerRadiusStorage {
     public CompletableFuture<Void> resetRadius(UUID playerId) {
         Preconditions.checkNotNull(playerId, "playerId cannot be null");
 
-        return CompletableFuture.runAsync(() -> {
-            try (Connection conn = dataSource.getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(
+        return writer.submit(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(
                      "DELETE FROM player_radius_limits WHERE player_id = ?")) {
 
                 stmt.setString(1, playerId.toString());
-                int deleted = stmt.executeUpdate();
-
-                if (deleted > 0) {
-                    logger.info("Reset radius limit for player " + playerId + " to default");
-                }
-            } catch (SQLException e) {
+                return stmt.executeUpdate();
+            }
+        }).handle((deleted, e) -> {
+            if (e != null) {
                 logger.log(Level.WARNING, "Failed to reset player radius limit", e);
                 throw new RuntimeException("Failed to reset player radius limit", e);
             }
-        }, executor);
+            if (deleted > 0) {
+                logger.info("Reset radius limit for player " + playerId + " to default");
+            }
+            return null;
+        });
     }
 
     /**
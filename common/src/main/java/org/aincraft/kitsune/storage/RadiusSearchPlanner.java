@@ -0,0 +1,103 @@
+package org.aincraft.kitsune.storage;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Logger;
+import org.aincraft.kitsune.storage.vector.VectorIndex;
+import org.aincraft.kitsune.storage.vector.VectorSearchResult;
+
+/**
+ * Picks how to run a vector search restricted to the ordinals inside a search area.
+ *
+ * Strategies, by the share of indexed vectors inside the area (selectivity):
+ * - EXACT_SCAN: few candidates - score each one directly, no graph traversal
+ * - FILTERED_ANN: moderate selectivity - graph search that only returns allowed ordinals
+ * - POST_FILTERED_ANN: most vectors qualify - unfiltered graph search, then drop outsiders;
+ *   falls back to FILTERED_ANN if too few survive
+ *
+ * Every decision is logged with its latency.
+ */
+final class RadiusSearchPlanner {
+
+    enum Strategy { EXACT_SCAN, FILTERED_ANN, POST_FILTERED_ANN }
+
+    // Unfiltered results fetched per expected match, to absorb selectivity misestimates
+    private static final double POST_FILTER_OVERSAMPLE = 1.5;
+
+    private final Logger logger;
+    private final RadiusSearchSettings settings;
+
+    RadiusSearchPlanner(Logger logger, RadiusSearchSettings settings) {
+        this.logger = logger;
+        this.settings = settings;
+    }
+
+    Strategy plan(int candidates, int indexSize) {
+        if (candidates <= settings.exactScanMaxCandidates()) {
+            return Strategy.EXACT_SCAN;
+        }
+        double selectivity = indexSize == 0 ? 1.0 : (double) candidates / indexSize;
+        return selectivity >= settings.postFilterMinSelectivity() ? Strategy.POST_FILTERED_ANN : Strategy.FILTERED_ANN;
+    }
+
+    /**
+     * Find the best matches among candidate ordinals.
+     *
+     * @param vectorIndex index holding the candidates (the search area's world partition)
+     * @param embedding query vector
+     * @param limit maximum results
+     * @param candidates ordinals inside the search area
+     * @return results ordered by score, only from candidates
+     */
+    CompletableFuture<List<VectorSearchResult>> search(VectorIndex vectorIndex, float[] embedding, int limit,
+                                                       List<Integer> candidates) {
+        if (candidates.isEmpty()) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+        long start = System.nanoTime();
+        int indexSize = Math.max(1, vectorIndex.size());
+        Strategy strategy = plan(candidates.size(), indexSize);
+
+        CompletableFuture<PlannedResults> results = switch (strategy) {
+            case EXACT_SCAN -> vectorIndex.exactSearch(embedding, limit, candidates)
+                .thenApply(r -> new PlannedResults(r, false));
+            case FILTERED_ANN -> vectorIndex.searchWithFilter(embedding, limit, new HashSet<>(candidates))
+                .thenApply(r -> new PlannedResults(r, false));
+            default -> {
+                Set<Integer> allowed = new HashSet<>(candidates);
+                double selectivity = Math.min(1.0, (double) candidates.size() / indexSize);
+                int fetch = (int) Math.min(indexSize, Math.ceil(limit / selectivity * POST_FILTER_OVERSAMPLE));
+                yield vectorIndex.search(embedding, fetch).thenCompose(unfiltered -> {
+                    List<VectorSearchResult> kept = new ArrayList<>(limit);
+                    for (VectorSearchResult result : unfiltered) {
+                        if (allowed.contains(result.ordinal())) {
+                            kept.add(result);
+                            if (kept.size() >= limit) {
+                                break;
+                            }
+                        }
+                    }
+                    if (kept.size() < limit && unfiltered.size() >= fetch) {
+                        return vectorIndex.searchWithFilter(embedding, limit, allowed)
+                            .thenApply(r -> new PlannedResults(r, true));
+                    }
+                    return CompletableFuture.completedFuture(new PlannedResults(kept, false));
+                });
+            }
+        };
+
+        return results.thenApply(planned -> {
+            logger.info(String.format("Radius search plan=%s%s candidates=%d/%d (%.1f%%) k=%d results=%d in %.2fms",
+                    strategy, planned.fellBack() ? "->FILTERED_ANN" : "", candidates.size(), indexSize,
+                    100.0 * candidates.size() / indexSize, limit, planned.results().size(),
+                    (System.nanoTime() - start) / 1_000_000.0));
+            return planned.results();
+        });
+    }
+
+    private record PlannedResults(List<VectorSearchResult> results, boolean fellBack) {
+    }
+}
@@ -0,0 +1,22 @@
+package org.aincraft.kitsune.storage;
+
+import org.aincraft.kitsune.config.KitsuneConfig;
+
+/**
+ * Thresholds the radius search planner uses to pick a strategy, read from the search config section.
+ */
+public record RadiusSearchSettings(
+    int exactScanMaxCandidates,         // score candidates by brute force up to this many
+    double postFilterMinSelectivity     // search unfiltered and filter afterwards above this share of all vectors
+) {
+    public static RadiusSearchSettings defaults() {
+        return new RadiusSearchSettings(1024, 0.5);
+    }
+
+    public static RadiusSearchSettings fromConfig(KitsuneConfig config) {
+        return new RadiusSearchSettings(
+            config.searchExactScanMaxCandidates(),
+            config.searchPostFilterMinSelectivity()
+        );
+    }
+}
@@ -17,17 +17,19 @@ import org.aincraft.kitsune.model.SearchHistoryEntry;
 
 /**
  * Persistent search history storage using SQLite for recording player search queries and results.
- * All operations are asynchronous and use a provided ExecutorService for execution.
- * Supports virtual threads via Executors.newVirtualThreadPerTaskExecutor() for efficient I/O.
+ * All operations are asynchronous: reads run on the provided ExecutorService, writes are queued on
+ * the shared {@link SqliteWriter} and complete when their group commit does.
  */
 public final class SearchHistoryStorage {
     private final Logger logger;
     private final DataSource dataSource;
+    private final SqliteWriter writer;
     private final ExecutorService executor;
 
-    public SearchHistoryStorage(Logger logger, DataSource dataSource, ExecutorService executor) {
+    public SearchHistoryStorage(Logger logger, DataSource dataSource, SqliteWriter writer, ExecutorService executor) {
         this.logger = Preconditions.checkNotNull(logger, "logger cannot be null");
         this.dataSource = Preconditions.checkNotNull(dataSource, "dataSource cannot be null");
+        this.writer = Preconditions.checkNotNull(writer, "writer cannot be null");
         this.executor = Preconditions.checkNotNull(executor, "executor cannot be null");
     }
 
@@ -37,36 +39,34 @@ public final class SearchHistoryStorage {
      * @return a CompletableFuture that completes when initialization is done
      */
     public CompletableFuture<Void> initialize() {
-        return CompletableFuture.runAsync(() -> {
-            try {
-                try (Connection conn = dataSource.getConnection()) {
-                    // Create search_history table
-                    conn.createStatement().execute("""
-                        CREATE TABLE IF NOT EXISTS search_history (
-                            id TEXT PRIMARY KEY,
-                            player_id TEXT NOT NULL,
-                            player_name TEXT NOT NULL,
-                            query TEXT NOT NULL,
-                            result_count INTEGER NOT NULL,
-                            timestamp INTEGER NOT NULL
-                        )
-                        """);
-
-                    // Create indices for efficient queries
-                    conn.createStatement().execute(
-                        "CREATE INDEX IF NOT EXISTS idx_search_history_player ON search_history(player_id, timestamp DESC)"
-                    );
-                    conn.createStatement().execute(
-                        "CREATE INDEX IF NOT EXISTS idx_search_history_timestamp ON search_history(timestamp DESC)"
-                    );
-                }
-
-                logger.info("Search history storage initialized");
-            } catch (SQLException e) {
+        return writer.<Void>submit(conn -> {
+            // Create search_history table
+            conn.createStatement().execute("""
+                CREATE TABLE IF NOT EXISTS search_history (
+                    id TEXT PRIMARY KEY,
+                    player_id TEXT NOT NULL,
+                    player_name TEXT NOT NULL,
+                    query TEXT NOT NULL,
+                    result_count INTEGER NOT NULL,
+                    timestamp INTEGER NOT NULL
+                )
+                """);
+
+            // Create indices for efficient queries
+            conn.createStatement().execute(
+                "CREATE INDEX IF NOT EXISTS idx_search_history_player ON search_history(player_id, timestamp DESC)"
+            );
+            conn.createStatement().execute(
+                "CREATE INDEX IF NOT EXISTS idx_search_history_timestamp ON search_history(timestamp DESC)"
+            );
+            return null;
+        }).whenComplete((v, e) -> {
+            if (e != null) {
                 logger.log(Level.SEVERE, "Failed to initialize search history storage", e);
-                throw new RuntimeException("Search history initialization failed", e);
+            } else {
+                logger.info("Search history storage initialized");
             }
-        }, executor);
+        });
     }
 
     /**
@@ -78,9 +78,8 @@ public final class SearchHistoryStorage {
     public CompletableFuture<Void> recordSearch(SearchHistoryEntry entry) {
         Preconditions.checkNotNull(entry, "entry cannot be null");
 
-        return CompletableFuture.runAsync(() -> {
-            try (Connection conn = dataSource.getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(
+        return writer.<Void>submit(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(
                      "INSERT INTO search_history (id, player_id, player_name, query, result_count, timestamp) " +
                      "VALUES (?, ?, ?, ?, ?, ?)")) {
 
@@ -92,11 +91,11 @@ public final class SearchHistoryStorage {
                 stmt.setLong(6, entry.timestamp());
 
                 stmt.executeUpdate();
-            } catch (SQLException e) {
-                logger.log(Level.WARNING, "Failed to record search history", e);
-                throw new RuntimeException("Failed to record search", e);
             }
-        }, executor);
+            return null;
+        }).whenComplete((v, e) -> {
+            if (e != null) logger.log(Level.WARNING, "Failed to record search history", e);
+        });
     }
 
     /**
@@ -196,22 +195,23 @@ public final class SearchHistoryStorage {
     public CompletableFuture<Void> clearPlayerHistory(UUID playerId) {
         Preconditions.checkNotNull(playerId, "playerId cannot be null");
 
-        return CompletableFuture.runAsync(() -> {
-            try (Connection conn = dataSource.getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(
+        return writer.submit(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(
                      "DELETE FROM search_history WHERE player_id = ?")) {
 
                 stmt.setString(1, playerId.toString());
-                int deleted = stmt.executeUpdate();
-
-                if (deleted > 0) {
-                    logger.info("Cleared " + deleted + " search history entries for player " + playerId);
-                }
-            } catch (SQLException e) {
+                return stmt.executeUpdate();
+            }
+        }).handle((deleted, e) -> {
+            if (e != null) {
                 logger.log(Level.WARNING, "Failed to clear player search history", e);
                 throw new RuntimeException("Failed to clear player history", e);
             }
-        }, executor);
+            if (deleted > 0) {
+                logger.info("Cleared " + deleted + " search history entries for player " + playerId);
+            }
+            return null;
+        });
     }
 
     /**
@@ -220,17 +220,18 @@ public final class SearchHistoryStorage {
      * @return a CompletableFuture that completes when the deletion is done
      */
     public CompletableFuture<Void> clearAllHistory() {
-        return CompletableFuture.runAsync(() -> {
-            try (Connection conn = dataSource.getConnection();
-                 PreparedStatement stmt = conn.prepareStatement("DELETE FROM search_history")) {
-
-                int deleted = stmt.executeUpdate();
-                logger.info("Cleared all " + deleted + " search history entries");
-            } catch (SQLException e) {
+        return writer.submit(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM search_history")) {
+                return stmt.executeUpdate();
+            }
+        }).handle((deleted, e) -> {
+            if (e != null) {
                 logger.log(Level.WARNING, "Failed to clear all search history", e);
                 throw new RuntimeException("Failed to clear all history", e);
             }
-        }, executor);
+            logger.info("Cleared all " + deleted + " search history entries");
+            return null;
+        });
     }
 
     /**
@@ -242,21 +243,22 @@ public final class SearchHistoryStorage {
     public CompletableFuture<Void> pruneOldEntries(int maxAgeDays) {
         Preconditions.checkArgument(maxAgeDays > 0, "maxAgeDays must be positive");
 
-        return CompletableFuture.runAsync(() -> {
-            try (Connection conn = dataSource.getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(
+        long cutoffTime = System.currentTimeMillis() - (long) maxAgeDays * 24 * 60 * 60 * 1000;
+        return writer.submit(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(
                      "DELETE FROM search_history WHERE timestamp < ?")) {
 
-                long cutoffTime = System.currentTimeMillis() - (long) maxAgeDays * 24 * 60 * 60 * 1000;
                 stmt.setLong(1, cutoffTime);
-
-                int deleted = stmt.executeUpdate();
-                logger.info("Pruned " + deleted + " search history entries older than " + maxAgeDays + " days");
-            } catch (SQLException e) {
+                return stmt.executeUpdate();
+            }
+        }).handle((deleted, e) -> {
+            if (e != null) {
                 logger.log(Level.WARNING, "Failed to prune search history", e);
                 throw new RuntimeException("Failed to prune history", e);
             }
-        }, executor);
+            logger.info("Pruned " + deleted + " search history entries older than " + maxAgeDays + " days");
+            return null;
+        });
     }
 
     /**
@@ -0,0 +1,273 @@
+package org.aincraft.kitsune.storage;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Single writer for all SQLite mutations.
+ *
+ * SQLite allows one writer at a time, so instead of every caller taking the pool's connection for
+ * its own transaction, writes are queued and applied by one thread on one long-lived connection.
+ * The thread drains whatever is queued (up to the batch size) and commits it as one transaction, so
+ * concurrent callers share the cost of a commit. Each write runs inside its own savepoint: a write
+ * that fails is rolled back alone and only its future fails.
+ *
+ * The queue is bounded; submitting blocks while it is full.
+ */
+public final class SqliteWriter implements AutoCloseable {
+
+    private static final long SHUTDOWN_TIMEOUT_MS = 10_000;
+
+    /**
+     * A unit of work against the writer connection. Must not commit, roll back or change auto-commit.
+     */
+    @FunctionalInterface
+    public interface Write<T> {
+        T apply(Connection connection) throws SQLException;
+    }
+
+    private record Task<T>(Write<T> write, @Nullable Consumer<? super T> afterCommit, CompletableFuture<T> future) {
+    }
+
+    private static final Task<Void> STOP = new Task<>(c -> null, null, new CompletableFuture<>());
+
+    private final Logger logger;
+    private final DataSource dataSource;
+    private final Executor completionExecutor;
+    private final BlockingQueue<Task<?>> queue;
+    private final int maxBatch;
+    private final Thread thread;
+    private final AtomicLong commitCount = new AtomicLong();
+    private final AtomicLong writeCount = new AtomicLong();
+    private volatile boolean closed;
+
+    /**
+     * @param dataSource source of the writer connection, held until {@link #close()}
+     * @param queueCapacity writes that may wait before submitters block
+     * @param maxBatch most writes committed in one transaction
+     */
+    public SqliteWriter(Logger logger, DataSource dataSource, int queueCapacity, int maxBatch) {
+        this(logger, dataSource, queueCapacity, maxBatch, virtualThreadPerTask());
+    }
+
+    /**
+     * @param dataSource source of the writer connection, held until {@link #close()}
+     * @param queueCapacity writes that may wait before submitters block
+     * @param maxBatch most writes committed in one transaction
+     * @param completionExecutor completes {@link #submit} futures, off the writer thread
+     */
+    public SqliteWriter(Logger logger, DataSource dataSource, int queueCapacity, int maxBatch,
+                        Executor completionExecutor) {
+        this.logger = logger;
+        this.dataSource = dataSource;
+        this.completionExecutor = completionExecutor;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.maxBatch = Math.max(1, maxBatch);
+        this.thread = new Thread(this::run, "kitsune-sqlite-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Queue a write. The future completes after the transaction holding it commits, on the
+     * completion executor rather than the writer thread.
+     */
+    public <T> CompletableFuture<T> submit(Write<T> write) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        enqueue(write, null).whenComplete((value, error) -> {
+            Runnable complete = () -> {
+                if (error != null) result.completeExceptionally(error);
+                else result.complete(value);
+            };
+            try {
+                completionExecutor.execute(complete);
+            } catch (RejectedExecutionException e) {
+                // The executor closed first while shutting down; the last writes complete here
+                complete.run();
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Queue a write and wait for its commit.
+     *
+     * @throws SQLException if the write or its commit failed
+     */
+    public <T> T execute(Write<T> write) throws SQLException {
+        return execute(write, null);
+    }
+
+    /**
+     * Queue a write and wait for its commit. afterCommit runs on the writer thread once the write has
+     * committed and before the next batch starts, so state mirrored in memory sees writes in commit
+     * order. Keep it short; it is skipped if the write fails.
+     *
+     * @throws SQLException if the write or its commit failed
+     */
+    public <T> T execute(Write<T> write, @Nullable Consumer<? super T> afterCommit) throws SQLException {
+        if (Thread.currentThread() == thread) {
+            throw new IllegalStateException("Cannot wait on a write from the writer thread");
+        }
+        try {
+            return enqueue(write, afterCommit).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof SQLException sqlException) throw sqlException;
+            if (e.getCause() instanceof RuntimeException runtimeException) throw runtimeException;
+            throw e;
+        }
+    }
+
+    private <T> CompletableFuture<T> enqueue(Write<T> write, @Nullable Consumer<? super T> afterCommit) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        if (closed) {
+            future.completeExceptionally(new IllegalStateException("SQLite writer is closed"));
+            return future;
+        }
+        try {
+            queue.put(new Task<>(write, afterCommit, future));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private static Executor virtualThreadPerTask() {
+        ThreadFactory factory = Thread.ofVirtual().name("kitsune-sqlite-completion-", 0).factory();
+        return task -> factory.newThread(task).start();
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getCommitCount() {
+        return commitCount.get();
+    }
+
+    public long getWriteCount() {
+        return writeCount.get();
+    }
+
+    private void run() {
+        List<Task<?>> batch = new ArrayList<>(maxBatch);
+        Connection connection = null;
+        try {
+            boolean stop = false;
+            while (!stop) {
+                batch.add(queue.take());
+                queue.drainTo(batch, maxBatch - 1);
+                stop = batch.removeIf(task -> task == STOP);
+                if (batch.isEmpty()) continue;
+                try {
+                    if (connection == null) {
+                        connection = dataSource.getConnection();
+                        connection.setAutoCommit(false);
+                    }
+                } catch (SQLException e) {
+                    logger.log(Level.SEVERE, "Failed to open SQLite writer connection", e);
+                    batch.forEach(task -> task.future().completeExceptionally(e));
+                    batch.clear();
+                    continue;
+                }
+                commitBatch(connection, batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            IllegalStateException stopped = new IllegalStateException("SQLite writer stopped");
+            batch.forEach(task -> task.future().completeExceptionally(stopped));
+            queue.forEach(task -> task.future().completeExceptionally(stopped));
+            queue.clear();
+            if (connection != null) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    logger.log(Level.WARNING, "Failed to close SQLite writer connection", e);
+                }
+            }
+        }
+    }
+
+    private void commitBatch(Connection connection, List<Task<?>> batch) {
+        List<Runnable> completions = new ArrayList<>(batch.size());
+        try {
+            for (Task<?> task : batch) {
+                completions.add(apply(connection, task));
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Failed to commit " + batch.size() + " SQLite writes", e);
+            try {
+                connection.rollback();
+            } catch (SQLException rollbackFailure) {
+                e.addSuppressed(rollbackFailure);
+            }
+            batch.forEach(task -> task.future().completeExceptionally(e));
+            return;
+        }
+        commitCount.incrementAndGet();
+        writeCount.addAndGet(batch.size());
+        completions.forEach(Runnable::run);
+    }
+
+    private <T> Runnable apply(Connection connection, Task<T> task) throws SQLException {
+        Savepoint savepoint = connection.setSavepoint();
+        try {
+            T result = task.write().apply(connection);
+            connection.releaseSavepoint(savepoint);
+            return () -> {
+                if (task.afterCommit() != null) {
+                    try {
+                        task.afterCommit().accept(result);
+                    } catch (RuntimeException e) {
+                        logger.log(Level.WARNING, "Write commit hook failed", e);
+                    }
+                }
+                task.future().complete(result);
+            };
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback(savepoint);
+            connection.releaseSavepoint(savepoint);
+            task.future().completeExceptionally(e);
+            return () -> { };
+        }
+    }
+
+    /**
+     * Commit everything already queued, then stop the writer and close its connection.
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        try {
+            queue.put(STOP);
+            thread.join(SHUTDOWN_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            logger.warning("SQLite writer did not drain within " + SHUTDOWN_TIMEOUT_MS + "ms");
+            thread.interrupt();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package org.aincraft.kitsune.storage;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Threads KitsuneStorage runs its work on, instead of the common fork-join pool it would share
+ * with the server and every other plugin.
+ *
+ * - io: a virtual thread per task, for stages that block on JDBC
+ * - cpu: a fixed pool of platform threads, for stages that only compute (hashing embeddings,
+ *   ranking and filtering vector hits); its queue absorbs bursts
+ *
+ * Stages are chained on these executors rather than joined, so no thread blocks waiting for
+ * another stage.
+ */
+public final class StorageExecutors implements AutoCloseable {
+
+    /**
+     * @param ioInFlight io tasks submitted and not yet finished
+     * @param cpuQueued cpu tasks waiting for a thread
+     */
+    public record Stats(int ioInFlight, int cpuThreads, int cpuActive, int cpuQueued, long cpuCompleted) {
+    }
+
+    private final ExecutorService ioThreads;
+    private final Executor io;
+    private final ThreadPoolExecutor cpu;
+    private final AtomicInteger ioInFlight = new AtomicInteger();
+
+    /**
+     * @param cpuThreads size of the cpu pool; 0 for half the available processors, at least 2
+     */
+    public StorageExecutors(int cpuThreads) {
+        this.ioThreads = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("kitsune-storage-io-", 0).factory());
+        this.io = task -> {
+            ioInFlight.incrementAndGet();
+            try {
+                ioThreads.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        ioInFlight.decrementAndGet();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                ioInFlight.decrementAndGet();
+                throw e;
+            }
+        };
+        int threads = cpuThreads > 0 ? cpuThreads : Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger created = new AtomicInteger();
+        this.cpu = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "kitsune-storage-cpu-" + created.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public Executor io() {
+        return io;
+    }
+
+    public Executor cpu() {
+        return cpu;
+    }
+
+    public Stats stats() {
+        return new Stats(ioInFlight.get(), cpu.getMaximumPoolSize(), cpu.getActiveCount(), cpu.getQueue().size(),
+            cpu.getCompletedTaskCount());
+    }
+
+    /**
+     * Stop accepting work. Tasks already submitted still run.
+     */
+    @Override
+    public void close() {
+        cpu.shutdown();
+        ioThreads.shutdown();
+    }
+}
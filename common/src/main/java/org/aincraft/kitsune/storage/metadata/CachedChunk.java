@@ -0,0 +1,14 @@
+package org.aincraft.kitsune.storage.metadata;
+
+import java.util.UUID;
+import org.aincraft.kitsune.Location;
+import org.aincraft.kitsune.api.model.ContainerPath;
+
+/**
+ * Chunk metadata resolved from memory, without its content text.
+ * Fetch the content with {@link ContainerStorage#getChunkContents} for the chunks actually shown.
+ */
+public record CachedChunk(int ordinal, UUID containerId, Location location, int chunkIndex,
+                          ContainerPath containerPath) {
+
+}
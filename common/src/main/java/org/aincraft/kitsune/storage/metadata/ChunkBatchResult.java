@@ -0,0 +1,13 @@
+package org.aincraft.kitsune.storage.metadata;
+
+import java.util.List;
+
+/**
+ * Outcome of replacing a container's chunks in one transaction.
+ *
+ * @param vectors vector referenced by each new chunk, in chunk order
+ * @param freedVectors vectors that lost their last reference and must leave the vector index
+ */
+public record ChunkBatchResult(List<VectorRef> vectors, List<Integer> freedVectors) {
+
+}
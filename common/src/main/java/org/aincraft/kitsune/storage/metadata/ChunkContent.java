@@ -0,0 +1,10 @@
+package org.aincraft.kitsune.storage.metadata;
+
+import org.aincraft.kitsune.model.ItemFields;
+
+/**
+ * What a search result shows of a chunk, read from its row: the stored text and the typed item columns.
+ */
+public record ChunkContent(String contentText, ItemFields item) {
+
+}
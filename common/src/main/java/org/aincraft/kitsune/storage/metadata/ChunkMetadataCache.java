@@ -0,0 +1,589 @@
+package org.aincraft.kitsune.storage.metadata;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntConsumer;
+import org.aincraft.kitsune.Location;
+import org.aincraft.kitsune.Platform;
+import org.aincraft.kitsune.api.model.ContainerPath;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * In-memory mirror of chunk placement so vector hits resolve to locations without SQL.
+ *
+ * Columnar: per-ordinal columns hold the chunk's container slot, chunk index, path id and vector id,
+ * and per-container-slot columns hold the primary location, so moving a container touches one row.
+ * Chunks sharing a vector, and chunks of one container, are chained through doubly linked lists
+ * stored in the same arrays. World names and container paths are interned to ints; each distinct
+ * path is parsed once when first interned. Containers are
+ * also bucketed by world and Minecraft chunk of their primary location, so area queries only visit
+ * the chunks they overlap.
+ *
+ * Content text is deliberately not cached. ContainerStorage applies every write here from the
+ * writer's commit hook, so the mirror follows the database in commit order. Deleted ordinals are
+ * handed back to the {@link OrdinalAllocator}, and every reload reseeds it.
+ */
+final class ChunkMetadataCache {
+
+    private static final int NONE = -1;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Per ordinal; chunkContainer is NONE for unused ordinals
+    private int[] chunkContainer;
+    private int[] chunkIndex;
+    private int[] chunkPath;
+    private int[] chunkVector;
+    private int[] nextInVector;
+    private int[] prevInVector;
+    private int[] nextInContainer;
+    private int[] prevInContainer;
+    private int chunkCount;
+
+    // Per vector id: first ordinal using it
+    private int[] vectorHead;
+
+    // Per container slot; containerWorld is NONE while the container has no primary location
+    private final List<UUID> containerIds = new ArrayList<>();
+    private final Map<UUID, Integer> containerSlots = new HashMap<>();
+    private final Deque<Integer> freeContainerSlots = new ArrayDeque<>();
+    private int[] containerWorld;
+    private int[] containerX;
+    private int[] containerY;
+    private int[] containerZ;
+    private int[] containerHead;
+
+    // Per world id: packed chunk coordinates -> container slots located in that chunk
+    private final Map<Integer, Map<Long, Cell>> grid = new HashMap<>();
+
+    private final Interner worlds = new Interner();
+    private final Interner paths = new Interner();
+    // Per path id: the parsed path
+    private final List<ContainerPath> parsedPaths = new ArrayList<>();
+    private final OrdinalAllocator ordinals;
+
+    ChunkMetadataCache(OrdinalAllocator ordinals) {
+        this.ordinals = ordinals;
+        reset();
+        ordinals.reset(new BitSet());
+    }
+
+    /**
+     * Rows read from the database that the cache is rebuilt from.
+     */
+    record Snapshot(List<LocationRow> locations, List<ChunkRow> chunks) {
+    }
+
+    record LocationRow(UUID containerId, String world, int x, int y, int z) {
+    }
+
+    record ChunkRow(int ordinal, UUID containerId, int chunkIndex, @Nullable String containerPath, int vectorId) {
+    }
+
+    static Snapshot readSnapshot(Connection c) throws SQLException {
+        List<LocationRow> locations = new ArrayList<>();
+        try (ResultSet rs = c.createStatement().executeQuery("SELECT container_id, world, x, y, z FROM container_locations WHERE is_primary = 1")) {
+            while (rs.next()) {
+                locations.add(new LocationRow(UUID.fromString(rs.getString(1)), rs.getString(2), rs.getInt(3), rs.getInt(4), rs.getInt(5)));
+            }
+        }
+        List<ChunkRow> chunks = new ArrayList<>();
+        try (ResultSet rs = c.createStatement().executeQuery("SELECT ordinal, container_id, chunk_index, container_path, vector_id FROM container_chunks")) {
+            while (rs.next()) {
+                chunks.add(new ChunkRow(rs.getInt(1), UUID.fromString(rs.getString(2)), rs.getInt(3), rs.getString(4), rs.getInt(5)));
+            }
+        }
+        return new Snapshot(locations, chunks);
+    }
+
+    /**
+     * Replace the contents with a snapshot.
+     */
+    void load(Snapshot snapshot) {
+        lock.writeLock().lock();
+        try {
+            reset();
+            for (LocationRow row : snapshot.locations()) {
+                setLocation(slotFor(row.containerId()), row.world(), row.x(), row.y(), row.z());
+            }
+            for (ChunkRow row : snapshot.chunks()) {
+                putChunkLocked(row.ordinal(), row.containerId(), row.chunkIndex(), row.containerPath(), row.vectorId());
+            }
+            resetOrdinalsLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            reset();
+            resetOrdinalsLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void reset() {
+        chunkContainer = filled(INITIAL_CAPACITY);
+        chunkIndex = new int[INITIAL_CAPACITY];
+        chunkPath = new int[INITIAL_CAPACITY];
+        chunkVector = new int[INITIAL_CAPACITY];
+        nextInVector = filled(INITIAL_CAPACITY);
+        prevInVector = filled(INITIAL_CAPACITY);
+        nextInContainer = filled(INITIAL_CAPACITY);
+        prevInContainer = filled(INITIAL_CAPACITY);
+        chunkCount = 0;
+        vectorHead = filled(INITIAL_CAPACITY);
+        containerIds.clear();
+        containerSlots.clear();
+        freeContainerSlots.clear();
+        containerWorld = filled(INITIAL_CAPACITY);
+        containerX = new int[INITIAL_CAPACITY];
+        containerY = new int[INITIAL_CAPACITY];
+        containerZ = new int[INITIAL_CAPACITY];
+        containerHead = filled(INITIAL_CAPACITY);
+        grid.clear();
+    }
+
+    /**
+     * Set or clear a container's primary location.
+     */
+    void putLocation(UUID containerId, @Nullable Location primary) {
+        lock.writeLock().lock();
+        try {
+            int slot = slotFor(containerId);
+            if (primary == null) {
+                clearLocation(slot);
+            } else {
+                setLocation(slot, primary.getWorld().getName(), primary.blockX(), primary.blockY(), primary.blockZ());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void putChunk(int ordinal, UUID containerId, int chunkIndex, @Nullable String containerPath, int vectorId) {
+        lock.writeLock().lock();
+        try {
+            putChunkLocked(ordinal, containerId, chunkIndex, containerPath, vectorId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Move a chunk to another position in its container.
+     */
+    void setChunkIndex(int ordinal, int index) {
+        lock.writeLock().lock();
+        try {
+            if (ordinal >= 0 && ordinal < chunkContainer.length && chunkContainer[ordinal] != NONE) {
+                chunkIndex[ordinal] = index;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop a container's chunks, keeping its location.
+     */
+    void removeChunks(UUID containerId) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = containerSlots.get(containerId);
+            if (slot != null) {
+                removeChunksLocked(slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void removeChunk(int ordinal) {
+        lock.writeLock().lock();
+        try {
+            if (ordinal >= 0 && ordinal < chunkContainer.length && chunkContainer[ordinal] != NONE) {
+                removeChunkLocked(ordinal);
+                ordinals.free(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void removeContainer(UUID containerId) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = containerSlots.remove(containerId);
+            if (slot != null) {
+                removeChunksLocked(slot);
+                clearLocation(slot);
+                containerIds.set(slot, null);
+                freeContainerSlots.push(slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Resolve vector hits to every chunk using each vector, skipping chunks whose container has no
+     * primary location.
+     */
+    Map<Integer, List<CachedChunk>> getByVectorIds(Collection<Integer> vectorIds) {
+        Map<Integer, List<CachedChunk>> result = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            for (int vectorId : vectorIds) {
+                if (vectorId < 0 || vectorId >= vectorHead.length) continue;
+                for (int ordinal = vectorHead[vectorId]; ordinal != NONE; ordinal = nextInVector[ordinal]) {
+                    int slot = chunkContainer[ordinal];
+                    int world = containerWorld[slot];
+                    if (world == NONE) continue;
+                    Location location = Platform.get().createLocation(
+                        worlds.value(world), containerX[slot], containerY[slot], containerZ[slot]);
+                    result.computeIfAbsent(vectorId, k -> new ArrayList<>()).add(new CachedChunk(
+                        ordinal, containerIds.get(slot), location, chunkIndex[ordinal], pathOf(chunkPath[ordinal])));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Reseed the allocator from the cached ordinals, e.g. after a compaction that did not commit.
+     */
+    void resetOrdinals() {
+        lock.readLock().lock();
+        try {
+            resetOrdinalsLocked();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void resetOrdinalsLocked() {
+        BitSet used = new BitSet(chunkContainer.length);
+        for (int ordinal = 0; ordinal < chunkContainer.length; ordinal++) {
+            if (chunkContainer[ordinal] != NONE) used.set(ordinal);
+        }
+        ordinals.reset(used);
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return chunkCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void putChunkLocked(int ordinal, UUID containerId, int index, @Nullable String containerPath, int vectorId) {
+        ensureChunkCapacity(ordinal);
+        if (chunkContainer[ordinal] != NONE) {
+            removeChunkLocked(ordinal);
+        }
+        ensureVectorCapacity(vectorId);
+        int slot = slotFor(containerId);
+        chunkContainer[ordinal] = slot;
+        chunkIndex[ordinal] = index;
+        chunkPath[ordinal] = paths.intern(containerPath);
+        if (chunkPath[ordinal] == parsedPaths.size()) {
+            parsedPaths.add(parsePath(containerPath));
+        }
+        chunkVector[ordinal] = vectorId;
+
+        prevInVector[ordinal] = NONE;
+        nextInVector[ordinal] = vectorHead[vectorId];
+        if (vectorHead[vectorId] != NONE) prevInVector[vectorHead[vectorId]] = ordinal;
+        vectorHead[vectorId] = ordinal;
+
+        prevInContainer[ordinal] = NONE;
+        nextInContainer[ordinal] = containerHead[slot];
+        if (containerHead[slot] != NONE) prevInContainer[containerHead[slot]] = ordinal;
+        containerHead[slot] = ordinal;
+        chunkCount++;
+    }
+
+    private ContainerPath pathOf(int pathId) {
+        return pathId == NONE ? ContainerPath.ROOT : parsedPaths.get(pathId);
+    }
+
+    private static ContainerPath parsePath(@Nullable String containerPath) {
+        if (containerPath == null || containerPath.isEmpty()) return ContainerPath.ROOT;
+        try {
+            return ContainerPath.fromJson(containerPath);
+        } catch (RuntimeException e) {
+            return ContainerPath.ROOT;
+        }
+    }
+
+    private void removeChunksLocked(int slot) {
+        while (containerHead[slot] != NONE) {
+            int ordinal = containerHead[slot];
+            removeChunkLocked(ordinal);
+            ordinals.free(ordinal);
+        }
+    }
+
+    private void removeChunkLocked(int ordinal) {
+        int vectorId = chunkVector[ordinal];
+        if (prevInVector[ordinal] != NONE) nextInVector[prevInVector[ordinal]] = nextInVector[ordinal];
+        else vectorHead[vectorId] = nextInVector[ordinal];
+        if (nextInVector[ordinal] != NONE) prevInVector[nextInVector[ordinal]] = prevInVector[ordinal];
+
+        int slot = chunkContainer[ordinal];
+        if (prevInContainer[ordinal] != NONE) nextInContainer[prevInContainer[ordinal]] = nextInContainer[ordinal];
+        else containerHead[slot] = nextInContainer[ordinal];
+        if (nextInContainer[ordinal] != NONE) prevInContainer[nextInContainer[ordinal]] = prevInContainer[ordinal];
+
+        chunkContainer[ordinal] = NONE;
+        nextInVector[ordinal] = prevInVector[ordinal] = NONE;
+        nextInContainer[ordinal] = prevInContainer[ordinal] = NONE;
+        chunkCount--;
+    }
+
+    private int slotFor(UUID containerId) {
+        Integer existing = containerSlots.get(containerId);
+        if (existing != null) return existing;
+        int slot;
+        if (!freeContainerSlots.isEmpty()) {
+            slot = freeContainerSlots.pop();
+            containerIds.set(slot, containerId);
+        } else {
+            slot = containerIds.size();
+            containerIds.add(containerId);
+            if (slot >= containerWorld.length) {
+                int capacity = grow(containerWorld.length, slot);
+                containerWorld = grown(containerWorld, capacity);
+                containerX = Arrays.copyOf(containerX, capacity);
+                containerY = Arrays.copyOf(containerY, capacity);
+                containerZ = Arrays.copyOf(containerZ, capacity);
+                containerHead = grown(containerHead, capacity);
+            }
+        }
+        containerWorld[slot] = NONE;
+        containerHead[slot] = NONE;
+        containerSlots.put(containerId, slot);
+        return slot;
+    }
+
+    private void setLocation(int slot, String world, int x, int y, int z) {
+        clearLocation(slot);
+        containerWorld[slot] = worlds.intern(world);
+        containerX[slot] = x;
+        containerY[slot] = y;
+        containerZ[slot] = z;
+        grid.computeIfAbsent(containerWorld[slot], w -> new HashMap<>())
+            .computeIfAbsent(chunkKey(x >> 4, z >> 4), k -> new Cell())
+            .add(slot);
+    }
+
+    private void clearLocation(int slot) {
+        int world = containerWorld[slot];
+        if (world == NONE) return;
+        Map<Long, Cell> cells = grid.get(world);
+        long key = chunkKey(containerX[slot] >> 4, containerZ[slot] >> 4);
+        Cell cell = cells.get(key);
+        cell.remove(slot);
+        if (cell.size == 0) cells.remove(key);
+        containerWorld[slot] = NONE;
+    }
+
+    /**
+     * Container ids whose primary location is within radius blocks of the center.
+     */
+    List<UUID> getContainersInRadius(String world, int x, int y, int z, int radius) {
+        List<UUID> result = new ArrayList<>();
+        long radiusSquared = (long) radius * radius;
+        lock.readLock().lock();
+        try {
+            forEachSlotInBox(world, x - radius, x + radius, y - radius, y + radius, z - radius, z + radius, slot -> {
+                long dx = containerX[slot] - x, dy = containerY[slot] - y, dz = containerZ[slot] - z;
+                if (dx * dx + dy * dy + dz * dz <= radiusSquared) result.add(containerIds.get(slot));
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Distinct vector ids of the chunks whose container's primary location lies in the box, bounds inclusive.
+     */
+    List<Integer> getVectorIdsInBox(String world, int minX, int maxX, int minY, int maxY, int minZ, int maxZ) {
+        Set<Integer> result = new HashSet<>();
+        lock.readLock().lock();
+        try {
+            forEachSlotInBox(world, minX, maxX, minY, maxY, minZ, maxZ, slot -> {
+                for (int ordinal = containerHead[slot]; ordinal != NONE; ordinal = nextInContainer[ordinal]) {
+                    result.add(chunkVector[ordinal]);
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * Ordinals of the chunks whose container's primary location lies in the box, bounds inclusive.
+     */
+    List<Integer> getOrdinalsInBox(String world, int minX, int maxX, int minY, int maxY, int minZ, int maxZ) {
+        List<Integer> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            forEachSlotInBox(world, minX, maxX, minY, maxY, minZ, maxZ, slot -> {
+                for (int ordinal = containerHead[slot]; ordinal != NONE; ordinal = nextInContainer[ordinal]) {
+                    result.add(ordinal);
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    private void forEachSlotInBox(String world, int minX, int maxX, int minY, int maxY, int minZ, int maxZ,
+                                  IntConsumer action) {
+        Integer worldId = worlds.id(world);
+        if (worldId == null) return;
+        Map<Long, Cell> cells = grid.get(worldId);
+        if (cells == null) return;
+        int minChunkX = minX >> 4, maxChunkX = maxX >> 4;
+        int minChunkZ = minZ >> 4, maxChunkZ = maxZ >> 4;
+        long boxCells = (long) (maxChunkX - minChunkX + 1) * (maxChunkZ - minChunkZ + 1);
+        if (boxCells > cells.size()) {
+            // Fewer occupied chunks than chunks in the box: filter the occupied ones instead
+            for (Cell cell : cells.values()) {
+                forEachSlotInBox(cell, minX, maxX, minY, maxY, minZ, maxZ, action);
+            }
+            return;
+        }
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                Cell cell = cells.get(chunkKey(chunkX, chunkZ));
+                if (cell != null) forEachSlotInBox(cell, minX, maxX, minY, maxY, minZ, maxZ, action);
+            }
+        }
+    }
+
+    private void forEachSlotInBox(Cell cell, int minX, int maxX, int minY, int maxY, int minZ, int maxZ,
+                                  IntConsumer action) {
+        for (int i = 0; i < cell.size; i++) {
+            int slot = cell.slots[i];
+            if (containerX[slot] >= minX && containerX[slot] <= maxX
+                && containerY[slot] >= minY && containerY[slot] <= maxY
+                && containerZ[slot] >= minZ && containerZ[slot] <= maxZ) {
+                action.accept(slot);
+            }
+        }
+    }
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    private void ensureChunkCapacity(int ordinal) {
+        if (ordinal < chunkContainer.length) return;
+        int capacity = grow(chunkContainer.length, ordinal);
+        chunkContainer = grown(chunkContainer, capacity);
+        chunkIndex = Arrays.copyOf(chunkIndex, capacity);
+        chunkPath = Arrays.copyOf(chunkPath, capacity);
+        chunkVector = Arrays.copyOf(chunkVector, capacity);
+        nextInVector = grown(nextInVector, capacity);
+        prevInVector = grown(prevInVector, capacity);
+        nextInContainer = grown(nextInContainer, capacity);
+        prevInContainer = grown(prevInContainer, capacity);
+    }
+
+    private void ensureVectorCapacity(int vectorId) {
+        if (vectorId >= vectorHead.length) {
+            vectorHead = grown(vectorHead, grow(vectorHead.length, vectorId));
+        }
+    }
+
+    private static int grow(int length, int index) {
+        return Math.max(index + 1, length + (length >> 1));
+    }
+
+    private static int[] filled(int length) {
+        int[] array = new int[length];
+        Arrays.fill(array, NONE);
+        return array;
+    }
+
+    private static int[] grown(int[] array, int capacity) {
+        int length = array.length;
+        int[] copy = Arrays.copyOf(array, capacity);
+        Arrays.fill(copy, length, capacity, NONE);
+        return copy;
+    }
+
+    /**
+     * Container slots located in one Minecraft chunk, unordered.
+     */
+    private static final class Cell {
+        private int[] slots = new int[4];
+        private int size;
+
+        void add(int slot) {
+            if (size == slots.length) slots = Arrays.copyOf(slots, size * 2);
+            slots[size++] = slot;
+        }
+
+        void remove(int slot) {
+            for (int i = 0; i < size; i++) {
+                if (slots[i] == slot) {
+                    slots[i] = slots[--size];
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Maps repeated strings to dense ids. Null interns to NONE.
+     */
+    private static final class Interner {
+        private final List<String> values = new ArrayList<>();
+        private final Map<String, Integer> ids = new HashMap<>();
+
+        int intern(@Nullable String value) {
+            if (value == null) return NONE;
+            return ids.computeIfAbsent(value, v -> {
+                values.add(v);
+                return values.size() - 1;
+            });
+        }
+
+        @Nullable Integer id(String value) {
+            return ids.get(value);
+        }
+
+        @Nullable String value(int id) {
+            return id == NONE ? null : values.get(id);
+        }
+    }
+}
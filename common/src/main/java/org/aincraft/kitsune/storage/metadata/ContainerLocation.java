@@ -0,0 +1,12 @@
+package org.aincraft.kitsune.storage.metadata;
+
+import java.util.UUID;
+import org.aincraft.kitsune.Location;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The container occupying a block position, and that container's primary location.
+ */
+public record ContainerLocation(UUID containerId, @Nullable Location primaryLocation) {
+
+}
@@ -0,0 +1,134 @@
+package org.aincraft.kitsune.storage.metadata;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import org.aincraft.kitsune.Location;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Bounded, least recently used map from block position to the container there, so listeners and
+ * the indexer resolve recently touched containers without a query.
+ *
+ * Writes that change a container's positions replace or drop its entries from their commit hooks,
+ * so the cache never disagrees with committed state. Entries read from the database are added with
+ * {@link #fill}, which is ignored if any write changed the cache after the caller took its
+ * {@link #generation()}: the read may predate that write.
+ */
+final class ContainerLocationCache {
+
+    private record Position(String world, int x, int y, int z) {
+        static Position of(Location location) {
+            return new Position(location.getWorld().getName(), location.blockX(), location.blockY(), location.blockZ());
+        }
+    }
+
+    private final int capacity;
+    private final LinkedHashMap<Position, ContainerLocation> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // Cached positions of each container, to drop them together
+    private final Map<UUID, Set<Position>> positions = new HashMap<>();
+    private long generation;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    ContainerLocationCache(int capacity) {
+        this.capacity = Math.max(0, capacity);
+    }
+
+    /**
+     * Look up a position, counting a hit or a miss.
+     */
+    synchronized @Nullable ContainerLocation get(Location location) {
+        ContainerLocation entry = entries.get(Position.of(location));
+        if (entry != null) hits++;
+        else misses++;
+        return entry;
+    }
+
+    /**
+     * Look up a position, counting only a hit: on a miss the caller falls back to a path that
+     * looks up again.
+     */
+    synchronized @Nullable ContainerLocation peek(Location location) {
+        ContainerLocation entry = entries.get(Position.of(location));
+        if (entry != null) hits++;
+        return entry;
+    }
+
+    synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Cache a position read from the database, unless the cache changed since generation was taken.
+     */
+    synchronized void fill(long generation, Location location, ContainerLocation entry) {
+        if (generation == this.generation) insert(Position.of(location), entry);
+    }
+
+    /**
+     * A container's positions were replaced.
+     */
+    synchronized void put(UUID containerId, Location primaryLocation, Collection<Location> locations) {
+        generation++;
+        removeContainer(containerId);
+        ContainerLocation entry = new ContainerLocation(containerId, primaryLocation);
+        for (Location location : locations) {
+            insert(Position.of(location), entry);
+        }
+    }
+
+    /**
+     * A container's positions were deleted.
+     */
+    synchronized void invalidate(UUID containerId) {
+        generation++;
+        removeContainer(containerId);
+    }
+
+    synchronized void clear() {
+        generation++;
+        entries.clear();
+        positions.clear();
+    }
+
+    synchronized LocationCacheStats stats() {
+        return new LocationCacheStats(hits, misses, evictions, entries.size(), capacity);
+    }
+
+    private void insert(Position position, ContainerLocation entry) {
+        if (capacity == 0) return;
+        ContainerLocation previous = entries.put(position, entry);
+        if (previous != null && !previous.containerId().equals(entry.containerId())) {
+            forget(previous.containerId(), position);
+        }
+        positions.computeIfAbsent(entry.containerId(), id -> new HashSet<>()).add(position);
+        Iterator<Map.Entry<Position, ContainerLocation>> eldest = entries.entrySet().iterator();
+        while (entries.size() > capacity) {
+            Map.Entry<Position, ContainerLocation> evicted = eldest.next();
+            eldest.remove();
+            forget(evicted.getValue().containerId(), evicted.getKey());
+            evictions++;
+        }
+    }
+
+    private void removeContainer(UUID containerId) {
+        Set<Position> cached = positions.remove(containerId);
+        if (cached != null) {
+            for (Position position : cached) entries.remove(position);
+        }
+    }
+
+    private void forget(UUID containerId, Position position) {
+        Set<Position> cached = positions.get(containerId);
+        if (cached != null && cached.remove(position) && cached.isEmpty()) {
+            positions.remove(containerId);
+        }
+    }
+}
@@ -4,8 +4,15 @@ import org.aincraft.kitsune.api.ContainerLocations;
 import org.aincraft.kitsune.Location;
 import org.aincraft.kitsune.Platform;
 import org.aincraft.kitsune.model.ContainerChunk;
+import org.aincraft.kitsune.model.ItemFields;
+import org.aincraft.kitsune.storage.SqliteWriter;
+import org.aincraft.kitsune.util.ItemDataExtractor;
+import org.jetbrains.annotations.Nullable;
 
 import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.sql.*;
 import java.util.*;
 import java.util.logging.Logger;
@@ -13,63 +20,173 @@ import java.util.logging.Logger;
 /**
  * SQLite storage for container and chunk metadata.
  * Synchronous API - wrap in CompletableFuture at call site if async needed.
+ * Reads use the pooled data source; every mutation goes through the shared {@link SqliteWriter}.
+ * Chunk placement is mirrored in a {@link ChunkMetadataCache} updated from the writer's commit hooks,
+ * so search hits resolve without queries.
+ * Item payloads are stored in content_text either as JSON text or, when compact payloads are
+ * enabled, as {@link ItemPayloadCodec} blobs; reads return JSON either way.
+ * Position lookups go through a {@link ContainerLocationCache} kept current the same way.
  */
 public final class ContainerStorage {
 
+    private static final int TRANSCODE_BATCH_SIZE = 500;
+    private static final int DISPLAY_NAME_SCHEMA_VERSION = 1;
+
     private final DataSource dataSource;
+    private final SqliteWriter writer;
     private final Logger logger;
+    private final OrdinalAllocator ordinalAllocator = new OrdinalAllocator();
+    private final ChunkMetadataCache chunkCache = new ChunkMetadataCache(ordinalAllocator);
+    private final ItemDictionary dictionary = new ItemDictionary();
+    private final ContainerLocationCache locationCache;
+    private final boolean compactPayloads;
+
+    public ContainerStorage(DataSource dataSource, SqliteWriter writer, Logger logger) {
+        this(dataSource, writer, logger, ContainerStorageSettings.defaults());
+    }
 
-    public ContainerStorage(DataSource dataSource, Logger logger) {
+    public ContainerStorage(DataSource dataSource, SqliteWriter writer, Logger logger,
+                            ContainerStorageSettings settings) {
         this.dataSource = dataSource;
+        this.writer = writer;
         this.logger = logger;
+        this.compactPayloads = settings.compactPayloads();
+        this.locationCache = new ContainerLocationCache(settings.locationCacheSize());
     }
 
     public void initialize() {
-        try (Connection c = dataSource.getConnection()) {
-            c.createStatement().execute("CREATE TABLE IF NOT EXISTS containers (id TEXT PRIMARY KEY, created_at INTEGER NOT NULL)");
-            c.createStatement().execute("CREATE TABLE IF NOT EXISTS container_locations (container_id TEXT NOT NULL REFERENCES containers(id) ON DELETE CASCADE, world TEXT NOT NULL, x INTEGER NOT NULL, y INTEGER NOT NULL, z INTEGER NOT NULL, is_primary INTEGER DEFAULT 0, PRIMARY KEY (world, x, y, z))");
-            c.createStatement().execute("CREATE TABLE IF NOT EXISTS container_chunks (id TEXT PRIMARY KEY, container_id TEXT NOT NULL REFERENCES containers(id) ON DELETE CASCADE, ordinal INTEGER UNIQUE NOT NULL, chunk_index INTEGER NOT NULL, content_text TEXT NOT NULL, timestamp INTEGER NOT NULL, container_path TEXT DEFAULT NULL)");
-            c.createStatement().execute("CREATE TABLE IF NOT EXISTS threshold_config (id INTEGER PRIMARY KEY CHECK (id = 1), threshold REAL NOT NULL DEFAULT 0.7)");
+        try {
+            writer.execute(this::createSchema);
+            writer.execute(ChunkMetadataCache::readSnapshot, chunkCache::load);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to initialize container storage", e);
+        }
+        logger.info("Loaded metadata for " + chunkCache.size() + " chunks");
+    }
 
-            try (ResultSet rs = c.createStatement().executeQuery("SELECT COUNT(*) FROM threshold_config")) {
-                if (rs.next() && rs.getLong(1) == 0) {
-                    c.createStatement().execute("INSERT INTO threshold_config (id, threshold) VALUES (1, 0.7)");
-                }
+    private Void createSchema(Connection c) throws SQLException {
+        c.createStatement().execute("CREATE TABLE IF NOT EXISTS containers (id TEXT PRIMARY KEY, created_at INTEGER NOT NULL)");
+        c.createStatement().execute("CREATE TABLE IF NOT EXISTS container_locations (container_id TEXT NOT NULL REFERENCES containers(id) ON DELETE CASCADE, world TEXT NOT NULL, x INTEGER NOT NULL, y INTEGER NOT NULL, z INTEGER NOT NULL, is_primary INTEGER DEFAULT 0, PRIMARY KEY (world, x, y, z))");
+        c.createStatement().execute("CREATE TABLE IF NOT EXISTS container_chunks (id TEXT PRIMARY KEY, container_id TEXT NOT NULL REFERENCES containers(id) ON DELETE CASCADE, ordinal INTEGER UNIQUE NOT NULL, chunk_index INTEGER NOT NULL, content_text TEXT NOT NULL, timestamp INTEGER NOT NULL, container_path TEXT DEFAULT NULL)");
+        c.createStatement().execute("CREATE TABLE IF NOT EXISTS vectors (id INTEGER PRIMARY KEY AUTOINCREMENT, world TEXT NOT NULL, content_hash TEXT, ref_count INTEGER NOT NULL)");
+        c.createStatement().execute("CREATE TABLE IF NOT EXISTS threshold_config (id INTEGER PRIMARY KEY CHECK (id = 1), threshold REAL NOT NULL DEFAULT 0.7)");
+        ItemDictionary.createTable(c);
+        dictionary.load(c);
+
+        try (ResultSet rs = c.createStatement().executeQuery("SELECT COUNT(*) FROM threshold_config")) {
+            if (rs.next() && rs.getLong(1) == 0) {
+                c.createStatement().execute("INSERT INTO threshold_config (id, threshold) VALUES (1, 0.7)");
             }
+        }
 
-            c.createStatement().execute("CREATE INDEX IF NOT EXISTS idx_cl_cid ON container_locations(container_id)");
-            c.createStatement().execute("CREATE INDEX IF NOT EXISTS idx_cc_cid ON container_chunks(container_id)");
-            c.createStatement().execute("CREATE INDEX IF NOT EXISTS idx_cc_ord ON container_chunks(ordinal)");
-        } catch (SQLException e) {
-            throw new RuntimeException("Failed to initialize container storage", e);
+        c.createStatement().execute("CREATE INDEX IF NOT EXISTS idx_cl_cid ON container_locations(container_id)");
+        c.createStatement().execute("CREATE INDEX IF NOT EXISTS idx_cc_cid ON container_chunks(container_id)");
+        c.createStatement().execute("CREATE INDEX IF NOT EXISTS idx_cc_ord ON container_chunks(ordinal)");
+        migrateChunkVectors(c);
+        migrateSlotHashes(c);
+        migrateItemColumns(c);
+        migrateDisplayNames(c);
+        c.createStatement().execute("CREATE INDEX IF NOT EXISTS idx_cc_vid ON container_chunks(vector_id)");
+        c.createStatement().execute("CREATE UNIQUE INDEX IF NOT EXISTS idx_vec_hash ON vectors(world, content_hash)");
+        return null;
+    }
+
+    /**
+     * Give chunks stored before vector deduplication a vector_id. Their existing vectors are keyed by
+     * chunk ordinal, so each becomes its own unhashed vector and is shared again once re-indexed.
+     * Chunks of containers without a location have no world to hold their vector; they were never
+     * searchable and are deleted, along with their vectors when the global index is partitioned.
+     */
+    private void migrateChunkVectors(Connection c) throws SQLException {
+        try (ResultSet rs = c.createStatement().executeQuery("SELECT 1 FROM pragma_table_info('container_chunks') WHERE name = 'vector_id'")) {
+            if (rs.next()) return;
         }
+        c.createStatement().execute("ALTER TABLE container_chunks ADD COLUMN vector_id INTEGER");
+        c.createStatement().execute("UPDATE container_chunks SET vector_id = ordinal");
+        c.createStatement().execute("INSERT INTO vectors (id, world, content_hash, ref_count) SELECT ordinal, world, NULL, 1 FROM (SELECT cc.ordinal, (SELECT cl.world FROM container_locations cl WHERE cl.container_id = cc.container_id ORDER BY cl.is_primary DESC LIMIT 1) AS world FROM container_chunks cc) WHERE world IS NOT NULL");
+        c.createStatement().execute("DELETE FROM container_chunks WHERE vector_id NOT IN (SELECT id FROM vectors)");
     }
 
-    public void ensureContainerExists(UUID id) {
-        try (Connection c = dataSource.getConnection()) {
-            try (PreparedStatement ps = c.prepareStatement("SELECT 1 FROM containers WHERE id = ?")) {
-                ps.setString(1, id.toString());
-                if (!ps.executeQuery().next()) {
-                    try (PreparedStatement pi = c.prepareStatement("INSERT INTO containers (id, created_at) VALUES (?, ?)")) {
-                        pi.setString(1, id.toString());
-                        pi.setLong(2, System.currentTimeMillis());
-                        pi.executeUpdate();
-                    }
-                }
+    /**
+     * Add the per-slot content hash used to diff re-indexed containers. Existing rows keep a NULL hash,
+     * so they are replaced the first time their container is indexed again.
+     */
+    private void migrateSlotHashes(Connection c) throws SQLException {
+        try (ResultSet rs = c.createStatement().executeQuery("SELECT 1 FROM pragma_table_info('container_chunks') WHERE name = 'slot_hash'")) {
+            if (rs.next()) return;
+        }
+        c.createStatement().execute("ALTER TABLE container_chunks ADD COLUMN slot_hash TEXT");
+    }
+
+    /**
+     * Add typed columns for the item fields results show, filled by parsing each stored row once.
+     */
+    private void migrateItemColumns(Connection c) throws SQLException {
+        try (ResultSet rs = c.createStatement().executeQuery("SELECT 1 FROM pragma_table_info('container_chunks') WHERE name = 'slot'")) {
+            if (rs.next()) return;
+        }
+        c.createStatement().execute("ALTER TABLE container_chunks ADD COLUMN slot INTEGER NOT NULL DEFAULT -1");
+        c.createStatement().execute("ALTER TABLE container_chunks ADD COLUMN amount INTEGER NOT NULL DEFAULT 1");
+        c.createStatement().execute("ALTER TABLE container_chunks ADD COLUMN material TEXT");
+        c.createStatement().execute("ALTER TABLE container_chunks ADD COLUMN display_name TEXT NOT NULL DEFAULT 'Unknown Item'");
+        int migrated = 0;
+        try (ResultSet rs = c.createStatement().executeQuery("SELECT ordinal, content_text FROM container_chunks");
+             PreparedStatement ps = c.prepareStatement("UPDATE container_chunks SET slot = ?, amount = ?, material = ?, display_name = ? WHERE ordinal = ?")) {
+            while (rs.next()) {
+                bindItemFields(ps, 1, ItemDataExtractor.extractFields(content(rs, 2), logger));
+                ps.setInt(5, rs.getInt(1));
+                ps.addBatch();
+                if (++migrated % 1000 == 0) ps.executeBatch();
+            }
+            ps.executeBatch();
+        }
+        logger.info("Extracted item columns for " + migrated + " stored chunks");
+    }
+
+    /**
+     * Extract display_name again for rows stored before it was read from the displayName key, which
+     * left them with the material name. Done once; the database's user_version records it.
+     */
+    private void migrateDisplayNames(Connection c) throws SQLException {
+        try (ResultSet rs = c.createStatement().executeQuery("PRAGMA user_version")) {
+            if (rs.next() && rs.getInt(1) >= DISPLAY_NAME_SCHEMA_VERSION) return;
+        }
+        int migrated = 0;
+        try (ResultSet rs = c.createStatement().executeQuery("SELECT ordinal, content_text FROM container_chunks");
+             PreparedStatement ps = c.prepareStatement("UPDATE container_chunks SET display_name = ? WHERE ordinal = ?")) {
+            while (rs.next()) {
+                ps.setString(1, ItemDataExtractor.extractFields(content(rs, 2), logger).displayName());
+                ps.setInt(2, rs.getInt(1));
+                ps.addBatch();
+                if (++migrated % 1000 == 0) ps.executeBatch();
             }
+            ps.executeBatch();
+        }
+        c.createStatement().execute("PRAGMA user_version = " + DISPLAY_NAME_SCHEMA_VERSION);
+        logger.info("Extracted display names for " + migrated + " stored chunks");
+    }
+
+    public void ensureContainerExists(UUID id) {
+        try {
+            writer.execute(c -> {
+                ensureContainerExistsInternal(c, id);
+                return null;
+            });
         } catch (SQLException e) {
             throw new RuntimeException("Failed to ensure container", e);
         }
     }
 
-    public void deleteContainer(UUID id) {
-        try (Connection c = dataSource.getConnection()) {
-            c.setAutoCommit(false);
-            try {
-                try (PreparedStatement ps = c.prepareStatement("DELETE FROM container_chunks WHERE container_id = ?")) {
-                    ps.setString(1, id.toString());
-                    ps.executeUpdate();
-                }
+    /**
+     * Delete a container with its chunks and locations, releasing the chunks' vector references in
+     * the same transaction.
+     *
+     * @return vectors left without references, which were deleted and must leave the vector index
+     */
+    public List<Integer> deleteContainer(UUID id) {
+        try {
+            return writer.execute(c -> {
+                List<Integer> freed = deleteChunksInternal(c, id);
                 try (PreparedStatement ps = c.prepareStatement("DELETE FROM container_locations WHERE container_id = ?")) {
                     ps.setString(1, id.toString());
                     ps.executeUpdate();
@@ -78,45 +195,80 @@ public final class ContainerStorage {
                     ps.setString(1, id.toString());
                     ps.executeUpdate();
                 }
-                c.commit();
-            } catch (SQLException e) {
-                c.rollback();
-                throw e;
-            }
+                return freed;
+            }, v -> {
+                chunkCache.removeContainer(id);
+                locationCache.invalidate(id);
+            });
         } catch (SQLException e) {
             throw new RuntimeException("Failed delete container", e);
         }
     }
 
     public UUID getOrCreateContainer(ContainerLocations locs) {
-        try (Connection c = dataSource.getConnection()) {
-            c.setAutoCommit(false);
-            try {
-                Location p = locs.primaryLocation();
-                UUID ex = getContainerByLocInternal(c, p);
-                if (ex != null) {
-                    c.commit();
-                    return ex;
-                }
-                UUID nu = UUID.randomUUID();
+        ContainerLocation existing = lookupLocation(locs.primaryLocation());
+        if (existing != null) return existing.containerId();
+        UUID nu = UUID.randomUUID();
+        try {
+            // Look again on the writer connection: another write may have created it since
+            return writer.execute(c -> {
+                UUID ex = getContainerByLocInternal(c, locs.primaryLocation());
+                if (ex != null) return ex;
                 ensureContainerExistsInternal(c, nu);
                 updateContainerLocsInternal(c, nu, locs);
-                c.commit();
                 return nu;
-            } catch (SQLException e) {
-                c.rollback();
-                throw e;
-            }
+            }, id -> {
+                if (id.equals(nu)) {
+                    chunkCache.putLocation(nu, locs.primaryLocation());
+                    locationCache.put(nu, locs.primaryLocation(), locs.allLocations());
+                }
+            });
         } catch (SQLException e) {
             throw new RuntimeException("Failed get/create container", e);
         }
     }
 
     public Optional<UUID> getContainerByLocation(Location l) {
-        try (Connection c = dataSource.getConnection()) {
-            return Optional.ofNullable(getContainerByLocInternal(c, l));
+        return Optional.ofNullable(lookupLocation(l)).map(ContainerLocation::containerId);
+    }
+
+    /**
+     * The container at a position if the location cache holds it, without querying.
+     */
+    public Optional<ContainerLocation> getCachedContainerLocation(Location l) {
+        return Optional.ofNullable(locationCache.peek(l));
+    }
+
+    public LocationCacheStats getLocationCacheStats() {
+        return locationCache.stats();
+    }
+
+    /**
+     * The container at a position and its primary location, from the location cache or else the
+     * database (caching the answer).
+     */
+    private @Nullable ContainerLocation lookupLocation(Location l) {
+        ContainerLocation cached = locationCache.get(l);
+        if (cached != null) return cached;
+        long generation = locationCache.generation();
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement("SELECT q.container_id, p.world, p.x, p.y, p.z FROM container_locations q LEFT JOIN container_locations p ON p.container_id = q.container_id AND p.is_primary = 1 WHERE q.world = ? AND q.x = ? AND q.y = ? AND q.z = ?")) {
+            ps.setString(1, l.getWorld().getName());
+            ps.setInt(2, l.blockX());
+            ps.setInt(3, l.blockY());
+            ps.setInt(4, l.blockZ());
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) return null;
+                Location primary = rs.getString(2) != null
+                    ? Platform.get().createLocation(rs.getString(2), rs.getInt(3), rs.getInt(4), rs.getInt(5))
+                    : null;
+                ContainerLocation found = new ContainerLocation(UUID.fromString(rs.getString(1)), primary);
+                locationCache.fill(generation, l, found);
+                return found;
+            }
         } catch (SQLException e) {
-            return Optional.empty();
+            logger.log(java.util.logging.Level.WARNING, "Failed get container by location", e);
+            return null;
         }
     }
 
@@ -163,18 +315,30 @@ public final class ContainerStorage {
         return Optional.empty();
     }
 
+    public Optional<String> getContainerWorld(UUID id) {
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement("SELECT world FROM container_locations WHERE container_id = ? ORDER BY is_primary DESC LIMIT 1")) {
+            ps.setString(1, id.toString());
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) return Optional.of(rs.getString(1));
+            }
+        } catch (SQLException e) {
+            logger.log(java.util.logging.Level.WARNING, "Failed get container world", e);
+        }
+        return Optional.empty();
+    }
+
     public void registerContainerPositions(ContainerLocations l) {
-        try (Connection c = dataSource.getConnection()) {
-            c.setAutoCommit(false);
-            try {
-                UUID id = UUID.randomUUID();
+        UUID id = UUID.randomUUID();
+        try {
+            writer.execute(c -> {
                 ensureContainerExistsInternal(c, id);
                 updateContainerLocsInternal(c, id, l);
-                c.commit();
-            } catch (SQLException e) {
-                c.rollback();
-                throw e;
-            }
+                return null;
+            }, v -> {
+                chunkCache.putLocation(id, l.primaryLocation());
+                locationCache.put(id, l.primaryLocation(), l.allLocations());
+            });
         } catch (SQLException e) {
             throw new RuntimeException("Failed register positions", e);
         }
@@ -214,20 +378,7 @@ public final class ContainerStorage {
     }
 
     public Optional<Location> getPrimaryLocation(Location a) {
-        try (Connection c = dataSource.getConnection();
-             PreparedStatement ps = c.prepareStatement("SELECT cl.world, cl.x, cl.y, cl.z FROM container_locations cl JOIN container_locations q ON cl.container_id = q.container_id WHERE q.world = ? AND q.x = ? AND q.y = ? AND q.z = ? AND cl.is_primary = 1")) {
-            ps.setString(1, a.getWorld().getName());
-            ps.setInt(2, a.blockX());
-            ps.setInt(3, a.blockY());
-            ps.setInt(4, a.blockZ());
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) return Optional.of(
-                    Platform.get().createLocation(rs.getString(1), rs.getInt(2), rs.getInt(3), rs.getInt(4)));
-            }
-        } catch (SQLException e) {
-            logger.log(java.util.logging.Level.WARNING, "Failed get primary location", e);
-        }
-        return Optional.empty();
+        return Optional.ofNullable(lookupLocation(a)).map(ContainerLocation::primaryLocation);
     }
 
     public List<Location> getAllPositions(Location p) {
@@ -249,59 +400,489 @@ public final class ContainerStorage {
     }
 
     public void deleteContainerPositions(Location p) {
-        try (Connection c = dataSource.getConnection()) {
-            UUID id = null;
-            try (PreparedStatement ps = c.prepareStatement("SELECT container_id FROM container_locations WHERE world = ? AND x = ? AND y = ? AND z = ? AND is_primary = 1")) {
-                ps.setString(1, p.getWorld().getName());
-                ps.setInt(2, p.blockX());
-                ps.setInt(3, p.blockY());
-                ps.setInt(4, p.blockZ());
-                try (ResultSet rs = ps.executeQuery()) {
-                    if (rs.next()) id = UUID.fromString(rs.getString(1));
+        try {
+            writer.execute(c -> {
+                UUID id = null;
+                try (PreparedStatement ps = c.prepareStatement("SELECT container_id FROM container_locations WHERE world = ? AND x = ? AND y = ? AND z = ? AND is_primary = 1")) {
+                    ps.setString(1, p.getWorld().getName());
+                    ps.setInt(2, p.blockX());
+                    ps.setInt(3, p.blockY());
+                    ps.setInt(4, p.blockZ());
+                    try (ResultSet rs = ps.executeQuery()) {
+                        if (rs.next()) id = UUID.fromString(rs.getString(1));
+                    }
                 }
-            }
-            if (id != null) {
-                try (PreparedStatement ps = c.prepareStatement("DELETE FROM container_locations WHERE container_id = ?")) {
-                    ps.setString(1, id.toString());
-                    ps.executeUpdate();
+                if (id != null) {
+                    try (PreparedStatement ps = c.prepareStatement("DELETE FROM container_locations WHERE container_id = ?")) {
+                        ps.setString(1, id.toString());
+                        ps.executeUpdate();
+                    }
                 }
-            }
+                return id;
+            }, id -> {
+                if (id != null) {
+                    chunkCache.putLocation(id, null);
+                    locationCache.invalidate(id);
+                }
+            });
         } catch (SQLException e) {
             throw new RuntimeException("Failed delete container positions", e);
         }
     }
 
-    // TODO: PERF - Per-row INSERT is inefficient for bulk indexing
-    // Current: 100 chunks = 100 separate INSERT statements + connections
-    // Fix: Add saveChunksBatch(List<ChunkData>) using single transaction + batch INSERT
-    // Example: INSERT INTO ... VALUES (...), (...), (...) with executeBatch()
-    public void saveChunk(UUID containerId, UUID chunkId, int ordinal, ContainerChunk chunk) {
-        try (Connection c = dataSource.getConnection();
-             PreparedStatement ps = c.prepareStatement("INSERT OR REPLACE INTO container_chunks (id, container_id, ordinal, chunk_index, content_text, timestamp, container_path) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
-            ps.setString(1, chunkId.toString());
-            ps.setString(2, containerId.toString());
-            ps.setInt(3, ordinal);
-            ps.setInt(4, chunk.chunkIndex());
-            ps.setString(5, chunk.contentText());
-            ps.setLong(6, chunk.timestamp());
-            String containerPathJson = chunk.containerPath() != null ? chunk.containerPath().toJson() : "[]";
-            ps.setString(7, containerPathJson);
-            ps.executeUpdate();
+    private static final String INSERT_CHUNK = "INSERT OR REPLACE INTO container_chunks (id, container_id, ordinal, chunk_index, content_text, timestamp, container_path, vector_id, slot_hash, slot, amount, material, display_name) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * Save a single chunk as its own write. Prefer {@link #replaceChunks} when writing a whole container.
+     */
+    public void saveChunk(UUID containerId, UUID chunkId, int vectorId, ContainerChunk chunk) {
+        PreparedChunk prepared = prepare(chunk);
+        Map<Integer, String> entries = dictionary.unsaved();
+        int[] ordinals = ordinalAllocator.allocate(1);
+        try {
+            writer.execute(c -> {
+                ItemDictionary.insert(c, entries);
+                try (PreparedStatement ps = c.prepareStatement(INSERT_CHUNK)) {
+                    bindChunk(ps, containerId, chunkId, ordinals[0], vectorId, chunk, prepared);
+                    ps.executeUpdate();
+                }
+                return null;
+            }, v -> {
+                chunkCache.putChunk(ordinals[0], containerId, chunk.chunkIndex(), containerPathJson(chunk), vectorId);
+                ordinalAllocator.commit(ordinals);
+                dictionary.saved(entries.keySet());
+            });
         } catch (SQLException e) {
+            ordinalAllocator.release(ordinals);
             throw new RuntimeException("Failed save chunk", e);
+        } catch (RuntimeException e) {
+            ordinalAllocator.release(ordinals);
+            throw e;
+        }
+    }
+
+    private static void bindChunk(PreparedStatement ps, UUID containerId, UUID chunkId, int ordinal, int vectorId,
+                                  ContainerChunk chunk, PreparedChunk prepared) throws SQLException {
+        ps.setString(1, chunkId.toString());
+        ps.setString(2, containerId.toString());
+        ps.setInt(3, ordinal);
+        ps.setInt(4, chunk.chunkIndex());
+        if (prepared.payload() != null) {
+            ps.setBytes(5, prepared.payload());
+        } else {
+            ps.setString(5, chunk.contentText());
+        }
+        ps.setLong(6, chunk.timestamp());
+        ps.setString(7, containerPathJson(chunk));
+        ps.setInt(8, vectorId);
+        ps.setString(9, slotHash(chunk.contentText()));
+        bindItemFields(ps, 10, prepared.item());
+    }
+
+    private static void bindItemFields(PreparedStatement ps, int index, ItemFields item) throws SQLException {
+        ps.setInt(index, item.slotIndex());
+        ps.setInt(index + 1, item.amount());
+        ps.setString(index + 2, item.material());
+        ps.setString(index + 3, item.displayName());
+    }
+
+    /**
+     * A chunk's typed item columns and, if compact payloads are enabled and its JSON encodes, its
+     * binary payload.
+     */
+    private record PreparedChunk(ItemFields item, byte @Nullable [] payload) {
+    }
+
+    /**
+     * Parse a chunk's stored JSON for its typed columns and payload, on the caller's thread rather
+     * than the writer's. New dictionary entries are left unsaved for the caller's write to insert.
+     */
+    private PreparedChunk prepare(ContainerChunk chunk) {
+        return new PreparedChunk(ItemDataExtractor.extractFields(chunk.contentText(), logger),
+            compactPayloads ? ItemPayloadCodec.encode(chunk.contentText(), dictionary) : null);
+    }
+
+    private List<PreparedChunk> prepare(List<ContainerChunk> chunks) {
+        List<PreparedChunk> prepared = new ArrayList<>(chunks.size());
+        for (ContainerChunk chunk : chunks) {
+            prepared.add(prepare(chunk));
+        }
+        return prepared;
+    }
+
+    /**
+     * A stored payload as JSON, decoding the compact encoding. A payload that cannot be decoded is
+     * logged and read as an empty object so one bad row does not fail a whole query.
+     */
+    private String content(ResultSet rs, int column) throws SQLException {
+        if (!(rs.getObject(column) instanceof byte[] payload)) {
+            return rs.getString(column);
+        }
+        try {
+            return ItemPayloadCodec.decode(payload, dictionary);
+        } catch (IllegalArgumentException e) {
+            logger.warning("Failed to decode stored item payload: " + e.getMessage());
+            return "{}";
+        }
+    }
+
+    /**
+     * SHA-256 of a chunk's stored JSON. The JSON carries the slot, nesting path, item and amount, so
+     * equal hashes mean the slot is unchanged.
+     */
+    public static String slotHash(String contentText) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(contentText.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    private static String containerPathJson(ContainerChunk chunk) {
+        return chunk.containerPath() != null ? chunk.containerPath().toJson() : "[]";
+    }
+
+    /**
+     * Replace a container's chunks in one transaction: upsert its locations (if given), delete the old
+     * chunks, take vector references for the new ones, insert them as one batch and release the old
+     * references. The new chunks get ordinals from the allocator, reusing freed ones.
+     *
+     * @param contentHashes content hash of each chunk's embedding, in chunk order
+     */
+    public ChunkBatchResult replaceChunks(UUID containerId, @Nullable ContainerLocations locations, String world,
+                                          List<ContainerChunk> chunks, List<String> contentHashes) {
+        List<PreparedChunk> prepared = prepare(chunks);
+        Map<Integer, String> entries = dictionary.unsaved();
+        int[] ordinals = ordinalAllocator.allocate(chunks.size());
+        try {
+            return writer.execute(c -> {
+                ItemDictionary.insert(c, entries);
+                if (locations != null) {
+                    ensureContainerExistsInternal(c, containerId);
+                    updateContainerLocsInternal(c, containerId, locations);
+                }
+                List<Integer> previous = new ArrayList<>();
+                try (PreparedStatement ps = c.prepareStatement("SELECT vector_id FROM container_chunks WHERE container_id = ?")) {
+                    ps.setString(1, containerId.toString());
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) previous.add(rs.getInt(1));
+                    }
+                }
+                try (PreparedStatement ps = c.prepareStatement("DELETE FROM container_chunks WHERE container_id = ?")) {
+                    ps.setString(1, containerId.toString());
+                    ps.executeUpdate();
+                }
+
+                // Acquire before releasing so content that is still present keeps its vector
+                List<VectorRef> vectors = new ArrayList<>(chunks.size());
+                try (VectorRefStatements refs = new VectorRefStatements(c);
+                     PreparedStatement pi = c.prepareStatement(INSERT_CHUNK)) {
+                    for (int i = 0; i < chunks.size(); i++) {
+                        VectorRef vector = refs.acquire(world, contentHashes.get(i));
+                        vectors.add(vector);
+                        bindChunk(pi, containerId, UUID.randomUUID(), ordinals[i], vector.id(), chunks.get(i), prepared.get(i));
+                        pi.addBatch();
+                    }
+                    pi.executeBatch();
+                }
+                List<Integer> freed = releaseVectorsInternal(c, previous);
+                return new ChunkBatchResult(vectors, freed);
+            }, batch -> {
+                if (locations != null) {
+                    chunkCache.putLocation(containerId, locations.primaryLocation());
+                    locationCache.put(containerId, locations.primaryLocation(), locations.allLocations());
+                }
+                chunkCache.removeChunks(containerId);
+                for (int i = 0; i < chunks.size(); i++) {
+                    ContainerChunk chunk = chunks.get(i);
+                    chunkCache.putChunk(ordinals[i], containerId, chunk.chunkIndex(), containerPathJson(chunk),
+                        batch.vectors().get(i).id());
+                }
+                ordinalAllocator.commit(ordinals);
+                dictionary.saved(entries.keySet());
+            });
+        } catch (SQLException e) {
+            ordinalAllocator.release(ordinals);
+            throw new RuntimeException("Failed replace chunks", e);
+        } catch (RuntimeException e) {
+            ordinalAllocator.release(ordinals);
+            throw e;
+        }
+    }
+
+    /**
+     * Count how many stored chunks of a container have each slot hash.
+     */
+    public Map<String, Integer> getSlotHashCounts(UUID containerId) {
+        Map<String, Integer> r = new HashMap<>();
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement("SELECT slot_hash FROM container_chunks WHERE container_id = ? AND slot_hash IS NOT NULL")) {
+            ps.setString(1, containerId.toString());
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) r.merge(rs.getString(1), 1, Integer::sum);
+            }
+        } catch (SQLException e) {
+            logger.log(java.util.logging.Level.WARNING, "Failed get slot hashes", e);
+        }
+        return r;
+    }
+
+    /**
+     * Bring a container's chunks in line with a new snapshot in one transaction, touching only
+     * changed slots. Stored chunks whose slot hash is still in the snapshot keep their row and
+     * ordinal; the rest are deleted and their vector references released. The added chunks (the
+     * snapshot slots that were not stored when the caller diffed) are inserted with ordinals from
+     * the allocator. Kept chunks take the chunk index of a snapshot position with their slot hash
+     * that is not being added, so chunk indexes stay unique within the container.
+     *
+     * @param slotHashes slot hash of every chunk in the new snapshot
+     * @param added chunks for the changed slots
+     * @param contentHashes content hash of each added chunk's embedding, in added order
+     */
+    public ChunkBatchResult updateSlots(UUID containerId, @Nullable ContainerLocations locations, String world,
+                                        List<String> slotHashes, List<ContainerChunk> added,
+                                        List<String> contentHashes) {
+        record SlotUpdate(ChunkBatchResult result, List<Integer> removedOrdinals, Map<Integer, Integer> movedOrdinals) {
+        }
+        List<PreparedChunk> prepared = prepare(added);
+        Map<Integer, String> entries = dictionary.unsaved();
+        int[] ordinals = ordinalAllocator.allocate(added.size());
+        try {
+            return writer.execute(c -> {
+                ItemDictionary.insert(c, entries);
+                if (locations != null) {
+                    ensureContainerExistsInternal(c, containerId);
+                    updateContainerLocsInternal(c, containerId, locations);
+                }
+                // Stored rows a slot hash may keep: its count in the snapshot minus the copies being added
+                Map<String, Integer> keepBudget = new HashMap<>();
+                for (String slotHash : slotHashes) keepBudget.merge(slotHash, 1, Integer::sum);
+                for (ContainerChunk chunk : added) keepBudget.merge(slotHash(chunk.contentText()), -1, Integer::sum);
+
+                // Snapshot positions kept rows may take, by slot hash
+                Set<Integer> addedIndexes = new HashSet<>();
+                for (ContainerChunk chunk : added) addedIndexes.add(chunk.chunkIndex());
+                Map<String, ArrayDeque<Integer>> keptIndexes = new HashMap<>();
+                for (int index = 0; index < slotHashes.size(); index++) {
+                    if (!addedIndexes.contains(index)) {
+                        keptIndexes.computeIfAbsent(slotHashes.get(index), h -> new ArrayDeque<>()).add(index);
+                    }
+                }
+
+                List<Integer> removedOrdinals = new ArrayList<>();
+                List<Integer> released = new ArrayList<>();
+                Map<Integer, Integer> movedOrdinals = new HashMap<>();
+                try (PreparedStatement ps = c.prepareStatement("SELECT ordinal, vector_id, slot_hash, chunk_index FROM container_chunks WHERE container_id = ?")) {
+                    ps.setString(1, containerId.toString());
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            String slotHash = rs.getString(3);
+                            if (slotHash != null && keepBudget.getOrDefault(slotHash, 0) > 0) {
+                                keepBudget.merge(slotHash, -1, Integer::sum);
+                                ArrayDeque<Integer> free = keptIndexes.get(slotHash);
+                                Integer index = free != null ? free.poll() : null;
+                                if (index != null && index != rs.getInt(4)) {
+                                    movedOrdinals.put(rs.getInt(1), index);
+                                }
+                            } else {
+                                removedOrdinals.add(rs.getInt(1));
+                                released.add(rs.getInt(2));
+                            }
+                        }
+                    }
+                }
+                try (PreparedStatement ps = c.prepareStatement("DELETE FROM container_chunks WHERE ordinal = ?")) {
+                    for (int ordinal : removedOrdinals) {
+                        ps.setInt(1, ordinal);
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                }
+                try (PreparedStatement ps = c.prepareStatement("UPDATE container_chunks SET chunk_index = ? WHERE ordinal = ?")) {
+                    for (Map.Entry<Integer, Integer> moved : movedOrdinals.entrySet()) {
+                        ps.setInt(1, moved.getValue());
+                        ps.setInt(2, moved.getKey());
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                }
+
+                // Acquire before releasing so content that is still present keeps its vector
+                List<VectorRef> vectors = new ArrayList<>(added.size());
+                try (VectorRefStatements refs = new VectorRefStatements(c);
+                     PreparedStatement pi = c.prepareStatement(INSERT_CHUNK)) {
+                    for (int i = 0; i < added.size(); i++) {
+                        VectorRef vector = refs.acquire(world, contentHashes.get(i));
+                        vectors.add(vector);
+                        bindChunk(pi, containerId, UUID.randomUUID(), ordinals[i], vector.id(), added.get(i), prepared.get(i));
+                        pi.addBatch();
+                    }
+                    pi.executeBatch();
+                }
+                List<Integer> freed = releaseVectorsInternal(c, released);
+                return new SlotUpdate(new ChunkBatchResult(vectors, freed), removedOrdinals, movedOrdinals);
+            }, update -> {
+                if (locations != null) {
+                    chunkCache.putLocation(containerId, locations.primaryLocation());
+                    locationCache.put(containerId, locations.primaryLocation(), locations.allLocations());
+                }
+                for (int ordinal : update.removedOrdinals()) {
+                    chunkCache.removeChunk(ordinal);
+                }
+                update.movedOrdinals().forEach(chunkCache::setChunkIndex);
+                for (int i = 0; i < added.size(); i++) {
+                    ContainerChunk chunk = added.get(i);
+                    chunkCache.putChunk(ordinals[i], containerId, chunk.chunkIndex(), containerPathJson(chunk),
+                        update.result().vectors().get(i).id());
+                }
+                ordinalAllocator.commit(ordinals);
+                dictionary.saved(entries.keySet());
+            }).result();
+        } catch (SQLException e) {
+            ordinalAllocator.release(ordinals);
+            throw new RuntimeException("Failed update slots", e);
+        } catch (RuntimeException e) {
+            ordinalAllocator.release(ordinals);
+            throw e;
+        }
+    }
+
+    /**
+     * Take a reference to the world's vector with this content hash, creating it if none exists.
+     */
+    public VectorRef acquireVector(String world, String contentHash) {
+        try {
+            return writer.execute(c -> {
+                try (VectorRefStatements refs = new VectorRefStatements(c)) {
+                    return refs.acquire(world, contentHash);
+                }
+            });
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed acquire vector", e);
+        }
+    }
+
+    /**
+     * Drop one reference per listed vector (repeats count separately). Runs in the transaction that
+     * deletes the referencing chunks, so no other write can release or take them in between.
+     */
+    private List<Integer> releaseVectorsInternal(Connection c, List<Integer> vectorIds) throws SQLException {
+        List<Integer> freed = new ArrayList<>();
+        if (vectorIds.isEmpty()) return freed;
+        try (PreparedStatement pu = c.prepareStatement("UPDATE vectors SET ref_count = ref_count - 1 WHERE id = ?");
+             PreparedStatement pd = c.prepareStatement("DELETE FROM vectors WHERE id = ? AND ref_count <= 0")) {
+            for (int id : vectorIds) {
+                pu.setInt(1, id);
+                pu.addBatch();
+            }
+            pu.executeBatch();
+            for (int id : new LinkedHashSet<>(vectorIds)) {
+                pd.setInt(1, id);
+                if (pd.executeUpdate() > 0) freed.add(id);
+            }
+        }
+        return freed;
+    }
+
+    /**
+     * Prepared statements for taking vector references, reused across the chunks of a batch.
+     */
+    private static final class VectorRefStatements implements AutoCloseable {
+        private final PreparedStatement select;
+        private final PreparedStatement increment;
+        private final PreparedStatement insert;
+
+        VectorRefStatements(Connection c) throws SQLException {
+            select = c.prepareStatement("SELECT id FROM vectors WHERE world = ? AND content_hash = ?");
+            increment = c.prepareStatement("UPDATE vectors SET ref_count = ref_count + 1 WHERE id = ?");
+            insert = c.prepareStatement("INSERT INTO vectors (world, content_hash, ref_count) VALUES (?, ?, 1)", Statement.RETURN_GENERATED_KEYS);
+        }
+
+        VectorRef acquire(String world, String contentHash) throws SQLException {
+            select.setString(1, world);
+            select.setString(2, contentHash);
+            try (ResultSet rs = select.executeQuery()) {
+                if (rs.next()) {
+                    int id = rs.getInt(1);
+                    increment.setInt(1, id);
+                    increment.executeUpdate();
+                    return new VectorRef(id, false);
+                }
+            }
+            insert.setString(1, world);
+            insert.setString(2, contentHash);
+            insert.executeUpdate();
+            try (ResultSet keys = insert.getGeneratedKeys()) {
+                keys.next();
+                return new VectorRef(keys.getInt(1), true);
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            select.close();
+            increment.close();
+            insert.close();
         }
     }
 
-    public void deleteChunksByContainer(UUID id) {
+    public List<Integer> getVectorIdsByContainer(UUID id) {
+        List<Integer> r = new ArrayList<>();
         try (Connection c = dataSource.getConnection();
-             PreparedStatement ps = c.prepareStatement("DELETE FROM container_chunks WHERE container_id = ?")) {
+             PreparedStatement ps = c.prepareStatement("SELECT vector_id FROM container_chunks WHERE container_id = ?")) {
             ps.setString(1, id.toString());
-            ps.executeUpdate();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) r.add(rs.getInt(1));
+            }
+        } catch (SQLException e) {
+            logger.log(java.util.logging.Level.WARNING, "Failed get container vectors", e);
+        }
+        return r;
+    }
+
+    /**
+     * Delete a container's chunks, releasing their vector references in the same transaction.
+     *
+     * @return vectors left without references, which were deleted and must leave the vector index
+     */
+    public List<Integer> deleteChunksByContainer(UUID id) {
+        try {
+            return writer.execute(c -> deleteChunksInternal(c, id), v -> chunkCache.removeChunks(id));
         } catch (SQLException e) {
             throw new RuntimeException("Failed delete chunks", e);
         }
     }
 
+    private List<Integer> deleteChunksInternal(Connection c, UUID id) throws SQLException {
+        List<Integer> vectorIds = new ArrayList<>();
+        try (PreparedStatement ps = c.prepareStatement("SELECT vector_id FROM container_chunks WHERE container_id = ?")) {
+            ps.setString(1, id.toString());
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) vectorIds.add(rs.getInt(1));
+            }
+        }
+        try (PreparedStatement ps = c.prepareStatement("DELETE FROM container_chunks WHERE container_id = ?")) {
+            ps.setString(1, id.toString());
+            ps.executeUpdate();
+        }
+        return releaseVectorsInternal(c, vectorIds);
+    }
+
+    public List<Integer> getOrdinalsByContainer(UUID id) {
+        List<Integer> r = new ArrayList<>();
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement("SELECT ordinal FROM container_chunks WHERE container_id = ?")) {
+            ps.setString(1, id.toString());
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) r.add(rs.getInt(1));
+            }
+        } catch (SQLException e) {
+            logger.log(java.util.logging.Level.WARNING, "Failed get container ordinals", e);
+        }
+        return r;
+    }
+
     public List<ChunkMetadata> getChunksByContainer(UUID id) {
         List<ChunkMetadata> r = new ArrayList<>();
         try (Connection c = dataSource.getConnection();
@@ -316,6 +897,23 @@ public final class ContainerStorage {
         return r;
     }
 
+    /**
+     * Up to limit distinct stored item payloads as JSON, picked at random.
+     */
+    public List<String> sampleContentTexts(int limit) {
+        List<String> r = new ArrayList<>();
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement("SELECT DISTINCT content_text FROM container_chunks ORDER BY random() LIMIT ?")) {
+            ps.setInt(1, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) r.add(content(rs, 1));
+            }
+        } catch (SQLException e) {
+            logger.log(java.util.logging.Level.WARNING, "Failed sample chunks", e);
+        }
+        return r;
+    }
+
     public Optional<ChunkMetadata> getChunkById(UUID id) {
         try (Connection c = dataSource.getConnection();
              PreparedStatement ps = c.prepareStatement("SELECT id, container_id, ordinal, chunk_index, content_text, timestamp, container_path FROM container_chunks WHERE id = ?")) {
@@ -375,15 +973,99 @@ public final class ContainerStorage {
         return r;
     }
 
+    /**
+     * Expand vector hits to every chunk sharing each vector.
+     */
+    public Map<Integer, List<ChunkWithLocation>> getChunksByVectorIds(Set<Integer> vectorIds) {
+        Map<Integer, List<ChunkWithLocation>> r = new HashMap<>();
+        if (vectorIds == null || vectorIds.isEmpty()) {
+            return r;
+        }
+
+        String placeholders = vectorIds.stream()
+            .map(o -> "?")
+            .collect(java.util.stream.Collectors.joining(","));
+
+        String query = "SELECT cc.id, cc.ordinal, cc.chunk_index, cc.content_text, cc.timestamp, cc.container_path, cl.world, cl.x, cl.y, cl.z, cc.vector_id FROM container_chunks cc JOIN containers c ON cc.container_id = c.id LEFT JOIN container_locations cl ON c.id = cl.container_id AND cl.is_primary = 1 WHERE cc.vector_id IN (" + placeholders + ")";
+
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(query)) {
+
+            int index = 1;
+            for (int vectorId : vectorIds) {
+                ps.setInt(index++, vectorId);
+            }
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    r.computeIfAbsent(rs.getInt(11), k -> new ArrayList<>()).add(toChunkWithLocation(rs));
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(java.util.logging.Level.WARNING, "Failed get chunks by vectors", e);
+        }
+        return r;
+    }
+
+    /**
+     * Resolve vector hits to the chunks sharing each vector from memory. Chunks of containers
+     * without a primary location are left out.
+     */
+    public Map<Integer, List<CachedChunk>> getCachedChunksByVectorIds(Collection<Integer> vectorIds) {
+        return chunkCache.getByVectorIds(vectorIds);
+    }
+
+    /**
+     * Stored text and typed item fields for the given cached chunks, by ordinal. Ordinals are reused,
+     * including within a container, so a chunk whose ordinal no longer exists or now belongs to another
+     * container or chunk index is absent.
+     */
+    public Map<Integer, ChunkContent> getChunkContents(Collection<CachedChunk> chunks) {
+        Map<Integer, ChunkContent> r = new HashMap<>();
+        if (chunks.isEmpty()) {
+            return r;
+        }
+        Map<Integer, CachedChunk> cached = new HashMap<>();
+        for (CachedChunk chunk : chunks) {
+            cached.put(chunk.ordinal(), chunk);
+        }
+
+        String placeholders = cached.keySet().stream()
+            .map(o -> "?")
+            .collect(java.util.stream.Collectors.joining(","));
+
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement("SELECT ordinal, container_id, chunk_index, content_text, slot, amount, material, display_name FROM container_chunks WHERE ordinal IN (" + placeholders + ")")) {
+
+            int index = 1;
+            for (int ordinal : cached.keySet()) {
+                ps.setInt(index++, ordinal);
+            }
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    CachedChunk chunk = cached.get(rs.getInt(1));
+                    if (chunk.containerId().toString().equals(rs.getString(2)) && chunk.chunkIndex() == rs.getInt(3)) {
+                        r.put(rs.getInt(1), new ChunkContent(content(rs, 4),
+                            new ItemFields(rs.getInt(5), rs.getInt(6), rs.getString(7), rs.getString(8))));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(java.util.logging.Level.WARNING, "Failed get chunk content", e);
+        }
+        return r;
+    }
+
     private ChunkMetadata toChunkMeta(ResultSet rs) throws SQLException {
-        return new ChunkMetadata(UUID.fromString(rs.getString(1)), rs.getInt(3), rs.getInt(4), rs.getString(5), rs.getLong(6), rs.getString(7));
+        return new ChunkMetadata(UUID.fromString(rs.getString(1)), rs.getInt(3), rs.getInt(4), content(rs, 5), rs.getLong(6), rs.getString(7));
     }
 
     private ChunkWithLocation toChunkWithLocation(ResultSet rs) throws SQLException {
         UUID chunkId = UUID.fromString(rs.getString(1));
         int ordinal = rs.getInt(2);
         int chunkIndex = rs.getInt(3);
-        String contentText = rs.getString(4);
+        String contentText = content(rs, 4);
         long timestamp = rs.getLong(5);
         String containerPath = rs.getString(6);
         String world = rs.getString(7);
@@ -396,22 +1078,34 @@ public final class ContainerStorage {
         return new ChunkWithLocation(metadata, location);
     }
 
+    /**
+     * Ordinals of the chunks whose container's primary location lies in the box, from the chunk grid.
+     */
     public List<Integer> getOrdinalsInBoundingBox(String w, int minX, int maxX, int minY, int maxY, int minZ, int maxZ) {
-        List<Integer> r = new ArrayList<>();
+        return chunkCache.getOrdinalsInBox(w, minX, maxX, minY, maxY, minZ, maxZ);
+    }
+
+    /**
+     * Distinct vector ids of the chunks whose container's primary location lies in the box, from the chunk grid.
+     */
+    public List<Integer> getVectorIdsInBoundingBox(String w, int minX, int maxX, int minY, int maxY, int minZ, int maxZ) {
+        return chunkCache.getVectorIdsInBox(w, minX, maxX, minY, maxY, minZ, maxZ);
+    }
+
+    /**
+     * Containers whose primary location is within radius blocks of the center, from the chunk grid.
+     */
+    public List<UUID> getContainersInRadius(String w, int x, int y, int z, int radius) {
+        return chunkCache.getContainersInRadius(w, x, y, z, radius);
+    }
+
+    public Map<Integer, String> getVectorWorlds() {
+        Map<Integer, String> r = new HashMap<>();
         try (Connection c = dataSource.getConnection();
-             PreparedStatement ps = c.prepareStatement("SELECT DISTINCT cc.ordinal FROM container_chunks cc JOIN containers c ON cc.container_id = c.id LEFT JOIN container_locations cl ON c.id = cl.container_id AND cl.is_primary = 1 WHERE cl.world = ? AND cl.x BETWEEN ? AND ? AND cl.y BETWEEN ? AND ? AND cl.z BETWEEN ? AND ?")) {
-            ps.setString(1, w);
-            ps.setInt(2, minX);
-            ps.setInt(3, maxX);
-            ps.setInt(4, minY);
-            ps.setInt(5, maxY);
-            ps.setInt(6, minZ);
-            ps.setInt(7, maxZ);
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) r.add(rs.getInt(1));
-            }
+             ResultSet rs = c.createStatement().executeQuery("SELECT id, world FROM vectors")) {
+            while (rs.next()) r.put(rs.getInt(1), rs.getString(2));
         } catch (SQLException e) {
-            logger.log(java.util.logging.Level.WARNING, "Failed ordinals bbox", e);
+            logger.log(java.util.logging.Level.WARNING, "Failed vector worlds", e);
         }
         return r;
     }
@@ -442,17 +1136,17 @@ public final class ContainerStorage {
     }
 
     public void purgeAll() {
-        try (Connection c = dataSource.getConnection()) {
-            c.setAutoCommit(false);
-            try {
+        try {
+            writer.execute(c -> {
                 c.createStatement().execute("DELETE FROM container_chunks");
+                c.createStatement().execute("DELETE FROM vectors");
                 c.createStatement().execute("DELETE FROM container_locations");
                 c.createStatement().execute("DELETE FROM containers");
-                c.commit();
-            } catch (SQLException e) {
-                c.rollback();
-                throw e;
-            }
+                return null;
+            }, v -> {
+                chunkCache.clear();
+                locationCache.clear();
+            });
         } catch (SQLException e) {
             throw new RuntimeException("Failed purge", e);
         }
@@ -469,9 +1163,8 @@ public final class ContainerStorage {
     }
 
     public void setThreshold(double t) {
-        try (Connection c = dataSource.getConnection()) {
-            c.setAutoCommit(false);
-            try {
+        try {
+            writer.execute(c -> {
                 boolean exists = c.createStatement().executeQuery("SELECT 1 FROM threshold_config WHERE id = 1").next();
                 if (exists) {
                     try (PreparedStatement ps = c.prepareStatement("UPDATE threshold_config SET threshold = ? WHERE id = 1")) {
@@ -484,22 +1177,29 @@ public final class ContainerStorage {
                         ps.executeUpdate();
                     }
                 }
-                c.commit();
-            } catch (SQLException e) {
-                c.rollback();
-                throw e;
-            }
+                return null;
+            });
         } catch (SQLException e) {
             throw new RuntimeException("Failed set threshold", e);
         }
     }
 
     public void updateOrdinals(Map<Integer, Integer> m) {
-        try (Connection c = dataSource.getConnection();
-             PreparedStatement ps = c.prepareStatement("UPDATE container_chunks SET ordinal = ? WHERE ordinal = ?")) {
-            c.setAutoCommit(false);
+        try {
+            writer.execute(c -> {
+                updateOrdinalsInternal(c, m);
+                return ChunkMetadataCache.readSnapshot(c);
+            }, chunkCache::load);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed update ordinals", e);
+        }
+    }
+
+    private void updateOrdinalsInternal(Connection c, Map<Integer, Integer> m) throws SQLException {
+        // Park moved rows on negative ordinals first so moves onto each other's old ordinals never collide
+        try (PreparedStatement ps = c.prepareStatement("UPDATE container_chunks SET ordinal = ? WHERE ordinal = ?")) {
             for (var e : m.entrySet()) {
-                if (e.getKey() != e.getValue()) {
+                if (!e.getKey().equals(e.getValue())) {
                     ps.setInt(1, -e.getKey() - 1);
                     ps.setInt(2, e.getKey());
                     ps.addBatch();
@@ -508,27 +1208,142 @@ public final class ContainerStorage {
             ps.executeBatch();
             ps.clearBatch();
             for (var e : m.entrySet()) {
-                if (e.getKey() != e.getValue()) {
+                if (!e.getKey().equals(e.getValue())) {
                     ps.setInt(1, e.getValue());
                     ps.setInt(2, -e.getKey() - 1);
                     ps.addBatch();
                 }
             }
             ps.executeBatch();
-            c.commit();
+        }
+    }
+
+    /**
+     * Renumber chunks onto the lowest ordinals so the ordinal space, and the metadata cache arrays
+     * indexed by it, are dense again. Runs online as one write through {@link #updateOrdinals}'s
+     * renumbering; ordinals reserved by writes in flight are left free for them. Vectors are keyed
+     * by vector id, so the vector indexes are unaffected.
+     *
+     * @return number of chunks moved
+     */
+    public int compactOrdinals() {
+        record Compaction(int moved, ChunkMetadataCache.Snapshot snapshot) {
+        }
+        try {
+            return writer.execute(c -> {
+                BitSet reserved = ordinalAllocator.beginCompaction();
+                Map<Integer, Integer> moves = new HashMap<>();
+                int target = reserved.nextClearBit(0);
+                try (ResultSet rs = c.createStatement().executeQuery("SELECT ordinal FROM container_chunks ORDER BY ordinal")) {
+                    while (rs.next()) {
+                        int ordinal = rs.getInt(1);
+                        if (ordinal != target) moves.put(ordinal, target);
+                        target = reserved.nextClearBit(target + 1);
+                    }
+                }
+                updateOrdinalsInternal(c, moves);
+                return new Compaction(moves.size(), ChunkMetadataCache.readSnapshot(c));
+            }, compaction -> chunkCache.load(compaction.snapshot())).moved();
         } catch (SQLException e) {
-            throw new RuntimeException("Failed update ordinals", e);
+            chunkCache.resetOrdinals();
+            throw new RuntimeException("Failed compact ordinals", e);
+        } catch (RuntimeException e) {
+            chunkCache.resetOrdinals();
+            throw e;
         }
     }
 
-    public void deleteOrphans(Set<Integer> s) {
-        try (Connection c = dataSource.getConnection()) {
-            if (s.isEmpty()) {
-                c.createStatement().execute("DELETE FROM container_chunks");
-            } else {
-                String ord = s.stream().map(String::valueOf).reduce((a, b) -> a + "," + b).orElse("");
-                c.createStatement().execute("DELETE FROM container_chunks WHERE ordinal NOT IN (" + ord + ")");
+    /**
+     * Share of the allocated ordinal space left unused by deletions.
+     */
+    public double getFreeOrdinalRatio() {
+        return ordinalAllocator.freeRatio();
+    }
+
+    public int getOrdinalLimit() {
+        return ordinalAllocator.limit();
+    }
+
+    /**
+     * Re-encode payloads stored as JSON text in the compact encoding, a batch of rows per write so
+     * indexing continues in between. A row changed since its batch was read is left as written.
+     * Rows whose JSON does not encode stay text and are visited again on the next run. Does nothing
+     * when compact payloads are disabled; stops early if the thread is interrupted.
+     *
+     * @return number of rows re-encoded
+     */
+    public int transcodePayloads() {
+        record Row(long rowId, String json, byte[] payload) {
+        }
+        if (!compactPayloads) return 0;
+        long cursor = 0;
+        int transcoded = 0;
+        long textBytes = 0;
+        long payloadBytes = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            List<Row> rows = new ArrayList<>(TRANSCODE_BATCH_SIZE);
+            boolean more = false;
+            try (Connection c = dataSource.getConnection();
+                 PreparedStatement ps = c.prepareStatement("SELECT rowid, content_text FROM container_chunks WHERE rowid > ? AND typeof(content_text) = 'text' ORDER BY rowid LIMIT ?")) {
+                ps.setLong(1, cursor);
+                ps.setInt(2, TRANSCODE_BATCH_SIZE);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        more = true;
+                        cursor = rs.getLong(1);
+                        String json = rs.getString(2);
+                        byte[] payload = ItemPayloadCodec.encode(json, dictionary);
+                        if (payload != null) rows.add(new Row(cursor, json, payload));
+                    }
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException("Failed read payloads to transcode", e);
+            }
+            if (!more) break;
+            if (rows.isEmpty()) continue;
+
+            Map<Integer, String> entries = dictionary.unsaved();
+            try {
+                transcoded += writer.execute(c -> {
+                    ItemDictionary.insert(c, entries);
+                    int updated = 0;
+                    try (PreparedStatement ps = c.prepareStatement("UPDATE container_chunks SET content_text = ? WHERE rowid = ? AND content_text = ?")) {
+                        for (Row row : rows) {
+                            ps.setBytes(1, row.payload());
+                            ps.setLong(2, row.rowId());
+                            ps.setString(3, row.json());
+                            updated += ps.executeUpdate();
+                        }
+                    }
+                    return updated;
+                }, updated -> dictionary.saved(entries.keySet()));
+            } catch (SQLException e) {
+                throw new RuntimeException("Failed transcode payloads", e);
+            }
+            for (Row row : rows) {
+                textBytes += row.json().getBytes(StandardCharsets.UTF_8).length;
+                payloadBytes += row.payload().length;
             }
+        }
+        if (transcoded > 0) {
+            logger.info("Re-encoded " + transcoded + " stored item payloads: " + textBytes / 1024 + " KiB of JSON -> "
+                + payloadBytes / 1024 + " KiB");
+        }
+        return transcoded;
+    }
+
+    public void deleteOrphans(Set<Integer> s) {
+        try {
+            writer.execute(c -> {
+                if (s.isEmpty()) {
+                    c.createStatement().execute("DELETE FROM container_chunks");
+                    c.createStatement().execute("DELETE FROM vectors");
+                } else {
+                    String ord = s.stream().map(String::valueOf).reduce((a, b) -> a + "," + b).orElse("");
+                    c.createStatement().execute("DELETE FROM container_chunks WHERE ordinal NOT IN (" + ord + ")");
+                }
+                return ChunkMetadataCache.readSnapshot(c);
+            }, chunkCache::load);
         } catch (SQLException e) {
             throw new RuntimeException("Failed delete orphans", e);
         }
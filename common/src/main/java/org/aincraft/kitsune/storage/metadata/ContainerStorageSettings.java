@@ -0,0 +1,22 @@
+package org.aincraft.kitsune.storage.metadata;
+
+import org.aincraft.kitsune.config.KitsuneConfig;
+
+/**
+ * Container metadata storage options, read from the storage config section.
+ */
+public record ContainerStorageSettings(
+    boolean compactPayloads,  // store new item payloads in the compact binary encoding
+    int locationCacheSize     // block positions kept in the position-to-container cache (0 = disabled)
+) {
+    public static ContainerStorageSettings defaults() {
+        return new ContainerStorageSettings(true, 10_000);
+    }
+
+    public static ContainerStorageSettings fromConfig(KitsuneConfig config) {
+        return new ContainerStorageSettings(
+            config.storageCompactPayloads(),
+            config.storageLocationCacheSize()
+        );
+    }
+}
@@ -0,0 +1,93 @@
+package org.aincraft.kitsune.storage.metadata;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Ids for the strings that repeat across stored items (materials, display names, enchantment and
+ * tag names), persisted in the item_dictionary table.
+ *
+ * Ids are assigned in memory when first seen and stay unsaved until a write inserting them
+ * commits. Every write that stores a payload inserts the unsaved entries in its own transaction,
+ * so a payload never commits without the entries it refers to, even when an earlier write that
+ * introduced them failed.
+ */
+final class ItemDictionary {
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    // Indexed by id; null where an id was assigned but never saved before a restart
+    private final List<String> values = new ArrayList<>();
+    private final Map<Integer, String> unsaved = new HashMap<>();
+
+    static void createTable(Connection c) throws SQLException {
+        c.createStatement().execute("CREATE TABLE IF NOT EXISTS item_dictionary (id INTEGER PRIMARY KEY, value TEXT NOT NULL)");
+    }
+
+    synchronized void load(Connection c) throws SQLException {
+        ids.clear();
+        values.clear();
+        unsaved.clear();
+        try (ResultSet rs = c.createStatement().executeQuery("SELECT id, value FROM item_dictionary ORDER BY id")) {
+            while (rs.next()) {
+                int id = rs.getInt(1);
+                while (values.size() < id) values.add(null);
+                values.add(rs.getString(2));
+                ids.put(rs.getString(2), id);
+            }
+        }
+    }
+
+    synchronized int id(String value) {
+        Integer id = ids.get(value);
+        if (id == null) {
+            id = values.size();
+            values.add(value);
+            ids.put(value, id);
+            unsaved.put(id, value);
+        }
+        return id;
+    }
+
+    synchronized @Nullable String value(int id) {
+        return id >= 0 && id < values.size() ? values.get(id) : null;
+    }
+
+    /**
+     * Entries no committed write has inserted yet, to insert along with the payloads using them.
+     */
+    synchronized Map<Integer, String> unsaved() {
+        return unsaved.isEmpty() ? Map.of() : new TreeMap<>(unsaved);
+    }
+
+    /**
+     * Insert entries taken from {@link #unsaved()} as part of the caller's write. Entries another
+     * write already inserted are skipped.
+     */
+    static void insert(Connection c, Map<Integer, String> entries) throws SQLException {
+        if (entries.isEmpty()) return;
+        try (PreparedStatement ps = c.prepareStatement("INSERT OR IGNORE INTO item_dictionary (id, value) VALUES (?, ?)")) {
+            for (Map.Entry<Integer, String> entry : entries.entrySet()) {
+                ps.setInt(1, entry.getKey());
+                ps.setString(2, entry.getValue());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    /**
+     * A write inserting these entries committed.
+     */
+    synchronized void saved(Collection<Integer> savedIds) {
+        for (int id : savedIds) unsaved.remove(id);
+    }
+}
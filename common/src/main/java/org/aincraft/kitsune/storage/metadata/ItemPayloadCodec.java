@@ -0,0 +1,213 @@
+package org.aincraft.kitsune.storage.metadata;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Compact binary form of the item JSON written by ItemSerializationLogic.
+ *
+ * Layout (version 1): the version byte, a varint of field flags, then the material and display
+ * name as dictionary ids, amount and slot as zigzag varints, and whichever optional fields the
+ * flags mark: custom name (inline UTF-8), enchantments (count, then id and level pairs), tags
+ * (count, then ids) and durability (current, max, percent). Property names are implied by
+ * position and repeated strings are stored once in the {@link ItemDictionary}.
+ *
+ * Decoding rebuilds the original JSON text exactly. JSON that would not survive the round trip
+ * (another shape, non-integer numbers) is not encoded and stays stored as text; the version byte
+ * can never begin JSON text, so both kinds are told apart by their first byte.
+ */
+final class ItemPayloadCodec {
+
+    static final byte VERSION = 1;
+
+    private static final int CUSTOM_NAME = 1;
+    private static final int ENCHANTMENTS = 1 << 1;
+    private static final int TAGS = 1 << 2;
+    private static final int DURABILITY = 1 << 3;
+
+    // Same settings as ItemSerializationLogic, so decoded text matches what it wrote
+    private static final Gson GSON = new GsonBuilder().disableHtmlEscaping().create();
+
+    private ItemPayloadCodec() {}
+
+    /**
+     * @return the encoded payload, or null if this JSON must stay stored as text
+     */
+    static byte @Nullable [] encode(String json, ItemDictionary dictionary) {
+        byte[] payload;
+        try {
+            payload = write(JsonParser.parseString(json).getAsJsonObject(), dictionary);
+        } catch (RuntimeException e) {
+            return null;
+        }
+        return json.equals(decode(payload, dictionary)) ? payload : null;
+    }
+
+    private static byte[] write(JsonObject item, ItemDictionary dictionary) {
+        Writer out = new Writer();
+        JsonElement customName = item.get("customName");
+        JsonObject enchantments = item.has("enchantments") ? item.getAsJsonObject("enchantments") : null;
+        JsonArray tags = item.has("tags") ? item.getAsJsonArray("tags") : null;
+        JsonObject durability = item.has("durability") ? item.getAsJsonObject("durability") : null;
+
+        out.write(VERSION);
+        out.writeVarInt((customName != null ? CUSTOM_NAME : 0)
+            | (enchantments != null ? ENCHANTMENTS : 0)
+            | (tags != null ? TAGS : 0)
+            | (durability != null ? DURABILITY : 0));
+        out.writeVarInt(dictionary.id(item.get("material").getAsString()));
+        out.writeSignedVarInt(item.get("amount").getAsInt());
+        out.writeSignedVarInt(item.get("slot").getAsInt());
+        out.writeVarInt(dictionary.id(item.get("displayName").getAsString()));
+        if (customName != null) {
+            out.writeString(customName.getAsString());
+        }
+        if (enchantments != null) {
+            out.writeVarInt(enchantments.size());
+            for (Map.Entry<String, JsonElement> enchantment : enchantments.entrySet()) {
+                out.writeVarInt(dictionary.id(enchantment.getKey()));
+                out.writeSignedVarInt(enchantment.getValue().getAsInt());
+            }
+        }
+        if (tags != null) {
+            out.writeVarInt(tags.size());
+            for (JsonElement tag : tags) {
+                out.writeVarInt(dictionary.id(tag.getAsString()));
+            }
+        }
+        if (durability != null) {
+            out.writeSignedVarInt(durability.get("current").getAsInt());
+            out.writeSignedVarInt(durability.get("max").getAsInt());
+            out.writeSignedVarInt(durability.get("percent").getAsInt());
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the payload is malformed, of an unknown version or refers
+     *     to a dictionary entry that does not exist
+     */
+    static String decode(byte[] payload, ItemDictionary dictionary) {
+        Reader in = new Reader(payload);
+        if (in.read() != VERSION) {
+            throw new IllegalArgumentException("Unknown item payload version " + payload[0]);
+        }
+        int flags = in.readVarInt();
+        JsonObject item = new JsonObject();
+        item.addProperty("material", in.readEntry(dictionary));
+        item.addProperty("amount", in.readSignedVarInt());
+        item.addProperty("slot", in.readSignedVarInt());
+        item.addProperty("displayName", in.readEntry(dictionary));
+        if ((flags & CUSTOM_NAME) != 0) {
+            item.addProperty("customName", in.readString());
+        }
+        if ((flags & ENCHANTMENTS) != 0) {
+            JsonObject enchantments = new JsonObject();
+            for (int i = in.readVarInt(); i > 0; i--) {
+                enchantments.addProperty(in.readEntry(dictionary), in.readSignedVarInt());
+            }
+            item.add("enchantments", enchantments);
+        }
+        if ((flags & TAGS) != 0) {
+            JsonArray tags = new JsonArray();
+            for (int i = in.readVarInt(); i > 0; i--) {
+                tags.add(in.readEntry(dictionary));
+            }
+            item.add("tags", tags);
+        }
+        if ((flags & DURABILITY) != 0) {
+            JsonObject durability = new JsonObject();
+            durability.addProperty("current", in.readSignedVarInt());
+            durability.addProperty("max", in.readSignedVarInt());
+            durability.addProperty("percent", in.readSignedVarInt());
+            item.add("durability", durability);
+        }
+        return GSON.toJson(item);
+    }
+
+    private static final class Writer {
+        private byte[] buffer = new byte[64];
+        private int size;
+
+        void write(int b) {
+            if (size == buffer.length) buffer = Arrays.copyOf(buffer, size * 2);
+            buffer[size++] = (byte) b;
+        }
+
+        void writeVarInt(int value) {
+            while ((value & ~0x7F) != 0) {
+                write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            write(value);
+        }
+
+        void writeSignedVarInt(int value) {
+            writeVarInt((value << 1) ^ (value >> 31));
+        }
+
+        void writeString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length);
+            for (byte b : bytes) write(b);
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] buffer;
+        private int position;
+
+        Reader(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        int read() {
+            if (position >= buffer.length) throw new IllegalArgumentException("Truncated item payload");
+            return buffer[position++];
+        }
+
+        int readVarInt() {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                int b = read();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return value;
+            }
+            throw new IllegalArgumentException("Malformed varint in item payload");
+        }
+
+        int readSignedVarInt() {
+            int value = readVarInt();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        String readString() {
+            int length = readVarInt();
+            if (length < 0 || length > buffer.length - position) {
+                throw new IllegalArgumentException("Truncated item payload");
+            }
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        String readEntry(ItemDictionary dictionary) {
+            int id = readVarInt();
+            String value = dictionary.value(id);
+            if (value == null) throw new IllegalArgumentException("Unknown item dictionary id " + id);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package org.aincraft.kitsune.storage.metadata;
+
+/**
+ * Counters for the position-to-container cache since startup.
+ *
+ * @param hits lookups answered from memory
+ * @param misses lookups that went to the database
+ * @param evictions entries dropped to stay within capacity
+ * @param size positions currently cached
+ * @param capacity most positions cached (0 = disabled)
+ */
+public record LocationCacheStats(long hits, long misses, long evictions, int size, int capacity) {
+
+    public double hitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+}
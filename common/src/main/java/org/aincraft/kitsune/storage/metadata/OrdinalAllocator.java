@@ -0,0 +1,111 @@
+package org.aincraft.kitsune.storage.metadata;
+
+import java.util.BitSet;
+
+/**
+ * Hands out chunk ordinals, reusing freed ones lowest first so the ordinal space stays dense.
+ *
+ * An ordinal is reserved from allocation until the write using it commits or fails. The used
+ * ordinals are the database's own, seeded from the chunk metadata snapshot and kept current by
+ * {@link ChunkMetadataCache}, so the allocator has no table of its own.
+ *
+ * While a compaction is renumbering chunks, freed ordinals are not reused: the compaction may be
+ * moving a chunk onto them. Allocation falls back to the top of the space until the next reset.
+ */
+final class OrdinalAllocator {
+
+    private final BitSet free = new BitSet();
+    private final BitSet reserved = new BitSet();
+    // Every ordinal at or above the limit is unused
+    private int limit;
+    private boolean compacting;
+
+    synchronized int[] allocate(int count) {
+        int[] ordinals = new int[count];
+        int from = 0;
+        for (int i = 0; i < count; i++) {
+            int ordinal = compacting ? -1 : free.nextSetBit(from);
+            if (ordinal < 0) {
+                ordinal = limit++;
+            } else {
+                free.clear(ordinal);
+                from = ordinal + 1;
+            }
+            reserved.set(ordinal);
+            ordinals[i] = ordinal;
+        }
+        return ordinals;
+    }
+
+    /**
+     * The write using these ordinals committed; they are now used.
+     */
+    synchronized void commit(int[] ordinals) {
+        for (int ordinal : ordinals) {
+            reserved.clear(ordinal);
+        }
+    }
+
+    /**
+     * The write using these ordinals failed; they can be handed out again.
+     */
+    synchronized void release(int[] ordinals) {
+        for (int ordinal : ordinals) {
+            if (reserved.get(ordinal)) {
+                reserved.clear(ordinal);
+                if (!compacting) markFree(ordinal);
+            }
+        }
+    }
+
+    /**
+     * A committed chunk was deleted.
+     */
+    synchronized void free(int ordinal) {
+        if (ordinal >= 0 && ordinal < limit && !reserved.get(ordinal) && !compacting) {
+            markFree(ordinal);
+        }
+    }
+
+    /**
+     * Rebuild from the committed ordinals, keeping outstanding reservations, and end any compaction.
+     */
+    synchronized void reset(BitSet used) {
+        compacting = false;
+        limit = Math.max(used.length(), reserved.length());
+        free.clear();
+        free.set(0, limit);
+        free.andNot(used);
+        free.andNot(reserved);
+    }
+
+    /**
+     * Stop reusing freed ordinals until the next {@link #reset}.
+     *
+     * @return ordinals reserved by writes in flight, which a compaction must not move chunks onto
+     */
+    synchronized BitSet beginCompaction() {
+        compacting = true;
+        free.clear();
+        return (BitSet) reserved.clone();
+    }
+
+    synchronized int limit() {
+        return limit;
+    }
+
+    /**
+     * Share of the ordinal space below the limit that is unused.
+     */
+    synchronized double freeRatio() {
+        return limit == 0 ? 0 : (double) free.cardinality() / limit;
+    }
+
+    private void markFree(int ordinal) {
+        free.set(ordinal);
+        // Give back a free tail so the limit tracks the highest used ordinal
+        while (limit > 0 && free.get(limit - 1)) {
+            free.clear(--limit);
+        }
+    }
+}
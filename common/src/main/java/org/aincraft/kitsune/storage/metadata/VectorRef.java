@@ -0,0 +1,11 @@
+package org.aincraft.kitsune.storage.metadata;
+
+/**
+ * Reference to a deduplicated vector, shared by every chunk with the same content in a world.
+ *
+ * @param id vector id, the key in the world's vector index
+ * @param created true if this reference created the vector, so it still has to be added to the index
+ */
+public record VectorRef(int id, boolean created) {
+
+}
@@ -0,0 +1,130 @@
+package org.aincraft.kitsune.storage.vector;
+
+import io.github.jbellis.jvector.graph.ImmutableGraphIndex;
+import io.github.jbellis.jvector.graph.RandomAccessVectorValues;
+import io.github.jbellis.jvector.quantization.PQVectors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Immutable view of a JVectorIndex published for searching.
+ * Bundles the graph, the vector view used for scoring and the internal -> database ordinal mapping,
+ * so a search sees one consistent epoch without taking any lock.
+ *
+ * A compressed snapshot holds PQ codes instead of full vectors: traversal scores the codes and
+ * the final candidates are re-ranked with the full vectors stored in the on-disk graph.
+ *
+ * Snapshots are reference counted: searches retain the snapshot for their duration and the index
+ * retires it when a newer one is swapped in. Resources (e.g. the on-disk reader) are closed once the
+ * last reference is released.
+ */
+final class IndexSnapshot {
+
+    // Marks an internal ordinal that must never be returned (tombstoned or not yet published)
+    static final int NO_ORDINAL = -1;
+
+    private final @Nullable ImmutableGraphIndex graph;
+    private final @Nullable RandomAccessVectorValues vectors;
+    private final @Nullable PQVectors compressedVectors;
+    private final int[] internalToDatabase;
+    private final int size;
+    private final long epoch;
+    private final long publishedAtMillis;
+    private final @Nullable AutoCloseable resources;
+    private final AtomicInteger refs = new AtomicInteger(1);
+
+    IndexSnapshot(@Nullable ImmutableGraphIndex graph, @Nullable RandomAccessVectorValues vectors,
+                  int[] internalToDatabase, int size, long epoch, @Nullable AutoCloseable resources) {
+        this(graph, vectors, null, internalToDatabase, size, epoch, resources);
+    }
+
+    IndexSnapshot(@Nullable ImmutableGraphIndex graph, @Nullable RandomAccessVectorValues vectors,
+                  @Nullable PQVectors compressedVectors, int[] internalToDatabase, int size, long epoch,
+                  @Nullable AutoCloseable resources) {
+        this.graph = graph;
+        this.vectors = vectors;
+        this.compressedVectors = compressedVectors;
+        this.internalToDatabase = internalToDatabase;
+        this.size = size;
+        this.epoch = epoch;
+        this.publishedAtMillis = System.currentTimeMillis();
+        this.resources = resources;
+    }
+
+    static IndexSnapshot empty(long epoch) {
+        return new IndexSnapshot(null, null, new int[0], 0, epoch, null);
+    }
+
+    @Nullable ImmutableGraphIndex graph() {
+        return graph;
+    }
+
+    @Nullable RandomAccessVectorValues vectors() {
+        return vectors;
+    }
+
+    /**
+     * @return PQ codes for approximate scoring, or null if this snapshot scores full vectors
+     */
+    @Nullable PQVectors compressedVectors() {
+        return compressedVectors;
+    }
+
+    /**
+     * @return the database ordinal for an internal ordinal, or NO_ORDINAL if it is not visible in this snapshot
+     */
+    int databaseOrdinal(int internalOrdinal) {
+        if (internalOrdinal < 0 || internalOrdinal >= internalToDatabase.length) {
+            return NO_ORDINAL;
+        }
+        return internalToDatabase[internalOrdinal];
+    }
+
+    boolean isEmpty() {
+        return graph == null || size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long epoch() {
+        return epoch;
+    }
+
+    long publishedAtMillis() {
+        return publishedAtMillis;
+    }
+
+    /**
+     * Take a reference for the duration of a search.
+     *
+     * @return false if the snapshot has already been retired and closed
+     */
+    boolean retain() {
+        while (true) {
+            int current = refs.get();
+            if (current <= 0) {
+                return false;
+            }
+            if (refs.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void release() {
+        if (refs.decrementAndGet() == 0 && resources != null) {
+            try {
+                resources.close();
+            } catch (Exception ignored) {}
+        }
+    }
+
+    /**
+     * Drop the index's own reference once a newer snapshot has been published.
+     */
+    void retire() {
+        release();
+    }
+}
@@ -1,92 +1,208 @@
 package org.aincraft.kitsune.storage.vector;
 
+import io.github.jbellis.jvector.disk.RandomAccessReader;
 import io.github.jbellis.jvector.disk.ReaderSupplier;
 import io.github.jbellis.jvector.disk.ReaderSupplierFactory;
 import io.github.jbellis.jvector.graph.GraphIndexBuilder;
 import io.github.jbellis.jvector.graph.GraphSearcher;
-import io.github.jbellis.jvector.graph.ListRandomAccessVectorValues;
+import io.github.jbellis.jvector.graph.ImmutableGraphIndex;
+import io.github.jbellis.jvector.graph.OnHeapGraphIndex;
+import io.github.jbellis.jvector.graph.RandomAccessVectorValues;
 import io.github.jbellis.jvector.graph.SearchResult;
 import io.github.jbellis.jvector.graph.disk.OnDiskGraphIndex;
 import io.github.jbellis.jvector.graph.similarity.BuildScoreProvider;
 import io.github.jbellis.jvector.graph.similarity.DefaultSearchScoreProvider;
+import io.github.jbellis.jvector.quantization.PQVectors;
+import io.github.jbellis.jvector.quantization.ProductQuantization;
 import io.github.jbellis.jvector.util.Bits;
 import io.github.jbellis.jvector.vector.VectorSimilarityFunction;
 import io.github.jbellis.jvector.vector.types.VectorFloat;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import org.aincraft.kitsune.config.KitsuneConfig;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * JVector-based implementation of VectorIndex for approximate nearest neighbor search.
- * Uses an in-memory vector store with an on-disk graph index for persistence.
+ * Vectors live in a memory-mapped store; the graph is persisted separately for fast startup.
  *
  * Architecture:
- * - In-memory: Map of databaseOrdinal -> VectorFloat<?>
- * - On-disk: vectors.idx containing the HNSW graph and vector data
- * - Thread-safe: ReadWriteLock ensures safe concurrent access
- * - Lazy rebuild: Index marked dirty on mutations, rebuilt before next search
+ * - Vectors: vectors.dat, a fixed-stride MappedVectorStore addressed by slot; the heap only holds
+ *   the databaseOrdinal -> slot table
+ * - On-disk: vectors.idx containing the HNSW graph and vector data (rebuild mode), or
+ *   live.graph with its ordinal and slot tables (incremental mode)
+ * - Write-ahead log: every add/remove is appended to vectors.wal.* before it is applied and
+ *   fsynced in batches; startup replays it on top of the last checkpoint
+ * - Thread-safe: ReadWriteLock guards writers; searches take no lock (see Snapshots)
  * - Ordinal mapping: Internal JVector ordinals (0,1,2...) mapped to database ordinals
  *
- * Graph parameters (configurable):
- * - GRAPH_DEGREE = 16 (max neighbors per node)
- * - CONSTRUCTION_SEARCH_DEPTH = 100 (search depth during graph construction)
- * - OVERFLOW_FACTOR = 1.2f (tolerance for degree overflow during construction)
- * - ALPHA = 1.2f (used in distance calculations for graph pruning)
+ * Snapshots:
+ * Searches run against an immutable IndexSnapshot (graph + vector view + ordinal mapping)
+ * read from an atomic reference. A background scheduler publishes the next snapshot once
+ * max-pending-mutations adds/removes have accumulated or the oldest one is older than
+ * max-staleness-ms, so a mutation becomes searchable within that bound and searches never
+ * wait for a rebuild. A freed store slot is only reused once every snapshot that might
+ * still read it has been released (tracked by pinning snapshot epochs).
+ *
+ * Update modes:
+ * - Incremental (default): new vectors are inserted into a live mutable graph and removed
+ *   vectors are marked as tombstones. Publishing a snapshot only copies the ordinal mapping.
+ *   Once tombstones pass the configured share of the graph, a compaction rebuilds the live
+ *   graph into a new generation in the background. The live graph is checkpointed to
+ *   live.graph periodically in the background as it is, tombstones included, folding in the
+ *   log; shutdown only flushes the log.
+ * - Rebuild: each published snapshot is a full graph rebuild, built off the lock.
+ *
+ * Compression (rebuild mode, compression: pq):
+ * The published snapshot keeps only product-quantized codes in memory. Graph traversal scores
+ * those codes, then the best candidates are re-ranked exactly with full vectors read from
+ * vectors.idx. Recall@10 against brute-force search is sampled after every compressed publish.
+ *
+ * Graph parameters (degree, construction beam width, overflow, alpha, search over-query) come from
+ * {@link VectorIndexSettings}; {@link VectorIndexTuner} picks them from measurements on real vectors.
  */
 public final class JVectorIndex implements VectorIndex {
 
-    private static final int GRAPH_DEGREE = 16;
-    private static final int CONSTRUCTION_SEARCH_DEPTH = 100;
-    private static final float OVERFLOW_FACTOR = 1.2f;
-    private static final float ALPHA = 1.2f;
+    // PQ: candidates re-ranked per result slot, codebook size, and sampling for the recall report
+    private static final int PQ_RERANK_FACTOR = 2;
+    private static final int PQ_CLUSTERS = 256;
+    private static final int PQ_MIN_VECTORS = 1024;
+    private static final int RECALL_SAMPLE_QUERIES = 20;
+    private static final int RECALL_K = 10;
+    private static final long SHUTDOWN_MUTATION_TIMEOUT_SECONDS = 30;
 
     private final Logger logger;
     private final Path dataDir;
     private final int dimension;
+    private final VectorIndexSettings settings;
     private final ScheduledExecutorService executor = Executors.newScheduledThreadPool(4);
     private final ReadWriteLock indexLock = new ReentrantReadWriteLock();
 
-    // Map: database ordinal -> vector (sparse, preserves original ordinals)
-    private final Map<Integer, VectorFloat<?>> vectorMap = new HashMap<>();
+    // Serializes graph builds (rebuilds and compactions); always taken before indexLock
+    private final ReentrantLock buildLock = new ReentrantLock();
+
+    // Vector storage: database ordinal -> slot in the memory-mapped store
+    private MappedVectorStore store;
+    private final Map<Integer, Integer> databaseToSlot = new HashMap<>();
+    private final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+    private int nextSlot = 0;
+
+    // Adds/removes since the last checkpoint, replayed on startup
+    private VectorWal wal;
 
-    // Mapping: internal ordinal (0,1,2...) -> database ordinal
-    private final List<Integer> internalToDatabaseOrdinal = new ArrayList<>();
+    // Slots nothing indexes any more, waiting until no pinned snapshot can still read them
+    private final ArrayDeque<RetiredSlot> retiredSlots = new ArrayDeque<>();
 
-    // Reverse mapping: database ordinal -> internal ordinal
-    private final Map<Integer, Integer> databaseToInternalOrdinal = new HashMap<>();
+    // Epochs of snapshots and in-flight builds that may read store slots -> reference count
+    private final ConcurrentSkipListMap<Long, Integer> pinnedEpochs = new ConcurrentSkipListMap<>();
 
-    // On-disk graph index state
-    private OnDiskGraphIndex graphIndex;
-    private ReaderSupplier readerSupplier;
+    // Live mutable graph (incremental mode), replaced as a whole by compaction
+    private LiveGeneration live;
 
-    // Track if index needs rebuilding after mutations
+    // Mutations applied while a compaction is building the next generation; replayed before the swap
+    private List<Mutation> compactionJournal;
+    private final AtomicBoolean compactionScheduled = new AtomicBoolean(false);
+
+    // Published search snapshot and its bookkeeping
+    private final AtomicReference<IndexSnapshot> snapshot = new AtomicReference<>(IndexSnapshot.empty(0));
+    private final AtomicLong epoch = new AtomicLong();
+    private final AtomicInteger pendingMutations = new AtomicInteger();
+    private volatile long oldestPendingMillis = 0;
+    private final AtomicBoolean publishScheduled = new AtomicBoolean(false);
+    private final AtomicLong publishCount = new AtomicLong();
+    private volatile long lastPublishMillis = 0;
+    private volatile double compressedRecall = Double.NaN;
+    private final LongAdder searchCount = new LongAdder();
+    private final LongAdder searchNanos = new LongAdder();
+
+    // Track if the on-disk index is behind the in-memory state
     private volatile boolean indexDirty = false;
 
+    // Set by shutdown; background tasks still queued on the executor become no-ops
+    private volatile boolean closed = false;
+
+    // Set when shutdown begins; mutations submitted from then on fail without applying
+    private volatile boolean closing = false;
+
+    // Mutations submitted and not yet applied; shutdown waits for them before closing the log
+    private final Set<CompletableFuture<Void>> inFlightMutations = ConcurrentHashMap.newKeySet();
+
+    /**
+     * A single add (slot set) or remove (slot -1) recorded during compaction.
+     */
+    private record Mutation(int databaseOrdinal, int slot) {}
+
+    /**
+     * A freed store slot and the first epoch whose snapshots no longer reference it.
+     */
+    private record RetiredSlot(int slot, long epoch) {}
+
+    /**
+     * Create a new JVectorIndex using the vector-index settings from config.
+     *
+     * @param logger Logger for diagnostic output
+     * @param dataDir Path to directory for storing index files
+     * @param dimension Dimension of vectors to be indexed
+     * @param config Config supplying the vector-index settings
+     */
+    public JVectorIndex(Logger logger, Path dataDir, int dimension, KitsuneConfig config) {
+        this(logger, dataDir, dimension, VectorIndexSettings.fromConfig(config));
+    }
+
     /**
      * Create a new JVectorIndex.
      *
      * @param logger Logger for diagnostic output
      * @param dataDir Path to directory for storing index files
      * @param dimension Dimension of vectors to be indexed
+     * @param settings Update mode, compaction, checkpoint and staleness settings
      */
-    public JVectorIndex(Logger logger, Path dataDir, int dimension) {
+    public JVectorIndex(Logger logger, Path dataDir, int dimension, VectorIndexSettings settings) {
         this.logger = logger;
         this.dataDir = dataDir;
         this.dimension = dimension;
+        this.settings = settings;
     }
 
     @Override
@@ -94,8 +210,51 @@ public final class JVectorIndex implements VectorIndex {
         return CompletableFuture.runAsync(() -> {
             try {
                 Files.createDirectories(dataDir);
-                loadIndex();
-                logger.info("JVectorIndex initialized at " + dataDir.toAbsolutePath());
+                openStore();
+                int replayed = replayWal();
+                IndexSnapshot loaded = loadIndex();
+                if (settings.incremental()) {
+                    indexLock.writeLock().lock();
+                    try {
+                        recoverLiveGraph();
+                        rebuildFreeSlots();
+                        publishLiveSnapshot();
+                    } finally {
+                        indexLock.writeLock().unlock();
+                    }
+                    scheduleCheckpoints();
+                    if (replayed > 0) {
+                        // Fold the replayed log into a checkpoint so the next startup does not replay it again
+                        executor.execute(() -> {
+                            try {
+                                checkpointLiveGraph();
+                            } catch (Exception e) {
+                                logger.log(Level.WARNING, "JVectorIndex recovery checkpoint failed", e);
+                            }
+                        });
+                    }
+                } else {
+                    rebuildFreeSlots();
+                    if (loaded != null && replayed > 0) {
+                        // The graph predates the replayed mutations
+                        loaded.retire();
+                        loaded = null;
+                    }
+                    if (loaded != null) {
+                        swapSnapshot(loaded);
+                    } else if (!databaseToSlot.isEmpty()) {
+                        publishRebuiltSnapshot();
+                    }
+                }
+                scheduleWalSync();
+                scheduleStalenessChecks();
+                if (settings.productQuantization() && settings.incremental()) {
+                    logger.warning("vector-index.compression: pq only applies with incremental: false; "
+                            + "the live graph keeps full vectors");
+                }
+                logger.info("JVectorIndex initialized at " + dataDir.toAbsolutePath()
+                        + " with " + databaseToSlot.size() + " vectors"
+                        + " (mode=" + (settings.incremental() ? "incremental" : "rebuild") + ")");
             } catch (Exception e) {
                 logger.log(Level.SEVERE, "Failed to initialize JVectorIndex", e);
                 throw new RuntimeException("JVectorIndex initialization failed", e);
@@ -103,91 +262,870 @@ public final class JVectorIndex implements VectorIndex {
         }, executor);
     }
 
+    /**
+     * Map the vector store and rebuild the slot table from its owner columns.
+     * A store written for another dimension (e.g. after a model change) is discarded.
+     */
+    private void openStore() throws IOException {
+        Path storePath = dataDir.resolve("vectors.dat");
+        try {
+            store = MappedVectorStore.open(storePath, dimension);
+        } catch (IOException e) {
+            logger.warning("Discarding unusable vector store, containers must be re-indexed: " + e.getMessage());
+            Files.deleteIfExists(storePath);
+            store = MappedVectorStore.open(storePath, dimension);
+        }
+
+        databaseToSlot.clear();
+        freeSlots.clear();
+        nextSlot = 0;
+        int capacity = store.size();
+        for (int slot = 0; slot < capacity; slot++) {
+            int owner = store.owner(slot);
+            if (owner >= 0) {
+                databaseToSlot.put(owner, slot);
+                nextSlot = slot + 1;
+            }
+        }
+    }
+
+    /**
+     * Apply the write-ahead log to the store and open it for appending. Replayed vectors always get
+     * fresh slots, so the slots a checkpointed graph still references are left untouched.
+     *
+     * @return number of records replayed
+     */
+    private int replayWal() throws IOException {
+        int[] replayed = new int[1];
+        wal = VectorWal.open(dataDir, dimension, new VectorWal.Replay() {
+            @Override
+            public void add(int databaseOrdinal, float[] vector) throws IOException {
+                Integer previous = databaseToSlot.remove(databaseOrdinal);
+                if (previous != null) {
+                    store.release(previous);
+                }
+                int slot = allocateSlot();
+                store.write(slot, databaseOrdinal, vector);
+                databaseToSlot.put(databaseOrdinal, slot);
+                replayed[0]++;
+            }
+
+            @Override
+            public void remove(int databaseOrdinal) {
+                Integer previous = databaseToSlot.remove(databaseOrdinal);
+                if (previous != null) {
+                    store.release(previous);
+                }
+                replayed[0]++;
+            }
+        });
+        if (replayed[0] > 0) {
+            store.force();
+            indexDirty = true;
+            logger.info("Replayed " + replayed[0] + " JVectorIndex mutations from the write-ahead log");
+        }
+        return replayed[0];
+    }
+
+    /**
+     * Recompute the free list once recovery is done: every unowned slot that no node of the live
+     * graph references. Slots held by tombstoned nodes are retired by the next compaction instead.
+     */
+    private void rebuildFreeSlots() {
+        BitSet referenced = live != null ? live.referencedSlots() : new BitSet();
+        freeSlots.clear();
+        retiredSlots.clear();
+        for (int slot = 0; slot < nextSlot; slot++) {
+            if (store.owner(slot) < 0 && !referenced.get(slot)) {
+                freeSlots.add(slot);
+            }
+        }
+    }
+
     /**
      * Load existing index from disk if available.
-     * Gracefully handles missing or corrupted index files by marking for rebuild.
+     * Gracefully handles missing, corrupted or outdated index files by marking for rebuild.
+     * Indexes written before the vector store existed have their vectors copied into it once.
+     *
+     * @return a snapshot over the on-disk graph (rebuild mode only), or null if none was loaded
      */
-    private void loadIndex() {
+    private @Nullable IndexSnapshot loadIndex() {
         Path indexPath = dataDir.resolve("vectors.idx");
         Path mappingPath = dataDir.resolve("ordinals.map");
 
         if (Files.exists(indexPath) && Files.exists(mappingPath)) {
+            ReaderSupplier readerSupplier = null;
+            try {
+                // Load ordinal mapping first
+                int[] internalToDatabase = OrdinalMappingFile.read(mappingPath, Files.size(indexPath));
+
+                readerSupplier = ReaderSupplierFactory.open(indexPath);
+                OnDiskGraphIndex graphIndex = OnDiskGraphIndex.load(readerSupplier);
+
+                int graphSize = graphIndex.size();
+                logger.info("Loaded JVectorIndex graph with " + graphSize + " nodes");
+
+                if (graphIndex.getDimension() != dimension || graphSize != internalToDatabase.length) {
+                    logger.warning("JVectorIndex graph does not match the configured model, will rebuild");
+                    readerSupplier.close();
+                    indexDirty = true;
+                    return null;
+                }
+                if (databaseToSlot.isEmpty() && graphSize > 0) {
+                    migrateVectorsFromGraph(graphIndex, internalToDatabase);
+                }
+
+                // The graph is only served directly if the store holds exactly its vectors
+                int[] internalToSlot = new int[internalToDatabase.length];
+                boolean consistent = !settings.incremental() && databaseToSlot.size() == internalToDatabase.length;
+                for (int internalOrdinal = 0; consistent && internalOrdinal < internalToDatabase.length; internalOrdinal++) {
+                    Integer slot = databaseToSlot.get(internalToDatabase[internalOrdinal]);
+                    if (slot == null) {
+                        consistent = false;
+                    } else {
+                        internalToSlot[internalOrdinal] = slot;
+                    }
+                }
+                if (!consistent) {
+                    // Incremental mode seeds its live graph from the store instead
+                    readerSupplier.close();
+                    indexDirty = !settings.incremental();
+                    return null;
+                }
+
+                long snapshotEpoch = epoch.incrementAndGet();
+                RandomAccessVectorValues ravv = MappedVectorStore.view(store, internalToSlot, internalToSlot.length);
+                if (usesCompression(internalToSlot.length)) {
+                    return compressedSnapshot(snapshotEpoch, graphIndex, readerSupplier, ravv, internalToDatabase);
+                }
+                return newSnapshot(snapshotEpoch, graphIndex, ravv, null, internalToDatabase, readerSupplier);
+            } catch (Exception e) {
+                logger.warning("Failed to load existing index, will rebuild: " + e.getMessage());
+                if (readerSupplier != null) {
+                    try {
+                        readerSupplier.close();
+                    } catch (Exception ignored) {}
+                }
+                indexDirty = true;
+            }
+        } else if (Files.exists(indexPath)) {
+            // Index exists but no mapping - need to rebuild
+            logger.warning("Index exists but ordinal mapping missing, will rebuild");
+            indexDirty = true;
+        }
+        return null;
+    }
+
+    /**
+     * One-time copy of the vectors embedded in vectors.idx into the store, for indexes written
+     * before vectors.dat existed.
+     */
+    private void migrateVectorsFromGraph(OnDiskGraphIndex graphIndex, int[] internalToDatabase) throws IOException {
+        var graphView = graphIndex.getView();
+        float[] values = new float[dimension];
+        int migrated = 0;
+
+        for (int internalOrdinal = 0; internalOrdinal < internalToDatabase.length; internalOrdinal++) {
+            try {
+                VectorFloat<?> vec = graphView.getVector(internalOrdinal);
+                if (vec == null) {
+                    continue;
+                }
+                for (int i = 0; i < dimension; i++) {
+                    values[i] = vec.get(i);
+                }
+                int slot = allocateSlot();
+                store.write(slot, internalToDatabase[internalOrdinal], values);
+                databaseToSlot.put(internalToDatabase[internalOrdinal], slot);
+                migrated++;
+            } catch (RuntimeException e) {
+                logger.warning("Failed to migrate vector for internal ordinal " + internalOrdinal + ": " + e.getMessage());
+            }
+        }
+        store.force();
+        logger.info("Migrated " + migrated + " vectors from vectors.idx into vectors.dat");
+    }
+
+    /**
+     * Restore the live mutable graph - must be called with write lock held.
+     * Loads the last checkpoint when there is one, tombstones its nodes whose vector has since been
+     * removed or replaced, and inserts the vectors added after it; otherwise builds from the store.
+     */
+    private void recoverLiveGraph() {
+        if (live != null) {
+            live.close();
+            live = null;
+        }
+        Path graphPath = dataDir.resolve("live.graph");
+        if (Files.exists(graphPath)) {
+            try {
+                long graphBytes = Files.size(graphPath);
+                int[] dbOrdinals = OrdinalMappingFile.read(dataDir.resolve("live.ordinals"), graphBytes);
+                int[] slots = OrdinalMappingFile.read(dataDir.resolve("live.slots"), graphBytes);
+                if (dbOrdinals.length != slots.length) {
+                    throw new IOException("Live graph ordinal and slot tables differ in length");
+                }
+                live = new LiveGeneration(dbOrdinals, slots, graphPath);
+            } catch (Exception e) {
+                logger.warning("Failed to load live graph checkpoint, will rebuild: " + e.getMessage());
+            }
+        }
+        if (live == null) {
+            seedLiveGraph();
+            return;
+        }
+
+        int stale = 0;
+        int[] checkpointed = live.mappingSnapshot();
+        for (int internalOrdinal = 0; internalOrdinal < checkpointed.length; internalOrdinal++) {
+            if (checkpointed[internalOrdinal] == IndexSnapshot.NO_ORDINAL) {
+                continue;
+            }
+            Integer slot = databaseToSlot.get(checkpointed[internalOrdinal]);
+            if (slot == null || slot != live.slotOf(internalOrdinal)) {
+                live.tombstone(checkpointed[internalOrdinal]);
+                stale++;
+            }
+        }
+        int inserted = 0;
+        for (Map.Entry<Integer, Integer> entry : databaseToSlot.entrySet()) {
+            if (!live.contains(entry.getKey())) {
+                live.insert(entry.getKey(), entry.getValue());
+                inserted++;
+            }
+        }
+        logger.info("Loaded live JVectorIndex graph checkpoint with " + checkpointed.length + " nodes ("
+                + stale + " tombstoned, " + inserted + " inserted since)");
+    }
+
+    /**
+     * Build the live mutable graph from the vectors in the store - must be called with write lock held.
+     * Internal ordinals are assigned densely in slot order so the builder can index them in one pass.
+     */
+    private void seedLiveGraph() {
+        int[] slots = databaseToSlot.values().stream().mapToInt(Integer::intValue).sorted().toArray();
+        int[] dbOrdinals = new int[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            dbOrdinals[i] = store.owner(slots[i]);
+        }
+
+        live = new LiveGeneration(dbOrdinals, slots, null);
+        if (slots.length > 0) {
+            logger.info("Seeded live JVectorIndex graph with " + slots.length + " vectors");
+        }
+    }
+
+    private GraphIndexBuilder newGraphBuilder(RandomAccessVectorValues ravv) {
+        return newGraphBuilder(ravv, dimension, settings);
+    }
+
+    static GraphIndexBuilder newGraphBuilder(RandomAccessVectorValues ravv, int dimension,
+                                             VectorIndexSettings settings) {
+        BuildScoreProvider bsp = BuildScoreProvider.randomAccessScoreProvider(
+                ravv, VectorSimilarityFunction.COSINE
+        );
+        return new GraphIndexBuilder(
+                bsp, dimension, settings.graphDegree(), settings.constructionBeamWidth(),
+                (float) settings.overflowFactor(), (float) settings.alpha(),
+                false);
+    }
+
+    private void scheduleCheckpoints() {
+        int interval = settings.checkpointIntervalSeconds();
+        if (interval <= 0) {
+            return;
+        }
+        executor.scheduleWithFixedDelay(() -> {
+            if (!indexDirty) {
+                return;
+            }
+            try {
+                checkpointLiveGraph();
+            } catch (Exception e) {
+                logger.log(Level.WARNING, "Scheduled JVectorIndex checkpoint failed", e);
+            }
+        }, interval, interval, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Fsync the write-ahead log in batches rather than once per mutation.
+     */
+    private void scheduleWalSync() {
+        long period = Math.max(1, settings.walSyncIntervalMs());
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                wal.sync();
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Failed to sync JVectorIndex write-ahead log", e);
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Poll for pending mutations older than the staleness bound and publish them.
+     */
+    private void scheduleStalenessChecks() {
+        long period = Math.max(50, Math.min(1000, settings.maxStalenessMs() / 4));
+        executor.scheduleWithFixedDelay(() -> {
+            if (pendingMutations.get() > 0
+                    && System.currentTimeMillis() - oldestPendingMillis >= settings.maxStalenessMs()) {
+                requestPublish();
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public CompletableFuture<Void> addVector(int databaseOrdinal, float[] embedding) {
+        return mutate(() -> {
+            indexLock.writeLock().lock();
+            try {
+                checkOpen();
+                wal.appendAdd(databaseOrdinal, embedding);
+                freeDatabaseSlot(databaseOrdinal);
+                int slot = allocateSlot();
+                store.write(slot, databaseOrdinal, embedding);
+                databaseToSlot.put(databaseOrdinal, slot);
+                if (settings.incremental()) {
+                    live.insert(databaseOrdinal, slot);
+                    if (compactionJournal != null) {
+                        compactionJournal.add(new Mutation(databaseOrdinal, slot));
+                    }
+                    maybeScheduleCompaction();
+                }
+                recordPendingMutation();
+                logger.fine("Added vector at database ordinal " + databaseOrdinal);
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Failed to store vector at database ordinal " + databaseOrdinal, e);
+                throw new RuntimeException("Vector store write failed", e);
+            } finally {
+                indexLock.writeLock().unlock();
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> removeVector(int databaseOrdinal) {
+        return mutate(() -> {
+            indexLock.writeLock().lock();
+            try {
+                checkOpen();
+                if (!databaseToSlot.containsKey(databaseOrdinal)) {
+                    return;
+                }
+                wal.appendRemove(databaseOrdinal);
+                freeDatabaseSlot(databaseOrdinal);
+                if (settings.incremental()) {
+                    live.tombstone(databaseOrdinal);
+                    if (compactionJournal != null) {
+                        compactionJournal.add(new Mutation(databaseOrdinal, -1));
+                    }
+                    maybeScheduleCompaction();
+                }
+                recordPendingMutation();
+                logger.fine("Removed vector at database ordinal " + databaseOrdinal);
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Failed to log removal of database ordinal " + databaseOrdinal, e);
+                throw new RuntimeException("Vector removal failed", e);
+            } finally {
+                indexLock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Run an add or remove on the executor. Once shutdown has begun it fails without applying, so
+     * the caller can apply it again to the reopened index; ones submitted before are waited for.
+     */
+    private CompletableFuture<Void> mutate(Runnable mutation) {
+        if (closing) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Vector index is closed"));
+        }
+        CompletableFuture<Void> future;
+        try {
+            future = CompletableFuture.runAsync(mutation, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Vector index is closed", e));
+        }
+        inFlightMutations.add(future);
+        future.whenComplete((v, e) -> inFlightMutations.remove(future));
+        return future;
+    }
+
+    /**
+     * Fail a mutation that reached the write lock after shutdown closed the log - must be called
+     * with write lock held.
+     */
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Vector index is closed");
+        }
+    }
+
+    /**
+     * Release the store slot held by a database ordinal - must be called with write lock held.
+     * In rebuild mode the slot is retired right away (the next build cannot see it); in incremental
+     * mode the live graph still reads it as a tombstone, so it is retired when the generation is compacted.
+     *
+     * @return false if the ordinal had no vector
+     */
+    private boolean freeDatabaseSlot(int databaseOrdinal) {
+        Integer slot = databaseToSlot.remove(databaseOrdinal);
+        if (slot == null) {
+            return false;
+        }
+        store.release(slot);
+        if (!settings.incremental()) {
+            retiredSlots.add(new RetiredSlot(slot, epoch.get() + 1));
+        }
+        return true;
+    }
+
+    /**
+     * Pick a store slot for a new vector, preferring reclaimed ones - must be called with write lock held.
+     */
+    private int allocateSlot() throws IOException {
+        Map.Entry<Long, Integer> oldestPinned = pinnedEpochs.firstEntry();
+        long oldestEpoch = oldestPinned != null ? oldestPinned.getKey() : Long.MAX_VALUE;
+        while (!retiredSlots.isEmpty() && retiredSlots.peekFirst().epoch() <= oldestEpoch) {
+            freeSlots.add(retiredSlots.pollFirst().slot());
+        }
+
+        Integer slot = freeSlots.pollFirst();
+        if (slot != null) {
+            return slot;
+        }
+        store.ensureCapacity(nextSlot + 1);
+        return nextSlot++;
+    }
+
+    private void pinEpoch(long pinned) {
+        pinnedEpochs.merge(pinned, 1, Integer::sum);
+    }
+
+    private void unpinEpoch(long pinned) {
+        pinnedEpochs.computeIfPresent(pinned, (key, count) -> count == 1 ? null : count - 1);
+    }
+
+    /**
+     * Create a snapshot that keeps its epoch pinned (so its store slots are not reused) until the
+     * last search releases it.
+     */
+    private IndexSnapshot newSnapshot(long snapshotEpoch, ImmutableGraphIndex graph, @Nullable RandomAccessVectorValues vectors,
+                                      @Nullable PQVectors codes, int[] mapping, @Nullable AutoCloseable resources) {
+        pinEpoch(snapshotEpoch);
+        return new IndexSnapshot(graph, vectors, codes, mapping, visibleCount(mapping), snapshotEpoch, () -> {
+            unpinEpoch(snapshotEpoch);
+            if (resources != null) {
+                resources.close();
+            }
+        });
+    }
+
+    private static int visibleCount(int[] mapping) {
+        int count = 0;
+        for (int dbOrdinal : mapping) {
+            if (dbOrdinal != IndexSnapshot.NO_ORDINAL) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Count a mutation that searches cannot see yet - must be called with write lock held.
+     * Publishes right away once the pending count reaches max-pending-mutations.
+     */
+    private void recordPendingMutation() {
+        indexDirty = true;
+        if (pendingMutations.getAndIncrement() == 0) {
+            oldestPendingMillis = System.currentTimeMillis();
+        }
+        if (pendingMutations.get() >= settings.maxPendingMutations()) {
+            requestPublish();
+        }
+    }
+
+    /**
+     * Queue a background snapshot publish unless one is already queued.
+     */
+    private void requestPublish() {
+        if (!publishScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    publishSnapshot();
+                } catch (Exception e) {
+                    logger.log(Level.WARNING, "Failed to publish JVectorIndex snapshot", e);
+                } finally {
+                    publishScheduled.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            publishScheduled.set(false);
+        }
+    }
+
+    private void publishSnapshot() throws IOException {
+        if (settings.incremental()) {
+            indexLock.writeLock().lock();
+            try {
+                if (!closed) {
+                    publishLiveSnapshot();
+                }
+            } finally {
+                indexLock.writeLock().unlock();
+            }
+        } else {
+            publishRebuiltSnapshot();
+        }
+    }
+
+    /**
+     * Publish the live graph as a new snapshot - must be called with write lock held.
+     * Only the ordinal mapping is copied: nodes inserted later are traversed but never returned,
+     * and the graph and vector view are shared with the live generation.
+     */
+    private void publishLiveSnapshot() {
+        long start = System.nanoTime();
+        int[] mapping = live.mappingSnapshot();
+        pendingMutations.set(0);
+        swapSnapshot(newSnapshot(epoch.incrementAndGet(), live.builder.getGraph(), live.vectorValues,
+                null, mapping, null));
+        lastPublishMillis = (System.nanoTime() - start) / 1_000_000;
+    }
+
+    /**
+     * Build a fresh graph over the current store slots and publish it (rebuild mode).
+     * The build runs without the index lock; searches keep using the previous snapshot until the swap.
+     * The build's epoch is pinned from capture so slots freed meanwhile are not overwritten under it.
+     */
+    private void publishRebuiltSnapshot() throws IOException {
+        buildLock.lock();
+        try {
+            int[] mapping;
+            int[] slots;
+            long buildEpoch;
+            long coveredSegment;
+            indexLock.writeLock().lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                coveredSegment = wal.rotate();
+                mapping = databaseToSlot.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+                slots = new int[mapping.length];
+                for (int i = 0; i < mapping.length; i++) {
+                    slots[i] = databaseToSlot.get(mapping[i]);
+                }
+                buildEpoch = epoch.incrementAndGet();
+                pinEpoch(buildEpoch);
+                pendingMutations.set(0);
+                indexDirty = false;
+            } finally {
+                indexLock.writeLock().unlock();
+            }
+
+            long start = System.currentTimeMillis();
+            try {
+                if (mapping.length == 0) {
+                    deleteIndexFiles();
+                    store.force();
+                    wal.deleteThrough(coveredSegment);
+                    swapSnapshot(IndexSnapshot.empty(buildEpoch));
+                    logger.info("No vectors to index, cleared JVectorIndex snapshot");
+                    return;
+                }
+
+                RandomAccessVectorValues ravv = MappedVectorStore.view(store, slots, slots.length);
+                try (GraphIndexBuilder builder = newGraphBuilder(ravv)) {
+                    ImmutableGraphIndex graph = builder.build(ravv);
+                    writeIndexFiles(graph, ravv, mapping);
+                    store.force();
+                    wal.deleteThrough(coveredSegment);
+                    if (usesCompression(mapping.length)) {
+                        // Serve from the file just written so full vectors are only read for re-ranking
+                        ReaderSupplier readerSupplier = ReaderSupplierFactory.open(dataDir.resolve("vectors.idx"));
+                        try {
+                            swapSnapshot(compressedSnapshot(buildEpoch, OnDiskGraphIndex.load(readerSupplier),
+                                    readerSupplier, ravv, mapping));
+                        } catch (RuntimeException e) {
+                            readerSupplier.close();
+                            throw e;
+                        }
+                    } else {
+                        swapSnapshot(newSnapshot(buildEpoch, graph, ravv, null, mapping, null));
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                indexDirty = true;
+                throw e;
+            } finally {
+                unpinEpoch(buildEpoch);
+            }
+
+            lastPublishMillis = System.currentTimeMillis() - start;
+            logger.info("JVectorIndex rebuilt with " + mapping.length + " vectors in "
+                    + lastPublishMillis + "ms (epoch " + buildEpoch + ")");
+        } finally {
+            buildLock.unlock();
+        }
+    }
+
+    /**
+     * PQ is only worthwhile (and trainable) once the index has enough vectors; the live graph in
+     * incremental mode always scores full vectors.
+     */
+    private boolean usesCompression(int vectorCount) {
+        return settings.productQuantization() && !settings.incremental() && vectorCount >= PQ_MIN_VECTORS;
+    }
+
+    /**
+     * Train a product quantizer on the full vectors, encode them, and wrap the on-disk graph in a
+     * snapshot that holds only the codes. The full vectors are used here for training and the recall
+     * report, then dropped by the snapshot.
+     */
+    private IndexSnapshot compressedSnapshot(long snapshotEpoch, OnDiskGraphIndex graph, ReaderSupplier readerSupplier,
+                                             RandomAccessVectorValues fullVectors, int[] mapping) {
+        long start = System.currentTimeMillis();
+        int subspaces = Math.max(1, Math.min(dimension,
+                dimension * Float.BYTES / Math.max(1, settings.pqCompressionRatio())));
+        ProductQuantization pq = ProductQuantization.compute(fullVectors, subspaces, PQ_CLUSTERS, false);
+        PQVectors codes = (PQVectors) pq.encodeAll(fullVectors);
+        IndexSnapshot compressed = newSnapshot(snapshotEpoch, graph, null, codes, mapping, readerSupplier);
+
+        long fullBytes = (long) mapping.length * dimension * Float.BYTES;
+        logger.info(String.format("Compressed %d JVectorIndex vectors with PQ in %dms: %d subspaces, "
+                        + "%d bytes/vector, %.1f MB -> %.1f MB",
+                mapping.length, System.currentTimeMillis() - start, subspaces, pq.compressedVectorSize(),
+                fullBytes / 1048576.0, codes.ramBytesUsed() / 1048576.0));
+        reportCompressedRecall(compressed, fullVectors);
+        return compressed;
+    }
+
+    /**
+     * Compare a compressed snapshot against exact brute-force search on a sample of indexed vectors,
+     * logging recall@10 and search latency percentiles.
+     */
+    private void reportCompressedRecall(IndexSnapshot compressed, RandomAccessVectorValues fullVectors) {
+        int n = fullVectors.size();
+        int queries = Math.min(RECALL_SAMPLE_QUERIES, n);
+        Random random = new Random(n);
+        long[] latencies = new long[queries];
+        int hits = 0;
+
+        try {
+            for (int q = 0; q < queries; q++) {
+                VectorFloat<?> query = fullVectors.getVector(random.nextInt(n));
+                Set<Integer> truth = exactTopK(fullVectors, compressed, query, RECALL_K);
+                long start = System.nanoTime();
+                List<VectorSearchResult> approx = searchSnapshot(compressed, query, RECALL_K, null);
+                latencies[q] = System.nanoTime() - start;
+                for (VectorSearchResult result : approx) {
+                    if (truth.contains(result.ordinal())) {
+                        hits++;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to measure compressed recall", e);
+            return;
+        }
+
+        Arrays.sort(latencies);
+        compressedRecall = (double) hits / (queries * Math.min(RECALL_K, n));
+        logger.info(String.format("PQ snapshot recall@%d=%.3f over %d queries, latency p50=%.2fms p99=%.2fms",
+                RECALL_K, compressedRecall, queries,
+                latencies[queries / 2] / 1_000_000.0, latencies[(int) Math.min(queries - 1, queries * 0.99)] / 1_000_000.0));
+    }
+
+    /**
+     * Brute-force top-k database ordinals for a query, used as ground truth for recall.
+     */
+    private static Set<Integer> exactTopK(RandomAccessVectorValues vectors, IndexSnapshot snapshot,
+                                          VectorFloat<?> query, int k) {
+        PriorityQueue<SearchResult.NodeScore> best = new PriorityQueue<>(
+                (a, b) -> Float.compare(a.score, b.score));
+        for (int internalOrdinal = 0; internalOrdinal < vectors.size(); internalOrdinal++) {
+            float score = VectorSimilarityFunction.COSINE.compare(query, vectors.getVector(internalOrdinal));
+            if (best.size() < k) {
+                best.add(new SearchResult.NodeScore(internalOrdinal, score));
+            } else if (score > best.peek().score) {
+                best.poll();
+                best.add(new SearchResult.NodeScore(internalOrdinal, score));
+            }
+        }
+        Set<Integer> truth = new HashSet<>();
+        for (SearchResult.NodeScore nodeScore : best) {
+            truth.add(snapshot.databaseOrdinal(nodeScore.node));
+        }
+        return truth;
+    }
+
+    private void swapSnapshot(IndexSnapshot next) {
+        snapshot.getAndSet(next).retire();
+        publishCount.incrementAndGet();
+    }
+
+    /**
+     * Schedule a background compaction once tombstones pass the configured share of the live graph -
+     * must be called with write lock held.
+     */
+    private void maybeScheduleCompaction() {
+        if (compactionJournal != null || live.tombstoneRatio() < settings.tombstoneThreshold()) {
+            return;
+        }
+        if (!compactionScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    compactLiveGraph(false);
+                } catch (Exception e) {
+                    logger.log(Level.WARNING, "JVectorIndex compaction failed", e);
+                } finally {
+                    compactionScheduled.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            compactionScheduled.set(false);
+        }
+    }
+
+    /**
+     * Save the live graph as it is, tombstones included, and drop the write-ahead log it covers.
+     * Nothing is rebuilt; compaction stays driven by the tombstone threshold. Writers wait for the
+     * save, searches do not.
+     */
+    private void checkpointLiveGraph() throws IOException {
+        buildLock.lock();
+        try {
+            long coveredSegment;
+            int nodes;
+            indexLock.writeLock().lock();
             try {
-                // Load ordinal mapping first
-                List<String> lines = Files.readAllLines(mappingPath);
-                internalToDatabaseOrdinal.clear();
-                databaseToInternalOrdinal.clear();
-
-                for (int internalOrdinal = 0; internalOrdinal < lines.size(); internalOrdinal++) {
-                    int dbOrdinal = Integer.parseInt(lines.get(internalOrdinal).trim());
-                    internalToDatabaseOrdinal.add(dbOrdinal);
-                    databaseToInternalOrdinal.put(dbOrdinal, internalOrdinal);
+                if (closed || !indexDirty) {
+                    return;
                 }
-
-                readerSupplier = ReaderSupplierFactory.open(indexPath);
-                graphIndex = OnDiskGraphIndex.load(readerSupplier);
-
-                int graphSize = graphIndex.size();
-                logger.info("Loaded JVectorIndex graph with " + graphSize + " nodes");
-
-                // Load vectors from graph's view into map
-                var graphView = graphIndex.getView();
-                vectorMap.clear();
-
-                for (int internalOrdinal = 0; internalOrdinal < graphSize && internalOrdinal < internalToDatabaseOrdinal.size(); internalOrdinal++) {
-                    try {
-                        VectorFloat<?> vec = graphView.getVector(internalOrdinal);
-                        if (vec != null) {
-                            int dbOrdinal = internalToDatabaseOrdinal.get(internalOrdinal);
-                            vectorMap.put(dbOrdinal, vec);
-                        }
-                    } catch (Exception e) {
-                        logger.warning("Failed to load vector for internal ordinal " + internalOrdinal + ": " + e.getMessage());
+                coveredSegment = wal.rotate();
+                int[] dbOrdinals = live.mappingSnapshot();
+                nodes = dbOrdinals.length;
+                try {
+                    if (nodes == 0) {
+                        deleteIndexFiles();
+                    } else {
+                        writeLiveCheckpoint(live.builder.getGraph(), dbOrdinals, live.slotsSnapshot());
                     }
+                    store.force();
+                } catch (IOException | RuntimeException e) {
+                    indexDirty = true;
+                    throw e;
                 }
-
-                logger.info("Loaded " + vectorMap.size() + " vectors from JVectorIndex graph");
-            } catch (Exception e) {
-                logger.warning("Failed to load existing index, will rebuild: " + e.getMessage());
-                cleanupGraphIndex();
-                indexDirty = true;
+                indexDirty = false;
+            } finally {
+                indexLock.writeLock().unlock();
             }
-        } else if (Files.exists(indexPath)) {
-            // Index exists but no mapping - need to rebuild
-            logger.warning("Index exists but ordinal mapping missing, will rebuild");
-            cleanupGraphIndex();
-            indexDirty = true;
+            wal.deleteThrough(coveredSegment);
+            logger.fine("Checkpointed JVectorIndex live graph with " + nodes + " nodes");
+        } finally {
+            buildLock.unlock();
         }
     }
 
-    // TODO: PERF - addVector is just a HashMap put but callers block on .join()
-    // Consider: fire-and-forget returns, or addVectorsBatch() for bulk operations
-    @Override
-    public CompletableFuture<Void> addVector(int databaseOrdinal, float[] embedding) {
-        return CompletableFuture.runAsync(() -> {
+    /**
+     * Rebuild the live graph without its tombstones into a new generation, off the index lock.
+     * Mutations that land during the build are journaled and replayed onto the new generation
+     * before it is swapped in, so writers only wait for the replay and searches never wait.
+     * Snapshots of the previous generation stay valid because that generation is never modified again;
+     * its tombstoned slots are retired once those snapshots are gone.
+     *
+     * @param checkpoint also write the new graph (which has no deleted nodes) to disk
+     */
+    private void compactLiveGraph(boolean checkpoint) throws IOException {
+        buildLock.lock();
+        try {
+            int[] dbOrdinals;
+            int[] slots;
+            int[] tombstonedSlots;
+            long coveredSegment = -1;
             indexLock.writeLock().lock();
             try {
-                vectorMap.put(databaseOrdinal, toVectorFloat(embedding));
-                indexDirty = true;
-                logger.fine("Added vector at database ordinal " + databaseOrdinal);
+                if (closed || live.tombstones == 0 && !(checkpoint && indexDirty)) {
+                    return;
+                }
+                if (checkpoint) {
+                    coveredSegment = wal.rotate();
+                }
+                dbOrdinals = live.liveDatabaseOrdinals();
+                slots = live.liveSlots();
+                tombstonedSlots = live.tombstonedSlots();
+                compactionJournal = new ArrayList<>();
+                if (checkpoint) {
+                    indexDirty = false;
+                }
             } finally {
                 indexLock.writeLock().unlock();
             }
-        }, executor);
-    }
 
-    @Override
-    public CompletableFuture<Void> removeVector(int databaseOrdinal) {
-        return CompletableFuture.runAsync(() -> {
+            long start = System.currentTimeMillis();
+            LiveGeneration next;
+            try {
+                next = new LiveGeneration(dbOrdinals, slots, null);
+                if (checkpoint) {
+                    if (dbOrdinals.length == 0) {
+                        deleteIndexFiles();
+                    } else {
+                        writeLiveCheckpoint(next.builder.getGraph(), dbOrdinals, slots);
+                    }
+                    store.force();
+                    wal.deleteThrough(coveredSegment);
+                }
+            } catch (IOException | RuntimeException e) {
+                indexLock.writeLock().lock();
+                try {
+                    compactionJournal = null;
+                    if (checkpoint) {
+                        indexDirty = true;
+                    }
+                } finally {
+                    indexLock.writeLock().unlock();
+                }
+                throw e;
+            }
+
+            int replayed;
             indexLock.writeLock().lock();
             try {
-                vectorMap.remove(databaseOrdinal);
-                indexDirty = true;
-                logger.fine("Removed vector at database ordinal " + databaseOrdinal);
+                List<Mutation> journal = compactionJournal;
+                compactionJournal = null;
+                LiveGeneration previous = live;
+                live = next;
+                for (Mutation mutation : journal) {
+                    if (mutation.slot() >= 0) {
+                        live.insert(mutation.databaseOrdinal(), mutation.slot());
+                    } else {
+                        live.tombstone(mutation.databaseOrdinal());
+                    }
+                }
+                replayed = journal.size();
+                publishLiveSnapshot();
+                long retiredAt = snapshot.get().epoch();
+                for (int slot : tombstonedSlots) {
+                    retiredSlots.add(new RetiredSlot(slot, retiredAt));
+                }
+                previous.close();
             } finally {
                 indexLock.writeLock().unlock();
             }
-        }, executor);
+
+            logger.info("Compacted JVectorIndex live graph to " + dbOrdinals.length + " vectors in "
+                    + (System.currentTimeMillis() - start) + "ms (" + replayed + " mutations replayed"
+                    + (checkpoint ? ", checkpointed)" : ")"));
+        } finally {
+            buildLock.unlock();
+        }
     }
 
     @Override
@@ -203,117 +1141,152 @@ public final class JVectorIndex implements VectorIndex {
 
     /**
      * Internal search implementation supporting both filtered and unfiltered search.
+     * Reads the current snapshot without locking, so it never waits on writers or rebuilds.
      *
      * @param queryEmbedding the query vector
      * @param limit maximum results
      * @param allowedDatabaseOrdinals optional set of DATABASE ordinals to filter by; null means no filtering
      * @return list of search results with DATABASE ordinals
      */
-    // TODO: PERF - Search triggers full rebuild if indexDirty, causing unpredictable latency
-    // Current: Search blocks on O(n log n) graph rebuild if any writes occurred
-    // Fix: Background scheduled rebuild, or accept stale index with dirty flag check
     private CompletableFuture<List<VectorSearchResult>> search(
             float[] queryEmbedding, int limit, Set<Integer> allowedDatabaseOrdinals) {
         return CompletableFuture.supplyAsync(() -> {
-            // TODO: PERF - Inline rebuild on search path causes latency spikes
-            // Rebuild index if needed - BEFORE acquiring read lock to avoid deadlock
-            if (indexDirty || graphIndex == null) {
-                indexLock.writeLock().lock();
-                try {
-                    // Double-check after acquiring lock
-                    if (indexDirty || graphIndex == null) {
-                        rebuildIndexInternal();
-                    }
-                } finally {
-                    indexLock.writeLock().unlock();
+            IndexSnapshot current = acquireSnapshot();
+            try {
+                if (current.isEmpty()) {
+                    logger.fine("Search aborted: snapshot epoch " + current.epoch() + " is empty");
+                    return Collections.<VectorSearchResult>emptyList();
                 }
+                long start = System.nanoTime();
+                List<VectorSearchResult> results = searchSnapshot(current, toVectorFloat(queryEmbedding),
+                        limit, allowedDatabaseOrdinals);
+                searchNanos.add(System.nanoTime() - start);
+                searchCount.increment();
+                return results;
+            } catch (Exception e) {
+                logger.log(Level.WARNING, "Search failed", e);
+                return Collections.<VectorSearchResult>emptyList();
+            } finally {
+                current.release();
             }
+        }, executor);
+    }
+
+    @Override
+    public CompletableFuture<List<VectorSearchResult>> exactSearch(
+            float[] queryEmbedding, int limit, Collection<Integer> ordinals) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            VectorFloat<?> queryVector = toVectorFloat(queryEmbedding);
+            // One buffer reused for every candidate; COSINE.compare runs on JVector's SIMD kernels
+            float[] values = new float[dimension];
+            VectorFloat<?> candidate = toVectorFloat(values);
+            PriorityQueue<VectorSearchResult> best = new PriorityQueue<>(
+                    Comparator.comparingDouble(VectorSearchResult::score));
 
             indexLock.readLock().lock();
             try {
-                if (graphIndex == null || vectorMap.isEmpty()) {
-                    logger.info("Search aborted: graphIndex=" + (graphIndex != null)
-                            + ", vectorCount=" + vectorMap.size());
-                    return Collections.emptyList();
-                }
-
-                VectorFloat<?> queryVector = toVectorFloat(queryEmbedding);
-                List<VectorSearchResult> results = new ArrayList<>();
-
-                // TODO: PERF - Allocates new ArrayList on every search (hot path)
-                // Consider: Reuse/cached vector list, or lazy initialization
-                // Build list of vectors for search (in internal ordinal order)
-                List<VectorFloat<?>> searchVectors = new ArrayList<>();
-                for (int i = 0; i < internalToDatabaseOrdinal.size(); i++) {
-                    int dbOrdinal = internalToDatabaseOrdinal.get(i);
-                    searchVectors.add(vectorMap.get(dbOrdinal));
-                }
-
-                try (GraphSearcher searcher = new GraphSearcher(graphIndex)) {
-                    ListRandomAccessVectorValues ravv = new ListRandomAccessVectorValues(searchVectors, dimension);
-                    DefaultSearchScoreProvider ssp = DefaultSearchScoreProvider.exact(
-                            queryVector, VectorSimilarityFunction.COSINE, ravv
-                    );
-
-                    // Convert database ordinal filter to internal ordinal filter
-                    Bits filterBits;
-                    if (allowedDatabaseOrdinals != null && !allowedDatabaseOrdinals.isEmpty()) {
-                        // Create filter for internal ordinals that map to allowed database ordinals
-                        filterBits = internalOrdinal -> {
-                            if (internalOrdinal >= internalToDatabaseOrdinal.size()) return false;
-                            int dbOrdinal = internalToDatabaseOrdinal.get(internalOrdinal);
-                            return allowedDatabaseOrdinals.contains(dbOrdinal);
-                        };
-                    } else {
-                        filterBits = Bits.ALL;
+                for (int databaseOrdinal : ordinals) {
+                    Integer slot = databaseToSlot.get(databaseOrdinal);
+                    if (slot == null) {
+                        continue;
                     }
+                    store.read(slot, values);
+                    float score = VectorSimilarityFunction.COSINE.compare(queryVector, candidate);
+                    if (best.size() < limit) {
+                        best.add(new VectorSearchResult(databaseOrdinal, score));
+                    } else if (score > best.peek().score()) {
+                        best.poll();
+                        best.add(new VectorSearchResult(databaseOrdinal, score));
+                    }
+                }
+            } finally {
+                indexLock.readLock().unlock();
+            }
 
-                    int searchLimit = Math.min(limit * 10, searchVectors.size());
-                    SearchResult sr = searcher.search(ssp, searchLimit, filterBits);
+            List<VectorSearchResult> results = new ArrayList<>(best);
+            results.sort(Comparator.comparingDouble(VectorSearchResult::score).reversed());
+            searchNanos.add(System.nanoTime() - start);
+            searchCount.increment();
+            return results;
+        }, executor);
+    }
 
-                    // Convert search results: internal ordinal -> database ordinal
-                    for (SearchResult.NodeScore nodeScore : sr.getNodes()) {
-                        int internalOrdinal = nodeScore.node;
+    /**
+     * Retain the current snapshot, retrying if it was retired between the read and the retain.
+     */
+    private IndexSnapshot acquireSnapshot() {
+        while (true) {
+            IndexSnapshot current = snapshot.get();
+            if (current.retain()) {
+                return current;
+            }
+        }
+    }
 
-                        // Skip if out of range
-                        if (internalOrdinal >= internalToDatabaseOrdinal.size()) {
-                            logger.warning("Skipping stale internal ordinal " + internalOrdinal);
-                            continue;
-                        }
+    /**
+     * Run a graph search against a snapshot and translate internal ordinals back to database ordinals.
+     * Tombstoned nodes and nodes added after the snapshot are still traversed but never returned.
+     * Compressed snapshots traverse on PQ codes and re-rank the top candidates from the on-disk vectors.
+     */
+    private List<VectorSearchResult> searchSnapshot(IndexSnapshot current, VectorFloat<?> queryVector, int limit,
+                                                    Set<Integer> allowedDatabaseOrdinals) throws IOException {
+        List<VectorSearchResult> results = new ArrayList<>();
 
-                        int databaseOrdinal = internalToDatabaseOrdinal.get(internalOrdinal);
+        try (GraphSearcher searcher = new GraphSearcher(current.graph())) {
+            int searchLimit = Math.min(limit * settings.searchOverQuery(), current.size());
+            int rerankLimit = searchLimit;
+            DefaultSearchScoreProvider ssp;
+            PQVectors codes = current.compressedVectors();
+            if (codes != null && searcher.getView() instanceof ImmutableGraphIndex.ScoringView view) {
+                ssp = new DefaultSearchScoreProvider(
+                        codes.scoreFunctionFor(queryVector, VectorSimilarityFunction.COSINE),
+                        view.rerankerFor(queryVector, VectorSimilarityFunction.COSINE)
+                );
+                rerankLimit = Math.min(searchLimit * PQ_RERANK_FACTOR, current.size());
+            } else {
+                ssp = DefaultSearchScoreProvider.exact(
+                        queryVector, VectorSimilarityFunction.COSINE, current.vectors()
+                );
+            }
 
-                        // Verify vector still exists
-                        if (vectorMap.containsKey(databaseOrdinal)) {
-                            results.add(new VectorSearchResult(databaseOrdinal, nodeScore.score));
-                            if (results.size() >= limit) {
-                                break;
-                            }
-                        }
+            // Convert database ordinal filter to internal ordinal filter
+            Bits filterBits;
+            if (allowedDatabaseOrdinals != null && !allowedDatabaseOrdinals.isEmpty()) {
+                filterBits = internalOrdinal -> {
+                    int dbOrdinal = current.databaseOrdinal(internalOrdinal);
+                    return dbOrdinal != IndexSnapshot.NO_ORDINAL && allowedDatabaseOrdinals.contains(dbOrdinal);
+                };
+            } else {
+                filterBits = internalOrdinal -> current.databaseOrdinal(internalOrdinal) != IndexSnapshot.NO_ORDINAL;
+            }
+
+            SearchResult sr = searcher.search(ssp, searchLimit, rerankLimit, 0.0f, 0.0f, filterBits);
+
+            // Convert search results: internal ordinal -> database ordinal
+            for (SearchResult.NodeScore nodeScore : sr.getNodes()) {
+                int databaseOrdinal = current.databaseOrdinal(nodeScore.node);
+                if (databaseOrdinal != IndexSnapshot.NO_ORDINAL) {
+                    results.add(new VectorSearchResult(databaseOrdinal, nodeScore.score));
+                    if (results.size() >= limit) {
+                        break;
                     }
                 }
-
-                logger.fine("Search complete: " + results.size() + " results returned");
-                return results;
-            } catch (Exception e) {
-                logger.log(Level.WARNING, "Search failed", e);
-                return Collections.emptyList();
-            } finally {
-                indexLock.readLock().unlock();
             }
-        }, executor);
+        }
+
+        logger.fine("Search complete: " + results.size() + " results returned (epoch " + current.epoch() + ")");
+        return results;
     }
 
     @Override
     public Optional<float[]> getVector(int databaseOrdinal) {
         indexLock.readLock().lock();
         try {
-            VectorFloat<?> vf = vectorMap.get(databaseOrdinal);
-            if (vf != null) {
+            Integer slot = databaseToSlot.get(databaseOrdinal);
+            if (slot != null) {
                 float[] arr = new float[dimension];
-                for (int i = 0; i < Math.min(dimension, vf.length()); i++) {
-                    arr[i] = vf.get(i);
-                }
+                store.read(slot, arr);
                 return Optional.of(arr);
             }
             return Optional.empty();
@@ -322,126 +1295,129 @@ public final class JVectorIndex implements VectorIndex {
         }
     }
 
+    @Override
+    public List<float[]> sampleVectors(int maxCount) {
+        indexLock.readLock().lock();
+        try {
+            List<Integer> slots = new ArrayList<>(databaseToSlot.values());
+            Collections.shuffle(slots, new Random(slots.size()));
+            List<float[]> sample = new ArrayList<>(Math.min(maxCount, slots.size()));
+            for (int slot : slots.subList(0, Math.min(maxCount, slots.size()))) {
+                float[] vector = new float[dimension];
+                store.read(slot, vector);
+                sample.add(vector);
+            }
+            return sample;
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Publish a fresh snapshot now instead of waiting for the staleness bound.
+     * In rebuild mode this rebuilds the graph; in incremental mode it compacts the live graph
+     * and checkpoints it to disk.
+     */
     @Override
     public CompletableFuture<Void> rebuildIndex() {
         return CompletableFuture.runAsync(() -> {
-            indexLock.writeLock().lock();
             try {
-                rebuildIndexInternal();
-            } finally {
-                indexLock.writeLock().unlock();
+                if (settings.incremental()) {
+                    compactLiveGraph(true);
+                } else {
+                    publishRebuiltSnapshot();
+                }
+            } catch (Exception e) {
+                logger.log(Level.SEVERE, "Failed to rebuild index", e);
+                throw new RuntimeException("Index rebuild failed", e);
             }
         }, executor);
     }
 
     /**
-     * Internal index rebuild logic - must be called with write lock held.
-     * Builds contiguous index with ordinal mapping to preserve database ordinals.
+     * Both modes publish snapshots in the background, so callers never need to rebuild after a mutation.
      */
-    private void rebuildIndexInternal() {
-        try {
-            if (!indexDirty && graphIndex != null) {
-                return;
-            }
-
-            if (vectorMap.isEmpty()) {
-                logger.info("No vectors to index, clearing index");
-                cleanupGraphIndex();
-                internalToDatabaseOrdinal.clear();
-                databaseToInternalOrdinal.clear();
-                indexDirty = false;
-                return;
-            }
-
-            logger.info("Rebuilding JVectorIndex with " + vectorMap.size() + " vectors");
-
-            // Delete old index files
-            Path indexPath = dataDir.resolve("vectors.idx");
-            Path mappingPath = dataDir.resolve("ordinals.map");
-            cleanupGraphIndex();
-            Files.deleteIfExists(indexPath);
-            Files.deleteIfExists(mappingPath);
-
-            // Build sorted list of database ordinals for consistent ordering
-            List<Integer> sortedDbOrdinals = new ArrayList<>(vectorMap.keySet());
-            Collections.sort(sortedDbOrdinals);
-
-            // Build mapping and vector list
-            internalToDatabaseOrdinal.clear();
-            databaseToInternalOrdinal.clear();
-            List<VectorFloat<?>> indexedVectors = new ArrayList<>();
-
-            for (int internalOrdinal = 0; internalOrdinal < sortedDbOrdinals.size(); internalOrdinal++) {
-                int dbOrdinal = sortedDbOrdinals.get(internalOrdinal);
-                internalToDatabaseOrdinal.add(dbOrdinal);
-                databaseToInternalOrdinal.put(dbOrdinal, internalOrdinal);
-                indexedVectors.add(vectorMap.get(dbOrdinal));
-            }
-
-            // Build graph index
-            ListRandomAccessVectorValues ravv = new ListRandomAccessVectorValues(indexedVectors, dimension);
-            BuildScoreProvider bsp = BuildScoreProvider.randomAccessScoreProvider(
-                    ravv, VectorSimilarityFunction.COSINE
-            );
-
-            try (GraphIndexBuilder builder = new GraphIndexBuilder(
-                    bsp, dimension, GRAPH_DEGREE, CONSTRUCTION_SEARCH_DEPTH,
-                    OVERFLOW_FACTOR, ALPHA,
-                    false)) {
-
-                var index = builder.build(ravv);
-
-                // Write index to disk
-                OnDiskGraphIndex.write(index, ravv, indexPath);
-
-                // Write ordinal mapping to disk
-                List<String> mappingLines = new ArrayList<>();
-                for (int dbOrdinal : internalToDatabaseOrdinal) {
-                    mappingLines.add(String.valueOf(dbOrdinal));
-                }
-                Files.write(mappingPath, mappingLines);
-
-                // Reload from disk
-                readerSupplier = ReaderSupplierFactory.open(indexPath);
-                graphIndex = OnDiskGraphIndex.load(readerSupplier);
+    @Override
+    public boolean supportsIncrementalUpdates() {
+        return true;
+    }
 
-                indexDirty = false;
-                logger.info("JVectorIndex rebuilt successfully with " + indexedVectors.size() + " vectors");
-            }
-        } catch (Exception e) {
-            logger.log(Level.SEVERE, "Failed to rebuild index", e);
-            throw new RuntimeException("Index rebuild failed", e);
-        }
+    /**
+     * Write the graph and ordinal mapping to disk. Both go through temp files so a crash mid-write
+     * never leaves a truncated file behind, and the mapping records the graph file's length so a
+     * crash between the two renames is detected on load. Ordinals must be dense (0..n-1).
+     */
+    private void writeIndexFiles(ImmutableGraphIndex graph, RandomAccessVectorValues ravv, int[] mapping)
+            throws IOException {
+        Path indexPath = dataDir.resolve("vectors.idx");
+        Path tmpIndexPath = dataDir.resolve("vectors.idx.tmp");
+        OnDiskGraphIndex.write(graph, ravv, tmpIndexPath);
+        Files.move(tmpIndexPath, indexPath, StandardCopyOption.REPLACE_EXISTING);
+        OrdinalMappingFile.write(dataDir.resolve("ordinals.map"), mapping, Files.size(indexPath));
     }
 
     /**
-     * Clean up graph index resources.
+     * Save a live graph together with its ordinal and slot tables, so startup can load it into a
+     * builder instead of re-inserting every vector. Tombstoned nodes are saved with NO_ORDINAL and
+     * marked deleted again on load. No node may be mid-insert.
      */
-    private void cleanupGraphIndex() {
-        if (readerSupplier != null) {
-            try {
-                readerSupplier.close();
-            } catch (Exception ignored) {}
-            readerSupplier = null;
+    private void writeLiveCheckpoint(ImmutableGraphIndex graph, int[] dbOrdinals, int[] slots) throws IOException {
+        Path graphPath = dataDir.resolve("live.graph");
+        Path tmpGraphPath = dataDir.resolve("live.graph.tmp");
+        OnHeapGraphIndex onHeapGraph = (OnHeapGraphIndex) graph;
+        // Only a full build sets this; inserts into a loaded or empty generation finish under the write lock
+        onHeapGraph.setAllMutationsCompleted();
+        try (FileChannel channel = FileChannel.open(tmpGraphPath, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)))) {
+            LiveGraphFile.save(onHeapGraph, out);
+            out.flush();
+            channel.force(true);
         }
-        graphIndex = null;
+        Files.move(tmpGraphPath, graphPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        long graphBytes = Files.size(graphPath);
+        OrdinalMappingFile.write(dataDir.resolve("live.ordinals"), dbOrdinals, graphBytes);
+        OrdinalMappingFile.write(dataDir.resolve("live.slots"), slots, graphBytes);
+    }
+
+    private void deleteIndexFiles() throws IOException {
+        Files.deleteIfExists(dataDir.resolve("vectors.idx"));
+        Files.deleteIfExists(dataDir.resolve("ordinals.map"));
+        Files.deleteIfExists(dataDir.resolve("live.graph"));
+        Files.deleteIfExists(dataDir.resolve("live.ordinals"));
+        Files.deleteIfExists(dataDir.resolve("live.slots"));
     }
 
     @Override
     public CompletableFuture<Void> purgeAll() {
         return CompletableFuture.runAsync(() -> {
+            // Wait out any in-flight build so it cannot swap stale data back in
+            buildLock.lock();
             indexLock.writeLock().lock();
             try {
-                vectorMap.clear();
-                internalToDatabaseOrdinal.clear();
-                databaseToInternalOrdinal.clear();
-
-                cleanupGraphIndex();
-
-                Path indexPath = dataDir.resolve("vectors.idx");
-                Path mappingPath = dataDir.resolve("ordinals.map");
-                Files.deleteIfExists(indexPath);
-                Files.deleteIfExists(mappingPath);
+                long coveredSegment = wal.rotate();
+                List<Integer> freed = new ArrayList<>(databaseToSlot.values());
+                for (int slot : freed) {
+                    store.release(slot);
+                }
+                databaseToSlot.clear();
+                if (settings.incremental()) {
+                    for (int slot : live.tombstonedSlots()) {
+                        freed.add(slot);
+                    }
+                    LiveGeneration previous = live;
+                    live = new LiveGeneration(new int[0], new int[0], null);
+                    previous.close();
+                }
+                pendingMutations.set(0);
+                long purgeEpoch = epoch.incrementAndGet();
+                swapSnapshot(IndexSnapshot.empty(purgeEpoch));
+                for (int slot : freed) {
+                    retiredSlots.add(new RetiredSlot(slot, purgeEpoch));
+                }
+                deleteIndexFiles();
+                store.force();
+                wal.deleteThrough(coveredSegment);
 
                 indexDirty = false;
                 logger.info("Purged all vectors from JVectorIndex");
@@ -450,6 +1426,7 @@ public final class JVectorIndex implements VectorIndex {
                 throw new RuntimeException("Purge failed", e);
             } finally {
                 indexLock.writeLock().unlock();
+                buildLock.unlock();
             }
         }, executor);
     }
@@ -458,7 +1435,7 @@ public final class JVectorIndex implements VectorIndex {
     public int size() {
         indexLock.readLock().lock();
         try {
-            return vectorMap.size();
+            return databaseToSlot.size();
         } finally {
             indexLock.readLock().unlock();
         }
@@ -466,7 +1443,7 @@ public final class JVectorIndex implements VectorIndex {
 
     @Override
     public boolean isDirty() {
-        return indexDirty;
+        return indexDirty || pendingMutations.get() > 0;
     }
 
     @Override
@@ -474,25 +1451,71 @@ public final class JVectorIndex implements VectorIndex {
         return dimension;
     }
 
+    @Override
+    public VectorIndexStats getStats() {
+        IndexSnapshot current = snapshot.get();
+        int tombstones;
+        indexLock.readLock().lock();
+        try {
+            tombstones = live != null ? live.tombstones : 0;
+        } finally {
+            indexLock.readLock().unlock();
+        }
+        long searches = searchCount.sum();
+        return new VectorIndexStats(current.epoch(), current.size(),
+                System.currentTimeMillis() - current.publishedAtMillis(), pendingMutations.get(),
+                publishCount.get(), lastPublishMillis, tombstones,
+                searches, searches == 0 ? 0 : searchNanos.sum() / searches / 1000,
+                current.compressedVectors() != null ? compressedRecall : Double.NaN);
+    }
+
+    /**
+     * Flush the write-ahead log and the store. Nothing is rebuilt here: mutations since the last
+     * checkpoint are replayed from the log on the next startup. Adds and removes already submitted
+     * are applied first; later ones fail. A build already in progress is allowed to finish; queued
+     * ones are skipped.
+     */
     @Override
     public void shutdown() {
+        closing = true;
         try {
-            if (indexDirty) {
-                indexLock.writeLock().lock();
-                try {
-                    rebuildIndexInternal();
-                } finally {
-                    indexLock.writeLock().unlock();
+            CompletableFuture.allOf(inFlightMutations.toArray(new CompletableFuture<?>[0]))
+                    .get(SHUTDOWN_MUTATION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException ignored) {
+            // Failed mutations were already reported to their callers
+        } catch (TimeoutException e) {
+            logger.warning("Vector mutations did not finish within " + SHUTDOWN_MUTATION_TIMEOUT_SECONDS + "s of shutdown");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        executor.shutdown();
+        buildLock.lock();
+        try {
+            snapshot.getAndSet(IndexSnapshot.empty(epoch.incrementAndGet())).retire();
+            indexLock.writeLock().lock();
+            try {
+                closed = true;
+                if (live != null) {
+                    live.close();
+                    live = null;
                 }
+                if (wal != null) {
+                    wal.close();
+                }
+                if (store != null) {
+                    store.force();
+                    store.close();
+                }
+            } finally {
+                indexLock.writeLock().unlock();
             }
 
-            cleanupGraphIndex();
-
             logger.info("JVectorIndex shut down successfully");
         } catch (Exception e) {
             logger.log(Level.WARNING, "Error during shutdown", e);
+        } finally {
+            buildLock.unlock();
         }
-        executor.shutdown();
     }
 
     /**
@@ -504,4 +1527,195 @@ public final class JVectorIndex implements VectorIndex {
                 .getVectorTypeSupport()
                 .createFloatVector(array);
     }
+
+    /**
+     * One generation of the live mutable graph (incremental mode). Mutations are applied in place -
+     * inserts and tombstones are safe alongside concurrent searches - while compaction replaces the
+     * whole generation rather than restructuring it, so older snapshots keep a consistent graph.
+     * Vectors are read from the store through each node's slot.
+     * All mutation methods must be called with the index write lock held.
+     */
+    private final class LiveGeneration {
+        private final Map<Integer, Integer> databaseToInternal = new HashMap<>();
+        private int[] internalToDatabase;
+        // Replaced (never resized in place) when it grows, so concurrent readers always see a full array
+        private volatile int[] internalToSlot;
+        private volatile int nodeCount;
+        private int tombstones;
+        private final RandomAccessVectorValues vectorValues = new LiveVectorValues();
+        private final GraphIndexBuilder builder;
+
+        /**
+         * @param checkpoint saved graph over exactly these nodes to load instead of building, or null;
+         *                   nodes mapped to NO_ORDINAL load as tombstones
+         */
+        LiveGeneration(int[] dbOrdinals, int[] slots, @Nullable Path checkpoint) {
+            int capacity = Math.max(16, dbOrdinals.length);
+            internalToDatabase = Arrays.copyOf(dbOrdinals, capacity);
+            internalToSlot = Arrays.copyOf(slots, capacity);
+            for (int internalOrdinal = 0; internalOrdinal < dbOrdinals.length; internalOrdinal++) {
+                if (dbOrdinals[internalOrdinal] != IndexSnapshot.NO_ORDINAL) {
+                    databaseToInternal.put(dbOrdinals[internalOrdinal], internalOrdinal);
+                }
+            }
+            nodeCount = dbOrdinals.length;
+            builder = newGraphBuilder(vectorValues);
+            if (checkpoint != null) {
+                loadCheckpoint(checkpoint);
+                for (int internalOrdinal = 0; internalOrdinal < dbOrdinals.length; internalOrdinal++) {
+                    if (dbOrdinals[internalOrdinal] == IndexSnapshot.NO_ORDINAL) {
+                        builder.markNodeDeleted(internalOrdinal);
+                        tombstones++;
+                    }
+                }
+            } else if (nodeCount > 0) {
+                builder.build(vectorValues);
+            }
+        }
+
+        private void loadCheckpoint(Path checkpoint) {
+            int loaded;
+            try (ReaderSupplier readerSupplier = ReaderSupplierFactory.open(checkpoint);
+                 RandomAccessReader reader = readerSupplier.get()) {
+                loaded = LiveGraphFile.load(builder, reader);
+            } catch (Exception e) {
+                close();
+                throw new IllegalStateException("Failed to load " + checkpoint.getFileName(), e);
+            }
+            if (loaded != nodeCount) {
+                close();
+                throw new IllegalStateException(checkpoint.getFileName() + " does not match its ordinal table");
+            }
+        }
+
+        /**
+         * Insert a node whose vector is already in the store. Re-adding an existing database
+         * ordinal tombstones its previous node first.
+         */
+        void insert(int databaseOrdinal, int slot) {
+            tombstone(databaseOrdinal);
+            int internalOrdinal = nodeCount;
+            if (internalOrdinal == internalToDatabase.length) {
+                internalToDatabase = Arrays.copyOf(internalToDatabase, internalOrdinal * 2);
+                int[] grown = Arrays.copyOf(internalToSlot, internalOrdinal * 2);
+                grown[internalOrdinal] = slot;
+                internalToSlot = grown;
+            } else {
+                internalToSlot[internalOrdinal] = slot;
+            }
+            internalToDatabase[internalOrdinal] = databaseOrdinal;
+            databaseToInternal.put(databaseOrdinal, internalOrdinal);
+            nodeCount = internalOrdinal + 1;
+            builder.addGraphNode(internalOrdinal, vectorValues.getVector(internalOrdinal));
+        }
+
+        /**
+         * Mark the node for a database ordinal as deleted. It stays in the graph (so neighbors
+         * remain reachable) until the generation is compacted away.
+         */
+        void tombstone(int databaseOrdinal) {
+            Integer internalOrdinal = databaseToInternal.remove(databaseOrdinal);
+            if (internalOrdinal == null) {
+                return;
+            }
+            internalToDatabase[internalOrdinal] = IndexSnapshot.NO_ORDINAL;
+            builder.markNodeDeleted(internalOrdinal);
+            tombstones++;
+        }
+
+        int[] mappingSnapshot() {
+            return Arrays.copyOf(internalToDatabase, nodeCount);
+        }
+
+        int[] slotsSnapshot() {
+            return Arrays.copyOf(internalToSlot, nodeCount);
+        }
+
+        boolean contains(int databaseOrdinal) {
+            return databaseToInternal.containsKey(databaseOrdinal);
+        }
+
+        int slotOf(int internalOrdinal) {
+            return internalToSlot[internalOrdinal];
+        }
+
+        BitSet referencedSlots() {
+            BitSet referenced = new BitSet();
+            int[] slots = internalToSlot;
+            for (int internalOrdinal = 0; internalOrdinal < nodeCount; internalOrdinal++) {
+                referenced.set(slots[internalOrdinal]);
+            }
+            return referenced;
+        }
+
+        int[] liveDatabaseOrdinals() {
+            return Arrays.stream(internalToDatabase, 0, nodeCount)
+                    .filter(dbOrdinal -> dbOrdinal != IndexSnapshot.NO_ORDINAL)
+                    .toArray();
+        }
+
+        int[] liveSlots() {
+            return collectSlots(true);
+        }
+
+        /**
+         * Slots only this generation's tombstoned nodes still read. After recovery a tombstoned node's
+         * slot may already belong to a newer vector, so owned slots are left out.
+         */
+        int[] tombstonedSlots() {
+            return Arrays.stream(collectSlots(false)).filter(slot -> store.owner(slot) < 0).toArray();
+        }
+
+        private int[] collectSlots(boolean alive) {
+            int[] slots = internalToSlot;
+            int[] collected = new int[nodeCount];
+            int count = 0;
+            for (int internalOrdinal = 0; internalOrdinal < nodeCount; internalOrdinal++) {
+                if ((internalToDatabase[internalOrdinal] != IndexSnapshot.NO_ORDINAL) == alive) {
+                    collected[count++] = slots[internalOrdinal];
+                }
+            }
+            return Arrays.copyOf(collected, count);
+        }
+
+        double tombstoneRatio() {
+            return nodeCount == 0 ? 0.0 : (double) tombstones / nodeCount;
+        }
+
+        void close() {
+            try {
+                builder.close();
+            } catch (Exception ignored) {}
+        }
+
+        /**
+         * Internal ordinal -> store vector, growing with the generation.
+         */
+        private final class LiveVectorValues implements RandomAccessVectorValues {
+            @Override
+            public int size() {
+                return nodeCount;
+            }
+
+            @Override
+            public int dimension() {
+                return dimension;
+            }
+
+            @Override
+            public VectorFloat<?> getVector(int internalOrdinal) {
+                return store.getVector(internalToSlot[internalOrdinal]);
+            }
+
+            @Override
+            public boolean isValueShared() {
+                return false;
+            }
+
+            @Override
+            public RandomAccessVectorValues copy() {
+                return this;
+            }
+        }
+    }
 }
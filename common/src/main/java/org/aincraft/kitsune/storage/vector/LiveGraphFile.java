@@ -0,0 +1,40 @@
+package org.aincraft.kitsune.storage.vector;
+
+import io.github.jbellis.jvector.disk.RandomAccessReader;
+import io.github.jbellis.jvector.graph.GraphIndexBuilder;
+import io.github.jbellis.jvector.graph.OnHeapGraphIndex;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Saves and loads live.graph, the checkpoint of a live mutable graph (incremental mode).
+ *
+ * JVector deprecates its on-heap graph serialization, but it is the only way to get a graph back
+ * into a builder that still accepts inserts; the on-disk format is read-only. It is acceptable here
+ * because live.graph is only a cache: the vectors are in vectors.dat and the log, so a checkpoint
+ * that cannot be read is rebuilt from them. JVector writes its own magic number and format version
+ * at the head of the file and load rejects ones it does not know, which takes that rebuild path
+ * after a JVector upgrade changes the format.
+ */
+@SuppressWarnings("deprecation")
+final class LiveGraphFile {
+
+    private LiveGraphFile() {}
+
+    /**
+     * @param graph a graph with no insert in progress
+     */
+    static void save(OnHeapGraphIndex graph, DataOutput out) throws IOException {
+        graph.save(out);
+    }
+
+    /**
+     * @param builder a builder whose graph is still empty
+     * @return number of nodes loaded
+     * @throws IOException if the file is not a graph this JVector version can read
+     */
+    static int load(GraphIndexBuilder builder, RandomAccessReader reader) throws IOException {
+        builder.load(reader);
+        return builder.getGraph().size();
+    }
+}
@@ -0,0 +1,233 @@
+package org.aincraft.kitsune.storage.vector;
+
+import io.github.jbellis.jvector.graph.RandomAccessVectorValues;
+import io.github.jbellis.jvector.vector.VectorizationProvider;
+import io.github.jbellis.jvector.vector.types.VectorFloat;
+import io.github.jbellis.jvector.vector.types.VectorTypeSupport;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Memory-mapped, fixed-stride vector file addressed by dense slot number.
+ *
+ * Layout (little endian):
+ * - header: magic, version, dimension, slots per chunk (padded to HEADER_BYTES)
+ * - chunks: [owner int x CHUNK_SLOTS][float[dimension] x CHUNK_SLOTS], repeated
+ *
+ * Each slot records its owner (database ordinal + 1, 0 = free) next to the vector, so opening the
+ * store only reads the owner columns, never the vectors. The file grows one chunk at a time and each
+ * chunk is mapped separately, so vectors stay off the Java heap and earlier mappings remain valid
+ * while the file grows.
+ *
+ * Reads are thread-safe. Writes must be serialized by the caller, and a slot must not be rewritten
+ * while anything may still read its old vector.
+ */
+public final class MappedVectorStore implements RandomAccessVectorValues, Closeable {
+
+    private static final int MAGIC = 0x4B564543; // "KVEC"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int CHUNK_SHIFT = 12;
+    private static final int CHUNK_SLOTS = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SLOTS - 1;
+
+    private static final VectorTypeSupport VTS = VectorizationProvider.getInstance().getVectorTypeSupport();
+
+    private final FileChannel channel;
+    private final int dimension;
+    private final long chunkBytes;
+    private volatile Chunk[] chunks = new Chunk[0];
+
+    private record Chunk(MappedByteBuffer buffer, IntBuffer owners, FloatBuffer vectors) {}
+
+    private MappedVectorStore(FileChannel channel, int dimension) {
+        this.channel = channel;
+        this.dimension = dimension;
+        this.chunkBytes = (long) CHUNK_SLOTS * Integer.BYTES + (long) CHUNK_SLOTS * dimension * Float.BYTES;
+    }
+
+    /**
+     * Open or create a vector store.
+     *
+     * @throws IOException if the file cannot be mapped or was written for a different dimension or format
+     */
+    public static MappedVectorStore open(Path path, int dimension) throws IOException {
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            if (channel.size() >= HEADER_BYTES) {
+                channel.read(header, 0);
+                header.flip();
+                int magic = header.getInt();
+                int version = header.getInt();
+                int storedDimension = header.getInt();
+                int chunkSlots = header.getInt();
+                if (magic != MAGIC || version != VERSION || chunkSlots != CHUNK_SLOTS) {
+                    throw new IOException("Unrecognized vector store format in " + path);
+                }
+                if (storedDimension != dimension) {
+                    throw new IOException("Vector store " + path + " has dimension " + storedDimension
+                            + ", expected " + dimension);
+                }
+            } else {
+                header.putInt(MAGIC).putInt(VERSION).putInt(dimension).putInt(CHUNK_SLOTS);
+                header.position(0);
+                channel.write(header, 0);
+            }
+
+            MappedVectorStore store = new MappedVectorStore(channel, dimension);
+            // A chunk cut short by a crash mid-growth is dropped and mapped again on demand
+            int existingChunks = (int) ((channel.size() - HEADER_BYTES) / store.chunkBytes);
+            store.mapChunks(existingChunks);
+            return store;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Make sure slots [0, slots) are backed by the file, growing it a chunk at a time.
+     */
+    public void ensureCapacity(int slots) throws IOException {
+        int needed = (slots + CHUNK_SLOTS - 1) >>> CHUNK_SHIFT;
+        if (needed > chunks.length) {
+            mapChunks(needed);
+        }
+    }
+
+    private void mapChunks(int count) throws IOException {
+        Chunk[] current = chunks;
+        Chunk[] grown = Arrays.copyOf(current, count);
+        for (int c = current.length; c < count; c++) {
+            // Mapping past the end extends the file with zeroes, i.e. free slots
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE,
+                    HEADER_BYTES + c * chunkBytes, chunkBytes);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            IntBuffer owners = buffer.slice(0, CHUNK_SLOTS * Integer.BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            FloatBuffer vectors = buffer.slice(CHUNK_SLOTS * Integer.BYTES, (int) (chunkBytes - CHUNK_SLOTS * Integer.BYTES))
+                    .order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+            grown[c] = new Chunk(buffer, owners, vectors);
+        }
+        chunks = grown;
+    }
+
+    /**
+     * Store a vector in a slot and record its owner.
+     */
+    public void write(int slot, int owner, float[] vector) {
+        Chunk chunk = chunks[slot >>> CHUNK_SHIFT];
+        int offset = slot & CHUNK_MASK;
+        chunk.vectors().put(offset * dimension, vector, 0, dimension);
+        chunk.owners().put(offset, owner + 1);
+    }
+
+    /**
+     * Mark a slot free. The vector bytes are left in place for readers that still hold the slot.
+     */
+    public void release(int slot) {
+        chunks[slot >>> CHUNK_SHIFT].owners().put(slot & CHUNK_MASK, 0);
+    }
+
+    /**
+     * @return the database ordinal stored in a slot, or -1 if the slot is free
+     */
+    public int owner(int slot) {
+        return chunks[slot >>> CHUNK_SHIFT].owners().get(slot & CHUNK_MASK) - 1;
+    }
+
+    /**
+     * Copy a slot's vector into an array.
+     */
+    public void read(int slot, float[] into) {
+        chunks[slot >>> CHUNK_SHIFT].vectors().get((slot & CHUNK_MASK) * dimension, into, 0, dimension);
+    }
+
+    /**
+     * Flush dirty pages to disk.
+     */
+    public void force() {
+        for (Chunk chunk : chunks) {
+            chunk.buffer().force();
+        }
+    }
+
+    /**
+     * @return number of slots currently backed by the file (an upper bound on slot numbers)
+     */
+    @Override
+    public int size() {
+        return chunks.length * CHUNK_SLOTS;
+    }
+
+    @Override
+    public int dimension() {
+        return dimension;
+    }
+
+    @Override
+    public VectorFloat<?> getVector(int slot) {
+        float[] values = new float[dimension];
+        read(slot, values);
+        return VTS.createFloatVector(values);
+    }
+
+    @Override
+    public boolean isValueShared() {
+        return false;
+    }
+
+    @Override
+    public RandomAccessVectorValues copy() {
+        return this;
+    }
+
+    /**
+     * Close the file. Existing mappings stay readable until they are garbage collected.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Fixed view of the store in another ordinal space, e.g. a graph's internal ordinals:
+     * ordinal i reads slot {@code slots[i]}. The caller must not modify the array afterwards.
+     */
+    static RandomAccessVectorValues view(MappedVectorStore store, int[] slots, int size) {
+        return new SlotView(store, slots, size);
+    }
+
+    private record SlotView(MappedVectorStore store, int[] slots, int size) implements RandomAccessVectorValues {
+        @Override
+        public int dimension() {
+            return store.dimension();
+        }
+
+        @Override
+        public VectorFloat<?> getVector(int ordinal) {
+            return store.getVector(slots[ordinal]);
+        }
+
+        @Override
+        public boolean isValueShared() {
+            return false;
+        }
+
+        @Override
+        public RandomAccessVectorValues copy() {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package org.aincraft.kitsune.storage.vector;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary internal -> database ordinal mapping stored next to vectors.idx (ordinals.map).
+ *
+ * Layout (little endian):
+ * - header: magic, version, entry count, length of the vectors.idx it was written with (padded to HEADER_BYTES)
+ * - entries: int database ordinal per internal ordinal
+ *
+ * The index length ties the mapping to one graph file: the two are replaced by separate renames,
+ * so a crash in between leaves a pair that fails validation and is rebuilt instead of silently
+ * returning the wrong containers. Files written in the old one-decimal-per-line format are still read.
+ */
+final class OrdinalMappingFile {
+
+    private static final int MAGIC = 0x4B4F5244; // "KORD"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+
+    private OrdinalMappingFile() {}
+
+    /**
+     * Write a mapping through a temp file and atomically move it into place.
+     *
+     * @param indexBytes length of the vectors.idx this mapping belongs to
+     */
+    static void write(Path path, int[] mapping, long indexBytes) throws IOException {
+        Path tmpPath = path.resolveSibling(path.getFileName() + ".tmp");
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + mapping.length * Integer.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(mapping.length).putLong(indexBytes);
+        buffer.position(HEADER_BYTES);
+        buffer.asIntBuffer().put(mapping);
+
+        try (FileChannel channel = FileChannel.open(tmpPath, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            buffer.position(0);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(tmpPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Read a mapping, checking it was written together with the current vectors.idx.
+     *
+     * @param indexBytes current length of vectors.idx
+     * @throws IOException if the file is truncated, has an unknown version, or belongs to another graph file
+     */
+    static int[] read(Path path, long indexBytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileBytes = channel.size();
+            if (fileBytes < HEADER_BYTES) {
+                return readLegacy(path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileBytes);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt(0) != MAGIC) {
+                return readLegacy(path);
+            }
+            int version = buffer.getInt(4);
+            int count = buffer.getInt(8);
+            long writtenFor = buffer.getLong(12);
+            if (version != VERSION) {
+                throw new IOException("Unsupported ordinal mapping version " + version);
+            }
+            if ((long) HEADER_BYTES + (long) count * Integer.BYTES != fileBytes) {
+                throw new IOException("Ordinal mapping is truncated");
+            }
+            if (writtenFor != indexBytes) {
+                throw new IOException("Ordinal mapping was written for a different vectors.idx");
+            }
+
+            int[] mapping = new int[count];
+            IntBuffer entries = buffer.slice(HEADER_BYTES, count * Integer.BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            entries.get(mapping);
+            return mapping;
+        }
+    }
+
+    /**
+     * Read the pre-binary text format (one database ordinal per line).
+     */
+    private static int[] readLegacy(Path path) throws IOException {
+        return Files.readAllLines(path, StandardCharsets.UTF_8).stream()
+                .map(String::trim)
+                .filter(line -> !line.isEmpty())
+                .mapToInt(Integer::parseInt)
+                .toArray();
+    }
+}
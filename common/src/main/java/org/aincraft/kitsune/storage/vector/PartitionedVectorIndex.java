@@ -0,0 +1,426 @@
+package org.aincraft.kitsune.storage.vector;
+
+import io.github.jbellis.jvector.disk.ReaderSupplier;
+import io.github.jbellis.jvector.disk.ReaderSupplierFactory;
+import io.github.jbellis.jvector.graph.disk.OnDiskGraphIndex;
+import io.github.jbellis.jvector.vector.types.VectorFloat;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * One vector index per world, stored under partitions/&lt;world&gt;/ in the data folder.
+ *
+ * A partition is opened when its world loads (or on first use) and closed when the world unloads,
+ * so a world-scoped search or mutation only touches that world's graph. A global search fans out
+ * to every partition on disk in parallel, opening any that are not loaded, and merges their top-k
+ * by score. Ordinals stay globally unique, so merged results need no translation.
+ *
+ * Partitions are keyed by directory name (the world name with unsafe characters replaced), so
+ * partitions found on disk and worlds asking for them resolve to the same index.
+ *
+ * A global index written before partitioning is split into partitions once on startup, whether it
+ * keeps its vectors in vectors.dat or, as the first releases did, only inside the vectors.idx graph
+ * with a text ordinals.map.
+ */
+public final class PartitionedVectorIndex {
+
+    private static final String PARTITIONS_DIR = "partitions";
+
+    // Vectors copied per batch while migrating, bounding the arrays held in flight
+    private static final int MIGRATION_BATCH = 1024;
+
+    // Files of the pre-partitioning global index in the data folder
+    private static final List<String> LEGACY_FILES = List.of(
+            "vectors.dat", "vectors.idx", "vectors.idx.tmp", "ordinals.map", "ordinals.map.tmp",
+            "live.graph", "live.graph.tmp", "live.ordinals", "live.ordinals.tmp", "live.slots", "live.slots.tmp");
+
+    private final Logger logger;
+    private final Path dataDir;
+    private final int dimension;
+    private final Function<Path, VectorIndex> factory;
+    private final Map<String, CompletableFuture<VectorIndex>> partitions = new ConcurrentHashMap<>();
+    // Partitions being shut down; reopening one waits until its files are released
+    private final Map<String, CompletableFuture<Void>> closing = new ConcurrentHashMap<>();
+    private final CompletableFuture<Void> ready = new CompletableFuture<>();
+
+    /**
+     * @param logger Logger for diagnostic output
+     * @param dataDir Plugin data folder; partitions live in a subdirectory
+     * @param dimension Dimension of the indexed vectors
+     * @param factory Creates an (uninitialized) index stored in the given directory
+     */
+    public PartitionedVectorIndex(Logger logger, Path dataDir, int dimension, Function<Path, VectorIndex> factory) {
+        this.logger = logger;
+        this.dataDir = dataDir;
+        this.dimension = dimension;
+        this.factory = factory;
+    }
+
+    /**
+     * Split a legacy global index into partitions if one exists, then allow partitions to open.
+     *
+     * @param worldsByOrdinal world of every stored vector; only queried when migrating
+     */
+    public void initialize(Supplier<Map<Integer, String>> worldsByOrdinal) {
+        try {
+            Files.createDirectories(dataDir.resolve(PARTITIONS_DIR));
+            if (Files.exists(dataDir.resolve("vectors.dat"))
+                    || Files.exists(dataDir.resolve("vectors.idx")) && Files.exists(dataDir.resolve("ordinals.map"))) {
+                migrateLegacyIndex(worldsByOrdinal.get());
+            }
+            ready.complete(null);
+        } catch (Exception e) {
+            ready.completeExceptionally(e);
+            logger.log(Level.SEVERE, "Failed to initialize vector partitions", e);
+            throw new RuntimeException("Vector partition initialization failed", e);
+        }
+    }
+
+    /**
+     * Get a world's partition, opening it if needed.
+     */
+    public CompletableFuture<VectorIndex> partition(String world) {
+        return ready.thenCompose(v -> open(partitionKey(world)));
+    }
+
+    /**
+     * Apply vector mutations to a world's partition. If the partition is unloaded before they have
+     * all applied, they are applied again to the reopened partition; adds and removes are idempotent.
+     *
+     * @param mutations applies the changes to the given index, completing once all have applied
+     */
+    public CompletableFuture<Void> apply(String world, Function<VectorIndex, CompletableFuture<Void>> mutations) {
+        String key = partitionKey(world);
+        return ready.thenCompose(v -> {
+            CompletableFuture<VectorIndex> partition = open(key);
+            return partition.thenCompose(mutations).handle((ignored, e) -> {
+                if (e == null) {
+                    return CompletableFuture.<Void>completedFuture(null);
+                }
+                boolean unloaded = !partition.isCompletedExceptionally() && partitions.get(key) != partition;
+                return unloaded ? apply(world, mutations) : CompletableFuture.<Void>failedFuture(e);
+            }).thenCompose(Function.identity());
+        });
+    }
+
+    /**
+     * Open a world's partition ahead of use, e.g. when the world loads.
+     */
+    public CompletableFuture<Void> load(String world) {
+        return partition(world).thenAccept(index -> {});
+    }
+
+    /**
+     * Close a world's partition, e.g. when the world unloads. It reopens on next use. Mutations
+     * applied through {@link #apply} that miss the closing partition go to the reopened one.
+     */
+    public void unload(String world) {
+        String key = partitionKey(world);
+        CompletableFuture<Void> released = new CompletableFuture<>();
+        // Registered before the entry is removed, so an open that misses the entry sees it
+        if (closing.putIfAbsent(key, released) != null) {
+            return;
+        }
+        try {
+            CompletableFuture<VectorIndex> partition = partitions.remove(key);
+            if (partition != null) {
+                partition.thenAccept(index -> {
+                    index.shutdown();
+                    logger.info("Closed vector partition " + key);
+                }).exceptionally(e -> null).join();
+            }
+        } finally {
+            closing.remove(key, released);
+            released.complete(null);
+        }
+    }
+
+    private CompletableFuture<VectorIndex> open(String key) {
+        CompletableFuture<VectorIndex> partition = partitions.computeIfAbsent(key, name -> {
+            CompletableFuture<Void> release = closing.getOrDefault(name, CompletableFuture.completedFuture(null));
+            return release.thenCompose(v -> {
+                VectorIndex index = factory.apply(partitionDir(name));
+                return index.initialize().thenApply(initialized -> {
+                    logger.info("Opened vector partition " + name + " with " + index.size() + " vectors");
+                    return index;
+                });
+            });
+        });
+        // Let a failed open be retried instead of caching the failure
+        partition.whenComplete((index, e) -> {
+            if (e != null) {
+                partitions.remove(key, partition);
+            }
+        });
+        return partition;
+    }
+
+    private static String partitionKey(String world) {
+        return world.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    private Path partitionDir(String key) {
+        return dataDir.resolve(PARTITIONS_DIR).resolve(key);
+    }
+
+    /**
+     * @return partitions on disk, plus any still opening for the first time
+     */
+    private Set<String> partitionKeys() {
+        Set<String> keys = new HashSet<>(partitions.keySet());
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(dataDir.resolve(PARTITIONS_DIR), Files::isDirectory)) {
+            for (Path dir : dirs) {
+                keys.add(dir.getFileName().toString());
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to list vector partitions", e);
+        }
+        return keys;
+    }
+
+    /**
+     * @return partitions that have finished opening
+     */
+    public List<VectorIndex> loadedPartitions() {
+        List<VectorIndex> loaded = new ArrayList<>();
+        for (CompletableFuture<VectorIndex> partition : partitions.values()) {
+            if (partition.isDone() && !partition.isCompletedExceptionally()) {
+                loaded.add(partition.join());
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Search every partition in parallel and merge the per-partition top-k. Partitions that are
+     * still opening are waited for and unloaded ones are opened; one that fails to open is
+     * logged and left out.
+     */
+    public CompletableFuture<List<VectorSearchResult>> searchAll(float[] queryEmbedding, int limit) {
+        return ready.thenCompose(ignored -> {
+            List<CompletableFuture<List<VectorSearchResult>>> searches = new ArrayList<>();
+            for (String key : partitionKeys()) {
+                searches.add(open(key)
+                        .thenCompose(partition -> partition.search(queryEmbedding, limit))
+                        .exceptionally(e -> {
+                            logger.log(Level.WARNING, "Skipped vector partition " + key + " in global search", e);
+                            return List.of();
+                        }));
+            }
+            return CompletableFuture.allOf(searches.toArray(new CompletableFuture<?>[0])).thenApply(v -> {
+                List<VectorSearchResult> merged = new ArrayList<>();
+                for (CompletableFuture<List<VectorSearchResult>> search : searches) {
+                    merged.addAll(search.join());
+                }
+                merged.sort(Comparator.comparingDouble(VectorSearchResult::score).reversed());
+                return merged.size() > limit ? new ArrayList<>(merged.subList(0, limit)) : merged;
+            });
+        });
+    }
+
+    /**
+     * @return vectors across loaded partitions
+     */
+    public int size() {
+        return loadedPartitions().stream().mapToInt(VectorIndex::size).sum();
+    }
+
+    /**
+     * Metrics summed (or, for ages and latencies, combined) across loaded partitions.
+     */
+    public VectorIndexStats getStats() {
+        long epoch = 0;
+        int snapshotSize = 0;
+        long snapshotAgeMillis = 0;
+        int pendingMutations = 0;
+        long publishCount = 0;
+        long lastPublishMillis = 0;
+        int tombstones = 0;
+        long searchCount = 0;
+        long searchMicros = 0;
+        double compressedRecall = Double.NaN;
+        for (VectorIndex partition : loadedPartitions()) {
+            VectorIndexStats stats = partition.getStats();
+            epoch += stats.epoch();
+            snapshotSize += stats.snapshotSize();
+            snapshotAgeMillis = Math.max(snapshotAgeMillis, stats.snapshotAgeMillis());
+            pendingMutations += stats.pendingMutations();
+            publishCount += stats.publishCount();
+            lastPublishMillis = Math.max(lastPublishMillis, stats.lastPublishMillis());
+            tombstones += stats.tombstones();
+            searchCount += stats.searchCount();
+            searchMicros += stats.avgSearchMicros() * stats.searchCount();
+            if (!Double.isNaN(stats.compressedRecall())) {
+                compressedRecall = Double.isNaN(compressedRecall)
+                        ? stats.compressedRecall() : Math.min(compressedRecall, stats.compressedRecall());
+            }
+        }
+        return new VectorIndexStats(epoch, snapshotSize, snapshotAgeMillis, pendingMutations, publishCount,
+                lastPublishMillis, tombstones, searchCount, searchCount == 0 ? 0 : searchMicros / searchCount,
+                compressedRecall);
+    }
+
+    /**
+     * Purge every loaded partition and delete the files of partitions that are not loaded.
+     */
+    public CompletableFuture<Void> purgeAll() {
+        List<CompletableFuture<Void>> purges = new ArrayList<>();
+        Set<Path> loadedDirs = new HashSet<>();
+        for (String key : partitions.keySet()) {
+            loadedDirs.add(partitionDir(key));
+            purges.add(ready.thenCompose(v -> open(key)).thenCompose(VectorIndex::purgeAll));
+        }
+        return CompletableFuture.allOf(purges.toArray(new CompletableFuture<?>[0])).thenRun(() -> {
+            try (DirectoryStream<Path> dirs = Files.newDirectoryStream(dataDir.resolve(PARTITIONS_DIR))) {
+                for (Path dir : dirs) {
+                    if (!loadedDirs.contains(dir)) {
+                        deleteRecursively(dir);
+                    }
+                }
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Failed to delete unloaded vector partitions", e);
+            }
+        });
+    }
+
+    public void shutdown() {
+        for (VectorIndex partition : loadedPartitions()) {
+            partition.shutdown();
+        }
+        partitions.clear();
+    }
+
+    /**
+     * Copy every live vector of the pre-partitioning global index (store or, before the store existed,
+     * the graph file, plus the unflushed log) into its world's partition, then delete the global
+     * files. Vectors without a world are orphans and dropped.
+     */
+    private void migrateLegacyIndex(Map<Integer, String> worldsByOrdinal) throws IOException {
+        logger.info("Splitting global vector index into per-world partitions...");
+        // Latest logged vector per ordinal; null marks a logged removal
+        Map<Integer, float[]> logged = new HashMap<>();
+        // Replay only; the fresh segment it opens is deleted below
+        VectorWal.open(dataDir, dimension, new VectorWal.Replay() {
+            @Override
+            public void add(int databaseOrdinal, float[] vector) {
+                logged.put(databaseOrdinal, vector.clone());
+            }
+
+            @Override
+            public void remove(int databaseOrdinal) {
+                logged.put(databaseOrdinal, null);
+            }
+        }).close();
+
+        int[] counts = new int[2]; // migrated, orphaned
+        List<CompletableFuture<Void>> batch = new ArrayList<>();
+        try {
+            if (Files.exists(dataDir.resolve("vectors.dat"))) {
+                migrateStoreVectors(logged, worldsByOrdinal, batch, counts);
+            } else {
+                migrateGraphVectors(logged, worldsByOrdinal, batch, counts);
+            }
+            for (Map.Entry<Integer, float[]> entry : logged.entrySet()) {
+                if (entry.getValue() != null) {
+                    migrateVector(entry.getKey(), entry.getValue(), worldsByOrdinal, batch, counts);
+                }
+            }
+            CompletableFuture.allOf(batch.toArray(new CompletableFuture<?>[0])).join();
+        } catch (IOException | RuntimeException e) {
+            logger.warning("Global vector index is unreadable and was discarded, containers must be re-indexed: "
+                    + e.getMessage());
+        }
+
+        for (String file : LEGACY_FILES) {
+            Files.deleteIfExists(dataDir.resolve(file));
+        }
+        try (Stream<Path> files = Files.list(dataDir)) {
+            for (Path file : files.filter(path -> path.getFileName().toString().startsWith("vectors.wal.")).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+        logger.info("Moved " + counts[0] + " vectors into " + partitions.size() + " world partitions ("
+                + counts[1] + " without a world dropped)");
+    }
+
+    private void migrateStoreVectors(Map<Integer, float[]> logged, Map<Integer, String> worldsByOrdinal,
+                                     List<CompletableFuture<Void>> batch, int[] counts) throws IOException {
+        try (MappedVectorStore store = MappedVectorStore.open(dataDir.resolve("vectors.dat"), dimension)) {
+            for (int slot = 0; slot < store.size(); slot++) {
+                int owner = store.owner(slot);
+                if (owner >= 0 && !logged.containsKey(owner)) {
+                    float[] vector = new float[dimension];
+                    store.read(slot, vector);
+                    migrateVector(owner, vector, worldsByOrdinal, batch, counts);
+                }
+            }
+        }
+    }
+
+    /**
+     * Read the vectors embedded in vectors.idx, for a global index written before vectors.dat existed.
+     */
+    private void migrateGraphVectors(Map<Integer, float[]> logged, Map<Integer, String> worldsByOrdinal,
+                                     List<CompletableFuture<Void>> batch, int[] counts) throws IOException {
+        Path indexPath = dataDir.resolve("vectors.idx");
+        int[] internalToDatabase = OrdinalMappingFile.read(dataDir.resolve("ordinals.map"), Files.size(indexPath));
+        try (ReaderSupplier readerSupplier = ReaderSupplierFactory.open(indexPath);
+             OnDiskGraphIndex graph = OnDiskGraphIndex.load(readerSupplier);
+             var view = graph.getView()) {
+            if (graph.getDimension() != dimension) {
+                throw new IOException("graph has dimension " + graph.getDimension() + ", expected " + dimension);
+            }
+            for (int internalOrdinal = 0; internalOrdinal < internalToDatabase.length; internalOrdinal++) {
+                int owner = internalToDatabase[internalOrdinal];
+                if (logged.containsKey(owner)) {
+                    continue;
+                }
+                VectorFloat<?> stored = view.getVector(internalOrdinal);
+                float[] vector = new float[dimension];
+                for (int i = 0; i < dimension; i++) {
+                    vector[i] = stored.get(i);
+                }
+                migrateVector(owner, vector, worldsByOrdinal, batch, counts);
+            }
+        }
+    }
+
+    private void migrateVector(int ordinal, float[] vector, Map<Integer, String> worldsByOrdinal,
+                               List<CompletableFuture<Void>> batch, int[] counts) {
+        String world = worldsByOrdinal.get(ordinal);
+        if (world == null) {
+            counts[1]++;
+            return;
+        }
+        batch.add(open(partitionKey(world)).thenCompose(index -> index.addVector(ordinal, vector)));
+        counts[0]++;
+        if (batch.size() >= MIGRATION_BATCH) {
+            CompletableFuture.allOf(batch.toArray(new CompletableFuture<?>[0])).join();
+            batch.clear();
+        }
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        try (Stream<Path> walk = Files.walk(path)) {
+            for (Path entry : walk.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(entry);
+            }
+        }
+    }
+}
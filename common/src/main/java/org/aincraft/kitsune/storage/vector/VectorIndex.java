@@ -1,5 +1,6 @@
 package org.aincraft.kitsune.storage.vector;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -24,14 +25,15 @@ public interface VectorIndex {
 
     /**
      * Shut down the vector index and release all resources.
-     * Should save any pending state to disk before returning.
+     * Should save any pending state to disk before returning. Adds and removes submitted before
+     * this call are applied; ones submitted after fail.
      */
     void shutdown();
 
     /**
      * Add or update a vector in the index with a given ordinal ID.
      * The ordinal serves as a unique node identifier in the graph index.
-     * Marks the index as dirty, requiring rebuild before next search.
+     * Marks the index as dirty; the vector becomes searchable once the next snapshot is published.
      *
      * @param ordinal unique integer identifier for this vector
      * @param embedding the float array containing the vector data
@@ -41,7 +43,7 @@ public interface VectorIndex {
 
     /**
      * Remove a vector from the index by its ordinal ID.
-     * Marks the index as dirty, requiring rebuild before next search.
+     * Marks the index as dirty; searches stop returning it once the next snapshot is published.
      *
      * @param ordinal unique identifier of the vector to remove
      * @return CompletableFuture that completes when the vector is removed
@@ -51,7 +53,7 @@ public interface VectorIndex {
     /**
      * Search for vectors similar to the query embedding.
      * Returns results sorted by similarity score (highest first).
-     * Automatically rebuilds the index if marked dirty before searching.
+     * Runs against the most recently published snapshot and never waits for a rebuild.
      *
      * @param queryEmbedding the query vector to search for
      * @param limit maximum number of results to return
@@ -71,6 +73,18 @@ public interface VectorIndex {
      */
     CompletableFuture<List<VectorSearchResult>> searchWithFilter(float[] queryEmbedding, int limit, Set<Integer> allowedOrdinals);
 
+    /**
+     * Score the query against every listed vector and return the best matches (brute force, exact).
+     * Cheaper than a filtered graph search when only a few vectors are allowed.
+     * Reads current vectors rather than the published snapshot; unknown ordinals are skipped.
+     *
+     * @param queryEmbedding the query vector to search for
+     * @param limit maximum number of results to return
+     * @param ordinals ordinal IDs to score
+     * @return CompletableFuture with list of VectorSearchResult ordered by score
+     */
+    CompletableFuture<List<VectorSearchResult>> exactSearch(float[] queryEmbedding, int limit, Collection<Integer> ordinals);
+
     /**
      * Get a vector by its ordinal ID for reranking or other operations.
      * Returns the raw float array representation.
@@ -81,14 +95,34 @@ public interface VectorIndex {
     Optional<float[]> getVector(int ordinal);
 
     /**
-     * Rebuild the internal graph index after batch updates.
-     * Compacts the ordinal space to remove holes from deleted vectors.
-     * Must be called before searching if the index is marked dirty.
+     * Copy a uniform random sample of the stored vectors, e.g. to tune graph parameters on real data.
+     *
+     * @param maxCount maximum number of vectors to return
+     * @return sampled vectors, all of them if the index holds at most maxCount
+     */
+    List<float[]> sampleVectors(int maxCount);
+
+    /**
+     * Publish a searchable snapshot of every mutation so far and persist it, without waiting for
+     * the index's own schedule. Indexes that support incremental updates also compact away
+     * deleted vectors; others rebuild their graph. Searches keep using the previous snapshot
+     * until this completes.
      *
      * @return CompletableFuture that completes when rebuild is finished
      */
     CompletableFuture<Void> rebuildIndex();
 
+    /**
+     * Check whether this index makes additions and removals searchable on its own.
+     * When true, callers should not call rebuildIndex() after every mutation; the index
+     * keeps itself searchable and persists on its own schedule.
+     *
+     * @return true if mutations are published automatically, false if a rebuild is required
+     */
+    default boolean supportsIncrementalUpdates() {
+        return false;
+    }
+
     /**
      * Clear all vectors from the index and remove all persistent data.
      * Deletes the on-disk index file completely.
@@ -98,23 +132,28 @@ public interface VectorIndex {
     CompletableFuture<Void> purgeAll();
 
     /**
-     * Get the count of vectors currently in the index.
-     * Note: This is the total capacity, including empty slots from deletions.
-     * Check isDirty() to see if a rebuild would compact the space.
+     * Get the count of vectors currently in the index, including ones added since the last
+     * published snapshot and excluding removed ones.
      *
-     * @return number of vector slots in the index
+     * @return number of stored vectors
      */
     int size();
 
     /**
-     * Check if the index requires rebuilding due to changes.
-     * Returns true when vectors have been added/removed and the graph needs reconstruction.
-     * The search operation automatically rebuilds if dirty before searching.
+     * Check if the index has changes that are not yet searchable or not yet persisted.
+     * Returns true when vectors have been added/removed since the last published snapshot or checkpoint.
      *
      * @return true if index is marked dirty, false otherwise
      */
     boolean isDirty();
 
+    /**
+     * Get metrics for the published search snapshot: epoch, age, size and pending mutations.
+     *
+     * @return current snapshot statistics
+     */
+    VectorIndexStats getStats();
+
     /**
      * Get the dimension (length) of vectors stored in this index.
      *
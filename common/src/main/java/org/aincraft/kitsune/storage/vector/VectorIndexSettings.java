@@ -0,0 +1,53 @@
+package org.aincraft.kitsune.storage.vector;
+
+import org.aincraft.kitsune.config.KitsuneConfig;
+
+/**
+ * Tuning settings for JVectorIndex, read from the vector-index config section.
+ */
+public record VectorIndexSettings(
+    boolean incremental,            // update a live graph in place instead of rebuilding
+    double tombstoneThreshold,      // share of tombstoned nodes that triggers a background compaction
+    int checkpointIntervalSeconds,  // how often the live graph is written to disk and the WAL truncated (0 = never)
+    int walSyncIntervalMs,          // how often appended WAL records are fsynced
+    int maxStalenessMs,             // longest a mutation may stay invisible to searches
+    int maxPendingMutations,        // publish immediately once this many mutations are pending
+    boolean productQuantization,    // search on PQ codes and re-rank from disk (rebuild mode only)
+    int pqCompressionRatio,         // full vector bytes / PQ code bytes
+    int graphDegree,                // max neighbors per node
+    int constructionBeamWidth,      // candidates considered per insert while building the graph
+    double overflowFactor,          // degree overflow tolerated during construction before pruning
+    double alpha,                   // pruning diversity; higher keeps longer edges
+    int searchOverQuery             // candidates searched per requested result
+) {
+    public static VectorIndexSettings defaults() {
+        return new VectorIndexSettings(true, 0.2, 300, 100, 1000, 256, false, 16, 16, 100, 1.2, 1.2, 10);
+    }
+
+    /**
+     * Copy with different graph parameters, e.g. a candidate being tuned.
+     */
+    public VectorIndexSettings withGraph(int graphDegree, int constructionBeamWidth, int searchOverQuery) {
+        return new VectorIndexSettings(incremental, tombstoneThreshold, checkpointIntervalSeconds, walSyncIntervalMs,
+            maxStalenessMs, maxPendingMutations, productQuantization, pqCompressionRatio,
+            graphDegree, constructionBeamWidth, overflowFactor, alpha, searchOverQuery);
+    }
+
+    public static VectorIndexSettings fromConfig(KitsuneConfig config) {
+        return new VectorIndexSettings(
+            config.vectorIndexIncremental(),
+            config.vectorIndexTombstoneThreshold(),
+            config.vectorIndexCheckpointIntervalSeconds(),
+            config.vectorIndexWalSyncIntervalMs(),
+            config.vectorIndexMaxStalenessMs(),
+            config.vectorIndexMaxPendingMutations(),
+            "pq".equalsIgnoreCase(config.vectorIndexCompression()),
+            config.vectorIndexPqCompressionRatio(),
+            config.vectorIndexGraphDegree(),
+            config.vectorIndexConstructionBeamWidth(),
+            config.vectorIndexOverflowFactor(),
+            config.vectorIndexAlpha(),
+            config.vectorIndexSearchOverQuery()
+        );
+    }
+}
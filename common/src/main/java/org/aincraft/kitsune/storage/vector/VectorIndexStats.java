@@ -0,0 +1,28 @@
+package org.aincraft.kitsune.storage.vector;
+
+/**
+ * Point-in-time metrics for a vector index's published search snapshot.
+ *
+ * @param epoch number of the snapshot searches currently read (increments on every publish)
+ * @param snapshotSize vectors visible to searches in the current snapshot
+ * @param snapshotAgeMillis time since the current snapshot was published
+ * @param pendingMutations adds/removes applied since the current snapshot, not yet visible to searches
+ * @param publishCount snapshots published since startup
+ * @param lastPublishMillis duration of the most recent publish
+ * @param tombstones deleted nodes still present in the live graph
+ * @param searchCount searches served since startup
+ * @param avgSearchMicros mean search latency in microseconds
+ * @param compressedRecall sampled recall@10 of the compressed snapshot against exact search; NaN when uncompressed
+ */
+public record VectorIndexStats(
+    long epoch,
+    int snapshotSize,
+    long snapshotAgeMillis,
+    int pendingMutations,
+    long publishCount,
+    long lastPublishMillis,
+    int tombstones,
+    long searchCount,
+    long avgSearchMicros,
+    double compressedRecall
+) {}
@@ -0,0 +1,189 @@
+package org.aincraft.kitsune.storage.vector;
+
+import io.github.jbellis.jvector.graph.GraphIndexBuilder;
+import io.github.jbellis.jvector.graph.GraphSearcher;
+import io.github.jbellis.jvector.graph.ImmutableGraphIndex;
+import io.github.jbellis.jvector.graph.ListRandomAccessVectorValues;
+import io.github.jbellis.jvector.graph.RandomAccessVectorValues;
+import io.github.jbellis.jvector.graph.SearchResult;
+import io.github.jbellis.jvector.graph.similarity.DefaultSearchScoreProvider;
+import io.github.jbellis.jvector.util.Bits;
+import io.github.jbellis.jvector.vector.VectorSimilarityFunction;
+import io.github.jbellis.jvector.vector.VectorizationProvider;
+import io.github.jbellis.jvector.vector.types.VectorFloat;
+import io.github.jbellis.jvector.vector.types.VectorTypeSupport;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Picks JVectorIndex graph parameters by measurement instead of guesswork.
+ *
+ * Held-out sample vectors are the queries and the rest form the indexed set. Brute-force search
+ * gives the exact top-k for each query. Every combination of graph degree and construction beam
+ * width gets a graph built over the indexed set, and each graph is searched at every over-query
+ * factor. The cheapest combination that reaches the target recall wins - lowest median latency,
+ * then p99 (noisier over a few hundred queries), then build time; if none does, the one with the
+ * best recall.
+ */
+public final class VectorIndexTuner {
+
+    private static final VectorTypeSupport VTS = VectorizationProvider.getInstance().getVectorTypeSupport();
+
+    private static final int[] GRAPH_DEGREES = {8, 16, 24, 32};
+    private static final int[] BEAM_WIDTHS = {50, 100, 200};
+    private static final int[] OVER_QUERY_FACTORS = {1, 2, 4, 8, 16};
+
+    // Queries held out of the sample, and searches discarded before timing each graph
+    private static final int MAX_QUERIES = 200;
+    private static final int WARMUP_QUERIES = 20;
+
+    /**
+     * Measurements for one parameter combination.
+     */
+    public record TuningResult(int graphDegree, int beamWidth, int overQuery, double recall,
+                               double p50Millis, double p99Millis, long buildMillis) {
+    }
+
+    /**
+     * @param results every measured combination, in sweep order
+     * @param chosen the combination to use
+     * @param vectors size of the indexed set
+     * @param queries number of held-out queries
+     */
+    public record TuningReport(List<TuningResult> results, TuningResult chosen, int vectors, int queries) {
+    }
+
+    private final Logger logger;
+    private final VectorIndexSettings baseSettings;
+
+    /**
+     * @param baseSettings settings whose overflow factor and alpha the candidate graphs share
+     */
+    public VectorIndexTuner(Logger logger, VectorIndexSettings baseSettings) {
+        this.logger = logger;
+        this.baseSettings = baseSettings;
+    }
+
+    /**
+     * Run the sweep.
+     *
+     * @param sample real vectors, e.g. from {@link VectorIndex#sampleVectors(int)}
+     * @param k results per query that recall is measured at
+     * @param targetRecall recall@k the chosen combination must reach
+     * @throws IllegalArgumentException if the sample is too small to split into queries and data
+     */
+    public TuningReport tune(List<float[]> sample, int k, double targetRecall) {
+        int queryCount = Math.min(MAX_QUERIES, sample.size() / 10);
+        if (queryCount == 0 || sample.size() - queryCount < k) {
+            throw new IllegalArgumentException("Need at least " + Math.max(10, k + 1) + " vectors to tune, have " + sample.size());
+        }
+        int dimension = sample.get(0).length;
+        sample = new ArrayList<>(sample);
+        Collections.shuffle(sample, new Random(sample.size()));
+        List<VectorFloat<?>> queries = new ArrayList<>(queryCount);
+        List<VectorFloat<?>> data = new ArrayList<>(sample.size() - queryCount);
+        for (int i = 0; i < sample.size(); i++) {
+            (i < queryCount ? queries : data).add(VTS.createFloatVector(sample.get(i)));
+        }
+        RandomAccessVectorValues ravv = new ListRandomAccessVectorValues(data, dimension);
+
+        List<Set<Integer>> truth = new ArrayList<>(queryCount);
+        for (VectorFloat<?> query : queries) {
+            truth.add(exactTopK(ravv, query, k));
+        }
+        logger.info("Tuning vector index on " + data.size() + " vectors with " + queryCount + " queries (k=" + k + ")");
+
+        List<TuningResult> results = new ArrayList<>();
+        for (int degree : GRAPH_DEGREES) {
+            for (int beamWidth : BEAM_WIDTHS) {
+                VectorIndexSettings candidate = baseSettings.withGraph(degree, beamWidth, 1);
+                long buildStart = System.nanoTime();
+                try (GraphIndexBuilder builder = JVectorIndex.newGraphBuilder(ravv, dimension, candidate)) {
+                    ImmutableGraphIndex graph = builder.build(ravv);
+                    long buildMillis = (System.nanoTime() - buildStart) / 1_000_000;
+                    for (int overQuery : OVER_QUERY_FACTORS) {
+                        TuningResult result = measure(graph, ravv, queries, truth, k, degree, beamWidth, overQuery, buildMillis);
+                        results.add(result);
+                        logger.info(String.format("  degree=%d beam=%d overquery=%d recall@%d=%.3f p50=%.3fms p99=%.3fms build=%dms",
+                                degree, beamWidth, overQuery, k, result.recall(), result.p50Millis(), result.p99Millis(), buildMillis));
+                    }
+                } catch (IOException e) {
+                    throw new IllegalStateException("Failed to build tuning graph", e);
+                }
+            }
+        }
+
+        TuningResult chosen = results.stream()
+                .filter(result -> result.recall() >= targetRecall)
+                .min(Comparator.comparingDouble(TuningResult::p50Millis)
+                        .thenComparingDouble(TuningResult::p99Millis)
+                        .thenComparingLong(TuningResult::buildMillis))
+                .orElseGet(() -> results.stream().max(Comparator.comparingDouble(TuningResult::recall)).orElseThrow());
+        logger.info(String.format("Chose degree=%d beam=%d overquery=%d (recall@%d=%.3f, p50=%.3fms, p99=%.3fms)",
+                chosen.graphDegree(), chosen.beamWidth(), chosen.overQuery(), k, chosen.recall(),
+                chosen.p50Millis(), chosen.p99Millis()));
+        return new TuningReport(results, chosen, data.size(), queryCount);
+    }
+
+    private static TuningResult measure(ImmutableGraphIndex graph, RandomAccessVectorValues ravv,
+                                        List<VectorFloat<?>> queries, List<Set<Integer>> truth, int k,
+                                        int degree, int beamWidth, int overQuery, long buildMillis) throws IOException {
+        int searchLimit = Math.min(k * overQuery, ravv.size());
+        long[] latencies = new long[queries.size()];
+        int hits = 0;
+        try (GraphSearcher searcher = new GraphSearcher(graph)) {
+            for (int q = 0; q < Math.min(WARMUP_QUERIES, queries.size()); q++) {
+                search(searcher, ravv, queries.get(q), searchLimit);
+            }
+            for (int q = 0; q < queries.size(); q++) {
+                long start = System.nanoTime();
+                SearchResult result = search(searcher, ravv, queries.get(q), searchLimit);
+                latencies[q] = System.nanoTime() - start;
+                SearchResult.NodeScore[] nodes = result.getNodes();
+                for (int i = 0; i < Math.min(k, nodes.length); i++) {
+                    if (truth.get(q).contains(nodes[i].node)) {
+                        hits++;
+                    }
+                }
+            }
+        }
+        Arrays.sort(latencies);
+        return new TuningResult(degree, beamWidth, overQuery, (double) hits / (queries.size() * k),
+                latencies[latencies.length / 2] / 1_000_000.0,
+                latencies[(int) Math.min(latencies.length - 1, latencies.length * 0.99)] / 1_000_000.0,
+                buildMillis);
+    }
+
+    private static SearchResult search(GraphSearcher searcher, RandomAccessVectorValues ravv,
+                                       VectorFloat<?> query, int searchLimit) {
+        DefaultSearchScoreProvider ssp = DefaultSearchScoreProvider.exact(query, VectorSimilarityFunction.COSINE, ravv);
+        return searcher.search(ssp, searchLimit, searchLimit, 0.0f, 0.0f, Bits.ALL);
+    }
+
+    private static Set<Integer> exactTopK(RandomAccessVectorValues ravv, VectorFloat<?> query, int k) {
+        PriorityQueue<SearchResult.NodeScore> best = new PriorityQueue<>((a, b) -> Float.compare(a.score, b.score));
+        for (int node = 0; node < ravv.size(); node++) {
+            float score = VectorSimilarityFunction.COSINE.compare(query, ravv.getVector(node));
+            if (best.size() < k) {
+                best.add(new SearchResult.NodeScore(node, score));
+            } else if (score > best.peek().score) {
+                best.poll();
+                best.add(new SearchResult.NodeScore(node, score));
+            }
+        }
+        Set<Integer> truth = new HashSet<>();
+        for (SearchResult.NodeScore nodeScore : best) {
+            truth.add(nodeScore.node);
+        }
+        return truth;
+    }
+}
@@ -0,0 +1,228 @@
+package org.aincraft.kitsune.storage.vector;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead log of vector adds and removes, split into numbered segments
+ * (vectors.wal.&lt;n&gt;).
+ *
+ * Records go to the file as soon as they are appended, so they survive a process crash;
+ * {@link #sync()} fsyncs them in batches, bounding what a power loss can take. A checkpoint
+ * rotates to a new segment when it captures the index state and deletes the older segments once
+ * its files are durable. Replaying a segment that a checkpoint already covers is harmless because
+ * the last record for an ordinal always wins.
+ *
+ * Record layout (little endian): op byte, database ordinal, vector (adds only), CRC32 of the preceding bytes.
+ * A torn or corrupt record ends replay of its segment.
+ * All methods except sync() must be serialized by the caller.
+ */
+final class VectorWal implements Closeable {
+
+    private static final int MAGIC = 0x4B57414C; // "KWAL"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final String SEGMENT_PREFIX = "vectors.wal.";
+
+    private static final byte OP_ADD = 1;
+    private static final byte OP_REMOVE = 2;
+
+    /**
+     * Receives replayed records in log order.
+     */
+    interface Replay {
+        void add(int databaseOrdinal, float[] vector) throws IOException;
+
+        void remove(int databaseOrdinal) throws IOException;
+    }
+
+    private final Path dir;
+    private final int dimension;
+    private final ByteBuffer addRecord;
+    private final ByteBuffer removeRecord;
+    private final CRC32 crc = new CRC32();
+    private volatile FileChannel channel;
+    private long segment;
+    private volatile boolean unsynced;
+
+    private VectorWal(Path dir, int dimension) {
+        this.dir = dir;
+        this.dimension = dimension;
+        this.addRecord = ByteBuffer.allocate(1 + Integer.BYTES + dimension * Float.BYTES + Integer.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        this.removeRecord = ByteBuffer.allocate(1 + Integer.BYTES + Integer.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Replay every existing segment in order, then start a fresh segment for new records.
+     * Segments written for another dimension are skipped; segments without records are deleted.
+     */
+    static VectorWal open(Path dir, int dimension, Replay replay) throws IOException {
+        VectorWal wal = new VectorWal(dir, dimension);
+        List<Long> segments = wal.listSegments();
+        for (long existing : segments) {
+            if (wal.replaySegment(existing, replay) == 0) {
+                Files.deleteIfExists(wal.segmentPath(existing));
+            }
+        }
+        wal.segment = segments.isEmpty() ? 0 : segments.get(segments.size() - 1);
+        wal.startSegment();
+        return wal;
+    }
+
+    void appendAdd(int databaseOrdinal, float[] vector) throws IOException {
+        addRecord.clear();
+        addRecord.put(OP_ADD).putInt(databaseOrdinal);
+        addRecord.asFloatBuffer().put(vector, 0, dimension);
+        addRecord.position(1 + Integer.BYTES + dimension * Float.BYTES);
+        append(addRecord);
+    }
+
+    void appendRemove(int databaseOrdinal) throws IOException {
+        removeRecord.clear();
+        removeRecord.put(OP_REMOVE).putInt(databaseOrdinal);
+        append(removeRecord);
+    }
+
+    private void append(ByteBuffer record) throws IOException {
+        crc.reset();
+        crc.update(record.array(), 0, record.position());
+        record.putInt((int) crc.getValue());
+        record.flip();
+        while (record.hasRemaining()) {
+            channel.write(record);
+        }
+        unsynced = true;
+    }
+
+    /**
+     * Fsync records appended since the last sync. Safe to call from a background thread.
+     */
+    void sync() throws IOException {
+        if (!unsynced) {
+            return;
+        }
+        unsynced = false;
+        try {
+            channel.force(false);
+        } catch (ClosedChannelException e) {
+            // Rotated or closed concurrently; both force the segment before closing it
+        } catch (IOException e) {
+            unsynced = true;
+            throw e;
+        }
+    }
+
+    /**
+     * Close the current segment and continue in a new one.
+     *
+     * @return the last segment a checkpoint of the current state covers
+     */
+    long rotate() throws IOException {
+        channel.force(false);
+        long covered = segment;
+        FileChannel previous = channel;
+        startSegment();
+        previous.close();
+        return covered;
+    }
+
+    /**
+     * Delete segments a durable checkpoint has folded in.
+     */
+    void deleteThrough(long covered) throws IOException {
+        for (long existing : listSegments()) {
+            if (existing <= covered) {
+                Files.deleteIfExists(segmentPath(existing));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.force(false);
+        channel.close();
+    }
+
+    private void startSegment() throws IOException {
+        segment++;
+        channel = FileChannel.open(segmentPath(segment), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(dimension);
+        header.position(0);
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        channel.force(true);
+        unsynced = false;
+    }
+
+    /**
+     * @return number of records replayed
+     */
+    private int replaySegment(long number, Replay replay) throws IOException {
+        Path path = segmentPath(number);
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+        if (data.remaining() < HEADER_BYTES || data.getInt(0) != MAGIC
+                || data.getInt(4) != VERSION || data.getInt(8) != dimension) {
+            return 0;
+        }
+        data.position(HEADER_BYTES);
+        float[] vector = new float[dimension];
+        int records = 0;
+        while (data.remaining() >= removeRecord.capacity()) {
+            int start = data.position();
+            byte op = data.get(start);
+            int recordBytes = op == OP_ADD ? addRecord.capacity() : op == OP_REMOVE ? removeRecord.capacity() : -1;
+            if (recordBytes < 0 || data.remaining() < recordBytes) {
+                break;
+            }
+            crc.reset();
+            crc.update(data.array(), start, recordBytes - Integer.BYTES);
+            if (data.getInt(start + recordBytes - Integer.BYTES) != (int) crc.getValue()) {
+                break;
+            }
+            int databaseOrdinal = data.getInt(start + 1);
+            if (op == OP_ADD) {
+                data.position(start + 1 + Integer.BYTES);
+                data.asFloatBuffer().get(vector, 0, dimension);
+                replay.add(databaseOrdinal, vector);
+            } else {
+                replay.remove(databaseOrdinal);
+            }
+            data.position(start + recordBytes);
+            records++;
+        }
+        return records;
+    }
+
+    private List<Long> listSegments() throws IOException {
+        List<Long> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, SEGMENT_PREFIX + "*")) {
+            for (Path path : stream) {
+                try {
+                    segments.add(Long.parseLong(path.getFileName().toString().substring(SEGMENT_PREFIX.length())));
+                } catch (NumberFormatException ignored) {}
+            }
+        }
+        segments.sort(null);
+        return segments;
+    }
+
+    private Path segmentPath(long number) {
+        return dir.resolve(SEGMENT_PREFIX + number);
+    }
+}
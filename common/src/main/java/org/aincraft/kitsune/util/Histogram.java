@@ -0,0 +1,65 @@
+package org.aincraft.kitsune.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts of non-negative values in power-of-two buckets: bucket 0 holds values up to 1 and bucket i
+ * values in (2^(i-1), 2^i]. Recording is lock-free; a snapshot taken while values are recorded may
+ * be off by those values.
+ */
+public final class Histogram {
+
+    private static final int BUCKETS = 48;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+
+    /**
+     * @param counts values per bucket
+     */
+    public record Snapshot(long[] counts, long count, long sum) {
+
+        public double mean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * Upper bound of the bucket holding the given quantile, or 0 if nothing was recorded.
+         *
+         * @param quantile between 0 and 1
+         */
+        public long percentile(double quantile) {
+            long rank = (long) Math.ceil(quantile * count);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen > 0 && seen >= rank) {
+                    return upperBound(i);
+                }
+            }
+            return 0;
+        }
+    }
+
+    public void record(long value) {
+        long v = Math.max(0, value);
+        int bucket = v <= 1 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(v - 1));
+        counts.incrementAndGet(bucket);
+        sum.add(v);
+    }
+
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            count += copy[i];
+        }
+        return new Snapshot(copy, count, sum.sum());
+    }
+
+    public static long upperBound(int bucket) {
+        return 1L << bucket;
+    }
+}
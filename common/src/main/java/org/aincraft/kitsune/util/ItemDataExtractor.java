@@ -9,19 +9,24 @@ import java.util.List;
 import java.util.logging.Logger;
 import org.aincraft.kitsune.api.model.ContainerPath;
 import org.aincraft.kitsune.api.model.ContainerNode;
+import org.aincraft.kitsune.model.ItemFields;
 import org.jetbrains.annotations.Nullable;
 
 public final class ItemDataExtractor {
     private static final Gson GSON = new Gson();
+    // Stored items write displayName; the others are older payload shapes
+    private static final List<String> DISPLAY_NAME_KEYS = List.of("displayName", "display_name", "name");
 
     private ItemDataExtractor() {}
 
     /**
      * Parse JSON content and extract the first item object.
      * Supports both JsonObject and JsonArray formats.
+     *
+     * @throws com.google.gson.JsonParseException if the content is not JSON
      */
     @Nullable
-    private static JsonObject parseItemObject(String jsonContent) {
+    public static JsonObject parseItemObject(String jsonContent) {
         if (jsonContent == null || jsonContent.isEmpty()) return null;
         JsonElement elem = GSON.fromJson(jsonContent, JsonElement.class);
         if (elem == null) return null;
@@ -35,28 +40,46 @@ public final class ItemDataExtractor {
         return null;
     }
 
-    @Nullable
-    public static String extractDisplayName(String jsonContent, @Nullable Logger logger) {
+    /**
+     * Parse the stored JSON once and extract every field result rendering uses. Run when a chunk
+     * is written, never while rendering.
+     */
+    public static ItemFields extractFields(String jsonContent, @Nullable Logger logger) {
         try {
             JsonObject itemObj = parseItemObject(jsonContent);
             if (itemObj != null) {
-                if (itemObj.has("display_name")) {
-                    String displayName = itemObj.get("display_name").getAsString();
-                    if (displayName != null && !displayName.isEmpty()) {
-                        return displayName;
-                    }
-                }
+                int slot = itemObj.has("slot") ? itemObj.get("slot").getAsInt() : -1;
+                int amount = itemObj.has("amount") ? Math.max(itemObj.get("amount").getAsInt(), 1) : 1;
+                String material = itemObj.has("material") ? itemObj.get("material").getAsString() : null;
+                return new ItemFields(slot, amount, material, displayName(itemObj));
+            }
+        } catch (Exception e) {
+            logWarning(logger, "extractFields: " + e.getMessage());
+        }
+        return ItemFields.UNKNOWN;
+    }
 
-                if (itemObj.has("name")) {
-                    String name = itemObj.get("name").getAsString();
-                    if (name != null && !name.isEmpty()) {
-                        return name;
-                    }
+    private static String displayName(JsonObject itemObj) {
+        for (String key : DISPLAY_NAME_KEYS) {
+            if (itemObj.has(key)) {
+                String displayName = itemObj.get(key).getAsString();
+                if (displayName != null && !displayName.isEmpty()) {
+                    return displayName;
                 }
+            }
+        }
+        if (itemObj.has("material")) {
+            return formatMaterialName(itemObj.get("material").getAsString());
+        }
+        return "Unknown Item";
+    }
 
-                if (itemObj.has("material")) {
-                    return formatMaterialName(itemObj.get("material").getAsString());
-                }
+    @Nullable
+    public static String extractDisplayName(String jsonContent, @Nullable Logger logger) {
+        try {
+            JsonObject itemObj = parseItemObject(jsonContent);
+            if (itemObj != null) {
+                return displayName(itemObj);
             }
         } catch (Exception e) {
             logWarning(logger, "extractDisplayName: " + e.getMessage());
@@ -0,0 +1,113 @@
+package org.aincraft.kitsune.storage.metadata;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+class ItemPayloadCodecTest {
+
+    // Same settings as ItemSerializationLogic
+    private static final Gson GSON = new GsonBuilder().disableHtmlEscaping().create();
+
+    @Test
+    void decodesToTheOriginalJson() {
+        ItemDictionary dictionary = new ItemDictionary();
+        for (String json : new String[] {fullItem(), plainItem()}) {
+            byte[] payload = ItemPayloadCodec.encode(json, dictionary);
+            assertNotNull(payload, json);
+            assertEquals(json, ItemPayloadCodec.decode(payload, dictionary));
+        }
+    }
+
+    @Test
+    void decodesWithReloadedDictionary() {
+        ItemDictionary dictionary = new ItemDictionary();
+        byte[] payload = ItemPayloadCodec.encode(fullItem(), dictionary);
+
+        // What load() rebuilds from the item_dictionary rows: the same values under the same ids
+        ItemDictionary reloaded = new ItemDictionary();
+        for (int id = 0; dictionary.value(id) != null; id++) {
+            reloaded.id(dictionary.value(id));
+        }
+        assertEquals(fullItem(), ItemPayloadCodec.decode(payload, reloaded));
+        assertThrows(IllegalArgumentException.class, () -> ItemPayloadCodec.decode(payload, new ItemDictionary()));
+    }
+
+    @Test
+    void rejectsTruncatedPayload() {
+        ItemDictionary dictionary = new ItemDictionary();
+        byte[] payload = ItemPayloadCodec.encode(fullItem(), dictionary);
+        assertNotNull(payload);
+
+        for (int length = 0; length < payload.length; length++) {
+            byte[] truncated = Arrays.copyOf(payload, length);
+            assertThrows(IllegalArgumentException.class, () -> ItemPayloadCodec.decode(truncated, dictionary),
+                    "prefix of " + length + " bytes");
+        }
+    }
+
+    @Test
+    void leavesJsonItCannotReproduceAsText() {
+        ItemDictionary dictionary = new ItemDictionary();
+        JsonObject fractional = parse(fullItem());
+        fractional.getAsJsonObject("durability").addProperty("percent", 12.5);
+        JsonObject extraField = parse(plainItem());
+        extraField.addProperty("lore", "Forged in the nether");
+
+        assertNull(ItemPayloadCodec.encode(GSON.toJson(fractional), dictionary));
+        assertNull(ItemPayloadCodec.encode(GSON.toJson(extraField), dictionary));
+        assertNull(ItemPayloadCodec.encode("[1, 2]", dictionary));
+    }
+
+    @Test
+    void legacyTextIsNotMistakenForPayload() {
+        byte[] legacy = plainItem().getBytes(StandardCharsets.UTF_8);
+
+        assertThrows(IllegalArgumentException.class, () -> ItemPayloadCodec.decode(legacy, new ItemDictionary()));
+    }
+
+    private static String fullItem() {
+        JsonObject item = new JsonObject();
+        item.addProperty("material", "DIAMOND_SWORD");
+        item.addProperty("amount", 1);
+        item.addProperty("slot", 13);
+        item.addProperty("displayName", "Diamond Sword");
+        item.addProperty("customName", "Ëxcalibur <3");
+        JsonObject enchantments = new JsonObject();
+        enchantments.addProperty("sharpness", 5);
+        enchantments.addProperty("unbreaking", 3);
+        item.add("enchantments", enchantments);
+        JsonArray tags = new JsonArray();
+        tags.add("weapon");
+        tags.add("enchanted");
+        item.add("tags", tags);
+        JsonObject durability = new JsonObject();
+        durability.addProperty("current", 1500);
+        durability.addProperty("max", 1561);
+        durability.addProperty("percent", 96);
+        item.add("durability", durability);
+        return GSON.toJson(item);
+    }
+
+    private static String plainItem() {
+        JsonObject item = new JsonObject();
+        item.addProperty("material", "COBBLESTONE");
+        item.addProperty("amount", 64);
+        item.addProperty("slot", -1);
+        item.addProperty("displayName", "Cobblestone");
+        return GSON.toJson(item);
+    }
+
+    private static JsonObject parse(String json) {
+        return GSON.fromJson(json, JsonObject.class);
+    }
+}
@@ -0,0 +1,84 @@
+package org.aincraft.kitsune.storage.vector;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappedVectorStoreTest {
+
+    private static final int DIMENSION = 4;
+    private static final int CHUNK_SLOTS = 4096;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsBackSlotsAfterReopen() throws IOException {
+        Path path = dir.resolve("vectors.dat");
+        try (MappedVectorStore store = MappedVectorStore.open(path, DIMENSION)) {
+            store.ensureCapacity(3);
+            store.write(0, 10, new float[] {1, 2, 3, 4});
+            store.write(1, 11, new float[] {5, 6, 7, 8});
+            store.write(2, 12, new float[] {9, 9, 9, 9});
+            store.release(2);
+            store.force();
+        }
+
+        try (MappedVectorStore store = MappedVectorStore.open(path, DIMENSION)) {
+            assertEquals(CHUNK_SLOTS, store.size());
+            assertEquals(10, store.owner(0));
+            assertEquals(11, store.owner(1));
+            assertEquals(-1, store.owner(2));
+            assertEquals(-1, store.owner(3));
+            float[] vector = new float[DIMENSION];
+            store.read(1, vector);
+            assertArrayEquals(new float[] {5, 6, 7, 8}, vector);
+        }
+    }
+
+    @Test
+    void dropsChunkCutShortByCrash() throws IOException {
+        Path path = dir.resolve("vectors.dat");
+        try (MappedVectorStore store = MappedVectorStore.open(path, DIMENSION)) {
+            store.ensureCapacity(CHUNK_SLOTS + 1);
+            store.write(0, 1, new float[] {1, 1, 1, 1});
+            store.write(CHUNK_SLOTS, 2, new float[] {2, 2, 2, 2});
+            store.force();
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 100);
+        }
+
+        try (MappedVectorStore store = MappedVectorStore.open(path, DIMENSION)) {
+            assertEquals(CHUNK_SLOTS, store.size());
+            assertEquals(1, store.owner(0));
+            store.ensureCapacity(CHUNK_SLOTS + 1);
+            store.write(CHUNK_SLOTS, 3, new float[] {3, 3, 3, 3});
+            assertEquals(3, store.owner(CHUNK_SLOTS));
+        }
+    }
+
+    @Test
+    void rejectsOtherDimension() throws IOException {
+        Path path = dir.resolve("vectors.dat");
+        MappedVectorStore.open(path, DIMENSION).close();
+
+        assertThrows(IOException.class, () -> MappedVectorStore.open(path, DIMENSION * 2));
+    }
+
+    @Test
+    void rejectsUnrecognizedFormat() throws IOException {
+        Path path = dir.resolve("vectors.dat");
+        Files.write(path, new byte[128]);
+
+        assertThrows(IOException.class, () -> MappedVectorStore.open(path, DIMENSION));
+    }
+}
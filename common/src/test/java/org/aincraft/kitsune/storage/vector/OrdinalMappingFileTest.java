@@ -0,0 +1,66 @@
+package org.aincraft.kitsune.storage.vector;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class OrdinalMappingFileTest {
+
+    private static final long INDEX_BYTES = 12_345;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsBackWhatWasWritten() throws IOException {
+        Path path = dir.resolve("ordinals.map");
+        int[] mapping = {4, 8, 15, 16, 23, 42};
+        OrdinalMappingFile.write(path, mapping, INDEX_BYTES);
+
+        assertArrayEquals(mapping, OrdinalMappingFile.read(path, INDEX_BYTES));
+        assertFalse(Files.exists(dir.resolve("ordinals.map.tmp")));
+    }
+
+    @Test
+    void rejectsTruncatedFile() throws IOException {
+        Path path = dir.resolve("ordinals.map");
+        OrdinalMappingFile.write(path, new int[] {1, 2, 3, 4}, INDEX_BYTES);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 2);
+        }
+
+        assertThrows(IOException.class, () -> OrdinalMappingFile.read(path, INDEX_BYTES));
+    }
+
+    @Test
+    void rejectsMappingOfAnotherGraphFile() throws IOException {
+        Path path = dir.resolve("ordinals.map");
+        OrdinalMappingFile.write(path, new int[] {1, 2, 3}, INDEX_BYTES);
+
+        assertThrows(IOException.class, () -> OrdinalMappingFile.read(path, INDEX_BYTES + 1));
+    }
+
+    @Test
+    void readsLegacyTextFormat() throws IOException {
+        Path shortFile = dir.resolve("short.map");
+        Files.writeString(shortFile, "3\n1\n\n2\n");
+        assertArrayEquals(new int[] {3, 1, 2}, OrdinalMappingFile.read(shortFile, INDEX_BYTES));
+
+        // Past the binary header length, so the magic check has to tell the formats apart
+        int[] mapping = IntStream.range(100, 150).toArray();
+        Path longFile = dir.resolve("long.map");
+        Files.writeString(longFile, IntStream.of(mapping).mapToObj(Integer::toString)
+                .collect(Collectors.joining("\n", "", "\n")));
+        assertArrayEquals(mapping, OrdinalMappingFile.read(longFile, INDEX_BYTES));
+    }
+}
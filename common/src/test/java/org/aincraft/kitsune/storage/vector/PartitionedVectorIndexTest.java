@@ -0,0 +1,104 @@
+package org.aincraft.kitsune.storage.vector;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.jbellis.jvector.graph.GraphIndexBuilder;
+import io.github.jbellis.jvector.graph.ImmutableGraphIndex;
+import io.github.jbellis.jvector.graph.ListRandomAccessVectorValues;
+import io.github.jbellis.jvector.graph.disk.OnDiskGraphIndex;
+import io.github.jbellis.jvector.vector.VectorizationProvider;
+import io.github.jbellis.jvector.vector.types.VectorFloat;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.logging.Logger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PartitionedVectorIndexTest {
+
+    private static final Logger LOGGER = Logger.getLogger(PartitionedVectorIndexTest.class.getName());
+    private static final int DIMENSION = 16;
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void upgradesBaselineLayoutIntoWorldPartitions() throws Exception {
+        // The first releases kept one global graph (vectors.idx) and a text ordinal mapping in the data folder
+        Random random = new Random(7);
+        int[] dbOrdinals = {3, 5, 8, 13, 21, 34};
+        List<VectorFloat<?>> vectors = new ArrayList<>();
+        float[][] values = new float[dbOrdinals.length][];
+        for (int i = 0; i < dbOrdinals.length; i++) {
+            values[i] = randomVector(random);
+            vectors.add(VectorizationProvider.getInstance().getVectorTypeSupport().createFloatVector(values[i]));
+        }
+        ListRandomAccessVectorValues ravv = new ListRandomAccessVectorValues(vectors, DIMENSION);
+        try (GraphIndexBuilder builder = JVectorIndex.newGraphBuilder(ravv, DIMENSION, VectorIndexSettings.defaults())) {
+            ImmutableGraphIndex graph = builder.build(ravv);
+            OnDiskGraphIndex.write(graph, ravv, dataDir.resolve("vectors.idx"));
+        }
+        StringBuilder mapping = new StringBuilder();
+        for (int dbOrdinal : dbOrdinals) {
+            mapping.append(dbOrdinal).append('\n');
+        }
+        Files.writeString(dataDir.resolve("ordinals.map"), mapping);
+
+        Map<Integer, String> worlds = new HashMap<>();
+        worlds.put(3, "world");
+        worlds.put(5, "world");
+        worlds.put(8, "world_nether");
+        worlds.put(13, "world");
+        worlds.put(21, "world_nether");
+        // 34 has no chunk left and is dropped
+
+        PartitionedVectorIndex index = new PartitionedVectorIndex(LOGGER, dataDir, DIMENSION,
+                dir -> new JVectorIndex(LOGGER, dir, DIMENSION, VectorIndexSettings.defaults()));
+        try {
+            index.initialize(() -> worlds);
+
+            assertFalse(Files.exists(dataDir.resolve("vectors.idx")));
+            assertFalse(Files.exists(dataDir.resolve("ordinals.map")));
+            assertTrue(Files.isDirectory(dataDir.resolve("partitions").resolve("world")));
+
+            VectorIndex overworld = index.partition("world").join();
+            VectorIndex nether = index.partition("world_nether").join();
+            assertEquals(3, overworld.size());
+            assertEquals(2, nether.size());
+
+            overworld.rebuildIndex().join();
+            List<VectorSearchResult> hits = overworld.search(values[3], 1).join();
+            assertEquals(13, hits.get(0).ordinal());
+            assertTrue(overworld.getVector(34).isEmpty());
+        } finally {
+            index.shutdown();
+        }
+
+        // Migrated once: reopening reads the partitions and finds nothing left to split
+        PartitionedVectorIndex reopened = new PartitionedVectorIndex(LOGGER, dataDir, DIMENSION,
+                dir -> new JVectorIndex(LOGGER, dir, DIMENSION, VectorIndexSettings.defaults()));
+        try {
+            reopened.initialize(() -> {
+                throw new AssertionError("Nothing left to migrate");
+            });
+            assertEquals(2, reopened.partition("world_nether").join().size());
+        } finally {
+            reopened.shutdown();
+        }
+    }
+
+    private static float[] randomVector(Random random) {
+        float[] vector = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = random.nextFloat() * 2 - 1;
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,116 @@
+package org.aincraft.kitsune.storage.vector;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class VectorWalTest {
+
+    private static final int DIMENSION = 4;
+    // op byte, ordinal, vector, CRC
+    private static final int ADD_BYTES = 1 + Integer.BYTES + DIMENSION * Float.BYTES + Integer.BYTES;
+    private static final int REMOVE_BYTES = 1 + Integer.BYTES + Integer.BYTES;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replaysRecordsInOrderAfterReopen() throws IOException {
+        try (VectorWal wal = VectorWal.open(dir, DIMENSION, new Recorder())) {
+            wal.appendAdd(7, new float[] {1, 2, 3, 4});
+            wal.appendAdd(9, new float[] {5, 6, 7, 8});
+            wal.appendRemove(7);
+        }
+
+        Recorder replayed = new Recorder();
+        VectorWal.open(dir, DIMENSION, replayed).close();
+        assertEquals(List.of("add 7 [1.0, 2.0, 3.0, 4.0]", "add 9 [5.0, 6.0, 7.0, 8.0]", "remove 7"),
+                replayed.records);
+    }
+
+    @Test
+    void tornTailEndsReplayAtLastCompleteRecord() throws IOException {
+        try (VectorWal wal = VectorWal.open(dir, DIMENSION, new Recorder())) {
+            wal.appendAdd(1, new float[] {1, 1, 1, 1});
+            wal.appendAdd(2, new float[] {2, 2, 2, 2});
+        }
+        Path segment = dir.resolve("vectors.wal.1");
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - ADD_BYTES / 2);
+        }
+
+        Recorder replayed = new Recorder();
+        VectorWal.open(dir, DIMENSION, replayed).close();
+        assertEquals(List.of("add 1 [1.0, 1.0, 1.0, 1.0]"), replayed.records);
+    }
+
+    @Test
+    void corruptRecordEndsReplay() throws IOException {
+        try (VectorWal wal = VectorWal.open(dir, DIMENSION, new Recorder())) {
+            wal.appendAdd(1, new float[] {1, 1, 1, 1});
+            wal.appendAdd(2, new float[] {2, 2, 2, 2});
+            wal.appendRemove(1);
+        }
+        Path segment = dir.resolve("vectors.wal.1");
+        byte[] bytes = Files.readAllBytes(segment);
+        // Flip a vector byte of the second record (followed by the remove record) so its CRC no longer matches
+        int secondRecord = bytes.length - REMOVE_BYTES - ADD_BYTES;
+        bytes[secondRecord + 1 + Integer.BYTES] ^= 0x10;
+        Files.write(segment, bytes);
+
+        Recorder replayed = new Recorder();
+        VectorWal.open(dir, DIMENSION, replayed).close();
+        assertEquals(List.of("add 1 [1.0, 1.0, 1.0, 1.0]"), replayed.records);
+    }
+
+    @Test
+    void skipsAndDeletesSegmentsOfAnotherDimension() throws IOException {
+        try (VectorWal wal = VectorWal.open(dir, DIMENSION * 2, new Recorder())) {
+            wal.appendAdd(1, new float[DIMENSION * 2]);
+        }
+
+        Recorder replayed = new Recorder();
+        VectorWal.open(dir, DIMENSION, replayed).close();
+        assertTrue(replayed.records.isEmpty());
+        assertFalse(Files.exists(dir.resolve("vectors.wal.1")));
+    }
+
+    @Test
+    void deleteThroughDropsCheckpointedSegments() throws IOException {
+        try (VectorWal wal = VectorWal.open(dir, DIMENSION, new Recorder())) {
+            wal.appendAdd(1, new float[] {1, 1, 1, 1});
+            long covered = wal.rotate();
+            wal.appendAdd(2, new float[] {2, 2, 2, 2});
+            wal.deleteThrough(covered);
+        }
+
+        Recorder replayed = new Recorder();
+        VectorWal.open(dir, DIMENSION, replayed).close();
+        assertEquals(List.of("add 2 [2.0, 2.0, 2.0, 2.0]"), replayed.records);
+    }
+
+    private static final class Recorder implements VectorWal.Replay {
+        final List<String> records = new ArrayList<>();
+
+        @Override
+        public void add(int databaseOrdinal, float[] vector) {
+            records.add("add " + databaseOrdinal + " " + Arrays.toString(vector));
+        }
+
+        @Override
+        public void remove(int databaseOrdinal) {
+            records.add("remove " + databaseOrdinal);
+        }
+    }
+}